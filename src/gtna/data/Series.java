@@ -37,6 +37,7 @@ package gtna.data;
 
 import gtna.graph.Graph;
 import gtna.io.GraphWriter;
+import gtna.io.Output;
 import gtna.metrics.Metric;
 import gtna.networks.Network;
 import gtna.transformation.Transformation;
@@ -47,6 +48,11 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class Series {
 	private Network network;
@@ -180,11 +186,24 @@ public class Series {
 				folder.mkdirs();
 			}
 		}
-		for (int run = 0; run < times; run++) {
-			if (!Series.generateRun(s, run)) {
-				System.err.println("error in run " + run);
+		int threads = Math.min(Config.getInt("PARALLEL_SERIES"), times);
+		if (threads > 1 && !s.getNetwork().isParallelizable()) {
+			System.out.println("runs of " + s.getFolder()
+					+ " are executed sequentially (transformations that"
+					+ " cannot be executed in parallel)");
+			threads = 1;
+		}
+		if (threads > 1) {
+			if (!Series.generateRuns(s, times, threads)) {
 				return null;
 			}
+		} else {
+			for (int run = 0; run < times; run++) {
+				if (!Series.generateRun(s, run, s.getNetwork(), s.getMetrics())) {
+					System.err.println("error in run " + run);
+					return null;
+				}
+			}
 		}
 		Timer timerAggregation = new Timer("\n===> " + s.getFolder());
 		boolean success = Aggregation.aggregate(s);
@@ -197,20 +216,79 @@ public class Series {
 		return null;
 	}
 
-	private static boolean generateRun(Series s, int run) {
-		System.out.println("\n" + run + ":");
+	/**
+	 * executes the given number of runs on a pool of the given number of
+	 * threads and returns once all of them are finished, each run works on
+	 * its own copies of the network, its transformations and the metrics and
+	 * its output is written as one block after the run is done
+	 * 
+	 * @param s
+	 *            series to generate the runs for
+	 * @param times
+	 *            number of runs
+	 * @param threads
+	 *            number of runs executed in parallel
+	 * @return true if all runs were successful
+	 */
+	private static boolean generateRuns(final Series s, int times, int threads) {
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		ArrayList<Future<Boolean>> results = new ArrayList<Future<Boolean>>(
+				times);
+		for (int run = 0; run < times; run++) {
+			final int r = run;
+			results.add(pool.submit(new Callable<Boolean>() {
+				public Boolean call() {
+					Network network = s.getNetwork().clone();
+					Metric[] metrics = new Metric[s.getMetrics().length];
+					for (int i = 0; i < metrics.length; i++) {
+						metrics[i] = s.getMetrics()[i].clone();
+					}
+					Output.startBuffer();
+					try {
+						return Series.generateRun(s, r, network, metrics);
+					} finally {
+						Output.flushBuffer();
+					}
+				}
+			}));
+		}
+		pool.shutdown();
+		boolean success = true;
+		for (int run = 0; run < times; run++) {
+			try {
+				if (!results.get(run).get()) {
+					System.err.println("error in run " + run);
+					success = false;
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				e.printStackTrace();
+				success = false;
+				break;
+			} catch (ExecutionException e) {
+				System.err.println("error in run " + run);
+				e.getCause().printStackTrace();
+				success = false;
+			}
+		}
+		return success;
+	}
+
+	private static boolean generateRun(Series s, int run, Network network,
+			Metric[] metricList) {
+		Output.writeln("\n" + run + ":");
 		ArrayList<Single> runtimes = new ArrayList<Single>();
 		File folder = new File(s.getSeriesFolderRun(run));
 		if (folder.exists() && Config.getBoolean("SKIP_EXISTING_DATA_FOLDERS")) {
-			System.out.println("skipping");
+			Output.writeln("skipping");
 			return true;
 		}
-		Timer timer = new Timer("G: " + s.getNetwork().getDescriptionShort());
-		Graph g = s.getNetwork().generate();
+		Timer timer = new Timer("G: " + network.getDescriptionShort());
+		Graph g = network.generate(run);
 		timer.end();
 		runtimes.add(new Single("G", timer.getRuntime()));
-		if (s.getNetwork().getTransformations() != null) {
-			for (Transformation t : s.getNetwork().getTransformations()) {
+		if (network.getTransformations() != null) {
+			for (Transformation t : network.getTransformations()) {
 				if (t.applicable(g)) {
 					timer = new Timer("T: " + t.getDescriptionShort());
 					for (int i = 0; i < t.getTimes(); i++) {
@@ -220,7 +298,7 @@ public class Series {
 					runtimes.add(new Single(t.getFolderName(), timer
 							.getRuntime()));
 				} else {
-					System.out.println("T: " + t.getDescriptionShort()
+					Output.writeln("T: " + t.getDescriptionShort()
 							+ " not applicable");
 				}
 			}
@@ -242,12 +320,12 @@ public class Series {
 				p.append(", " + gp);
 			}
 		}
-		System.out.println("P: " + p.toString());
+		Output.writeln("P: " + p.toString());
 		HashMap<String, Metric> metrics = new HashMap<String, Metric>();
-		for (Metric m : s.getMetrics()) {
+		for (Metric m : metricList) {
 			folder = new File(s.getMetricFolder(run, m));
-			if (!m.applicable(g, s.getNetwork(), metrics)) {
-				System.out.println("M: " + m.getDescriptionShort()
+			if (!m.applicable(g, network, metrics)) {
+				Output.writeln("M: " + m.getDescriptionShort()
 						+ " not applicable");
 				continue;
 			}
@@ -255,7 +333,7 @@ public class Series {
 				folder.mkdirs();
 			}
 			timer = new Timer("M: " + m.getDescriptionShort());
-			m.computeData(g, s.getNetwork(), metrics);
+			m.computeData(g, network, metrics);
 			timer.end();
 			runtimes.add(new Single(m.getFolderName(), timer.getRuntime()));
 			m.writeData(s.getMetricFolder(run, m));
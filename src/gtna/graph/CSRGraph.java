@@ -0,0 +1,263 @@
+/* ===========================================================
+ * GTNA : Graph-Theoretic Network Analyzer
+ * ===========================================================
+ *
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors
+ *
+ * Project Info:  http://www.p2p.tu-darmstadt.de/research/gtna/
+ *
+ * GTNA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GTNA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ---------------------------------------
+ * CSRGraph.java
+ * ---------------------------------------
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors 
+ *
+ * Original Author: agent;
+ * Contributors:    -;
+ *
+ * Changes since 2011-05-17
+ * ---------------------------------------
+ *
+ */
+package gtna.graph;
+
+import java.util.Arrays;
+
+/**
+ * Compressed-sparse-row representation of the adjacency of a graph.
+ *
+ * The outgoing edges of node i are stored in
+ * outTargets[outOffsets[i]..outOffsets[i+1]), the incoming edges in
+ * inTargets[inOffsets[i]..inOffsets[i+1]). The targets of each row are sorted
+ * in ascending order so that edge lookups can be performed using a binary
+ * search.
+ *
+ * In contrast to an array of Node objects, the complete adjacency is held in
+ * four int arrays, i.e., there is no per-node object overhead. Metrics can
+ * iterate over the neighbors of a node without touching any Node object:
+ *
+ * <pre>
+ * for (int j = csr.outStart(i); j &lt; csr.outEnd(i); j++) {
+ * 	int neighbor = csr.getOutTargets()[j];
+ * }
+ * </pre>
+ *
+ * @author agent
+ *
+ */
+public class CSRGraph {
+	private int[] outOffsets;
+
+	private int[] outTargets;
+
+	private int[] inOffsets;
+
+	private int[] inTargets;
+
+	/**
+	 * creates a CSR graph from the given arrays, the targets of each row are
+	 * expected to be sorted
+	 *
+	 * @param outOffsets
+	 *            offsets of the outgoing edges (length n+1)
+	 * @param outTargets
+	 *            targets of the outgoing edges (length E)
+	 * @param inOffsets
+	 *            offsets of the incoming edges (length n+1)
+	 * @param inTargets
+	 *            sources of the incoming edges (length E)
+	 */
+	public CSRGraph(int[] outOffsets, int[] outTargets, int[] inOffsets,
+			int[] inTargets) {
+		this.outOffsets = outOffsets;
+		this.outTargets = outTargets;
+		this.inOffsets = inOffsets;
+		this.inTargets = inTargets;
+	}
+
+	/**
+	 * creates a CSR graph from the outgoing edges only, the incoming edges are
+	 * computed by transposing the given rows (the rows of outTargets are
+	 * sorted in place)
+	 *
+	 * @param outOffsets
+	 *            offsets of the outgoing edges (length n+1)
+	 * @param outTargets
+	 *            targets of the outgoing edges (length E)
+	 * @return CSR graph containing outgoing and incoming edges
+	 */
+	public static CSRGraph fromOutgoing(int[] outOffsets, int[] outTargets) {
+		int n = outOffsets.length - 1;
+		for (int i = 0; i < n; i++) {
+			Arrays.sort(outTargets, outOffsets[i], outOffsets[i + 1]);
+		}
+		int[] inOffsets = new int[n + 1];
+		for (int j = 0; j < outOffsets[n]; j++) {
+			inOffsets[outTargets[j] + 1]++;
+		}
+		for (int i = 0; i < n; i++) {
+			inOffsets[i + 1] += inOffsets[i];
+		}
+		int[] inTargets = new int[outOffsets[n]];
+		int[] next = new int[n];
+		System.arraycopy(inOffsets, 0, next, 0, n);
+		// iterating the sources in ascending order yields sorted in-rows
+		for (int src = 0; src < n; src++) {
+			for (int j = outOffsets[src]; j < outOffsets[src + 1]; j++) {
+				inTargets[next[outTargets[j]]++] = src;
+			}
+		}
+		return new CSRGraph(outOffsets, outTargets, inOffsets, inTargets);
+	}
+
+	/**
+	 * creates a CSR graph from the adjacency lists of the given nodes
+	 *
+	 * @param nodes
+	 *            nodes of a graph
+	 * @return CSR graph with the same adjacency as the nodes
+	 */
+	public static CSRGraph fromNodes(Node[] nodes) {
+		int[] outOffsets = new int[nodes.length + 1];
+		for (int i = 0; i < nodes.length; i++) {
+			outOffsets[i + 1] = outOffsets[i] + nodes[i].getOutDegree();
+		}
+		int[] outTargets = new int[outOffsets[nodes.length]];
+		for (int i = 0; i < nodes.length; i++) {
+			int[] out = nodes[i].getOutgoingEdges();
+			System.arraycopy(out, 0, outTargets, outOffsets[i], out.length);
+		}
+		return CSRGraph.fromOutgoing(outOffsets, outTargets);
+	}
+
+	/**
+	 * materializes Node objects with the adjacency stored in this CSR graph
+	 *
+	 * @param graph
+	 *            graph the nodes belong to
+	 * @return array of nodes
+	 */
+	public Node[] toNodes(Graph graph) {
+		Node[] nodes = new Node[this.getNodeCount()];
+		for (int i = 0; i < nodes.length; i++) {
+			nodes[i] = new Node(i, graph, Arrays.copyOfRange(this.inTargets,
+					this.inOffsets[i], this.inOffsets[i + 1]),
+					Arrays.copyOfRange(this.outTargets, this.outOffsets[i],
+							this.outOffsets[i + 1]));
+		}
+		return nodes;
+	}
+
+	public int getNodeCount() {
+		return this.outOffsets.length - 1;
+	}
+
+	public int getEdgeCount() {
+		return this.outTargets.length;
+	}
+
+	public int getOutDegree(int node) {
+		return this.outOffsets[node + 1] - this.outOffsets[node];
+	}
+
+	public int getInDegree(int node) {
+		return this.inOffsets[node + 1] - this.inOffsets[node];
+	}
+
+	public int getDegree(int node) {
+		return this.getOutDegree(node) + this.getInDegree(node);
+	}
+
+	/**
+	 * @param node
+	 * @return index of the first outgoing edge of node in outTargets
+	 */
+	public int outStart(int node) {
+		return this.outOffsets[node];
+	}
+
+	/**
+	 * @param node
+	 * @return index after the last outgoing edge of node in outTargets
+	 */
+	public int outEnd(int node) {
+		return this.outOffsets[node + 1];
+	}
+
+	/**
+	 * @param node
+	 * @return index of the first incoming edge of node in inTargets
+	 */
+	public int inStart(int node) {
+		return this.inOffsets[node];
+	}
+
+	/**
+	 * @param node
+	 * @return index after the last incoming edge of node in inTargets
+	 */
+	public int inEnd(int node) {
+		return this.inOffsets[node + 1];
+	}
+
+	/**
+	 * @param src
+	 * @param dst
+	 * @return true if the edge (src, dst) exists
+	 */
+	public boolean hasEdge(int src, int dst) {
+		return Arrays.binarySearch(this.outTargets, this.outOffsets[src],
+				this.outOffsets[src + 1], dst) >= 0;
+	}
+
+	/**
+	 * @param a
+	 * @param b
+	 * @return true if the edge (a, b) or the edge (b, a) exists
+	 */
+	public boolean isConnected(int a, int b) {
+		return this.hasEdge(a, b) || this.hasEdge(b, a);
+	}
+
+	/**
+	 * @return the outOffsets
+	 */
+	public int[] getOutOffsets() {
+		return this.outOffsets;
+	}
+
+	/**
+	 * @return the outTargets
+	 */
+	public int[] getOutTargets() {
+		return this.outTargets;
+	}
+
+	/**
+	 * @return the inOffsets
+	 */
+	public int[] getInOffsets() {
+		return this.inOffsets;
+	}
+
+	/**
+	 * @return the inTargets
+	 */
+	public int[] getInTargets() {
+		return this.inTargets;
+	}
+}
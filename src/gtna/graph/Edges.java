@@ -35,15 +35,31 @@
  */
 package gtna.graph;
 
+import gtna.util.LongHashSet;
+
 import java.util.ArrayList;
-import java.util.HashMap;
 
+/**
+ * Set of directed edges used to build the adjacency lists of a graph. Each
+ * edge (src, dst) is packed into a single long and stored in an
+ * open-addressing LongHashSet, the edges themselves are kept in primitive int
+ * arrays. Edge objects are only created in case getEdges() is called.
+ * 
+ * @author benni
+ * 
+ */
 public class Edges {
 	private Node[] nodes;
 
-	private ArrayList<Edge> edges;
+	private int[] src;
+
+	private int[] dst;
+
+	private int size;
 
-	private HashMap<String, Edge> map;
+	private LongHashSet set;
+
+	private ArrayList<Edge> edges;
 
 	private int[] inDegree;
 
@@ -51,8 +67,12 @@ public class Edges {
 
 	public Edges(Node[] nodes, int edges) {
 		this.nodes = nodes;
-		this.edges = new ArrayList<Edge>(edges);
-		this.map = new HashMap<String, Edge>();
+		int capacity = Math.max(Math.min(edges, 1 << 24), 16);
+		this.src = new int[capacity];
+		this.dst = new int[capacity];
+		this.size = 0;
+		this.set = new LongHashSet(edges);
+		this.edges = null;
 		this.inDegree = new int[this.nodes.length];
 		this.outDegree = new int[this.nodes.length];
 	}
@@ -64,34 +84,48 @@ public class Edges {
 		}
 	}
 
+	/**
+	 * packs the given edge into a single long value
+	 * 
+	 * @param src
+	 * @param dst
+	 * @return (src << 32) | dst
+	 */
+	public static long key(int src, int dst) {
+		return ((long) src << 32) | (dst & 0xFFFFFFFFL);
+	}
+
 	public boolean contains(int src, int dst) {
-		return this.map.containsKey(Edge.toString(src, dst));
+		return this.set.contains(Edges.key(src, dst));
 	}
 
 	public int size() {
-		return this.edges.size();
+		return this.size;
 	}
 
 	private boolean add(Edge edge) {
-		if (this.map.containsKey(edge.toString())) {
-			return false;
-		}
-		this.edges.add(edge);
-		this.map.put(edge.toString(), edge);
-		this.inDegree[edge.getDst()]++;
-		this.outDegree[edge.getSrc()]++;
-		return true;
+		return this.add(edge.getSrc(), edge.getDst());
 	}
 
 	public boolean add(int src, int dst) {
-		if (this.map.containsKey(Edge.toString(src, dst))) {
+		if (!this.set.add(Edges.key(src, dst))) {
 			return false;
 		}
-		Edge edge = new Edge(src, dst);
-		this.edges.add(edge);
-		this.map.put(edge.toString(), edge);
-		this.inDegree[edge.getDst()]++;
-		this.outDegree[edge.getSrc()]++;
+		if (this.size == this.src.length) {
+			int capacity = this.src.length + (this.src.length >> 1);
+			int[] srcNew = new int[capacity];
+			int[] dstNew = new int[capacity];
+			System.arraycopy(this.src, 0, srcNew, 0, this.size);
+			System.arraycopy(this.dst, 0, dstNew, 0, this.size);
+			this.src = srcNew;
+			this.dst = dstNew;
+		}
+		this.src[this.size] = src;
+		this.dst[this.size] = dst;
+		this.size++;
+		this.edges = null;
+		this.inDegree[dst]++;
+		this.outDegree[src]++;
 		return true;
 	}
 
@@ -102,9 +136,9 @@ public class Edges {
 		}
 		int[] inIndex = new int[this.nodes.length];
 		int[] outIndex = new int[this.nodes.length];
-		for (Edge e : this.edges) {
-			int srcIndex = e.getSrc();
-			int dstIndex = e.getDst();
+		for (int i = 0; i < this.size; i++) {
+			int srcIndex = this.src[i];
+			int dstIndex = this.dst[i];
 			Node src = this.nodes[srcIndex];
 			Node dst = this.nodes[dstIndex];
 			dst.getIncomingEdges()[inIndex[dstIndex]] = srcIndex;
@@ -115,9 +149,34 @@ public class Edges {
 	}
 
 	/**
+	 * @param index
+	 * @return source of the index-th added edge
+	 */
+	public int getSrc(int index) {
+		return this.src[index];
+	}
+
+	/**
+	 * @param index
+	 * @return destination of the index-th added edge
+	 */
+	public int getDst(int index) {
+		return this.dst[index];
+	}
+
+	/**
+	 * creates Edge objects for all edges in the order they have been added,
+	 * the list is cached until the next edge is added
+	 * 
 	 * @return the edges
 	 */
 	public ArrayList<Edge> getEdges() {
+		if (this.edges == null) {
+			this.edges = new ArrayList<Edge>(this.size);
+			for (int i = 0; i < this.size; i++) {
+				this.edges.add(new Edge(this.src[i], this.dst[i]));
+			}
+		}
 		return this.edges;
 	}
 }
@@ -45,6 +45,8 @@ public class Graph {
 
 	private Node[] nodes;
 
+	private CSRGraph csr;
+
 	private Timer timer;
 
 	private HashMap<String, GraphProperty> properties;
@@ -62,7 +64,7 @@ public class Graph {
 	}
 
 	public String toString() {
-		return this.name + " (" + this.nodes.length + ")";
+		return this.name + " (" + this.getNodeCount() + ")";
 	}
 
 	public void addProperty(String key, GraphProperty property) {
@@ -104,6 +106,9 @@ public class Graph {
 	}
 
 	public int computeNumberOfEdges() {
+		if (this.nodes == null && this.csr != null) {
+			return this.csr.getEdgeCount();
+		}
 		int E = 0;
 		for (Node n : this.nodes) {
 			E += n.getOutDegree();
@@ -112,13 +117,14 @@ public class Graph {
 	}
 
 	public Edge[] generateEdges() {
+		Node[] nodes = this.getNodes();
 		int E = 0;
-		for (Node n : this.nodes) {
+		for (Node n : nodes) {
 			E += n.getOutDegree();
 		}
 		Edge[] edges = new Edge[E];
 		int index = 0;
-		for (Node n : this.nodes) {
+		for (Node n : nodes) {
 			for (int out : n.getOutgoingEdges()) {
 				edges[index++] = new Edge(n.getIndex(), out);
 			}
@@ -132,12 +138,13 @@ public class Graph {
 		if (this.edges != null) {
 			return this.edges;
 		}
+		Node[] nodes = this.getNodes();
 		int E = 0;
-		for (Node n : this.nodes) {
+		for (Node n : nodes) {
 			E += n.getOutDegree();
 		}
-		this.edges = new Edges(this.nodes, E);
-		for (Node n : this.nodes) {
+		this.edges = new Edges(nodes, E);
+		for (Node n : nodes) {
 			for (int out : n.getOutgoingEdges()) {
 				this.edges.add(n.getIndex(), out);
 			}
@@ -176,9 +183,15 @@ public class Graph {
 	}
 
 	/**
+	 * returns the nodes, in case the graph is backed by a CSR graph, they are
+	 * materialized on the first call
+	 * 
 	 * @return the nodes
 	 */
 	public Node[] getNodes() {
+		if (this.nodes == null && this.csr != null) {
+			this.nodes = this.csr.toNodes(this);
+		}
 		return this.nodes;
 	}
 	
@@ -190,14 +203,67 @@ public class Graph {
 	 */
 	public void setNodes(Node[] nodes) {
 		this.nodes = nodes;
+		this.csr = null;
 		this.timer.end();
 	}
 
+	/**
+	 * returns the CSR representation of this graph, in case the graph is not
+	 * backed by a CSR graph it is created from the nodes on the first call
+	 * 
+	 * the cached CSR graph is dropped whenever the adjacency list of a node is
+	 * replaced (Node.setIncomingEdges / setOutgoingEdges, e.g., by
+	 * Edges.fill()) and created again on the next call
+	 * 
+	 * @return CSR representation of this graph
+	 */
+	public CSRGraph getCSR() {
+		if (this.csr == null) {
+			this.csr = CSRGraph.fromNodes(this.nodes);
+		}
+		return this.csr;
+	}
+
+	/**
+	 * drops the cached CSR representation after the adjacency lists of the
+	 * nodes have changed, a graph that is only backed by its CSR graph (no
+	 * nodes created yet) keeps it
+	 */
+	void invalidateCSR() {
+		if (this.nodes != null) {
+			this.csr = null;
+		}
+	}
+
+	/**
+	 * sets a CSR graph as the backing representation of this graph and ends
+	 * the timer started during graph initialization, Node objects are only
+	 * created in case getNodes() is called
+	 * 
+	 * @param csr
+	 *            the CSR graph to set
+	 */
+	public void setCSR(CSRGraph csr) {
+		this.csr = csr;
+		this.nodes = null;
+		this.timer.end();
+	}
+
+	/**
+	 * @return number of nodes in this graph
+	 */
+	public int getNodeCount() {
+		if (this.nodes == null && this.csr != null) {
+			return this.csr.getNodeCount();
+		}
+		return this.nodes.length;
+	}
+
 	/**
 	 * @param nodeIndex
 	 * @return the node with index nodeIndex
 	 */
 	public Node getNode(int nodeIndex) {
-		return nodes[nodeIndex];
+		return this.getNodes()[nodeIndex];
 	}
 }
@@ -137,11 +137,17 @@ public class Node implements Comparable<Node> {
 	}
 
 	/**
+	 * sets the incoming edges and invalidates the CSR representation of the
+	 * graph
+	 * 
 	 * @param incomingEdges
 	 *            the incomingEdges to set
 	 */
 	public void setIncomingEdges(int[] incomingEdges) {
 		this.incomingEdges = incomingEdges;
+		if (this.graph != null) {
+			this.graph.invalidateCSR();
+		}
 	}
 
 	/**
@@ -152,11 +158,17 @@ public class Node implements Comparable<Node> {
 	}
 
 	/**
+	 * sets the outgoing edges and invalidates the CSR representation of the
+	 * graph
+	 * 
 	 * @param outgoingEdges
 	 *            the outgoingEdges to set
 	 */
 	public void setOutgoingEdges(int[] outgoingEdges) {
 		this.outgoingEdges = outgoingEdges;
+		if (this.graph != null) {
+			this.graph.invalidateCSR();
+		}
 	}
 
 	public Edge[] getEdges() {
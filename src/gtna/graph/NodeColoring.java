@@ -0,0 +1,188 @@
+/* ===========================================================
+ * GTNA : Graph-Theoretic Network Analyzer
+ * ===========================================================
+ *
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors
+ *
+ * Project Info:  http://www.p2p.tu-darmstadt.de/research/gtna/
+ *
+ * GTNA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GTNA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ---------------------------------------
+ * NodeColoring.java
+ * ---------------------------------------
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors 
+ *
+ * Original Author: agent;
+ * Contributors:    -;
+ *
+ * Changes since 2011-05-17
+ * ---------------------------------------
+ *
+ */
+package gtna.graph;
+
+/**
+ * Greedy coloring of the nodes of a graph such that adjacent nodes (connected
+ * by an edge in any direction, ignoring self-loops) have different colors.
+ * Nodes are colored in descending order of their degree, each one with the
+ * smallest color not used by its neighbors, so at most maximum degree + 1
+ * colors are used.
+ * 
+ * Nodes of the same color are grouped into color classes, e.g., to update the
+ * nodes of a class in parallel in algorithms where a node only reads the state
+ * of its neighbors.
+ * 
+ * @author agent
+ * 
+ */
+public class NodeColoring {
+	private int[] colors;
+
+	private int[] classStart;
+
+	private int[] classNodes;
+
+	/**
+	 * @param nodes
+	 *            nodes of a graph, edges are considered in both directions
+	 */
+	public NodeColoring(Node[] nodes) {
+		this(CSRGraph.fromNodes(nodes));
+	}
+
+	/**
+	 * @param csr
+	 *            graph, edges are considered in both directions
+	 */
+	public NodeColoring(CSRGraph csr) {
+		this(csr.getOutOffsets(), csr.getOutTargets(), csr.getInOffsets(), csr
+				.getInTargets());
+	}
+
+	/**
+	 * @param offsets
+	 *            start of the neighbors of each node in targets (length n+1)
+	 * @param targets
+	 *            neighbors of each node, every edge must be contained in the
+	 *            lists of both of its endpoints
+	 */
+	public NodeColoring(int[] offsets, int[] targets) {
+		this(offsets, targets, null, null);
+	}
+
+	private NodeColoring(int[] outOffsets, int[] outTargets, int[] inOffsets,
+			int[] inTargets) {
+		int n = outOffsets.length - 1;
+		int[] degrees = new int[n];
+		int maxDegree = 0;
+		for (int i = 0; i < n; i++) {
+			degrees[i] = outOffsets[i + 1] - outOffsets[i];
+			if (inOffsets != null) {
+				degrees[i] += inOffsets[i + 1] - inOffsets[i];
+			}
+			maxDegree = Math.max(maxDegree, degrees[i]);
+		}
+		int[] degreeStart = new int[maxDegree + 2];
+		for (int i = 0; i < n; i++) {
+			degreeStart[maxDegree - degrees[i] + 1]++;
+		}
+		for (int d = 0; d <= maxDegree; d++) {
+			degreeStart[d + 1] += degreeStart[d];
+		}
+		int[] byDegree = new int[n];
+		for (int i = 0; i < n; i++) {
+			byDegree[degreeStart[maxDegree - degrees[i]]++] = i;
+		}
+
+		this.colors = new int[n];
+		int[] marker = new int[n + 1];
+		int classes = 0;
+		for (int i = 0; i < n; i++) {
+			this.colors[i] = -1;
+		}
+		for (int node : byDegree) {
+			int stamp = node + 1;
+			this.mark(node, outOffsets, outTargets, marker, stamp);
+			if (inOffsets != null) {
+				this.mark(node, inOffsets, inTargets, marker, stamp);
+			}
+			int color = 0;
+			while (marker[color] == stamp) {
+				color++;
+			}
+			this.colors[node] = color;
+			classes = Math.max(classes, color + 1);
+		}
+
+		this.classStart = new int[classes + 1];
+		for (int node = 0; node < n; node++) {
+			this.classStart[this.colors[node] + 1]++;
+		}
+		for (int c = 0; c < classes; c++) {
+			this.classStart[c + 1] += this.classStart[c];
+		}
+		int[] position = new int[classes];
+		System.arraycopy(this.classStart, 0, position, 0, classes);
+		this.classNodes = new int[n];
+		for (int node = 0; node < n; node++) {
+			this.classNodes[position[this.colors[node]]++] = node;
+		}
+	}
+
+	/**
+	 * marks the colors of all (already colored) neighbors of the given node
+	 * with the given stamp
+	 */
+	private void mark(int node, int[] offsets, int[] targets, int[] marker,
+			int stamp) {
+		for (int e = offsets[node]; e < offsets[node + 1]; e++) {
+			int neighbor = targets[e];
+			if (neighbor != node && this.colors[neighbor] != -1) {
+				marker[this.colors[neighbor]] = stamp;
+			}
+		}
+	}
+
+	/**
+	 * @return number of colors
+	 */
+	public int getClasses() {
+		return this.classStart.length - 1;
+	}
+
+	/**
+	 * @return color of each node
+	 */
+	public int[] getColors() {
+		return this.colors;
+	}
+
+	/**
+	 * @return start of each color class in the array of class nodes (with
+	 *         getClasses() + 1 entries)
+	 */
+	public int[] getClassStart() {
+		return this.classStart;
+	}
+
+	/**
+	 * @return nodes grouped by color
+	 */
+	public int[] getClassNodes() {
+		return this.classNodes;
+	}
+}
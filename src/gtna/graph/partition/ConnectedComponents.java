@@ -0,0 +1,218 @@
+/* ===========================================================
+ * GTNA : Graph-Theoretic Network Analyzer
+ * ===========================================================
+ *
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors
+ *
+ * Project Info:  http://www.p2p.tu-darmstadt.de/research/gtna/
+ *
+ * GTNA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GTNA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ---------------------------------------
+ * ConnectedComponents.java
+ * ---------------------------------------
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors 
+ *
+ * Original Author: agent;
+ * Contributors:    -;
+ *
+ * Changes since 2011-05-17
+ * ---------------------------------------
+ *
+ */
+package gtna.graph.partition;
+
+import gtna.graph.CSRGraph;
+
+/**
+ * Computes the weakly and strongly connected components of a graph in time
+ * linear in the number of nodes and edges. Both algorithms work on the CSR
+ * representation of the graph, allocate only a few int arrays and write the
+ * component of every node into a label array that can be turned into a
+ * Partition using Partition(labels, count).
+ * 
+ * Weakly connected components are determined using union-find (union by size,
+ * path halving). Strongly connected components are determined using an
+ * iterative version of Tarjan's algorithm with an explicit call stack and a
+ * bitset marking the nodes on the stack, so that the depth of the graph is not
+ * limited by the size of the thread's stack.
+ * 
+ * In both cases, the components are numbered in the same order as the ones
+ * computed by the former BFS / recursive implementations: weak components by
+ * their smallest node, strong components in the order they are completed by
+ * Tarjan's algorithm.
+ * 
+ * @author agent
+ * 
+ */
+public class ConnectedComponents {
+	/**
+	 * computes the weakly connected components of the given graph
+	 * 
+	 * @param csr
+	 *            graph
+	 * @param exclude
+	 *            nodes to exclude from the computation (may be null), they
+	 *            are labeled -1 and all their edges are ignored
+	 * @param labels
+	 *            array (of length n) the component of every node is written to
+	 * @return number of components
+	 */
+	public static int weak(CSRGraph csr, boolean[] exclude, int[] labels) {
+		int n = csr.getNodeCount();
+		int[] parent = new int[n];
+		// the label array is used to store the sizes until labels are assigned
+		int[] size = labels;
+		for (int i = 0; i < n; i++) {
+			parent[i] = i;
+			size[i] = 1;
+		}
+		int[] targets = csr.getOutTargets();
+		for (int src = 0; src < n; src++) {
+			if (exclude != null && exclude[src]) {
+				continue;
+			}
+			for (int j = csr.outStart(src); j < csr.outEnd(src); j++) {
+				int dst = targets[j];
+				if (exclude != null && exclude[dst]) {
+					continue;
+				}
+				int a = ConnectedComponents.find(parent, src);
+				int b = ConnectedComponents.find(parent, dst);
+				if (a == b) {
+					continue;
+				}
+				if (size[a] < size[b]) {
+					int temp = a;
+					a = b;
+					b = temp;
+				}
+				parent[b] = a;
+				size[a] += size[b];
+			}
+		}
+		// labels are assigned in the order of the smallest node of each
+		// component, the label of a component is first stored at its root
+		for (int i = 0; i < n; i++) {
+			labels[i] = -1;
+		}
+		int count = 0;
+		for (int i = 0; i < n; i++) {
+			if (exclude != null && exclude[i]) {
+				continue;
+			}
+			int root = ConnectedComponents.find(parent, i);
+			if (labels[root] == -1) {
+				labels[root] = count++;
+			}
+			labels[i] = labels[root];
+		}
+		return count;
+	}
+
+	private static int find(int[] parent, int node) {
+		while (parent[node] != node) {
+			parent[node] = parent[parent[node]];
+			node = parent[node];
+		}
+		return node;
+	}
+
+	/**
+	 * computes the strongly connected components of the given graph
+	 * 
+	 * @param csr
+	 *            graph
+	 * @param exclude
+	 *            nodes to exclude from the computation (may be null), they
+	 *            are labeled -1 and all their edges are ignored
+	 * @param labels
+	 *            array (of length n) the component of every node is written to
+	 * @return number of components
+	 */
+	public static int strong(CSRGraph csr, boolean[] exclude, int[] labels) {
+		int n = csr.getNodeCount();
+		int[] targets = csr.getOutTargets();
+		int[] index = new int[n];
+		int[] lowlink = new int[n];
+		long[] onStack = new long[(n + 63) >>> 6];
+		int[] stack = new int[n];
+		int stackSize = 0;
+		int[] callNode = new int[n];
+		int[] callEdge = new int[n];
+		int callSize = 0;
+		for (int i = 0; i < n; i++) {
+			index[i] = -1;
+			labels[i] = -1;
+		}
+		int counter = 0;
+		int count = 0;
+
+		for (int start = 0; start < n; start++) {
+			if (index[start] != -1 || (exclude != null && exclude[start])) {
+				continue;
+			}
+			index[start] = lowlink[start] = counter++;
+			stack[stackSize++] = start;
+			onStack[start >>> 6] |= 1L << start;
+			callNode[callSize] = start;
+			callEdge[callSize++] = csr.outStart(start);
+
+			while (callSize > 0) {
+				int v = callNode[callSize - 1];
+				int j = callEdge[callSize - 1];
+				if (j < csr.outEnd(v)) {
+					callEdge[callSize - 1]++;
+					int w = targets[j];
+					if (exclude != null && exclude[w]) {
+						continue;
+					}
+					if (index[w] == -1) {
+						// successor w has not yet been visited, descend into it
+						index[w] = lowlink[w] = counter++;
+						stack[stackSize++] = w;
+						onStack[w >>> 6] |= 1L << w;
+						callNode[callSize] = w;
+						callEdge[callSize++] = csr.outStart(w);
+					} else if ((onStack[w >>> 6] & (1L << w)) != 0) {
+						// successor w is on the stack and hence in the current
+						// SCC
+						lowlink[v] = Math.min(lowlink[v], index[w]);
+					}
+					continue;
+				}
+
+				// all successors of v are processed
+				callSize--;
+				if (lowlink[v] == index[v]) {
+					// v is a root node, pop the stack and generate an SCC
+					int w;
+					do {
+						w = stack[--stackSize];
+						onStack[w >>> 6] &= ~(1L << w);
+						labels[w] = count;
+					} while (w != v);
+					count++;
+				}
+				if (callSize > 0) {
+					int u = callNode[callSize - 1];
+					lowlink[u] = Math.min(lowlink[u], lowlink[v]);
+				}
+			}
+		}
+		return count;
+	}
+}
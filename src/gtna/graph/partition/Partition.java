@@ -70,6 +70,37 @@ public class Partition implements GraphProperty {
 		this.sort();
 	}
 
+	/**
+	 * creates a partition from the component labels of all nodes, nodes with
+	 * a negative label are not contained in any component
+	 * 
+	 * @param labels
+	 *            component of each node
+	 * @param count
+	 *            number of components (labels are 0, ..., count - 1)
+	 */
+	public Partition(int[] labels, int count) {
+		int[] sizes = new int[count];
+		for (int label : labels) {
+			if (label >= 0) {
+				sizes[label]++;
+			}
+		}
+		this.components = new int[count][];
+		for (int i = 0; i < count; i++) {
+			this.components[i] = new int[sizes[i]];
+			sizes[i] = 0;
+		}
+		// nodes are added in ascending order, i.e., components are sorted
+		for (int node = 0; node < labels.length; node++) {
+			int label = labels[node];
+			if (label >= 0) {
+				this.components[label][sizes[label]++] = node;
+			}
+		}
+		Arrays.sort(this.components, new SizeDesc());
+	}
+
 	private void sort() {
 		for (int[] p : this.components) {
 			Arrays.sort(p);
@@ -44,7 +44,7 @@ import java.util.Random;
  * @author benni
  * 
  */
-public abstract class NodeSorter {
+public abstract class NodeSorter implements Cloneable {
 	public enum NodeSorterMode {
 		ASC, DESC
 	};
@@ -63,6 +63,21 @@ public abstract class NodeSorter {
 		this.mode = mode;
 	}
 
+	/**
+	 * creates a shallow copy of this sorter, used by metrics that are copied
+	 * for parallel runs of a series (sorters might store the properties of the
+	 * graph they currently sort)
+	 * 
+	 * @return copy of this sorter
+	 */
+	public NodeSorter clone() {
+		try {
+			return (NodeSorter) super.clone();
+		} catch (CloneNotSupportedException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
 	public abstract Node[] sort(Graph g, Random rand);
 
 	public abstract boolean applicable(Graph g);
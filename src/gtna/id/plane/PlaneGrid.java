@@ -0,0 +1,273 @@
+/* ===========================================================
+ * GTNA : Graph-Theoretic Network Analyzer
+ * ===========================================================
+ *
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors
+ *
+ * Project Info:  http://www.p2p.tu-darmstadt.de/research/gtna/
+ *
+ * GTNA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GTNA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ---------------------------------------
+ * PlaneGrid.java
+ * ---------------------------------------
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors 
+ *
+ * Original Author: agent;
+ * Contributors:    -;
+ *
+ * Changes since 2011-05-17
+ * ---------------------------------------
+ *
+ */
+package gtna.id.plane;
+
+import java.util.Arrays;
+
+/**
+ * Spatial index over the positions of the nodes of a
+ * PlaneIdentifierSpaceSimple. The plane is divided into a uniform grid of
+ * square cells whose side length is (at least) the given cell size, the nodes
+ * of each cell are stored consecutively (CSR layout). A range query with a
+ * radius in the order of the cell size only has to check the nodes of the
+ * cells around the query point instead of all nodes, i.e., computing the
+ * neighborhoods of all nodes takes near-linear time for uniformly placed
+ * nodes.
+ *
+ * In case the identifier space wraps around, the grid covers the area from (0,
+ * 0) to (modulusX, modulusY) and queries wrap around as well. Otherwise, it
+ * covers the bounding box of all nodes.
+ *
+ * The index returns candidates, i.e., all nodes in cells that intersect the
+ * square around the query point. The exact distance check is left to the
+ * caller so that the distance function of the identifier space can be used.
+ * The number of cells is bounded by four times the number of nodes.
+ *
+ * @author agent
+ *
+ */
+public class PlaneGrid {
+	/**
+	 * Visitor for the nodes returned by a range query.
+	 */
+	public static interface Visitor {
+		/**
+		 * @param node
+		 *            index of a candidate node
+		 * @return false to stop the query, true to continue
+		 */
+		public boolean visit(int node);
+	}
+
+	private PlaneIdentifierSpaceSimple idSpace;
+
+	private boolean wrapAround;
+
+	private double minX;
+
+	private double minY;
+
+	private double cellWidth;
+
+	private double cellHeight;
+
+	private int cols;
+
+	private int rows;
+
+	private int[] offsets;
+
+	private int[] nodes;
+
+	/**
+	 * @param idSpace
+	 *            identifier space containing the positions of the nodes
+	 * @param cellSize
+	 *            minimum side length of a cell, should be in the order of the
+	 *            query radius
+	 */
+	public PlaneGrid(PlaneIdentifierSpaceSimple idSpace, double cellSize) {
+		this.idSpace = idSpace;
+		this.wrapAround = idSpace.isWrapAround();
+		int n = idSpace.getPartitions().length;
+		double[] x = new double[n];
+		double[] y = new double[n];
+		double maxX = 0;
+		double maxY = 0;
+		this.minX = 0;
+		this.minY = 0;
+		if (this.wrapAround) {
+			maxX = idSpace.getModulusX();
+			maxY = idSpace.getModulusY();
+		} else if (n > 0) {
+			this.minX = Double.POSITIVE_INFINITY;
+			this.minY = Double.POSITIVE_INFINITY;
+			maxX = Double.NEGATIVE_INFINITY;
+			maxY = Double.NEGATIVE_INFINITY;
+		}
+		for (int i = 0; i < n; i++) {
+			PlaneIdentifier id = (PlaneIdentifier) idSpace.getPartitions()[i]
+					.getRepresentativeID();
+			x[i] = id.getX();
+			y[i] = id.getY();
+			if (!this.wrapAround) {
+				this.minX = Math.min(this.minX, x[i]);
+				this.minY = Math.min(this.minY, y[i]);
+				maxX = Math.max(maxX, x[i]);
+				maxY = Math.max(maxY, y[i]);
+			}
+		}
+		this.cols = PlaneGrid.cells(maxX - this.minX, cellSize, n);
+		this.rows = PlaneGrid.cells(maxY - this.minY, cellSize, n);
+		this.cellWidth = maxX > this.minX ? (maxX - this.minX) / this.cols : 1;
+		this.cellHeight = maxY > this.minY ? (maxY - this.minY) / this.rows
+				: 1;
+		if (!this.wrapAround) {
+			// the last row and column contain the nodes on the upper bound
+			this.cellWidth = Math.max(this.cellWidth, cellSize);
+			this.cellHeight = Math.max(this.cellHeight, cellSize);
+		}
+
+		int[] cell = new int[n];
+		this.offsets = new int[this.cols * this.rows + 1];
+		for (int i = 0; i < n; i++) {
+			cell[i] = this.col(x[i]) * this.rows + this.row(y[i]);
+			this.offsets[cell[i] + 1]++;
+		}
+		for (int c = 0; c < this.cols * this.rows; c++) {
+			this.offsets[c + 1] += this.offsets[c];
+		}
+		int[] next = Arrays.copyOf(this.offsets, this.cols * this.rows);
+		this.nodes = new int[n];
+		for (int i = 0; i < n; i++) {
+			this.nodes[next[cell[i]]++] = i;
+		}
+	}
+
+	/**
+	 * number of cells of size (at least) cellSize to cover the given extent,
+	 * at most 2 * sqrt(n) (i.e., 4n cells in total)
+	 */
+	private static int cells(double extent, double cellSize, int n) {
+		int max = Math.max(1, (int) Math.ceil(2 * Math.sqrt(n)));
+		if (!(cellSize > 0) || extent / cellSize >= max) {
+			return max;
+		}
+		return Math.max(1, (int) Math.floor(extent / cellSize));
+	}
+
+	private int col(double x) {
+		int col = (int) Math.floor((x - this.minX) / this.cellWidth);
+		return this.wrapAround ? PlaneGrid.mod(col, this.cols) : Math.max(0,
+				Math.min(this.cols - 1, col));
+	}
+
+	private int row(double y) {
+		int row = (int) Math.floor((y - this.minY) / this.cellHeight);
+		return this.wrapAround ? PlaneGrid.mod(row, this.rows) : Math.max(0,
+				Math.min(this.rows - 1, row));
+	}
+
+	private static int mod(int value, int modulus) {
+		int mod = value % modulus;
+		return mod < 0 ? mod + modulus : mod;
+	}
+
+	/**
+	 * visits all nodes in cells that intersect the square of side length 2 *
+	 * radius around (x, y), i.e., (at least) all nodes within distance radius
+	 * of (x, y)
+	 *
+	 * @param x
+	 * @param y
+	 * @param radius
+	 * @param visitor
+	 */
+	public void visit(double x, double y, double radius, Visitor visitor) {
+		double fromX = Math.floor((x - radius - this.minX) / this.cellWidth);
+		double toX = Math.floor((x + radius - this.minX) / this.cellWidth);
+		double fromY = Math.floor((y - radius - this.minY) / this.cellHeight);
+		double toY = Math.floor((y + radius - this.minY) / this.cellHeight);
+		if (this.wrapAround) {
+			// one additional cell on each side to compensate rounding errors
+			// when wrapping around
+			fromX--;
+			toX++;
+			fromY--;
+			toY++;
+		}
+		int[] colRange = this.range(fromX, toX, this.cols);
+		int[] rowRange = this.range(fromY, toY, this.rows);
+		for (int c = colRange[0]; c <= colRange[1]; c++) {
+			int col = this.wrapAround ? PlaneGrid.mod(c, this.cols) : c;
+			for (int r = rowRange[0]; r <= rowRange[1]; r++) {
+				int cell = col * this.rows
+						+ (this.wrapAround ? PlaneGrid.mod(r, this.rows) : r);
+				for (int i = this.offsets[cell]; i < this.offsets[cell + 1]; i++) {
+					if (!visitor.visit(this.nodes[i])) {
+						return;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return first and last (unwrapped) index of the cells to visit in one
+	 *         dimension
+	 */
+	private int[] range(double from, double to, int cells) {
+		if (this.wrapAround) {
+			if (!(to - from + 1 < cells)) {
+				return new int[] { 0, cells - 1 };
+			}
+			return new int[] { (int) from, (int) to };
+		}
+		return new int[] { (int) Math.max(0, from),
+				(int) Math.min(cells - 1, to) };
+	}
+
+	/**
+	 * @param node
+	 * @param radius
+	 * @return all other nodes whose distance to node (as computed by the
+	 *         identifier space) is at most radius, in ascending order
+	 */
+	public int[] range(final int node, final double radius) {
+		final PlanePartitionSimple[] partitions = (PlanePartitionSimple[]) this.idSpace
+				.getPartitions();
+		final PlaneIdentifier id = partitions[node].getId();
+		final int[][] result = new int[][] { new int[8] };
+		final int[] size = new int[1];
+		this.visit(id.getX(), id.getY(), radius, new Visitor() {
+			@Override
+			public boolean visit(int other) {
+				if (other != node
+						&& partitions[node].distance(partitions[other]
+								.getRepresentativeID()) <= radius) {
+					if (size[0] == result[0].length) {
+						result[0] = Arrays.copyOf(result[0], 2 * size[0]);
+					}
+					result[0][size[0]++] = other;
+				}
+				return true;
+			}
+		});
+		int[] range = Arrays.copyOf(result[0], size[0]);
+		Arrays.sort(range);
+		return range;
+	}
+}
@@ -0,0 +1,137 @@
+/* ===========================================================
+ * GTNA : Graph-Theoretic Network Analyzer
+ * ===========================================================
+ *
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors
+ *
+ * Project Info:  http://www.p2p.tu-darmstadt.de/research/gtna/
+ *
+ * GTNA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GTNA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ---------------------------------------
+ * RingIdentifierIndex.java
+ * ---------------------------------------
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors 
+ *
+ * Original Author: agent;
+ * Contributors:    -;
+ *
+ * Changes since 2011-05-17
+ * ---------------------------------------
+ *
+ */
+package gtna.id.ring;
+
+import gtna.id.DIdentifierSpace;
+import gtna.id.Identifier;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Sorted index over the partitions of a RingIdentifierSpace that determines
+ * the partition responsible for an identifier, i.e., the partition (start,
+ * end] containing it, by binary search over the (primitive) end positions
+ * instead of checking the partitions one after the other.
+ * 
+ * The index is only created for partitions that cover the ring without gaps
+ * or overlaps (as generated by RandomRingIDSpace), since only then exactly
+ * one partition contains each identifier. It represents the partitions at the
+ * time of its creation, i.e., it has to be created again after positions have
+ * changed.
+ * 
+ * @author agent
+ * 
+ */
+public class RingIdentifierIndex {
+	private int[] order;
+
+	private double[] ends;
+
+	private RingIdentifierIndex(final RingPartition[] partitions) {
+		Integer[] sorted = new Integer[partitions.length];
+		for (int i = 0; i < sorted.length; i++) {
+			sorted[i] = i;
+		}
+		Arrays.sort(sorted, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer a, Integer b) {
+				return Double.compare(partitions[a].getEnd().getPosition(),
+						partitions[b].getEnd().getPosition());
+			}
+		});
+		this.order = new int[sorted.length];
+		this.ends = new double[sorted.length];
+		for (int i = 0; i < sorted.length; i++) {
+			this.order[i] = sorted[i];
+			this.ends[i] = partitions[sorted[i]].getEnd().getPosition();
+		}
+	}
+
+	/**
+	 * @param idSpace
+	 * @return index over the partitions of the given identifier space, null
+	 *         in case it is no RingIdentifierSpace with RingPartitions or its
+	 *         partitions do not cover the ring exactly once
+	 */
+	public static RingIdentifierIndex get(DIdentifierSpace idSpace) {
+		if (!(idSpace instanceof RingIdentifierSpace)
+				|| !(idSpace.getPartitions() instanceof RingPartition[])
+				|| idSpace.getPartitions().length < 2) {
+			return null;
+		}
+		RingPartition[] partitions = (RingPartition[]) idSpace
+				.getPartitions();
+		RingIdentifierIndex index = new RingIdentifierIndex(partitions);
+		int n = index.order.length;
+		for (int i = 0; i < n; i++) {
+			if (i > 0 && !(index.ends[i - 1] < index.ends[i])) {
+				return null;
+			}
+			double start = partitions[index.order[i]].getStart().getPosition();
+			if (start != index.ends[(i + n - 1) % n]) {
+				return null;
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * @param id
+	 * @return index of the partition containing the given identifier
+	 */
+	public int responsible(Identifier<Double> id) {
+		return this.responsible(((RingIdentifier) id).getPosition());
+	}
+
+	/**
+	 * @param position
+	 * @return index of the partition containing the given position
+	 */
+	public int responsible(double position) {
+		int low = 0;
+		int high = this.ends.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (this.ends[mid] < position) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return this.order[low % this.order.length];
+	}
+}
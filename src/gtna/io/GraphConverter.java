@@ -0,0 +1,125 @@
+/* ===========================================================
+ * GTNA : Graph-Theoretic Network Analyzer
+ * ===========================================================
+ *
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors
+ *
+ * Project Info:  http://www.p2p.tu-darmstadt.de/research/gtna/
+ *
+ * GTNA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GTNA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ---------------------------------------
+ * GraphConverter.java
+ * ---------------------------------------
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors 
+ *
+ * Original Author: agent;
+ * Contributors:    -;
+ *
+ * Changes since 2011-05-17
+ * ---------------------------------------
+ *
+ */
+package gtna.io;
+
+import gtna.graph.CSRGraph;
+import gtna.graph.Graph;
+
+import java.util.Arrays;
+
+/**
+ * Converts graphs between the text format and the binary format written by
+ * GraphWriter.write and GraphWriter.writeBinary. After each conversion, the
+ * written file is read again and compared to the original graph.
+ * 
+ * usage: GraphConverter [-text] input output [input output ...]
+ * 
+ * converts the given text files to binary files (or binary files to text files
+ * in case -text is given)
+ * 
+ * @author agent
+ * 
+ */
+public class GraphConverter {
+	public static void main(String[] args) {
+		boolean toText = args.length > 0 && args[0].equals("-text");
+		int start = toText ? 1 : 0;
+		if (args.length - start < 2 || (args.length - start) % 2 != 0) {
+			System.out
+					.println("usage: GraphConverter [-text] input output [input output ...]");
+			return;
+		}
+		boolean success = true;
+		for (int i = start; i + 1 < args.length; i += 2) {
+			boolean s = toText ? GraphConverter
+					.binaryToText(args[i], args[i + 1]) : GraphConverter
+					.textToBinary(args[i], args[i + 1]);
+			System.out.println((s ? "OK     " : "FAILED ") + args[i] + " => "
+					+ args[i + 1]);
+			success &= s;
+		}
+		if (!success) {
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * @param text
+	 *            graph in the text format
+	 * @param binary
+	 *            file to write the graph to in the binary format
+	 * @return true if the graph was converted and reading the binary file
+	 *         results in the same graph
+	 */
+	public static boolean textToBinary(String text, String binary) {
+		Graph graph = GraphReader.read(text);
+		if (graph == null || !GraphWriter.writeBinary(graph, binary)) {
+			return false;
+		}
+		return GraphConverter.equals(graph, GraphReader.readBinary(binary));
+	}
+
+	/**
+	 * @param binary
+	 *            graph in the binary format
+	 * @param text
+	 *            file to write the graph to in the text format
+	 * @return true if the graph was converted and reading the text file results
+	 *         in the same graph
+	 */
+	public static boolean binaryToText(String binary, String text) {
+		Graph graph = GraphReader.readBinary(binary);
+		if (graph == null || !GraphWriter.write(graph, text)) {
+			return false;
+		}
+		return GraphConverter.equals(graph, GraphReader.read(text));
+	}
+
+	/**
+	 * @param g1
+	 * @param g2
+	 * @return true if both graphs have the same name and the same edges
+	 */
+	public static boolean equals(Graph g1, Graph g2) {
+		if (g1 == null || g2 == null || !g1.getName().equals(g2.getName())) {
+			return false;
+		}
+		CSRGraph c1 = g1.getCSR();
+		CSRGraph c2 = g2.getCSR();
+		return Arrays.equals(c1.getOutOffsets(), c2.getOutOffsets())
+				&& Arrays.equals(c1.getOutTargets(), c2.getOutTargets());
+	}
+}
@@ -35,19 +35,53 @@
  */
 package gtna.io;
 
+import gtna.graph.CSRGraph;
 import gtna.graph.Edges;
 import gtna.graph.Graph;
 import gtna.graph.GraphProperty;
 import gtna.graph.Node;
 import gtna.util.Config;
 
+import java.io.DataInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.zip.CRC32;
 
 public class GraphReader {
+	private static final int BINARY_MAP_SIZE = 1 << 30;
+
+	/**
+	 * reads a graph from the given file, graphs in the binary format (see
+	 * GraphWriter.writeBinary) are detected by their magic number, text files
+	 * are parsed using GraphTextParser with PARALLEL_GRAPH_READER threads (in
+	 * case the configured separators are supported)
+	 * 
+	 * @param filename
+	 * @return graph read from the file, null in case of an error
+	 */
 	public static Graph read(String filename) {
+		if (GraphReader.isBinary(filename)) {
+			return GraphReader.readBinary(filename);
+		}
 		String sep1 = Config.get("GRAPH_WRITER_SEPARATOR_1");
 		String sep2 = Config.get("GRAPH_WRITER_SEPARATOR_2");
+		if (GraphTextParser.isSupported(sep1, sep2)) {
+			try {
+				return new GraphTextParser(sep1, sep2,
+						Config.getInt("PARALLEL_GRAPH_READER")).parse(filename);
+			} catch (Exception e) {
+				// e.printStackTrace();
+				return null;
+			}
+		}
 		Filereader fr = new Filereader(filename);
 		try {
 			String line = null;
@@ -81,6 +115,171 @@ public class GraphReader {
 		}
 	}
 
+	/**
+	 * @param filename
+	 * @return true if the file starts with the magic number of the binary
+	 *         graph format
+	 */
+	public static boolean isBinary(String filename) {
+		DataInputStream in = null;
+		try {
+			in = new DataInputStream(new FileInputStream(filename));
+			return Integer.reverseBytes(in.readInt()) == GraphWriter.BINARY_MAGIC;
+		} catch (IOException e) {
+			return false;
+		} finally {
+			if (in != null) {
+				try {
+					in.close();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+	}
+
+	/**
+	 * reads a graph in the binary format by memory-mapping the file, the
+	 * offset and target arrays are copied into a CSR graph in bulk, i.e.,
+	 * without any parsing; Node objects are only created when needed
+	 * 
+	 * @param filename
+	 * @return graph read from the file, null in case of an error, a
+	 *         checksum mismatch, or a file that is truncated or inconsistent
+	 *         with its header
+	 */
+	public static Graph readBinary(String filename) {
+		RandomAccessFile file = null;
+		try {
+			file = new RandomAccessFile(filename, "r");
+			FileChannel channel = file.getChannel();
+			long size = channel.size();
+			if (size < 32) {
+				return null;
+			}
+			ByteBuffer header = GraphReader.readBytes(channel, 0, 16);
+			if (header.getInt() != GraphWriter.BINARY_MAGIC
+					|| header.getInt() != GraphWriter.BINARY_VERSION) {
+				return null;
+			}
+			int flags = header.getInt();
+			int nameLength = header.getInt();
+			if ((flags & ~GraphWriter.BINARY_FLAG_CHECKSUM) != 0
+					|| nameLength < 0 || nameLength > Integer.MAX_VALUE - 32
+					|| 32L + nameLength > size) {
+				return null;
+			}
+			int padded = (int) ((nameLength + 7L) & ~7L);
+			ByteBuffer meta = GraphReader.readBytes(channel, 16, padded + 16);
+			byte[] name = new byte[nameLength];
+			meta.get(name);
+			meta.position(padded);
+			int nodes = meta.getInt();
+			meta.getInt();
+			long edges = meta.getLong();
+			long position = 16L + padded + 16;
+			if (nodes < 0 || nodes == Integer.MAX_VALUE || edges < 0
+					|| edges > Integer.MAX_VALUE) {
+				return null;
+			}
+			boolean checksum = (flags & GraphWriter.BINARY_FLAG_CHECKSUM) != 0;
+			long expected = position + 4L * (nodes + 1) + 4L * edges
+					+ (checksum ? 8 : 0);
+			if (expected != size) {
+				return null;
+			}
+
+			CRC32 crc = checksum ? new CRC32() : null;
+			int[] offsets = new int[nodes + 1];
+			position = GraphReader.readInts(channel, position, offsets, crc);
+			int[] targets = new int[(int) edges];
+			position = GraphReader.readInts(channel, position, targets, crc);
+			if (crc != null) {
+				if (GraphReader.readBytes(channel, position, 8).getLong() != crc
+						.getValue()) {
+					return null;
+				}
+			}
+			if (!GraphReader.isValid(offsets, targets)) {
+				return null;
+			}
+
+			Graph graph = new Graph(new String(name, Charset.forName("UTF-8")));
+			graph.setCSR(CSRGraph.fromOutgoing(offsets, targets));
+			return graph;
+		} catch (IOException e) {
+			// e.printStackTrace();
+			return null;
+		} finally {
+			if (file != null) {
+				try {
+					file.close();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+	}
+
+	/**
+	 * @param offsets
+	 * @param targets
+	 * @return true if the offsets are non-decreasing from 0 to the number of
+	 *         targets and all targets are valid node indices
+	 */
+	private static boolean isValid(int[] offsets, int[] targets) {
+		int nodes = offsets.length - 1;
+		if (offsets[0] != 0 || offsets[nodes] != targets.length) {
+			return false;
+		}
+		for (int i = 0; i < nodes; i++) {
+			if (offsets[i] > offsets[i + 1]) {
+				return false;
+			}
+		}
+		for (int target : targets) {
+			if (target < 0 || target >= nodes) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static ByteBuffer readBytes(FileChannel channel, long position,
+			int length) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(length).order(
+				ByteOrder.LITTLE_ENDIAN);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0) {
+				throw new IOException("unexpected end of file");
+			}
+		}
+		buffer.flip();
+		return buffer;
+	}
+
+	private static long readInts(FileChannel channel, long position,
+			int[] values, CRC32 crc) throws IOException {
+		byte[] bytes = crc != null ? new byte[1 << 16] : null;
+		for (int i = 0; i < values.length;) {
+			int length = Math.min(values.length - i, BINARY_MAP_SIZE / 4);
+			MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY,
+					position, 4L * length);
+			map.order(ByteOrder.LITTLE_ENDIAN);
+			map.asIntBuffer().get(values, i, length);
+			if (crc != null) {
+				while (map.hasRemaining()) {
+					int chunk = Math.min(bytes.length, map.remaining());
+					map.get(bytes, 0, chunk);
+					crc.update(bytes, 0, chunk);
+				}
+			}
+			position += 4L * length;
+			i += length;
+		}
+		return position;
+	}
+
 	public static Graph readWithProperties(String filename) {
 		File file = new File(filename);
 		File folder = file.getParentFile();
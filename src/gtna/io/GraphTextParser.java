@@ -0,0 +1,474 @@
+/* ===========================================================
+ * GTNA : Graph-Theoretic Network Analyzer
+ * ===========================================================
+ *
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors
+ *
+ * Project Info:  http://www.p2p.tu-darmstadt.de/research/gtna/
+ *
+ * GTNA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GTNA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ---------------------------------------
+ * GraphTextParser.java
+ * ---------------------------------------
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors 
+ *
+ * Original Author: agent;
+ * Contributors:    -;
+ *
+ * Changes since 2011-05-17
+ * ---------------------------------------
+ *
+ */
+package gtna.io;
+
+import gtna.graph.Graph;
+import gtna.graph.Node;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+/**
+ * Streaming parser for graphs in the text format written by GraphWriter.write.
+ * 
+ * Instead of reading the file line by line as Strings and splitting them, the
+ * parser reads large byte buffers and parses the node indices directly from
+ * the bytes. After the header (name, number of nodes and edges) has been read,
+ * the remaining file is split into chunks at line boundaries that are parsed
+ * by separate threads. The file is parsed twice: the first pass only counts
+ * the outgoing edges of every node so that the adjacency arrays can be
+ * allocated exactly, the second pass writes the edges into them.
+ * 
+ * The resulting graph is the same as the one created by adding all edges to
+ * an Edges object in the order they appear in the file: duplicate edges are
+ * ignored and the outgoing edges of each node keep their order. The incoming
+ * edges of each node are sorted by source, which is their insertion order for
+ * all files written by GraphWriter (lines sorted by node index).
+ * 
+ * Only single-character separators are supported, see isSupported.
+ * 
+ * @author agent
+ * 
+ */
+public class GraphTextParser {
+	private static final int BUFFER_SIZE = 1 << 20;
+
+	private static final String REGEX_CHARACTERS = ".$|()[]{}^?*+\\";
+
+	private byte sep1;
+
+	private byte sep2;
+
+	private int threads;
+
+	private byte[] comment;
+
+	/**
+	 * @param sep1
+	 *            separator between a node and its outgoing edges
+	 * @param sep2
+	 *            separator between two outgoing edges
+	 * @param threads
+	 *            number of threads used to parse the edges
+	 */
+	public GraphTextParser(String sep1, String sep2, int threads) {
+		this.sep1 = (byte) sep1.charAt(0);
+		this.sep2 = (byte) sep2.charAt(0);
+		this.threads = Math.max(threads, 1);
+		this.comment = Filewriter.COMMENT.getBytes(Charset.forName("US-ASCII"));
+	}
+
+	/**
+	 * @param sep1
+	 * @param sep2
+	 * @return true if both separators are single ASCII characters that are
+	 *         matched literally by String.split
+	 */
+	public static boolean isSupported(String sep1, String sep2) {
+		return GraphTextParser.isSupported(sep1)
+				&& GraphTextParser.isSupported(sep2) && !sep1.equals(sep2);
+	}
+
+	private static boolean isSupported(String sep) {
+		return sep.length() == 1 && sep.charAt(0) > ' ' && sep.charAt(0) < 128
+				&& !Character.isDigit(sep.charAt(0))
+				&& REGEX_CHARACTERS.indexOf(sep.charAt(0)) == -1;
+	}
+
+	/**
+	 * @param filename
+	 *            file containing a graph in the text format
+	 * @return the graph read from the file
+	 * @throws IOException
+	 *             in case the file cannot be read
+	 * @throws IllegalArgumentException
+	 *             in case the file is not a valid graph file
+	 */
+	public Graph parse(String filename) throws IOException {
+		RandomAccessFile file = new RandomAccessFile(filename, "r");
+		try {
+			FileChannel channel = file.getChannel();
+			long size = channel.size();
+
+			// header: name, number of nodes and number of edges
+			String[] header = new String[3];
+			long bodyStart = this.parseHeader(channel, size, header);
+			Graph graph = new Graph(header[0]);
+			int V = Integer.parseInt(header[1]);
+			Integer.parseInt(header[2]);
+
+			long[] bounds = this.chunks(channel, bodyStart, size);
+			Chunk[] chunks = new Chunk[bounds.length - 1];
+			for (int i = 0; i < chunks.length; i++) {
+				chunks[i] = new Chunk(channel, bounds[i], bounds[i + 1], V);
+			}
+
+			// first pass: count the outgoing edges of every node
+			this.run(chunks);
+			int[][] out = new int[V][];
+			int[] degree = new int[V];
+			for (int node = 0; node < V; node++) {
+				int d = 0;
+				for (Chunk chunk : chunks) {
+					// the counts are replaced by the start index of the chunk
+					int count = chunk.cursor[node];
+					chunk.cursor[node] = d;
+					d += count;
+				}
+				degree[node] = d;
+				out[node] = new int[d];
+			}
+
+			// second pass: write the outgoing edges
+			for (Chunk chunk : chunks) {
+				chunk.out = out;
+			}
+			this.run(chunks);
+
+			// remove duplicate edges and compute the incoming edges
+			int[] seen = new int[V];
+			int[] inDegree = new int[V];
+			for (int src = 0; src < V; src++) {
+				int[] edges = out[src];
+				int d = 0;
+				for (int j = 0; j < edges.length; j++) {
+					int dst = edges[j];
+					if (seen[dst] == src + 1) {
+						continue;
+					}
+					seen[dst] = src + 1;
+					edges[d++] = dst;
+					inDegree[dst]++;
+				}
+				if (d < edges.length) {
+					int[] temp = new int[d];
+					System.arraycopy(edges, 0, temp, 0, d);
+					out[src] = temp;
+				}
+			}
+			int[][] in = new int[V][];
+			for (int node = 0; node < V; node++) {
+				in[node] = new int[inDegree[node]];
+				inDegree[node] = 0;
+			}
+			for (int src = 0; src < V; src++) {
+				for (int dst : out[src]) {
+					in[dst][inDegree[dst]++] = src;
+				}
+			}
+
+			Node[] nodes = new Node[V];
+			for (int i = 0; i < V; i++) {
+				nodes[i] = new Node(i, graph, in[i], out[i]);
+			}
+			graph.setNodes(nodes);
+			return graph;
+		} finally {
+			file.close();
+		}
+	}
+
+	/**
+	 * reads the first three lines that are neither empty nor comments
+	 * 
+	 * @return position of the first byte after the header
+	 */
+	private long parseHeader(FileChannel channel, long size, String[] header)
+			throws IOException {
+		byte[] bytes = new byte[(int) Math.min(size, 1 << 16)];
+		long position = 0;
+		int found = 0;
+		while (found < header.length) {
+			int length = GraphTextParser.read(channel, position, bytes, 0,
+					(int) Math.min(bytes.length, size - position));
+			if (length == 0) {
+				throw new IllegalArgumentException("incomplete header");
+			}
+			int end = 0;
+			while (end < length && bytes[end] != '\n') {
+				end++;
+			}
+			if (end == length && position + length < size) {
+				// line longer than the buffer
+				bytes = new byte[2 * bytes.length];
+				continue;
+			}
+			int from = GraphTextParser.trimStart(bytes, 0, end);
+			int to = GraphTextParser.trimEnd(bytes, from, end);
+			if (from < to && !this.isComment(bytes, from, to)) {
+				header[found++] = new String(bytes, from, to - from,
+						Charset.defaultCharset());
+			}
+			position += Math.min(end + 1, length);
+		}
+		return position;
+	}
+
+	/**
+	 * splits the given range into (at most) threads chunks that start at the
+	 * beginning of a line
+	 */
+	private long[] chunks(FileChannel channel, long start, long end)
+			throws IOException {
+		int count = (int) Math.max(1,
+				Math.min(this.threads, (end - start) / BUFFER_SIZE));
+		long[] bounds = new long[count + 1];
+		bounds[0] = start;
+		bounds[count] = end;
+		byte[] bytes = new byte[1 << 12];
+		for (int i = 1; i < count; i++) {
+			long position = Math.max(bounds[i - 1], start + (end - start) * i
+					/ count);
+			search: while (position < end) {
+				int length = GraphTextParser.read(channel, position, bytes, 0,
+						(int) Math.min(bytes.length, end - position));
+				for (int j = 0; j < length; j++) {
+					if (bytes[j] == '\n') {
+						position += j + 1;
+						break search;
+					}
+				}
+				position += length;
+			}
+			bounds[i] = position;
+		}
+		return bounds;
+	}
+
+	private void run(Chunk[] chunks) throws IOException {
+		Thread[] threads = new Thread[chunks.length];
+		for (int i = 1; i < chunks.length; i++) {
+			threads[i] = new Thread(chunks[i]);
+			threads[i].start();
+		}
+		chunks[0].run();
+		for (int i = 1; i < chunks.length; i++) {
+			try {
+				threads[i].join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException(
+						"interrupted while waiting for the parser threads");
+			}
+		}
+		for (Chunk chunk : chunks) {
+			if (chunk.exception instanceof IOException) {
+				throw (IOException) chunk.exception;
+			} else if (chunk.exception instanceof RuntimeException) {
+				throw (RuntimeException) chunk.exception;
+			} else if (chunk.exception != null) {
+				throw new RuntimeException(chunk.exception);
+			}
+		}
+	}
+
+	private boolean isComment(byte[] bytes, int from, int to) {
+		if (to - from < this.comment.length) {
+			return false;
+		}
+		for (int i = 0; i < this.comment.length; i++) {
+			if (bytes[from + i] != this.comment[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static int trimStart(byte[] bytes, int from, int to) {
+		while (from < to && (bytes[from] & 0xff) <= ' ') {
+			from++;
+		}
+		return from;
+	}
+
+	private static int trimEnd(byte[] bytes, int from, int to) {
+		while (to > from && (bytes[to - 1] & 0xff) <= ' ') {
+			to--;
+		}
+		return to;
+	}
+
+	/**
+	 * parses the lines of a range of the file, in the first pass (out == null)
+	 * the outgoing edges of every node are counted in cursor, in the second
+	 * pass they are written to out starting at the index given in cursor
+	 */
+	private class Chunk implements Runnable {
+		private FileChannel channel;
+
+		private long start;
+
+		private long end;
+
+		private int nodes;
+
+		private int[] cursor;
+
+		private int[][] out;
+
+		private Throwable exception;
+
+		private Chunk(FileChannel channel, long start, long end, int nodes) {
+			this.channel = channel;
+			this.start = start;
+			this.end = end;
+			this.nodes = nodes;
+			this.cursor = new int[nodes];
+		}
+
+		public void run() {
+			try {
+				this.parse();
+			} catch (Throwable e) {
+				this.exception = e;
+			}
+		}
+
+		private void parse() throws IOException {
+			byte[] bytes = new byte[(int) Math.min(BUFFER_SIZE,
+					Math.max(this.end - this.start, 1))];
+			int length = 0;
+			long position = this.start;
+			while (true) {
+				int read = GraphTextParser.read(this.channel, position, bytes,
+						length, (int) Math.min(bytes.length - length, this.end
+								- position));
+				position += read;
+				length += read;
+				boolean last = position >= this.end;
+				int lineStart = 0;
+				for (int i = 0; i < length; i++) {
+					if (bytes[i] == '\n') {
+						this.parseLine(bytes, lineStart, i);
+						lineStart = i + 1;
+					}
+				}
+				if (last) {
+					this.parseLine(bytes, lineStart, length);
+					return;
+				}
+				// keep the incomplete last line
+				System.arraycopy(bytes, lineStart, bytes, 0, length
+						- lineStart);
+				length -= lineStart;
+				if (length == bytes.length) {
+					byte[] temp = new byte[2 * bytes.length];
+					System.arraycopy(bytes, 0, temp, 0, length);
+					bytes = temp;
+				}
+			}
+		}
+
+		/**
+		 * parses a single line with the same semantics as splitting it using
+		 * String.split: "src:dst1;dst2;..."
+		 */
+		private void parseLine(byte[] bytes, int from, int to) {
+			from = GraphTextParser.trimStart(bytes, from, to);
+			to = GraphTextParser.trimEnd(bytes, from, to);
+			if (from == to || GraphTextParser.this.isComment(bytes, from, to)) {
+				return;
+			}
+			int s = from;
+			while (s < to && bytes[s] != sep1) {
+				s++;
+			}
+			if (s >= to - 1 || bytes[s + 1] == sep1) {
+				// no outgoing edges
+				return;
+			}
+			int src = this.parseIndex(bytes, from, s);
+			int e = s + 1;
+			while (e < to && bytes[e] != sep1) {
+				e++;
+			}
+			// trailing separators are ignored (as by String.split)
+			while (e > s + 1 && bytes[e - 1] == sep2) {
+				e--;
+			}
+			int i = s + 1;
+			while (i < e) {
+				int j = i;
+				while (j < e && bytes[j] != sep2) {
+					j++;
+				}
+				int dst = this.parseIndex(bytes, i, j);
+				if (this.out == null) {
+					this.cursor[src]++;
+				} else {
+					this.out[src][this.cursor[src]++] = dst;
+				}
+				i = j + 1;
+			}
+		}
+
+		private int parseIndex(byte[] bytes, int from, int to) {
+			if (from == to || to - from > 10) {
+				throw new IllegalArgumentException("invalid node index: "
+						+ new String(bytes, from, to - from));
+			}
+			long value = 0;
+			for (int i = from; i < to; i++) {
+				int digit = bytes[i] - '0';
+				if (digit < 0 || digit > 9) {
+					throw new IllegalArgumentException("invalid node index: "
+							+ new String(bytes, from, to - from));
+				}
+				value = 10 * value + digit;
+			}
+			if (value >= this.nodes) {
+				throw new IllegalArgumentException("node index out of range: "
+						+ value);
+			}
+			return (int) value;
+		}
+	}
+
+	private static int read(FileChannel channel, long position, byte[] bytes,
+			int offset, int length) throws IOException {
+		ByteBuffer buffer = ByteBuffer.wrap(bytes, offset, length);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position() - offset) < 0) {
+				break;
+			}
+		}
+		return buffer.position() - offset;
+	}
+}
@@ -35,6 +35,7 @@
  */
 package gtna.io;
 
+import gtna.graph.CSRGraph;
 import gtna.graph.Edge;
 import gtna.graph.Edges;
 import gtna.graph.Graph;
@@ -46,12 +47,34 @@ import gtna.util.Config;
 import gtna.util.Util;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
 import java.text.SimpleDateFormat;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.zip.CRC32;
 
 public class GraphWriter {
+	/**
+	 * first four bytes of a binary graph file ("GTNA" in little-endian byte
+	 * order)
+	 */
+	public static final int BINARY_MAGIC = 0x414e5447;
+
+	public static final int BINARY_VERSION = 1;
+
+	/**
+	 * flag indicating that the adjacency is followed by a CRC32 checksum
+	 */
+	public static final int BINARY_FLAG_CHECKSUM = 1;
+
+	private static final int BINARY_BUFFER_SIZE = 1 << 20;
+
 	public static boolean write(Graph graph, String filename) {
 		String sep1 = Config.get("GRAPH_WRITER_SEPARATOR_1");
 		String sep2 = Config.get("GRAPH_WRITER_SEPARATOR_2");
@@ -88,6 +111,111 @@ public class GraphWriter {
 		return fw.close();
 	}
 
+	public static boolean writeBinary(Graph graph, String filename) {
+		return GraphWriter.writeBinary(graph, filename,
+				Config.getBoolean("GRAPH_WRITER_BINARY_CHECKSUM"));
+	}
+
+	/**
+	 * writes the graph in the binary adjacency format (version 1), all values
+	 * are stored in little-endian byte order:
+	 * 
+	 * <pre>
+	 * int      magic ("GTNA")
+	 * int      version
+	 * int      flags
+	 * int      length of the name in bytes (UTF-8)
+	 * byte[]   name, padded with zeros to a multiple of 8 bytes
+	 * int      number of nodes n
+	 * int      (reserved)
+	 * long     number of edges E
+	 * int[n+1] offsets of the outgoing edges of each node
+	 * int[E]   targets of the outgoing edges (each row sorted)
+	 * long     CRC32 of offsets and targets (only if BINARY_FLAG_CHECKSUM)
+	 * </pre>
+	 * 
+	 * such a file can be memory-mapped by GraphReader without any parsing
+	 * 
+	 * @param graph
+	 *            graph to write
+	 * @param filename
+	 *            file to write the graph to
+	 * @param checksum
+	 *            true to append a checksum of the adjacency
+	 * @return true if the graph was written successfully
+	 */
+	public static boolean writeBinary(Graph graph, String filename,
+			boolean checksum) {
+		CSRGraph csr = graph.getCSR();
+		RandomAccessFile file = null;
+		try {
+			file = new RandomAccessFile(filename, "rw");
+			file.setLength(0);
+			FileChannel channel = file.getChannel();
+			byte[] name = graph.getName().getBytes(Charset.forName("UTF-8"));
+			int padded = (name.length + 7) & ~7;
+			ByteBuffer header = ByteBuffer.allocate(padded + 32).order(
+					ByteOrder.LITTLE_ENDIAN);
+			header.putInt(BINARY_MAGIC);
+			header.putInt(BINARY_VERSION);
+			header.putInt(checksum ? BINARY_FLAG_CHECKSUM : 0);
+			header.putInt(name.length);
+			header.put(name);
+			header.position(16 + padded);
+			header.putInt(csr.getNodeCount());
+			header.putInt(0);
+			header.putLong(csr.getEdgeCount());
+			header.flip();
+			while (header.hasRemaining()) {
+				channel.write(header);
+			}
+
+			ByteBuffer buffer = ByteBuffer.allocate(BINARY_BUFFER_SIZE).order(
+					ByteOrder.LITTLE_ENDIAN);
+
+			CRC32 crc = checksum ? new CRC32() : null;
+			GraphWriter.writeInts(channel, buffer, crc, csr.getOutOffsets());
+			GraphWriter.writeInts(channel, buffer, crc, csr.getOutTargets());
+			if (checksum) {
+				buffer.putLong(crc.getValue());
+				buffer.flip();
+				while (buffer.hasRemaining()) {
+					channel.write(buffer);
+				}
+			}
+			return true;
+		} catch (IOException e) {
+			e.printStackTrace();
+			return false;
+		} finally {
+			if (file != null) {
+				try {
+					file.close();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+	}
+
+	private static void writeInts(FileChannel channel, ByteBuffer buffer,
+			CRC32 crc, int[] values) throws IOException {
+		for (int i = 0; i < values.length;) {
+			int length = Math.min(values.length - i, buffer.remaining() / 4);
+			buffer.asIntBuffer().put(values, i, length);
+			buffer.position(buffer.position() + 4 * length);
+			i += length;
+			buffer.flip();
+			if (crc != null) {
+				crc.update(buffer.array(), 0, buffer.limit());
+			}
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			buffer.clear();
+		}
+	}
+
 	public static boolean writeWithProperties(Graph graph, String filename) {
 		HashMap<String, String> filenames = new HashMap<String, String>();
 		String del = Config.get("GRAPH_WRITER_PROPERTY_FILE_DELIMITER");
@@ -54,6 +54,8 @@ public class Output {
 
 	private static final boolean writeToFile = true;
 
+	private static ThreadLocal<StringBuffer> buffer = new ThreadLocal<StringBuffer>();
+
 	public static void open(String filename) {
 		DELIMITER = Config.get("OUTPUT_DELIMITER");
 		if (writeToFile) {
@@ -95,7 +97,35 @@ public class Output {
 		}
 	}
 
+	/**
+	 * buffers all output written by the current thread until flushBuffer() is
+	 * called, used to keep the output of parallel runs readable
+	 */
+	public static void startBuffer() {
+		buffer.set(new StringBuffer());
+	}
+
+	/**
+	 * writes all output buffered by the current thread as one block and stops
+	 * buffering
+	 */
+	public static void flushBuffer() {
+		StringBuffer buff = buffer.get();
+		if (buff == null) {
+			return;
+		}
+		buffer.remove();
+		synchronized (Output.class) {
+			write(buff.toString());
+		}
+	}
+
 	public static void write(String data) {
+		StringBuffer buff = buffer.get();
+		if (buff != null) {
+			buff.append(data);
+			return;
+		}
 		if (writeToFile && fw != null) {
 			fw.write(data);
 		}
@@ -105,6 +135,11 @@ public class Output {
 	}
 
 	public static void writeln(String line) {
+		StringBuffer buff = buffer.get();
+		if (buff != null) {
+			buff.append(line + "\n");
+			return;
+		}
 		if (writeToFile && fw != null) {
 			fw.writeln(line);
 		}
@@ -44,7 +44,7 @@ import gtna.util.parameter.ParameterList;
 
 import java.util.HashMap;
 
-public abstract class Metric extends ParameterList {
+public abstract class Metric extends ParameterList implements Cloneable {
 
 	public Metric(String key) {
 		this(key, new Parameter[0]);
@@ -117,4 +117,20 @@ public abstract class Metric extends ParameterList {
 
 	public abstract boolean applicable(Graph g, Network n,
 			HashMap<String, Metric> m);
+
+	/**
+	 * creates a shallow copy of this metric, used by Series.generate to give
+	 * each run its own instance in case runs are executed in parallel<br>
+	 * metrics that modify objects created in their constructor during
+	 * computeData must override this method and copy these objects
+	 * 
+	 * @return copy of this metric
+	 */
+	public Metric clone() {
+		try {
+			return (Metric) super.clone();
+		} catch (CloneNotSupportedException e) {
+			throw new RuntimeException(e);
+		}
+	}
 }
@@ -0,0 +1,343 @@
+/* ===========================================================
+ * GTNA : Graph-Theoretic Network Analyzer
+ * ===========================================================
+ *
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors
+ *
+ * Project Info:  http://www.p2p.tu-darmstadt.de/research/gtna/
+ *
+ * GTNA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GTNA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ---------------------------------------
+ * BFSEngine.java
+ * ---------------------------------------
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors 
+ *
+ * Original Author: agent;
+ * Contributors:    -;
+ *
+ * Changes since 2011-05-17
+ * ---------------------------------------
+ *
+ */
+package gtna.metrics.basic;
+
+import gtna.graph.CSRGraph;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Computes breadth-first searches from a list of sources on the CSR
+ * representation of a graph using several worker threads. The sources are
+ * distributed dynamically, every worker keeps its own reusable queue and
+ * distance arrays as well as its own histogram of shortest path lengths which
+ * are merged once all searches are finished.
+ *
+ * In bit-parallel mode, each worker processes 64 sources at once: for every
+ * node, the sources that have already reached it and the sources in whose
+ * current BFS frontier it is are stored as bits of a long. A single pass over
+ * the edges per level then advances all 64 searches.
+ *
+ * For every source, the number of reachable nodes, the sum of the distances to
+ * them and the eccentricity (maximum distance) are recorded, the histogram
+ * counts the number of (source, node) pairs for every distance &gt; 0. In case
+ * perSourceHistograms is set, a separate histogram is kept for every source,
+ * e.g., to estimate confidence intervals from a sample of sources.
+ *
+ * @author agent
+ *
+ */
+public class BFSEngine {
+	private CSRGraph csr;
+
+	private int threads;
+
+	private boolean bitParallel;
+
+	private long[] histogram;
+
+	private long[] sums;
+
+	private int[] found;
+
+	private int[] eccentricities;
+
+	private boolean perSourceHistograms;
+
+	private long[][] histograms;
+
+	/**
+	 * @param csr
+	 *            graph to compute the BFSs in
+	 * @param threads
+	 *            number of worker threads
+	 * @param bitParallel
+	 *            true to process 64 sources per worker at once
+	 */
+	public BFSEngine(CSRGraph csr, int threads, boolean bitParallel) {
+		this.csr = csr;
+		this.threads = Math.max(threads, 1);
+		this.bitParallel = bitParallel;
+	}
+
+	/**
+	 * computes a BFS from each of the given sources
+	 *
+	 * @param sources
+	 *            indices of the source nodes
+	 */
+	public void compute(int[] sources) {
+		this.sums = new long[sources.length];
+		this.found = new int[sources.length];
+		this.eccentricities = new int[sources.length];
+		this.histograms = this.perSourceHistograms ? new long[sources.length][]
+				: null;
+		AtomicInteger next = new AtomicInteger(0);
+		int threads = Math.max(Math.min(this.threads, sources.length), 1);
+		Worker[] workers = new Worker[threads];
+		for (int i = 0; i < workers.length; i++) {
+			workers[i] = new Worker(sources, next);
+		}
+		for (int i = 1; i < workers.length; i++) {
+			workers[i].start();
+		}
+		workers[0].run();
+		long[] histogram = new long[1];
+		for (int i = 0; i < workers.length; i++) {
+			try {
+				if (i > 0) {
+					workers[i].join();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RuntimeException(e);
+			}
+			long[] h = workers[i].histogram;
+			if (h.length > histogram.length) {
+				long[] temp = new long[h.length];
+				System.arraycopy(histogram, 0, temp, 0, histogram.length);
+				histogram = temp;
+			}
+			for (int d = 0; d < h.length; d++) {
+				histogram[d] += h[d];
+			}
+		}
+		int length = histogram.length;
+		while (length > 1 && histogram[length - 1] == 0) {
+			length--;
+		}
+		this.histogram = new long[length];
+		System.arraycopy(histogram, 0, this.histogram, 0, length);
+	}
+
+	/**
+	 * @return number of (source, node) pairs for each shortest path length,
+	 *         the last entry is non-zero (unless there is no path at all)
+	 */
+	public long[] getHistogram() {
+		return this.histogram;
+	}
+
+	/**
+	 * @param perSourceHistograms
+	 *            true to keep a separate histogram for each source
+	 */
+	public void setPerSourceHistograms(boolean perSourceHistograms) {
+		this.perSourceHistograms = perSourceHistograms;
+	}
+
+	/**
+	 * @return histogram of shortest path lengths for each source (of length
+	 *         eccentricity + 1), null in case perSourceHistograms is not set
+	 */
+	public long[][] getHistograms() {
+		return this.histograms;
+	}
+
+	/**
+	 * @return sum of the distances to all reachable nodes for each source
+	 */
+	public long[] getSums() {
+		return this.sums;
+	}
+
+	/**
+	 * @return number of nodes reachable from each source (excluding itself)
+	 */
+	public int[] getFound() {
+		return this.found;
+	}
+
+	/**
+	 * @return maximum distance to any reachable node for each source
+	 */
+	public int[] getEccentricities() {
+		return this.eccentricities;
+	}
+
+	private static long[] inc(long[] values, int index) {
+		if (index >= values.length) {
+			long[] temp = new long[index + 1];
+			System.arraycopy(values, 0, temp, 0, values.length);
+			values = temp;
+		}
+		values[index]++;
+		return values;
+	}
+
+	private class Worker extends Thread {
+		private int[] sources;
+
+		private AtomicInteger next;
+
+		private long[] histogram;
+
+		private Worker(int[] sources, AtomicInteger next) {
+			this.sources = sources;
+			this.next = next;
+			this.histogram = new long[16];
+		}
+
+		public void run() {
+			if (bitParallel) {
+				this.runBitParallel();
+			} else {
+				this.runScalar();
+			}
+		}
+
+		private void runScalar() {
+			int n = csr.getNodeCount();
+			int[] targets = csr.getOutTargets();
+			int[] dist = new int[n];
+			for (int i = 0; i < n; i++) {
+				dist[i] = -1;
+			}
+			int[] queue = new int[n];
+			int index;
+			while ((index = this.next.getAndIncrement()) < this.sources.length) {
+				int start = this.sources[index];
+				long sum = 0;
+				int counter = 0;
+				int head = 0;
+				int tail = 0;
+				queue[tail++] = start;
+				dist[start] = 0;
+				while (head < tail) {
+					int current = queue[head++];
+					int d = dist[current] + 1;
+					for (int j = csr.outStart(current); j < csr.outEnd(current); j++) {
+						int out = targets[j];
+						if (dist[out] != -1) {
+							continue;
+						}
+						dist[out] = d;
+						queue[tail++] = out;
+						counter++;
+						sum += d;
+						this.inc(d, 1);
+					}
+				}
+				sums[index] = sum;
+				found[index] = counter;
+				eccentricities[index] = dist[queue[tail - 1]];
+				if (histograms != null) {
+					long[] h = new long[eccentricities[index] + 1];
+					for (int i = 1; i < tail; i++) {
+						h[dist[queue[i]]]++;
+					}
+					histograms[index] = h;
+				}
+				for (int i = 0; i < tail; i++) {
+					dist[queue[i]] = -1;
+				}
+			}
+		}
+
+		private void runBitParallel() {
+			int n = csr.getNodeCount();
+			int[] targets = csr.getOutTargets();
+			long[] visited = new long[n];
+			long[] frontier = new long[n];
+			long[] reached = new long[n];
+			int batch;
+			while ((batch = this.next.getAndAdd(64)) < this.sources.length) {
+				int size = Math.min(64, this.sources.length - batch);
+				for (int i = 0; i < n; i++) {
+					visited[i] = 0;
+					frontier[i] = 0;
+				}
+				for (int k = 0; k < size; k++) {
+					int start = this.sources[batch + k];
+					visited[start] |= 1L << k;
+					frontier[start] |= 1L << k;
+					sums[batch + k] = 0;
+					found[batch + k] = 0;
+					eccentricities[batch + k] = 0;
+					if (histograms != null) {
+						histograms[batch + k] = new long[1];
+					}
+				}
+				boolean changed = true;
+				for (int d = 1; changed; d++) {
+					changed = false;
+					for (int u = 0; u < n; u++) {
+						long f = frontier[u];
+						if (f == 0) {
+							continue;
+						}
+						for (int j = csr.outStart(u); j < csr.outEnd(u); j++) {
+							reached[targets[j]] |= f;
+						}
+					}
+					for (int v = 0; v < n; v++) {
+						long newly = reached[v] & ~visited[v];
+						reached[v] = 0;
+						frontier[v] = newly;
+						if (newly == 0) {
+							continue;
+						}
+						changed = true;
+						visited[v] |= newly;
+						this.inc(d, Long.bitCount(newly));
+						while (newly != 0) {
+							int k = Long.numberOfTrailingZeros(newly);
+							newly &= newly - 1;
+							sums[batch + k] += d;
+							found[batch + k]++;
+							eccentricities[batch + k] = d;
+							if (histograms != null) {
+								histograms[batch + k] = BFSEngine.inc(
+										histograms[batch + k], d);
+							}
+						}
+					}
+				}
+			}
+		}
+
+		private void inc(int index, long count) {
+			if (index >= this.histogram.length) {
+				long[] temp = new long[Math.max(index + 1,
+						2 * this.histogram.length)];
+				System.arraycopy(this.histogram, 0, temp, 0,
+						this.histogram.length);
+				this.histogram = temp;
+			}
+			this.histogram[index] += count;
+		}
+	}
+}
@@ -0,0 +1,301 @@
+/* ===========================================================
+ * GTNA : Graph-Theoretic Network Analyzer
+ * ===========================================================
+ *
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors
+ *
+ * Project Info:  http://www.p2p.tu-darmstadt.de/research/gtna/
+ *
+ * GTNA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GTNA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ---------------------------------------
+ * BetweennessCentrality.java
+ * ---------------------------------------
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors 
+ *
+ * Original Author: agent;
+ * Contributors:    -;
+ *
+ * Changes since 2011-05-17
+ * ---------------------------------------
+ *
+ */
+package gtna.metrics.basic;
+
+import gtna.data.Single;
+import gtna.graph.CSRGraph;
+import gtna.graph.Graph;
+import gtna.io.DataWriter;
+import gtna.metrics.Metric;
+import gtna.networks.Network;
+import gtna.util.Config;
+import gtna.util.Timer;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Computes the shortest-path betweenness centrality of all nodes using
+ * Brandes' algorithm (U. Brandes, "A Faster Algorithm for Betweenness
+ * Centrality", 2001) on the CSR representation of the graph.
+ *
+ * For every source, a BFS computes the number of shortest paths to every node
+ * and the dependencies of the source on all nodes are accumulated in reverse
+ * BFS order. The predecessors of a node are not stored, they are the
+ * in-neighbors one level closer to the source, i.e., the dependency of v is
+ * accumulated from all out-neighbors w of v with dist(w) = dist(v) + 1.
+ *
+ * The sources are distributed dynamically among the worker threads
+ * (PARALLEL_METRICS), every worker accumulates the dependencies in its own
+ * array, the arrays are summed up once all sources are processed.
+ *
+ * In case BETWEENNESS_CENTRALITY_SAMPLE_SOURCES is larger than 0, only the
+ * given number of sources sampled uniformly at random (without replacement)
+ * is used and the dependencies are scaled by n / samples, which yields an
+ * unbiased estimate of the betweenness of every node.
+ *
+ * The betweenness of each node is normalized by the number of (ordered) pairs
+ * of other nodes, (n - 1) * (n - 2).
+ *
+ * @author agent
+ *
+ */
+public class BetweennessCentrality extends Metric {
+	private double[] betweennessCentrality;
+
+	private double[] betweennessCentralitySorted;
+
+	private double average;
+
+	private double maximum;
+
+	private int sampledSources;
+
+	private Timer runtime;
+
+	public BetweennessCentrality() {
+		super("BETWEENNESS_CENTRALITY");
+	}
+
+	@Override
+	public boolean applicable(Graph g, Network n, HashMap<String, Metric> m) {
+		return true;
+	}
+
+	@Override
+	public void computeData(Graph graph, Network nw,
+			HashMap<String, Metric> metrics) {
+		this.runtime = new Timer();
+		CSRGraph csr = graph.getCSR();
+		int n = csr.getNodeCount();
+		int samples = Config.getInt("BETWEENNESS_CENTRALITY_SAMPLE_SOURCES");
+		int[] sources;
+		if (samples > 0 && samples < n) {
+			sources = this.sample(n, samples, new Random());
+		} else {
+			sources = new int[n];
+			for (int i = 0; i < n; i++) {
+				sources[i] = i;
+			}
+		}
+		this.sampledSources = sources.length;
+
+		double[] bc = this.compute(csr, sources,
+				Config.getInt("PARALLEL_METRICS"));
+		double scale = sources.length == 0 ? 0 : (double) n
+				/ (double) sources.length;
+		double pairs = (double) (n - 1) * (double) (n - 2);
+		if (pairs > 0) {
+			scale /= pairs;
+		}
+		this.average = 0;
+		this.maximum = 0;
+		for (int i = 0; i < n; i++) {
+			bc[i] *= scale;
+			this.average += bc[i];
+			this.maximum = Math.max(this.maximum, bc[i]);
+		}
+		this.average = n == 0 ? 0 : this.average / (double) n;
+		this.betweennessCentrality = bc;
+		this.betweennessCentralitySorted = Arrays.copyOf(bc, n);
+		Arrays.sort(this.betweennessCentralitySorted);
+		this.runtime.end();
+	}
+
+	/**
+	 * @param n
+	 *            number of nodes
+	 * @param samples
+	 *            number of sources to sample
+	 * @param rand
+	 * @return sources sampled uniformly at random without replacement
+	 */
+	private int[] sample(int n, int samples, Random rand) {
+		int[] nodes = new int[n];
+		for (int i = 0; i < n; i++) {
+			nodes[i] = i;
+		}
+		for (int i = 0; i < samples; i++) {
+			int index = i + rand.nextInt(n - i);
+			int temp = nodes[i];
+			nodes[i] = nodes[index];
+			nodes[index] = temp;
+		}
+		return Arrays.copyOf(nodes, samples);
+	}
+
+	/**
+	 * @param csr
+	 * @param sources
+	 *            sources from which the dependencies are accumulated
+	 * @param threads
+	 *            number of worker threads
+	 * @return sum of the dependencies of all sources on each node
+	 */
+	private double[] compute(CSRGraph csr, int[] sources, int threads) {
+		AtomicInteger next = new AtomicInteger(0);
+		threads = Math.max(Math.min(threads, sources.length), 1);
+		Worker[] workers = new Worker[threads];
+		for (int i = 0; i < workers.length; i++) {
+			workers[i] = new Worker(csr, sources, next);
+		}
+		for (int i = 1; i < workers.length; i++) {
+			workers[i].start();
+		}
+		workers[0].run();
+		double[] bc = workers[0].bc;
+		for (int i = 1; i < workers.length; i++) {
+			try {
+				workers[i].join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RuntimeException(e);
+			}
+			for (int j = 0; j < bc.length; j++) {
+				bc[j] += workers[i].bc[j];
+			}
+		}
+		return bc;
+	}
+
+	private static class Worker extends Thread {
+		private CSRGraph csr;
+
+		private int[] sources;
+
+		private AtomicInteger next;
+
+		private double[] bc;
+
+		private Worker(CSRGraph csr, int[] sources, AtomicInteger next) {
+			this.csr = csr;
+			this.sources = sources;
+			this.next = next;
+			this.bc = new double[csr.getNodeCount()];
+		}
+
+		public void run() {
+			int n = this.csr.getNodeCount();
+			int[] targets = this.csr.getOutTargets();
+			int[] dist = new int[n];
+			Arrays.fill(dist, -1);
+			double[] sigma = new double[n];
+			double[] delta = new double[n];
+			int[] queue = new int[n];
+			int index;
+			while ((index = this.next.getAndIncrement()) < this.sources.length) {
+				int s = this.sources[index];
+				int head = 0;
+				int tail = 0;
+				queue[tail++] = s;
+				dist[s] = 0;
+				sigma[s] = 1;
+				while (head < tail) {
+					int v = queue[head++];
+					for (int j = this.csr.outStart(v); j < this.csr.outEnd(v); j++) {
+						int w = targets[j];
+						if (dist[w] == -1) {
+							dist[w] = dist[v] + 1;
+							queue[tail++] = w;
+						}
+						if (dist[w] == dist[v] + 1) {
+							sigma[w] += sigma[v];
+						}
+					}
+				}
+				// the queue contains the nodes in order of their distance
+				for (int i = tail - 1; i >= 0; i--) {
+					int v = queue[i];
+					double dependency = 0;
+					for (int j = this.csr.outStart(v); j < this.csr.outEnd(v); j++) {
+						int w = targets[j];
+						if (dist[w] == dist[v] + 1) {
+							dependency += sigma[v] / sigma[w] * (1 + delta[w]);
+						}
+					}
+					delta[v] = dependency;
+					if (v != s) {
+						this.bc[v] += dependency;
+					}
+				}
+				for (int i = 0; i < tail; i++) {
+					int v = queue[i];
+					dist[v] = -1;
+					sigma[v] = 0;
+					delta[v] = 0;
+				}
+			}
+		}
+	}
+
+	@Override
+	public boolean writeData(String folder) {
+		boolean success = true;
+		success &= DataWriter.writeWithIndex(this.betweennessCentrality,
+				"BETWEENNESS_CENTRALITY_BETWEENNESS_CENTRALITY", folder);
+		success &= DataWriter.writeWithIndex(
+				this.betweennessCentralitySorted,
+				"BETWEENNESS_CENTRALITY_BETWEENNESS_CENTRALITY_SORTED", folder);
+		return success;
+	}
+
+	@Override
+	public Single[] getSingles() {
+		Single average = new Single("BETWEENNESS_CENTRALITY_AVG", this.average);
+		Single maximum = new Single("BETWEENNESS_CENTRALITY_MAX", this.maximum);
+		Single sampledSources = new Single(
+				"BETWEENNESS_CENTRALITY_SAMPLED_SOURCES", this.sampledSources);
+		Single runtime = new Single("BETWEENNESS_CENTRALITY_RUNTIME",
+				this.runtime.getRuntime());
+		return new Single[] { average, maximum, sampledSources, runtime };
+	}
+
+	/**
+	 * @return betweenness centrality of each node
+	 */
+	public double[] getBetweennessCentrality() {
+		return this.betweennessCentrality;
+	}
+
+	/**
+	 * @return betweenness centrality of all nodes in ascending order
+	 */
+	public double[] getBetweennessCentralitySorted() {
+		return this.betweennessCentralitySorted;
+	}
+}
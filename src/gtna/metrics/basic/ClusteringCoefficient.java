@@ -41,11 +41,11 @@
 package gtna.metrics.basic;
 
 import gtna.data.Single;
-import gtna.graph.Edges;
+import gtna.graph.CSRGraph;
 import gtna.graph.Graph;
-import gtna.graph.Node;
 import gtna.metrics.Metric;
 import gtna.networks.Network;
+import gtna.util.Config;
 import gtna.util.Timer;
 import gtna.util.Util;
 
@@ -76,63 +76,55 @@ public class ClusteringCoefficient extends Metric {
 	public void computeData(Graph graph, Network nw,
 			HashMap<String, Metric> metrics) {
 		this.runtime = new Timer();
-		Edges edges = new Edges(graph.getNodes(), graph.generateEdges());
+		CSRGraph csr = graph.getCSR();
+		TriangleCounter triangles = new TriangleCounter(
+				Config.getInt("PARALLEL_METRICS"));
+		triangles.compute(csr);
 		this.localClusteringCoefficient = this
-				.computeLocalClusteringCoefficient(graph.getNodes(), edges);
+				.computeLocalClusteringCoefficient(csr, triangles);
 		this.clusteringCoefficient = this
 				.computeClusteringCoefficient(this.localClusteringCoefficient);
-		this.transitivity = this.computeTransitivity(graph);
+		this.transitivity = this.computeTransitivity(csr, triangles);
 		this.runtime.end();
 	}
 
-	private double[] computeLocalClusteringCoefficient(Node[] nodes, Edges edges) {
-		double[] lcc = new double[nodes.length];
-		for (int i = 0; i < nodes.length; i++) {
-			lcc[i] = this.computeLocalClusteringCoefficient(nodes[i], edges);
-		}
-		return lcc;
-	}
-
-	private double computeLocalClusteringCoefficient(Node node, Edges edges) {
-		if (node.getOutDegree() <= 1) {
-			return 0;
-		}
-		int[] neighbors = node.getOutgoingEdges();
-		int counter = 0;
-		for (int u : neighbors) {
-			for (int v : neighbors) {
-				if (u != v && edges.contains(u, v)) {
-					counter++;
-				}
+	/**
+	 * lcc = (edges between out-neighbors) / (d * (d - 1))
+	 * 
+	 * @param csr
+	 * @param triangles
+	 * @return
+	 */
+	private double[] computeLocalClusteringCoefficient(CSRGraph csr,
+			TriangleCounter triangles) {
+		long[] edges = triangles.getOutNeighborEdges();
+		double[] lcc = new double[csr.getNodeCount()];
+		for (int i = 0; i < lcc.length; i++) {
+			long degree = csr.getOutDegree(i);
+			if (degree > 1) {
+				lcc[i] = (double) edges[i] / (double) (degree * (degree - 1));
 			}
 		}
-		return (double) counter
-				/ (double) (neighbors.length * (neighbors.length - 1));
+		return lcc;
 	}
 
 	/**
 	 * transitivity = triangles/(3*triples) in graph
 	 * 
-	 * @param g
+	 * @param csr
+	 * @param triangles
 	 * @return
 	 */
-	private double computeTransitivity(Graph g) {
-		int triangles = 0;
-		int triples = 0;
-		Node[] nodes = g.getNodes();
-		for (int i = 0; i < nodes.length; i++) {
-			triples = triples + (nodes[i].getOutDegree())
-					* (nodes[i].getOutDegree() - 1) / 2;
-			int[] out = nodes[i].getOutgoingEdges();
-			for (int j = 0; j < out.length; j++) {
-				for (int k = j + 1; k < out.length; k++) {
-					if (nodes[out[j]].hasNeighbor(out[k])) {
-						triangles++;
-					}
-				}
-			}
+	private double computeTransitivity(CSRGraph csr, TriangleCounter triangles) {
+		long[] closed = triangles.getOutTriangles();
+		long sum = 0;
+		long triples = 0;
+		for (int i = 0; i < csr.getNodeCount(); i++) {
+			long degree = csr.getOutDegree(i);
+			triples += degree * (degree - 1) / 2;
+			sum += closed[i];
 		}
-		return (double) triangles / (double) triples;
+		return (double) sum / (double) triples;
 	}
 
 	private double computeClusteringCoefficient(double[] lcc) {
@@ -36,8 +36,8 @@
 package gtna.metrics.basic;
 
 import gtna.data.Single;
+import gtna.graph.CSRGraph;
 import gtna.graph.Graph;
-import gtna.graph.Node;
 import gtna.io.DataWriter;
 import gtna.metrics.Metric;
 import gtna.networks.Network;
@@ -71,55 +71,58 @@ public class DegreeDistribution extends Metric {
 	public void computeData(Graph graph, Network nw, HashMap<String, Metric> m) {
 		this.runtime = new Timer();
 
-		double[] dd = new double[this.maxDegree(graph) + 1];
-		double[] ddi = new double[this.maxInDegree(graph) + 1];
-		double[] ddo = new double[this.maxOutDegree(graph) + 1];
+		CSRGraph csr = graph.getCSR();
+		int n = csr.getNodeCount();
 
-		for (Node n : graph.getNodes()) {
-			dd[n.getDegree()]++;
-			ddi[n.getInDegree()]++;
-			ddo[n.getOutDegree()]++;
+		double[] dd = new double[this.maxDegree(csr) + 1];
+		double[] ddi = new double[this.maxInDegree(csr) + 1];
+		double[] ddo = new double[this.maxOutDegree(csr) + 1];
+
+		for (int i = 0; i < n; i++) {
+			dd[csr.getDegree(i)]++;
+			ddi[csr.getInDegree(i)]++;
+			ddo[csr.getOutDegree(i)]++;
 		}
 		for (int i = 0; i < dd.length; i++) {
-			dd[i] /= (double) graph.getNodes().length;
+			dd[i] /= (double) n;
 		}
 		for (int i = 0; i < ddi.length; i++) {
-			ddi[i] /= (double) graph.getNodes().length;
+			ddi[i] /= (double) n;
 		}
 		for (int i = 0; i < ddo.length; i++) {
-			ddo[i] /= (double) graph.getNodes().length;
+			ddo[i] /= (double) n;
 		}
 
 		this.degreeDistribution = new Distribution(dd);
 		this.inDegreeDistribution = new Distribution(ddi);
 		this.outDegreeDistribution = new Distribution(ddo);
 
-		this.nodes = graph.getNodes().length;
-		this.edges = graph.generateEdges().length;
+		this.nodes = n;
+		this.edges = csr.getEdgeCount();
 
 		this.runtime.end();
 	}
 
-	private int maxDegree(Graph graph) {
+	private int maxDegree(CSRGraph csr) {
 		int max = 0;
-		for (Node n : graph.getNodes()) {
-			max = Math.max(max, n.getDegree());
+		for (int i = 0; i < csr.getNodeCount(); i++) {
+			max = Math.max(max, csr.getDegree(i));
 		}
 		return max;
 	}
 
-	private int maxInDegree(Graph graph) {
+	private int maxInDegree(CSRGraph csr) {
 		int max = 0;
-		for (Node n : graph.getNodes()) {
-			max = Math.max(max, n.getInDegree());
+		for (int i = 0; i < csr.getNodeCount(); i++) {
+			max = Math.max(max, csr.getInDegree(i));
 		}
 		return max;
 	}
 
-	private int maxOutDegree(Graph graph) {
+	private int maxOutDegree(CSRGraph csr) {
 		int max = 0;
-		for (Node n : graph.getNodes()) {
-			max = Math.max(max, n.getOutDegree());
+		for (int i = 0; i < csr.getNodeCount(); i++) {
+			max = Math.max(max, csr.getOutDegree(i));
 		}
 		return max;
 	}
@@ -36,20 +36,20 @@
 package gtna.metrics.basic;
 
 import gtna.data.Single;
+import gtna.graph.CSRGraph;
 import gtna.graph.Graph;
-import gtna.graph.Node;
 import gtna.io.DataWriter;
 import gtna.metrics.Metric;
 import gtna.networks.Network;
+import gtna.util.Config;
 import gtna.util.Distribution;
 import gtna.util.Timer;
 import gtna.util.Util;
 
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.LinkedList;
-import java.util.Queue;
+import java.util.Random;
 
-// TODO problem with averages for big networks (> 40.000)
 public class ShortestPaths extends Metric {
 	// TODO add LCPL => binning?!?
 	// TODO add distribution of LCPL?!?
@@ -63,6 +63,18 @@ public class ShortestPaths extends Metric {
 
 	private double connectivity;
 
+	private double averageLow;
+
+	private double averageHigh;
+
+	private double medianLow;
+
+	private double medianHigh;
+
+	private double diameterLowerBound;
+
+	private int sampledSources;
+
 	private Timer runtime;
 
 	public ShortestPaths() {
@@ -78,15 +90,30 @@ public class ShortestPaths extends Metric {
 	public void computeData(Graph graph, Network nw,
 			HashMap<String, Metric> metrics) {
 		this.runtime = new Timer();
-		this.localCharacteristicPathLength = new double[graph.getNodes().length];
-		long[] SPL = this.computeShortestPathLengths(graph.getNodes());
+		CSRGraph csr = graph.getCSR();
+		int n = csr.getNodeCount();
+		this.localCharacteristicPathLength = new double[n];
+		int samples = Config.getInt("SHORTEST_PATHS_SAMPLE_SOURCES");
+		double error = Config.getDouble("SHORTEST_PATHS_SAMPLE_ERROR");
+		if ((samples > 0 && samples < n) || error > 0) {
+			this.computeSampledShortestPathLengths(csr, samples, error);
+			this.runtime.end();
+			return;
+		}
+		long[] SPL = this.computeShortestPathLengths(csr);
 		this.shortestPathLengthDistribution = new Distribution(
 				this.computeShortestPathLengthDistribution(SPL));
 		this.shortestPathLengthDistributionAbsolute = new Distribution(
 				this.computeShortestPathLengthDistributionAbsolute(SPL, graph));
 		this.connectivity = (double) Util.sum(SPL)
-				/ (double) ((double) graph.getNodes().length * (double) (graph
-						.getNodes().length - 1));
+				/ (double) ((double) graph.getNodeCount() * (double) (graph
+						.getNodeCount() - 1));
+		this.averageLow = this.shortestPathLengthDistribution.getAverage();
+		this.averageHigh = this.averageLow;
+		this.medianLow = this.shortestPathLengthDistribution.getMedian();
+		this.medianHigh = this.medianLow;
+		this.diameterLowerBound = this.shortestPathLengthDistribution.getMax();
+		this.sampledSources = n;
 		this.runtime.end();
 	}
 
@@ -101,8 +128,8 @@ public class ShortestPaths extends Metric {
 
 	private double[] computeShortestPathLengthDistributionAbsolute(long[] SPL,
 			Graph graph) {
-		long sum = (long) graph.getNodes().length
-				* (long) (graph.getNodes().length - 1);
+		long sum = (long) graph.getNodeCount()
+				* (long) (graph.getNodeCount() - 1);
 		double[] spld = new double[SPL.length];
 		for (int i = 0; i < SPL.length; i++) {
 			spld[i] = (double) SPL[i] / sum;
@@ -110,49 +137,209 @@ public class ShortestPaths extends Metric {
 		return spld;
 	}
 
-	private long[] computeShortestPathLengths(Node[] nodes) {
-		long[] SPL = new long[1];
-		for (Node n : nodes) {
-			SPL = this.computeSPL(nodes, n, SPL);
-		}
-		return SPL;
-	}
-
-	private long[] computeSPL(Node[] nodes, Node start, long[] SPL) {
-		Queue<Integer> queue = new LinkedList<Integer>();
-		int[] spl = Util.initIntArray(nodes.length, -1);
-		long sum = 0;
-		int found = 0;
-		queue.add(start.getIndex());
-		spl[start.getIndex()] = 0;
-		while (!queue.isEmpty()) {
-			Node current = nodes[queue.poll()];
-			for (int outIndex : current.getOutgoingEdges()) {
-				if (spl[outIndex] != -1) {
-					continue;
-				}
-				spl[outIndex] = spl[current.getIndex()] + 1;
-				queue.add(outIndex);
-				found++;
-				sum += spl[outIndex];
-				SPL = this.inc(SPL, spl[outIndex]);
+	private long[] computeShortestPathLengths(CSRGraph csr) {
+		int[] sources = new int[csr.getNodeCount()];
+		for (int i = 0; i < sources.length; i++) {
+			sources[i] = i;
+		}
+		BFSEngine bfs = new BFSEngine(csr, Config.getInt("PARALLEL_METRICS"),
+				Config.getBoolean("SHORTEST_PATHS_BIT_PARALLEL"));
+		bfs.compute(sources);
+		for (int i = 0; i < sources.length; i++) {
+			this.localCharacteristicPathLength[i] = (double) bfs.getSums()[i]
+					/ (double) bfs.getFound()[i];
+		}
+		return bfs.getHistogram();
+	}
+
+	/**
+	 * estimates the shortest path length distribution from BFSs started at a
+	 * sample of the nodes, sampled uniformly without replacement or with
+	 * replacement proportional to their degree
+	 * (SHORTEST_PATHS_SAMPLE_DEGREE_WEIGHTED)<br>
+	 * the number of (source, node) pairs at each distance is estimated using
+	 * the Horvitz-Thompson (Hansen-Hurwitz) estimator, confidence intervals
+	 * for average and median are computed by bootstrapping the sampled sources
+	 * 
+	 * @param csr
+	 * @param samples
+	 *            (maximum) number of sources, all nodes in case it is 0
+	 * @param error
+	 *            in case it is larger than 0, sources are added in batches
+	 *            until the confidence interval of the average is at most +/-
+	 *            error * average
+	 */
+	private void computeSampledShortestPathLengths(CSRGraph csr, int samples,
+			double error) {
+		int n = csr.getNodeCount();
+		int max = samples > 0 ? Math.min(samples, n) : n;
+		Random rand = new Random();
+		double[] p = new double[n];
+		int[] sources;
+		if (Config.getBoolean("SHORTEST_PATHS_SAMPLE_DEGREE_WEIGHTED")
+				&& csr.getEdgeCount() > 0) {
+			sources = this.sampleByDegree(csr, max, rand, p);
+		} else {
+			sources = this.sampleUniformly(n, max, rand, p);
+		}
+		for (int i = 0; i < n; i++) {
+			this.localCharacteristicPathLength[i] = Double.NaN;
+		}
+
+		int threads = Config.getInt("PARALLEL_METRICS");
+		BFSEngine bfs = new BFSEngine(csr, threads,
+				Config.getBoolean("SHORTEST_PATHS_BIT_PARALLEL"));
+		bfs.setPerSourceHistograms(true);
+		int batch = error > 0 ? 64 * Math.max(threads, 1) : max;
+		long[][] histograms = new long[max][];
+		this.diameterLowerBound = 0;
+		int k = 0;
+		double[] ci = null;
+		while (k < max) {
+			int[] current = Arrays.copyOfRange(sources, k,
+					Math.min(k + batch, max));
+			bfs.compute(current);
+			for (int i = 0; i < current.length; i++) {
+				histograms[k + i] = bfs.getHistograms()[i];
+				this.localCharacteristicPathLength[current[i]] = (double) bfs
+						.getSums()[i] / (double) bfs.getFound()[i];
+				this.diameterLowerBound = Math.max(this.diameterLowerBound,
+						bfs.getEccentricities()[i]);
+			}
+			k += current.length;
+			ci = this.bootstrap(histograms, sources, k, p, rand);
+			if (error > 0 && (ci[1] - ci[0]) / 2.0 <= error * (ci[0] + ci[1])
+					/ 2.0) {
+				break;
 			}
 		}
-		this.localCharacteristicPathLength[start.getIndex()] = (double) sum
-				/ (double) found;
-		return SPL;
+
+		double[] counts = this.estimateCounts(histograms, sources, k, p, null);
+		double pairs = (double) n * (double) (n - 1);
+		this.shortestPathLengthDistribution = new Distribution(
+				this.normalize(counts, Util.sum(counts)));
+		this.shortestPathLengthDistributionAbsolute = new Distribution(
+				this.normalize(counts, pairs));
+		this.connectivity = Util.sum(counts) / pairs;
+		this.averageLow = ci[0];
+		this.averageHigh = ci[1];
+		this.medianLow = ci[2];
+		this.medianHigh = ci[3];
+		this.sampledSources = k;
 	}
 
-	private long[] inc(long[] values, int index) {
-		try {
-			values[index]++;
-			return values;
-		} catch (ArrayIndexOutOfBoundsException e) {
-			long[] valuesNew = new long[index + 1];
-			System.arraycopy(values, 0, valuesNew, 0, values.length);
-			valuesNew[index] = 1;
-			return valuesNew;
+	private int[] sampleUniformly(int n, int samples, Random rand, double[] p) {
+		int[] nodes = new int[n];
+		for (int i = 0; i < n; i++) {
+			nodes[i] = i;
+			p[i] = 1.0 / (double) n;
+		}
+		for (int i = 0; i < samples; i++) {
+			int index = i + rand.nextInt(n - i);
+			int temp = nodes[i];
+			nodes[i] = nodes[index];
+			nodes[index] = temp;
+		}
+		return Arrays.copyOf(nodes, samples);
+	}
+
+	private int[] sampleByDegree(CSRGraph csr, int samples, Random rand,
+			double[] p) {
+		int n = csr.getNodeCount();
+		double[] cumulative = new double[n];
+		double sum = 0;
+		for (int i = 0; i < n; i++) {
+			sum += csr.getDegree(i);
+			cumulative[i] = sum;
+		}
+		for (int i = 0; i < n; i++) {
+			p[i] = (double) csr.getDegree(i) / sum;
+		}
+		int[] sources = new int[samples];
+		for (int i = 0; i < samples; i++) {
+			int index = Arrays.binarySearch(cumulative, rand.nextDouble()
+					* sum);
+			if (index < 0) {
+				index = -index - 1;
+			}
+			while (csr.getDegree(index) == 0) {
+				index++;
+			}
+			sources[i] = index;
+		}
+		return sources;
+	}
+
+	/**
+	 * @param histograms
+	 *            histograms of the sampled sources
+	 * @param sources
+	 *            sampled sources
+	 * @param k
+	 *            number of samples
+	 * @param p
+	 *            sampling probability of each node
+	 * @param indices
+	 *            indices of the samples to use (bootstrap sample), all in
+	 *            case it is null
+	 * @return estimated number of (source, node) pairs at each distance
+	 */
+	private double[] estimateCounts(long[][] histograms, int[] sources, int k,
+			double[] p, int[] indices) {
+		int length = 1;
+		for (int j = 0; j < k; j++) {
+			length = Math.max(length, histograms[j].length);
+		}
+		double[] counts = new double[length];
+		for (int j = 0; j < k; j++) {
+			int i = indices == null ? j : indices[j];
+			double weight = 1.0 / ((double) k * p[sources[i]]);
+			for (int d = 0; d < histograms[i].length; d++) {
+				counts[d] += weight * (double) histograms[i][d];
+			}
+		}
+		return counts;
+	}
+
+	/**
+	 * @return lower and upper bound of the confidence intervals (percentile
+	 *         bootstrap) for average and median: {avgLow, avgHigh, medLow,
+	 *         medHigh}
+	 */
+	private double[] bootstrap(long[][] histograms, int[] sources, int k,
+			double[] p, Random rand) {
+		int times = Config.getInt("SHORTEST_PATHS_SAMPLE_BOOTSTRAP");
+		double[] avg = new double[times];
+		double[] med = new double[times];
+		int[] indices = new int[k];
+		for (int b = 0; b < times; b++) {
+			for (int j = 0; j < k; j++) {
+				indices[j] = rand.nextInt(k);
+			}
+			double[] counts = this.estimateCounts(histograms, sources, k, p,
+					indices);
+			Distribution d = new Distribution(this.normalize(counts,
+					Util.sum(counts)));
+			avg[b] = d.getAverage();
+			med[b] = d.getMedian();
+		}
+		Arrays.sort(avg);
+		Arrays.sort(med);
+		double alpha = (1.0 - Config.getDouble("CONFIDENCE_INTERVAL")) / 2.0;
+		int low = (int) Math.floor(alpha * (times - 1));
+		int high = (int) Math.ceil((1.0 - alpha) * (times - 1));
+		return new double[] { avg[low], avg[high], med[low], med[high] };
+	}
+
+	private double[] normalize(double[] counts, double sum) {
+		double[] normalized = new double[counts.length];
+		if (sum == 0) {
+			return normalized;
+		}
+		for (int i = 0; i < counts.length; i++) {
+			normalized[i] = counts[i] / sum;
 		}
+		return normalized;
 	}
 
 	@Override
@@ -191,9 +378,26 @@ public class ShortestPaths extends Metric {
 				this.connectivity);
 		Single runtime = new Single("SHORTEST_PATHS_RUNTIME",
 				this.runtime.getRuntime());
+		Single averageLow = new Single(
+				"SHORTEST_PATHS_SHORTEST_PATH_LENGTH_AVG_CI_LOW",
+				this.averageLow);
+		Single averageHigh = new Single(
+				"SHORTEST_PATHS_SHORTEST_PATH_LENGTH_AVG_CI_HIGH",
+				this.averageHigh);
+		Single medianLow = new Single(
+				"SHORTEST_PATHS_SHORTEST_PATH_LENGTH_MED_CI_LOW",
+				this.medianLow);
+		Single medianHigh = new Single(
+				"SHORTEST_PATHS_SHORTEST_PATH_LENGTH_MED_CI_HIGH",
+				this.medianHigh);
+		Single diameterLowerBound = new Single(
+				"SHORTEST_PATHS_DIAMETER_LOWER_BOUND", this.diameterLowerBound);
+		Single sampledSources = new Single("SHORTEST_PATHS_SAMPLED_SOURCES",
+				this.sampledSources);
 		return new Single[] { averageShortestPathLength,
 				medianShortestPathLength, maximumShortestPathLength,
-				connectivity, runtime };
+				connectivity, runtime, averageLow, averageHigh, medianLow,
+				medianHigh, diameterLowerBound, sampledSources };
 	}
 
 	/**
@@ -0,0 +1,361 @@
+/* ===========================================================
+ * GTNA : Graph-Theoretic Network Analyzer
+ * ===========================================================
+ *
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors
+ *
+ * Project Info:  http://www.p2p.tu-darmstadt.de/research/gtna/
+ *
+ * GTNA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GTNA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ---------------------------------------
+ * TriangleCounter.java
+ * ---------------------------------------
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors 
+ *
+ * Original Author: agent;
+ * Contributors:    -;
+ *
+ * Changes since 2011-05-17
+ * ---------------------------------------
+ *
+ */
+package gtna.metrics.basic;
+
+import gtna.graph.CSRGraph;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Counts the triangles of a graph using several worker threads.
+ * 
+ * The graph is treated as undirected (an edge exists between two nodes if
+ * there is an edge in at least one direction), every edge remembers in which
+ * directions it exists. The nodes are ranked by degree (ties broken by index)
+ * and every undirected edge is only stored at its endpoint with the lower
+ * rank. Each triangle is then found exactly once by intersecting the sorted
+ * forward adjacency lists of the endpoints of every edge. Since the forward
+ * lists of high-degree nodes are short, this requires O(m^1.5) time in the
+ * worst case.
+ * 
+ * For every node, the number of triangles it is contained in is counted as
+ * well as two directed variants, considering only triangles in which the node
+ * has outgoing edges to both other nodes: the number of such triangles
+ * (out-triangles) and the number of directed edges between the two other
+ * nodes (out-neighbor edges). For bidirectional graphs, the latter is twice
+ * the number of triangles.
+ * 
+ * Optionally, the number of triangles each undirected edge is contained in
+ * (edge support) is computed as well.
+ * 
+ * @author agent
+ * 
+ */
+public class TriangleCounter {
+	private static final byte OUT = 1;
+
+	private static final byte IN = 2;
+
+	private static final int BATCH = 64;
+
+	private int threads;
+
+	private boolean edgeSupports;
+
+	private int n;
+
+	private int[] degrees;
+
+	private int[] forwardOffsets;
+
+	private int[] forwardTargets;
+
+	private byte[] forwardFlags;
+
+	private long[] triangles;
+
+	private long[] outTriangles;
+
+	private long[] outNeighborEdges;
+
+	private AtomicIntegerArray supports;
+
+	/**
+	 * @param threads
+	 *            number of worker threads
+	 */
+	public TriangleCounter(int threads) {
+		this.threads = Math.max(threads, 1);
+	}
+
+	/**
+	 * @param edgeSupports
+	 *            true to count the triangles of every edge
+	 */
+	public void setEdgeSupports(boolean edgeSupports) {
+		this.edgeSupports = edgeSupports;
+	}
+
+	/**
+	 * counts the triangles of the given graph
+	 * 
+	 * @param csr
+	 */
+	public void compute(CSRGraph csr) {
+		this.n = csr.getNodeCount();
+		this.buildForward(csr);
+		this.supports = this.edgeSupports ? new AtomicIntegerArray(
+				this.forwardTargets.length) : null;
+
+		AtomicInteger next = new AtomicInteger(0);
+		int threads = Math.max(Math.min(this.threads, this.n / BATCH), 1);
+		Worker[] workers = new Worker[threads];
+		for (int i = 0; i < workers.length; i++) {
+			workers[i] = new Worker(next);
+		}
+		for (int i = 1; i < workers.length; i++) {
+			workers[i].start();
+		}
+		workers[0].run();
+		this.triangles = workers[0].triangles;
+		this.outTriangles = workers[0].outTriangles;
+		this.outNeighborEdges = workers[0].outNeighborEdges;
+		for (int i = 1; i < workers.length; i++) {
+			try {
+				workers[i].join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RuntimeException(e);
+			}
+			for (int node = 0; node < this.n; node++) {
+				this.triangles[node] += workers[i].triangles[node];
+				this.outTriangles[node] += workers[i].outTriangles[node];
+				this.outNeighborEdges[node] += workers[i].outNeighborEdges[node];
+			}
+		}
+	}
+
+	/**
+	 * merges the sorted outgoing and incoming edges of every node into one
+	 * undirected adjacency list and keeps only the neighbors of higher rank
+	 */
+	private void buildForward(CSRGraph csr) {
+		int[] out = csr.getOutTargets();
+		int[] in = csr.getInTargets();
+		int[] offsets = new int[this.n + 1];
+		int[] neighbors = new int[2 * csr.getEdgeCount()];
+		byte[] flags = new byte[neighbors.length];
+		int index = 0;
+		for (int node = 0; node < this.n; node++) {
+			int a = csr.outStart(node);
+			int b = csr.inStart(node);
+			while (a < csr.outEnd(node) || b < csr.inEnd(node)) {
+				int next;
+				if (a == csr.outEnd(node)) {
+					next = in[b];
+				} else if (b == csr.inEnd(node)) {
+					next = out[a];
+				} else {
+					next = Math.min(out[a], in[b]);
+				}
+				byte f = 0;
+				if (a < csr.outEnd(node) && out[a] == next) {
+					f |= OUT;
+					a++;
+				}
+				if (b < csr.inEnd(node) && in[b] == next) {
+					f |= IN;
+					b++;
+				}
+				if (next != node) {
+					neighbors[index] = next;
+					flags[index] = f;
+					index++;
+				}
+			}
+			offsets[node + 1] = index;
+		}
+
+		this.degrees = new int[this.n];
+		for (int node = 0; node < this.n; node++) {
+			this.degrees[node] = offsets[node + 1] - offsets[node];
+		}
+		this.forwardOffsets = new int[this.n + 1];
+		for (int node = 0; node < this.n; node++) {
+			int count = 0;
+			for (int j = offsets[node]; j < offsets[node + 1]; j++) {
+				if (this.isForward(node, neighbors[j])) {
+					count++;
+				}
+			}
+			this.forwardOffsets[node + 1] = this.forwardOffsets[node] + count;
+		}
+		this.forwardTargets = new int[this.forwardOffsets[this.n]];
+		this.forwardFlags = new byte[this.forwardOffsets[this.n]];
+		index = 0;
+		for (int node = 0; node < this.n; node++) {
+			for (int j = offsets[node]; j < offsets[node + 1]; j++) {
+				if (this.isForward(node, neighbors[j])) {
+					this.forwardTargets[index] = neighbors[j];
+					this.forwardFlags[index] = flags[j];
+					index++;
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return true if node v has a higher rank than node u
+	 */
+	private boolean isForward(int u, int v) {
+		return this.degrees[u] < this.degrees[v]
+				|| (this.degrees[u] == this.degrees[v] && u < v);
+	}
+
+	/**
+	 * @return number of triangles each node is contained in
+	 */
+	public long[] getTriangles() {
+		return this.triangles;
+	}
+
+	/**
+	 * @return number of triangles in which each node has outgoing edges to
+	 *         both other nodes
+	 */
+	public long[] getOutTriangles() {
+		return this.outTriangles;
+	}
+
+	/**
+	 * @return number of directed edges between the out-neighbors of each node,
+	 *         i.e., the number of ordered pairs (j, k) of out-neighbors with an
+	 *         edge from j to k
+	 */
+	public long[] getOutNeighborEdges() {
+		return this.outNeighborEdges;
+	}
+
+	/**
+	 * @return total number of triangles in the graph
+	 */
+	public long getTriangleCount() {
+		long sum = 0;
+		for (long t : this.triangles) {
+			sum += t;
+		}
+		return sum / 3;
+	}
+
+	/**
+	 * @return degree of each node in the undirected graph
+	 */
+	public int[] getDegrees() {
+		return this.degrees;
+	}
+
+	/**
+	 * @return number of triangles each undirected edge is contained in (in no
+	 *         particular order), null in case edge supports are not computed
+	 */
+	public int[] getEdgeSupports() {
+		if (this.supports == null) {
+			return null;
+		}
+		int[] supports = new int[this.supports.length()];
+		for (int i = 0; i < supports.length; i++) {
+			supports[i] = this.supports.get(i);
+		}
+		return supports;
+	}
+
+	private class Worker extends Thread {
+		private AtomicInteger next;
+
+		private long[] triangles;
+
+		private long[] outTriangles;
+
+		private long[] outNeighborEdges;
+
+		private Worker(AtomicInteger next) {
+			this.next = next;
+			this.triangles = new long[n];
+			this.outTriangles = new long[n];
+			this.outNeighborEdges = new long[n];
+		}
+
+		public void run() {
+			int[] offsets = forwardOffsets;
+			int[] targets = forwardTargets;
+			byte[] flags = forwardFlags;
+			int batch;
+			while ((batch = this.next.getAndAdd(BATCH)) < n) {
+				for (int u = batch; u < Math.min(batch + BATCH, n); u++) {
+					for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+						int v = targets[i];
+						int a = offsets[u];
+						int b = offsets[v];
+						while (a < offsets[u + 1] && b < offsets[v + 1]) {
+							if (targets[a] < targets[b]) {
+								a++;
+							} else if (targets[a] > targets[b]) {
+								b++;
+							} else {
+								this.triangle(u, v, targets[a], flags[i],
+										flags[a], flags[b]);
+								if (supports != null) {
+									supports.incrementAndGet(i);
+									supports.incrementAndGet(a);
+									supports.incrementAndGet(b);
+								}
+								a++;
+								b++;
+							}
+						}
+					}
+				}
+			}
+		}
+
+		/**
+		 * @param uv
+		 *            directions of the edge between u and v (seen from u)
+		 * @param uw
+		 *            directions of the edge between u and w (seen from u)
+		 * @param vw
+		 *            directions of the edge between v and w (seen from v)
+		 */
+		private void triangle(int u, int v, int w, byte uv, byte uw, byte vw) {
+			this.triangles[u]++;
+			this.triangles[v]++;
+			this.triangles[w]++;
+			if ((uv & OUT) != 0 && (uw & OUT) != 0) {
+				this.outTriangles[u]++;
+				this.outNeighborEdges[u] += Integer.bitCount(vw);
+			}
+			if ((uv & IN) != 0 && (vw & OUT) != 0) {
+				this.outTriangles[v]++;
+				this.outNeighborEdges[v] += Integer.bitCount(uw);
+			}
+			if ((uw & IN) != 0 && (vw & IN) != 0) {
+				this.outTriangles[w]++;
+				this.outNeighborEdges[w] += Integer.bitCount(uv);
+			}
+		}
+	}
+}
@@ -198,7 +198,13 @@ public class Communities extends Metric {
 	}
 
 	/**
-	 * Computes the modularity of the given CommunityList
+	 * Computes the modularity of the given CommunityList as the sum of IC / E
+	 * - ((IC + OC) / E)^2 over all communities where E is the number of
+	 * (directed) edges, IC the number of edges within the community and OC the
+	 * number of edges leaving or entering it. Since OC counts every cut edge
+	 * with its full weight for both communities it connects, the result is
+	 * lower than the standard modularity of the undirected graph (as computed
+	 * by Louvain) whenever communities are connected.
 	 * 
 	 * @param g
 	 *            graph
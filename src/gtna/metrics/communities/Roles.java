@@ -133,6 +133,14 @@ public class Roles extends Metric {
 		this.addMulti(key, name, filename, title, x, y, true);
 	}
 
+	@Override
+	public Metric clone() {
+		Roles clone = (Roles) super.clone();
+		clone.rolesMaxPerNode = new double[this.roles.length][];
+		clone.rolesMaxFraction = new double[this.roles.length][];
+		return clone;
+	}
+
 	@Override
 	public void computeData(Graph g, Network n, HashMap<String, Metric> m) {
 		GraphProperty[] gp = g.getProperties("ROLES_" + this.type.toString());
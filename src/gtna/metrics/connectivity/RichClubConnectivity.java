@@ -36,7 +36,7 @@
 package gtna.metrics.connectivity;
 
 import gtna.data.Single;
-import gtna.graph.Edges;
+import gtna.graph.CSRGraph;
 import gtna.graph.Graph;
 import gtna.graph.sorting.NodeSorting;
 import gtna.io.DataWriter;
@@ -47,9 +47,26 @@ import gtna.util.Timer;
 import java.util.HashMap;
 import java.util.Random;
 
+/**
+ * Computes the rich-club connectivity of a graph, i.e., the fraction of edges
+ * that exist between the p nodes with the highest degree for all 2 &lt;= p
+ * &lt;= n (rank-indexed) and between the nodes with a degree larger than k
+ * for every degree k (degree-indexed).
+ * 
+ * Every node is assigned its rank in the list of nodes sorted by degree
+ * (descending, ties in random order). An edge belongs to all rich clubs that
+ * contain both of its nodes, i.e., all prefixes of length at least the larger
+ * rank of its nodes. Hence, each edge is counted once at that rank and a
+ * prefix sum yields the number of edges in every rich club in O(E + n log n).
+ * 
+ * @author benni
+ * 
+ */
 public class RichClubConnectivity extends Metric {
 	private double[] rcc;
 
+	private double[] rccDegree;
+
 	private Timer timer;
 
 	public RichClubConnectivity() {
@@ -63,22 +80,39 @@ public class RichClubConnectivity extends Metric {
 
 	public void computeData(Graph g, Network n, HashMap<String, Metric> m) {
 		this.timer = new Timer();
+		CSRGraph csr = g.getCSR();
 		int[] order = NodeSorting.byDegreeDesc(g.getNodes(), new Random());
-		Edges edges = g.getEdges();
-		int edgeCount = 0;
+		int[] rank = new int[order.length];
+		for (int p = 1; p <= order.length; p++) {
+			rank[order[p - 1]] = p;
+		}
+
+		long[] edgeCount = new long[order.length + 1];
+		int[] targets = csr.getOutTargets();
+		for (int src = 0; src < order.length; src++) {
+			for (int j = csr.outStart(src); j < csr.outEnd(src); j++) {
+				int dst = targets[j];
+				if (src != dst) {
+					edgeCount[Math.max(rank[src], rank[dst])]++;
+				}
+			}
+		}
 		this.rcc = new double[order.length + 1];
 		for (int p = 2; p <= order.length; p++) {
-			int newNode = order[p - 1];
-			for (int i = 0; i < p - 1; i++) {
-				int old = order[i];
-				if (edges.contains(newNode, old)) {
-					edgeCount++;
-				}
-				if (edges.contains(old, newNode)) {
-					edgeCount++;
-				}
+			edgeCount[p] += edgeCount[p - 1];
+			this.rcc[p] = (double) edgeCount[p] / ((double) p * (p - 1));
+		}
+
+		// the nodes with degree > k are the first p nodes where p is the
+		// number of nodes with degree > k
+		int maxDegree = order.length == 0 ? 0 : csr.getDegree(order[0]);
+		this.rccDegree = new double[maxDegree + 1];
+		int p = 0;
+		for (int k = maxDegree; k >= 0; k--) {
+			while (p < order.length && csr.getDegree(order[p]) > k) {
+				p++;
 			}
-			this.rcc[p] = (double) edgeCount / (double) (p * (p - 1));
+			this.rccDegree[k] = this.rcc[p];
 		}
 		timer.end();
 	}
@@ -92,6 +126,8 @@ public class RichClubConnectivity extends Metric {
 	public boolean writeData(String folder) {
 		DataWriter.writeWithIndex(this.rcc,
 				"RICH_CLUB_CONNECTIVITY_RICH_CLUB_CONNECTIVITY", folder);
+		DataWriter.writeWithIndex(this.rccDegree,
+				"RICH_CLUB_CONNECTIVITY_RICH_CLUB_CONNECTIVITY_DEGREE", folder);
 		return true;
 	}
 
@@ -38,7 +38,6 @@ package gtna.metrics.edges;
 import gtna.data.Single;
 import gtna.graph.Edge;
 import gtna.graph.Graph;
-import gtna.graph.Node;
 import gtna.id.DIdentifierSpace;
 import gtna.id.IdentifierSpace;
 import gtna.id.Partition;
@@ -56,12 +55,8 @@ import gtna.networks.Network;
 import gtna.util.Distribution;
 import gtna.util.Timer;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.TreeMap;
-import java.util.TreeSet;
 
 /**
  * @author Nico
@@ -71,7 +66,6 @@ public class EdgeCrossings extends Metric {
 	private Timer runtime;
 	private double[] cd;
 	private int maxCrossingNumber;
-	private HashSet<String> handledEdges;
 	private Distribution completeCrossingDistribution,
 			crossingsOnlyDistribution;
 	private Partition[] partitions;
@@ -105,166 +99,141 @@ public class EdgeCrossings extends Metric {
 		this.runtime.end();
 	}
 
-	public int calculateCrossings(Edge[] edges, IdentifierSpace idSpace,
+	/**
+	 * computes the number of crossings of every edge with all other edges,
+	 * their distribution is stored in cd
+	 * 
+	 * The edges are reduced to distinct (undirected) node pairs that are
+	 * weighted by their multiplicity in edges. The crossings of these segments
+	 * are counted using a sweep over the sorted endpoints for rings
+	 * (RingCrossingCounter) and a uniform grid for the plane and 2-dimensional
+	 * MD spaces (GridCrossingCounter), i.e., in O((E + K) log E) instead of
+	 * testing all pairs of edges.
+	 * 
+	 * @param edges
+	 * @param idSpace
+	 * @param useShortcuts
+	 *            true to return the number of crossing pairs of distinct
+	 *            segments, false to return the sum of the crossings of all
+	 *            edges
+	 * @return number of crossings
+	 */
+	public int calculateCrossings(Edge[] edges, IdentifierSpace<?> idSpace,
 			boolean useShortcuts) {
-		int result = 0;
-		cd = new double[edges.length];
-		maxCrossingNumber = 0;
 		this.runtime = new Timer();
 		partitions = idSpace.getPartitions();
+		this.checkIdentifierSpace(idSpace);
 
-		if (useShortcuts && idSpace instanceof RingIdentifierSpace) {
-			result = calculateRingCrossings(edges, idSpace);
-		} else {
-			handledEdges = new HashSet<String>(edges.length * edges.length);
-			for (int outerCounter = 0; outerCounter < edges.length; outerCounter++) {
-				int innerResult = 0;
-				int innerStart = outerCounter + 1;
-				if (!useShortcuts) {
-					innerStart = 0;
-				}
-				for (int innerCounter = innerStart; innerCounter < edges.length; innerCounter++) {
-					if (hasCrossing(edges[innerCounter], edges[outerCounter],
-							idSpace, useShortcuts)) {
-						innerResult++;
-					}
-				}
-				cd[innerResult]++;
-				maxCrossingNumber = Math.max(innerResult, maxCrossingNumber);
-				result += innerResult;
-			}
-			handledEdges = null;
+		long[] keys = new long[edges.length];
+		for (int i = 0; i < edges.length; i++) {
+			keys[i] = EdgeCrossings.key(edges[i].getSrc(), edges[i].getDst());
 		}
-		this.runtime.end();
-		// System.out.println("Computed " + result + " crossings with " +
-		// edges.length + " edges in " + runtime.getMsec()
-		// + " msec");
-		return result;
-	}
-
-	private int calculateRingCrossings(Edge[] edges, IdentifierSpace idSpace) {
-		/*
-		 * The following algorithm is an implementation of Six/Tollis work
-		 */
-		int i = 0;
-		int numCross = 0;
-
-		RingIdentifierSpace ridSpace = (RingIdentifierSpace) idSpace;
-		partitions = (RingPartition[]) ridSpace.getPartitions();
-
-		Arrays.sort(edges, new EdgeComparator((RingPartition[]) partitions));
-		ArrayList<RingEdge> ringEdges = new ArrayList<RingEdge>();
-		TreeSet<Double> partPositions = new TreeSet<Double>();
-
-		for (Edge sE : edges) {
-			partPositions.add(getPositionRing(sE.getSrc()));
+		long[] segments = keys.clone();
+		Arrays.sort(segments);
+		int unique = 0;
+		for (int i = 0; i < segments.length; i++) {
+			if ((unique == 0 || segments[unique - 1] != segments[i])
+					&& (int) (segments[i] >>> 32) != (int) segments[i]) {
+				segments[unique++] = segments[i];
+			}
 		}
-
-		RingEdge tempRingEdge, lastEdge;
-		lastEdge = null;
-		for (Edge sE : edges) {
-			double srcPos = Math.min(getPositionRing(sE.getSrc()),
-					getPositionRing(sE.getDst()));
-			double dstPos = Math.max(getPositionRing(sE.getSrc()),
-					getPositionRing(sE.getDst()));
-			tempRingEdge = new RingEdge(srcPos, dstPos, sE.getSrc(),
-					sE.getDst());
-			if (!tempRingEdge.equals(lastEdge)) {
-				ringEdges.add(tempRingEdge);
+		segments = Arrays.copyOf(segments, unique);
+		int[] segment = new int[edges.length];
+		int[] weight = new int[unique];
+		for (int i = 0; i < edges.length; i++) {
+			segment[i] = Arrays.binarySearch(segments, keys[i]);
+			if (segment[i] >= 0) {
+				weight[segment[i]]++;
 			}
-			lastEdge = tempRingEdge;
 		}
 
-		TreeMap<Double, ArrayList<RingEdge>> startNode = new TreeMap<Double, ArrayList<RingEdge>>();
-		TreeMap<Double, ArrayList<RingEdge>> targetNode = new TreeMap<Double, ArrayList<RingEdge>>();
-		ArrayList<RingEdge> openEdges = new ArrayList<RingEdge>();
-
-		Double[] posList = new Double[partitions.length];
-		for (Partition rP : partitions) {
-			posList[i] = ((RingPartition) rP).getStart().getPosition();
-			startNode.put(posList[i], new ArrayList<RingEdge>());
-			targetNode.put(posList[i], new ArrayList<RingEdge>());
-			i++;
+		long[] weighted = this.countCrossings(segments, weight, idSpace);
+		maxCrossingNumber = 0;
+		long result = 0;
+		int[] crossings = new int[edges.length];
+		for (int i = 0; i < edges.length; i++) {
+			crossings[i] = segment[i] < 0 ? 0 : (int) weighted[segment[i]];
+			maxCrossingNumber = Math.max(crossings[i], maxCrossingNumber);
+			result += crossings[i];
 		}
-		Arrays.sort(posList);
-
-		ArrayList<RingEdge> tempList;
-		for (RingEdge sE : ringEdges) {
-			tempList = startNode.get(sE.src);
-			tempList.add(sE);
-			startNode.put(sE.src, tempList);
-
-			tempList = targetNode.get(sE.dst);
-			tempList.add(sE);
-			targetNode.put(sE.dst, tempList);
+		cd = new double[maxCrossingNumber + 1];
+		for (int c : crossings) {
+			cd[c]++;
 		}
-
-		for (i = 0; i < partitions.length; i++) {
-			openEdges.removeAll(targetNode.get(posList[i]));
-			for (RingEdge sE : targetNode.get(posList[i])) {
-				for (RingEdge sOE : openEdges) {
-					if (sOE.src > sE.src) {
-						numCross++;
-					}
-				}
+		if (useShortcuts) {
+			result = 0;
+			for (long c : this.countCrossings(segments, null, idSpace)) {
+				result += c;
 			}
-			openEdges.addAll(startNode.get(posList[i]));
+			result /= 2;
 		}
-
-		return numCross;
+		this.runtime.end();
+		// System.out.println("Computed " + result + " crossings with " +
+		// edges.length + " edges in " + runtime.getMsec()
+		// + " msec");
+		return (int) result;
 	}
 
-	public int calculateCrossings(Graph g, Node n, IdentifierSpace idSpace) {
-		int numCross = 0;
-		Edge[] nodeEdges = n.generateAllEdges();
-		Edge[] graphEdges = g.generateEdges();
-		handledEdges = new HashSet<String>(
-				nodeEdges.length * graphEdges.length, 0.95f);
-		for (Edge x : nodeEdges) {
-			for (Edge y : graphEdges) {
-				if (hasCrossing(x, y, idSpace, true))
-					numCross++;
+	/**
+	 * @param segments
+	 *            distinct node pairs (see key)
+	 * @param weight
+	 *            weight of each segment, 1 for all in case it is null
+	 * @param idSpace
+	 * @return sum of the weights of all segments crossing each segment
+	 */
+	private long[] countCrossings(long[] segments, int[] weight,
+			IdentifierSpace<?> idSpace) {
+		if (idSpace instanceof RingIdentifierSpace) {
+			double[] start = new double[segments.length];
+			double[] end = new double[segments.length];
+			for (int i = 0; i < segments.length; i++) {
+				double src = getPositionRing((int) (segments[i] >>> 32));
+				double dst = getPositionRing((int) segments[i]);
+				start[i] = Math.min(src, dst);
+				end[i] = Math.max(src, dst);
 			}
+			return RingCrossingCounter.count(start, end, weight);
+		}
+		double[] x1 = new double[segments.length];
+		double[] y1 = new double[segments.length];
+		double[] x2 = new double[segments.length];
+		double[] y2 = new double[segments.length];
+		int[] src = new int[segments.length];
+		int[] dst = new int[segments.length];
+		for (int i = 0; i < segments.length; i++) {
+			src[i] = (int) (segments[i] >>> 32);
+			dst[i] = (int) segments[i];
+			PlaneEdge edge = this.getPlaneEdge(new Edge(src[i], dst[i]),
+					idSpace);
+			x1[i] = edge.startX;
+			y1[i] = edge.startY;
+			x2[i] = edge.endX;
+			y2[i] = edge.endY;
 		}
-		handledEdges = null;
-		return numCross;
+		return GridCrossingCounter.count(x1, y1, x2, y2, src, dst, weight);
 	}
 
-	public int calculateCrossings(Node n, Node m, IdentifierSpace idSpace) {
-		int numCross = 0;
-		Edge[] nEdges = n.getEdges();
-		Edge[] mEdges = m.getEdges();
-		handledEdges = new HashSet<String>(nEdges.length * mEdges.length, 0.95f);
-		partitions = idSpace.getPartitions();
-		for (Edge nEdge : nEdges) {
-			for (Edge mEdge : mEdges) {
-				if (hasCrossing(nEdge, mEdge, idSpace, true))
-					numCross++;
-			}
-		}
-		handledEdges = null;
-		return numCross;
+	/**
+	 * @return key of the undirected node pair (smaller index in the upper 32
+	 *         bits)
+	 */
+	private static long key(int a, int b) {
+		return ((long) Math.min(a, b) << 32) | Math.max(a, b);
 	}
 
-	private boolean hasCrossing(Edge x, Edge y, IdentifierSpace idSpace,
-			Boolean useShortcut) {
-		/*
-		 * There cannot be a crossing between only one edge
-		 */
-		if (x.equals(y))
-			return false;
-		if ((x.getSrc() == y.getSrc()) || (x.getSrc() == y.getDst())
-				|| (x.getDst() == y.getSrc()) || (x.getDst() == y.getDst()))
-			return false;
-		if (idSpace instanceof PlaneIdentifierSpaceSimple) {
-			return hasCrossingPlane(x, y, useShortcut);
-		} else if (idSpace instanceof RingIdentifierSpace) {
-			return hasCrossingRing(x, y);
+	/**
+	 * @throws RuntimeException
+	 *             in case crossings cannot be computed in the given
+	 *             identifier space
+	 */
+	private void checkIdentifierSpace(IdentifierSpace<?> idSpace) {
+		if (idSpace instanceof PlaneIdentifierSpaceSimple
+				|| idSpace instanceof RingIdentifierSpace) {
+			return;
 		} else if (idSpace instanceof MDIdentifierSpaceSimple) {
 			int dim = ((MDIdentifierSpaceSimple) idSpace).getDimensions();
-			if (dim == 2) {
-				return hasCrossingMD(x, y, useShortcut);
-			} else {
+			if (dim != 2) {
 				throw new RuntimeException("Cannot calculate crossings in "
 						+ idSpace.getClass() + " with " + dim + " dimensions");
 			}
@@ -274,6 +243,13 @@ public class EdgeCrossings extends Metric {
 		}
 	}
 
+	private PlaneEdge getPlaneEdge(Edge x, IdentifierSpace<?> idSpace) {
+		if (idSpace instanceof PlaneIdentifierSpaceSimple) {
+			return getPlaneEdgeFromPI(x);
+		}
+		return getPlaneEdgeFromMD(x);
+	}
+
 	private PlaneEdge getPlaneEdgeFromPI(Edge x) {
 		PlaneIdentifier startID = (PlaneIdentifier) ((PlanePartitionSimple) partitions[x
 				.getSrc()]).getRepresentativeID();
@@ -286,11 +262,6 @@ public class EdgeCrossings extends Metric {
 		return new PlaneEdge(startX, startY, endX, endY);
 	}
 
-	private boolean hasCrossingPlane(Edge x, Edge y, Boolean useShortcut) {
-		return hasCrossing(getPlaneEdgeFromPI(x), getPlaneEdgeFromPI(y),
-				useShortcut);
-	}
-
 	private PlaneEdge getPlaneEdgeFromMD(Edge x) {
 		MDIdentifier startID = (MDIdentifier) ((MDPartitionSimple) partitions[x
 				.getSrc()]).getRepresentativeID();
@@ -311,107 +282,6 @@ public class EdgeCrossings extends Metric {
 		return new PlaneEdge(startX, startY, endX, endY);
 	}
 
-	private boolean hasCrossingMD(Edge x, Edge y, Boolean useShortcut) {
-		return hasCrossing(getPlaneEdgeFromMD(x), getPlaneEdgeFromMD(y),
-				useShortcut);
-	}
-
-	private boolean hasCrossing(PlaneEdge x, PlaneEdge y, Boolean useShortcut) {
-		/*
-		 * Have we already handled this edge?
-		 */
-		String edgeString = x + " " + y;
-		if (y.startX < x.startX) {
-			edgeString = y + " " + x;
-		}
-		if (useShortcut) {
-			if (handledEdges.contains(edgeString)) {
-				return false;
-			}
-			handledEdges.add(edgeString);
-		}
-
-		/*
-		 * calculation according to
-		 * http://www.ahristov.com/tutorial/geometry-games
-		 * /intersection-lines.html
-		 */
-		double d = (x.startX - x.endX) * (y.startY - y.endY)
-				- (x.startY - x.endY) * (y.startX - y.endX);
-		if (d == 0) {
-			return false;
-		}
-
-		double xi = ((y.startX - y.endX)
-				* (x.startX * x.endY - x.startY * x.endX) - (x.startX - x.endX)
-				* (y.startX * y.endY - y.startY * y.endX))
-				/ d;
-		double yi = ((y.startY - y.endY)
-				* (x.startX * x.endY - x.startY * x.endX) - (x.startY - x.endY)
-				* (y.startX * y.endY - y.startY * y.endX))
-				/ d;
-		/*
-		 * xi/yi is a possible intersection point - check whether it lies on one
-		 * of the edges
-		 */
-		if (isBetween(x.startX, x.endX, xi) && isBetween(x.startY, x.endY, yi)
-				&& isBetween(y.startX, y.endX, xi)
-				&& isBetween(y.startY, y.endY, yi)) {
-			return true;
-		}
-		return false;
-
-	}
-
-	private boolean isBetween(double rangeStart, double rangeEnd, double value) {
-		if (rangeStart > rangeEnd) {
-			return isBetween(rangeEnd, rangeStart, value);
-		}
-		return (rangeStart < value) && (rangeEnd > value);
-	}
-
-	private boolean hasCrossingRing(Edge x, Edge y) {
-		double xStart = Math.min(getPositionRing(x.getSrc()),
-				getPositionRing(x.getDst()));
-		double xEnd = Math.max(getPositionRing(x.getSrc()),
-				getPositionRing(x.getDst()));
-		double yStart = Math.min(getPositionRing(y.getSrc()),
-				getPositionRing(y.getDst()));
-		double yEnd = Math.max(getPositionRing(y.getSrc()),
-				getPositionRing(y.getDst()));
-
-		String xString = xStart + "-" + xEnd;
-		String yString = yStart + "-" + yEnd;
-		String edgeString;
-		if (xStart < yStart)
-			edgeString = xString + "|" + yString;
-		else
-			edgeString = yString + "|" + xString;
-
-		/*
-		 * Have we already handled this edge?
-		 */
-		if (handledEdges.contains(edgeString)) {
-			return false;
-		}
-		handledEdges.add(edgeString);
-
-		if ((xStart < yStart && xEnd > yEnd)
-				|| (yStart < xStart && yEnd > xEnd)
-				|| (yStart > xEnd || xStart > yEnd)) {
-			// System.out.println( "No crossing between " + edgeString );
-			return false;
-		}
-		if ((xStart < yStart && xEnd < yEnd)
-				|| (xStart > yStart && xEnd > yEnd)) {
-			// System.out.println("Got a crossing between " + edgeString);
-			return true;
-		}
-
-		System.err.println("Unknown case " + edgeString);
-		return false;
-	}
-
 	protected double getPositionRing(int i) {
 		return ((RingPartition) partitions[i]).getStart().getPosition();
 	}
@@ -463,26 +333,4 @@ public class EdgeCrossings extends Metric {
 					+ ")";
 		}
 	}
-
-	private class RingEdge {
-		double src, dst;
-		int graphSrc, graphDst;
-
-		public RingEdge(double src, double dst, int graphSrc, int graphDst) {
-			this.src = src;
-			this.dst = dst;
-			this.graphSrc = graphSrc;
-			this.graphDst = graphDst;
-		}
-
-		public boolean equals(RingEdge r) {
-			if (r == null)
-				return false;
-			return (r.src == this.src) && (r.dst == this.dst);
-		}
-
-		public String toString() {
-			return this.src + "->" + this.dst;
-		}
-	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,209 @@
+/* ===========================================================
+ * GTNA : Graph-Theoretic Network Analyzer
+ * ===========================================================
+ *
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors
+ *
+ * Project Info:  http://www.p2p.tu-darmstadt.de/research/gtna/
+ *
+ * GTNA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GTNA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ---------------------------------------
+ * GridCrossingCounter.java
+ * ---------------------------------------
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors 
+ *
+ * Original Author: agent;
+ * Contributors:    -;
+ *
+ * Changes since 2011-05-17
+ * ---------------------------------------
+ *
+ */
+package gtna.metrics.edges;
+
+import gtna.util.LongHashSet;
+
+/**
+ * Counts the crossings of straight-line edges (segments) in the plane using a
+ * uniform grid as spatial index.
+ *
+ * The bounding box of all segments is divided into about as many cells as
+ * there are segments, every segment is registered in all cells it passes
+ * through. Only segments that share a cell are tested for a crossing, a pair
+ * that shares several cells is counted once using a set of the crossing pairs
+ * found so far. For embeddings where the segments are spread over the plane,
+ * this requires O(E + K) tests instead of O(E^2) for E segments and K
+ * crossings.
+ *
+ * Two segments cross in case their intersection point lies strictly inside
+ * of both of them, segments that share a node, are parallel, or only touch at
+ * an endpoint do not cross.
+ *
+ * @author agent
+ *
+ */
+public class GridCrossingCounter {
+	/**
+	 * computes the (weighted) number of crossings of every segment, segment i
+	 * connects node src[i] at (x1[i], y1[i]) and node dst[i] at (x2[i], y2[i])
+	 *
+	 * @param x1
+	 * @param y1
+	 * @param x2
+	 * @param y2
+	 * @param src
+	 * @param dst
+	 * @param weight
+	 *            weight of each segment (1 for all in case it is null)
+	 * @return sum of the weights of all segments crossing each segment
+	 */
+	public static long[] count(double[] x1, double[] y1, double[] x2,
+			double[] y2, int[] src, int[] dst, int[] weight) {
+		int m = x1.length;
+		long[] crossings = new long[m];
+		if (m < 2) {
+			return crossings;
+		}
+		double minX = Double.POSITIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < m; i++) {
+			minX = Math.min(minX, Math.min(x1[i], x2[i]));
+			minY = Math.min(minY, Math.min(y1[i], y2[i]));
+			maxX = Math.max(maxX, Math.max(x1[i], x2[i]));
+			maxY = Math.max(maxY, Math.max(y1[i], y2[i]));
+		}
+		int size = Math.max(1, Math.min((int) Math.ceil(Math.sqrt(m)), 1 << 12));
+		double width = maxX > minX ? (maxX - minX) / size : 1;
+		double height = maxY > minY ? (maxY - minY) / size : 1;
+
+		// register each segment in all cells it passes through (two passes:
+		// count the segments per cell, then fill the cells)
+		int[] offsets = new int[size * size + 1];
+		int[] cells = null;
+		for (int pass = 0; pass < 2; pass++) {
+			int[] next = null;
+			if (pass == 1) {
+				for (int c = 0; c < size * size; c++) {
+					offsets[c + 1] += offsets[c];
+				}
+				cells = new int[offsets[size * size]];
+				next = new int[size * size];
+				System.arraycopy(offsets, 0, next, 0, size * size);
+			}
+			for (int i = 0; i < m; i++) {
+				double ax = Math.min(x1[i], x2[i]);
+				double bx = Math.max(x1[i], x2[i]);
+				int fromX = GridCrossingCounter.cell(ax, minX, width, size);
+				int toX = GridCrossingCounter.cell(bx, minX, width, size);
+				for (int cx = fromX; cx <= toX; cx++) {
+					// y-range of the segment within column cx
+					double left = Math.max(ax, minX + cx * width);
+					double right = Math.min(bx, minX + (cx + 1) * width);
+					double yl = Math.min(y1[i], y2[i]);
+					double yr = Math.max(y1[i], y2[i]);
+					if (x1[i] != x2[i]) {
+						yl = y1[i] + (y2[i] - y1[i]) * (left - x1[i])
+								/ (x2[i] - x1[i]);
+						yr = y1[i] + (y2[i] - y1[i]) * (right - x1[i])
+								/ (x2[i] - x1[i]);
+					}
+					double eps = 1e-9 * height;
+					int fromY = GridCrossingCounter.cell(Math.min(yl, yr) - eps,
+							minY, height, size);
+					int toY = GridCrossingCounter.cell(Math.max(yl, yr) + eps,
+							minY, height, size);
+					for (int cy = fromY; cy <= toY; cy++) {
+						if (pass == 0) {
+							offsets[cx * size + cy + 1]++;
+						} else {
+							cells[next[cx * size + cy]++] = i;
+						}
+					}
+				}
+			}
+		}
+
+		LongHashSet found = new LongHashSet(m);
+		for (int c = 0; c < size * size; c++) {
+			for (int j = offsets[c]; j < offsets[c + 1]; j++) {
+				int a = cells[j];
+				for (int k = j + 1; k < offsets[c + 1]; k++) {
+					int b = cells[k];
+					if (src[a] == src[b] || src[a] == dst[b]
+							|| dst[a] == src[b] || dst[a] == dst[b]) {
+						continue;
+					}
+					if (!GridCrossingCounter.intersects(x1[a], y1[a], x2[a],
+							y2[a], x1[b], y1[b], x2[b], y2[b])) {
+						continue;
+					}
+					long key = a < b ? ((long) a << 32) | b : ((long) b << 32)
+							| a;
+					if (found.add(key)) {
+						crossings[a] += weight == null ? 1 : weight[b];
+						crossings[b] += weight == null ? 1 : weight[a];
+					}
+				}
+			}
+		}
+		return crossings;
+	}
+
+	/**
+	 * tests whether the segments (x1, y1)-(x2, y2) and (x3, y3)-(x4, y4)
+	 * intersect in a point that lies strictly inside of both of them
+	 *
+	 * calculation according to
+	 * http://www.ahristov.com/tutorial/geometry-games/intersection-lines.html
+	 */
+	public static boolean intersects(double x1, double y1, double x2,
+			double y2, double x3, double y3, double x4, double y4) {
+		double d = (x1 - x2) * (y3 - y4) - (y1 - y2) * (x3 - x4);
+		if (d == 0) {
+			return false;
+		}
+		double xi = ((x3 - x4) * (x1 * y2 - y1 * x2) - (x1 - x2)
+				* (x3 * y4 - y3 * x4))
+				/ d;
+		double yi = ((y3 - y4) * (x1 * y2 - y1 * x2) - (y1 - y2)
+				* (x3 * y4 - y3 * x4))
+				/ d;
+		/*
+		 * xi/yi is a possible intersection point - check whether it lies on
+		 * both of the segments
+		 */
+		return GridCrossingCounter.isBetween(x1, x2, xi)
+				&& GridCrossingCounter.isBetween(y1, y2, yi)
+				&& GridCrossingCounter.isBetween(x3, x4, xi)
+				&& GridCrossingCounter.isBetween(y3, y4, yi);
+	}
+
+	private static boolean isBetween(double rangeStart, double rangeEnd,
+			double value) {
+		if (rangeStart > rangeEnd) {
+			return (rangeEnd < value) && (rangeStart > value);
+		}
+		return (rangeStart < value) && (rangeEnd > value);
+	}
+
+	private static int cell(double value, double min, double size, int cells) {
+		int cell = (int) Math.floor((value - min) / size);
+		return Math.max(0, Math.min(cells - 1, cell));
+	}
+}
@@ -0,0 +1,289 @@
+/* ===========================================================
+ * GTNA : Graph-Theoretic Network Analyzer
+ * ===========================================================
+ *
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors
+ *
+ * Project Info:  http://www.p2p.tu-darmstadt.de/research/gtna/
+ *
+ * GTNA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GTNA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ---------------------------------------
+ * RingCrossingCounter.java
+ * ---------------------------------------
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors 
+ *
+ * Original Author: agent;
+ * Contributors:    -;
+ *
+ * Changes since 2011-05-17
+ * ---------------------------------------
+ *
+ */
+package gtna.metrics.edges;
+
+import gtna.graph.CSRGraph;
+import gtna.graph.Graph;
+import gtna.id.ring.RingIdentifierSpace;
+import gtna.id.ring.RingPartition;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Counts edge crossings of a graph embedded on a ring. Two edges (chords)
+ * (s1, e1) and (s2, e2) with s &lt; e cross iff their endpoints interleave,
+ * i.e., s1 &lt; s2 &lt; e1 &lt; e2 or s2 &lt; s1 &lt; e2 &lt; e1. Chords that
+ * share an endpoint do not cross.
+ *
+ * The static count computes the crossings of all chords at once using two
+ * sweeps over the sorted endpoints where the chords passed so far are stored
+ * in a Fenwick tree, i.e., in O(E log E).
+ *
+ * An instance of this class is an index for the incremental computation of
+ * the crossings between the edges of two nodes, e.g., while the positions of
+ * nodes are swapped by a graph-drawing transformation. The rank of every node
+ * in the order of positions is kept, so crossings are determined by comparing
+ * ranks only. After the positions of two nodes have been swapped, the index
+ * must be notified using swapped.
+ *
+ * @author agent
+ *
+ */
+public class RingCrossingCounter {
+	private RingPartition[] partitions;
+
+	private int[][] neighbors;
+
+	private int[] rank;
+
+	/**
+	 * @param g
+	 *            graph, edges are considered to be undirected
+	 * @param idSpace
+	 *            ring the nodes of g are embedded on
+	 */
+	public RingCrossingCounter(Graph g, RingIdentifierSpace idSpace) {
+		this.partitions = (RingPartition[]) idSpace.getPartitions();
+		this.neighbors = RingCrossingCounter.neighbors(g.getCSR());
+		int n = this.neighbors.length;
+		Integer[] sorted = new Integer[n];
+		for (int i = 0; i < n; i++) {
+			sorted[i] = i;
+		}
+		Arrays.sort(sorted, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer a, Integer b) {
+				return Double.compare(position(a), position(b));
+			}
+		});
+		this.rank = new int[n];
+		for (int i = 0; i < n; i++) {
+			this.rank[sorted[i]] = i;
+		}
+	}
+
+	/**
+	 * @param a
+	 * @param b
+	 * @return number of pairs of crossing (undirected) edges where one edge
+	 *         belongs to node a and the other one to node b
+	 */
+	public int crossings(int a, int b) {
+		int crossings = 0;
+		for (int x : this.neighbors[a]) {
+			int low = Math.min(this.rank[a], this.rank[x]);
+			int high = Math.max(this.rank[a], this.rank[x]);
+			for (int y : this.neighbors[b]) {
+				if (b == x || y == a || y == x) {
+					continue;
+				}
+				boolean bInside = this.rank[b] > low && this.rank[b] < high;
+				boolean yInside = this.rank[y] > low && this.rank[y] < high;
+				if (bInside != yInside) {
+					crossings++;
+				}
+			}
+		}
+		return crossings;
+	}
+
+	/**
+	 * updates the index after the positions of the two nodes have been swapped
+	 *
+	 * @param a
+	 * @param b
+	 */
+	public void swapped(int a, int b) {
+		int temp = this.rank[a];
+		this.rank[a] = this.rank[b];
+		this.rank[b] = temp;
+	}
+
+	private double position(int node) {
+		return this.partitions[node].getStart().getPosition();
+	}
+
+	/**
+	 * @return sorted neighbors of every node (outgoing and incoming edges, no
+	 *         duplicates and self-loops)
+	 */
+	private static int[][] neighbors(CSRGraph csr) {
+		int[] out = csr.getOutTargets();
+		int[] in = csr.getInTargets();
+		int[][] neighbors = new int[csr.getNodeCount()][];
+		int[] buffer = new int[16];
+		for (int i = 0; i < neighbors.length; i++) {
+			if (buffer.length < csr.getDegree(i)) {
+				buffer = new int[csr.getDegree(i)];
+			}
+			int j = csr.outStart(i);
+			int k = csr.inStart(i);
+			int size = 0;
+			while (j < csr.outEnd(i) || k < csr.inEnd(i)) {
+				int next;
+				if (k == csr.inEnd(i)
+						|| (j < csr.outEnd(i) && out[j] <= in[k])) {
+					next = out[j++];
+				} else {
+					next = in[k++];
+				}
+				if (next != i && (size == 0 || buffer[size - 1] != next)) {
+					buffer[size++] = next;
+				}
+			}
+			neighbors[i] = Arrays.copyOf(buffer, size);
+		}
+		return neighbors;
+	}
+
+	/**
+	 * computes the (weighted) number of crossings of every chord
+	 *
+	 * @param start
+	 *            smaller position of each chord
+	 * @param end
+	 *            larger position of each chord
+	 * @param weight
+	 *            weight of each chord (1 for all in case it is null)
+	 * @return sum of the weights of all chords crossing each chord
+	 */
+	public static long[] count(double[] start, double[] end, int[] weight) {
+		int m = start.length;
+		double[] positions = new double[2 * m];
+		System.arraycopy(start, 0, positions, 0, m);
+		System.arraycopy(end, 0, positions, m, m);
+		Arrays.sort(positions);
+		int unique = 0;
+		for (int i = 0; i < positions.length; i++) {
+			if (unique == 0 || positions[unique - 1] != positions[i]) {
+				positions[unique++] = positions[i];
+			}
+		}
+		int[] s = new int[m];
+		int[] e = new int[m];
+		for (int i = 0; i < m; i++) {
+			s[i] = Arrays.binarySearch(positions, 0, unique, start[i]);
+			e[i] = Arrays.binarySearch(positions, 0, unique, end[i]);
+		}
+		long[] crossings = new long[m];
+
+		// chords j with s(i) < s(j) < e(i) < e(j): sweep by descending end,
+		// the start of all chords with larger end are in the tree
+		int[] byEnd = RingCrossingCounter.sort(e, unique);
+		long[] tree = new long[unique + 1];
+		for (int i = m - 1; i >= 0;) {
+			int first = i;
+			while (first > 0 && e[byEnd[first - 1]] == e[byEnd[i]]) {
+				first--;
+			}
+			for (int j = first; j <= i; j++) {
+				int c = byEnd[j];
+				if (s[c] < e[c]) {
+					crossings[c] += RingCrossingCounter.sum(tree, e[c] - 1)
+							- RingCrossingCounter.sum(tree, s[c]);
+				}
+			}
+			for (int j = first; j <= i; j++) {
+				int c = byEnd[j];
+				RingCrossingCounter.add(tree, s[c], weight == null ? 1
+						: weight[c]);
+			}
+			i = first - 1;
+		}
+
+		// chords j with s(j) < s(i) < e(j) < e(i): sweep by ascending start,
+		// the ends of all chords with smaller start are in the tree
+		int[] byStart = RingCrossingCounter.sort(s, unique);
+		tree = new long[unique + 1];
+		for (int i = 0; i < m;) {
+			int last = i;
+			while (last < m - 1 && s[byStart[last + 1]] == s[byStart[i]]) {
+				last++;
+			}
+			for (int j = i; j <= last; j++) {
+				int c = byStart[j];
+				if (s[c] < e[c]) {
+					crossings[c] += RingCrossingCounter.sum(tree, e[c] - 1)
+							- RingCrossingCounter.sum(tree, s[c]);
+				}
+			}
+			for (int j = i; j <= last; j++) {
+				int c = byStart[j];
+				RingCrossingCounter.add(tree, e[c], weight == null ? 1
+						: weight[c]);
+			}
+			i = last + 1;
+		}
+		return crossings;
+	}
+
+	/**
+	 * @return indices of the given values sorted in ascending order (counting
+	 *         sort, all values are in [0, range))
+	 */
+	private static int[] sort(int[] values, int range) {
+		int[] offsets = new int[range + 1];
+		for (int v : values) {
+			offsets[v + 1]++;
+		}
+		for (int i = 0; i < range; i++) {
+			offsets[i + 1] += offsets[i];
+		}
+		int[] sorted = new int[values.length];
+		for (int i = 0; i < values.length; i++) {
+			sorted[offsets[values[i]]++] = i;
+		}
+		return sorted;
+	}
+
+	/**
+	 * @return sum of the values at indices 0 to index in the Fenwick tree
+	 */
+	private static long sum(long[] tree, int index) {
+		long sum = 0;
+		for (int i = index + 1; i > 0; i -= i & -i) {
+			sum += tree[i];
+		}
+		return sum;
+	}
+
+	private static void add(long[] tree, int index, long value) {
+		for (int i = index + 1; i < tree.length; i += i & -i) {
+			tree[i] += value;
+		}
+	}
+}
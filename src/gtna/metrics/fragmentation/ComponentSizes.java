@@ -0,0 +1,142 @@
+/* ===========================================================
+ * GTNA : Graph-Theoretic Network Analyzer
+ * ===========================================================
+ *
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors
+ *
+ * Project Info:  http://www.p2p.tu-darmstadt.de/research/gtna/
+ *
+ * GTNA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GTNA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ---------------------------------------
+ * ComponentSizes.java
+ * ---------------------------------------
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors 
+ *
+ * Original Author: agent;
+ * Contributors:    -;
+ *
+ * Changes since 2011-05-17
+ * ---------------------------------------
+ *
+ */
+package gtna.metrics.fragmentation;
+
+import gtna.graph.partition.Partition;
+
+/**
+ * Multiset of component sizes that supports adding and removing sizes as well
+ * as accessing the size at an arbitrary rank in O(log n), implemented as a
+ * Fenwick tree over the possible sizes 1, ..., n.
+ * 
+ * The sizes are accessed in descending order, i.e., get(i) returns the same
+ * value as p.getComponents()[i].length for a Partition p with the same
+ * components.
+ * 
+ * @author agent
+ * 
+ */
+public class ComponentSizes {
+	private long[] tree;
+
+	private int mask;
+
+	private int count;
+
+	private long sum;
+
+	/**
+	 * @param n
+	 *            maximum component size
+	 */
+	public ComponentSizes(int n) {
+		this.tree = new long[n + 1];
+		this.mask = Integer.highestOneBit(Math.max(n, 1));
+		this.count = 0;
+		this.sum = 0;
+	}
+
+	/**
+	 * @param n
+	 *            maximum component size
+	 * @param p
+	 *            partition whose component sizes are added
+	 */
+	public ComponentSizes(int n, Partition p) {
+		this(n);
+		for (int[] component : p.getComponents()) {
+			this.add(component.length);
+		}
+	}
+
+	public void add(int size) {
+		this.update(size, 1);
+		this.count++;
+		this.sum += size;
+	}
+
+	public void remove(int size) {
+		this.update(size, -1);
+		this.count--;
+		this.sum -= size;
+	}
+
+	private void update(int size, int delta) {
+		for (int i = size; i < this.tree.length; i += i & -i) {
+			this.tree[i] += delta;
+		}
+	}
+
+	/**
+	 * @param index
+	 *            index in descending order (0 for the largest component)
+	 * @return size of the component at the given index
+	 */
+	public int get(int index) {
+		// find the smallest size s with at least rank components of size <= s
+		long rank = this.count - index;
+		int pos = 0;
+		for (int step = this.mask; step > 0; step >>= 1) {
+			int next = pos + step;
+			if (next < this.tree.length && this.tree[next] < rank) {
+				pos = next;
+				rank -= this.tree[next];
+			}
+		}
+		return pos + 1;
+	}
+
+	/**
+	 * @return size of the largest component
+	 */
+	public int getLargest() {
+		return this.get(0);
+	}
+
+	/**
+	 * @return number of components
+	 */
+	public int getCount() {
+		return this.count;
+	}
+
+	/**
+	 * @return sum of all component sizes, i.e., number of contained nodes
+	 */
+	public long getSum() {
+		return this.sum;
+	}
+}
@@ -97,6 +97,13 @@ public abstract class Fragmentation extends Metric {
 
 	private Timer runtime;
 
+	@Override
+	public Metric clone() {
+		Fragmentation clone = (Fragmentation) super.clone();
+		clone.sorter = this.sorter.clone();
+		return clone;
+	}
+
 	@Override
 	public void computeData(Graph g, Network n, HashMap<String, Metric> m) {
 		this.runtime = new Timer();
@@ -110,43 +117,66 @@ public abstract class Fragmentation extends Metric {
 		this.criticalPoint = g.getNodes().length;
 		Random rand = new Random();
 		Node[] sorted = this.sorter.sort(g, rand);
+		int nodes = g.getNodes().length;
+		this.fragment(g, sorted, excludeFirst,
+				new PercolationEngine.Observer() {
+					@Override
+					public void step(int step, ComponentSizes sizes) {
+						Fragmentation.this.record(step, sizes);
+					}
+				});
 		for (int i = 0; i < excludeFirst.length; i++) {
-			boolean[] exclude = this.getExclude(sorted, excludeFirst[i]);
-			Partition p = this.partition(g, sorted, exclude);
-
-			this.numberOfIsolatedComponents[i] = p.getComponents().length - 1;
-			this.largestComponentSize[i] = p.getLargestComponent().length;
-
-			if (this.numberOfIsolatedComponents[i] == 0) {
-				this.isolatedComponentSizeAvg[i] = 0;
-				this.isolatedComponentSizeMax[i] = 0;
-				this.isolatedComponentSizeMed[i] = 0;
-				this.isolatedComponentSizeMin[i] = 0;
-			} else {
-				this.isolatedComponentSizeAvg[i] = this.avgIsolatedSize(p);
-				this.isolatedComponentSizeMax[i] = p.getComponents()[p
-						.getComponents().length - 2].length;
-				this.isolatedComponentSizeMed[i] = p.getComponents()[(int) Math
-						.floor(p.getComponents().length / 2)].length;
-				this.isolatedComponentSizeMin[i] = p.getComponents()[p
-						.getComponents().length - 1].length;
-			}
-
-			if (this.largestComponentSize[i] < 0.5 * (g.getNodes().length - excludeFirst[i])
+			if (this.largestComponentSize[i] < 0.5 * (nodes - excludeFirst[i])
 					&& excludeFirst[i] < this.criticalPoint) {
 				this.criticalPoint = (double) excludeFirst[i]
-						/ (double) g.getNodes().length;
+						/ (double) nodes;
 			}
 		}
 		this.runtime.end();
 	}
 
-	private double avgIsolatedSize(Partition p) {
-		double sum = 0;
-		for (int i = 1; i < p.getComponents().length; i++) {
-			sum += p.getComponents()[i].length;
+	/**
+	 * computes the components of the graph after removing the first
+	 * excludeFirst[i] nodes of sorted for all steps i, the steps can be passed
+	 * to the observer in any order
+	 * 
+	 * by default, the partition of every step is computed separately using
+	 * partition(g, sorted, exclude)
+	 * 
+	 * @param g
+	 * @param sorted
+	 *            nodes in the order of their removal
+	 * @param excludeFirst
+	 *            number of removed nodes for each step
+	 * @param observer
+	 */
+	protected void fragment(Graph g, Node[] sorted, int[] excludeFirst,
+			PercolationEngine.Observer observer) {
+		for (int i = 0; i < excludeFirst.length; i++) {
+			boolean[] exclude = this.getExclude(sorted, excludeFirst[i]);
+			Partition p = this.partition(g, sorted, exclude);
+			observer.step(i, new ComponentSizes(sorted.length, p));
+		}
+	}
+
+	private void record(int i, ComponentSizes sizes) {
+		int components = sizes.getCount();
+		this.numberOfIsolatedComponents[i] = components - 1;
+		this.largestComponentSize[i] = sizes.getLargest();
+
+		if (this.numberOfIsolatedComponents[i] == 0) {
+			this.isolatedComponentSizeAvg[i] = 0;
+			this.isolatedComponentSizeMax[i] = 0;
+			this.isolatedComponentSizeMed[i] = 0;
+			this.isolatedComponentSizeMin[i] = 0;
+		} else {
+			this.isolatedComponentSizeAvg[i] = (double) (sizes.getSum() - sizes
+					.getLargest()) / (double) components;
+			this.isolatedComponentSizeMax[i] = sizes.get(components - 2);
+			this.isolatedComponentSizeMed[i] = sizes.get((int) Math
+					.floor(components / 2));
+			this.isolatedComponentSizeMin[i] = sizes.get(components - 1);
 		}
-		return sum / p.getComponents().length;
 	}
 
 	private int[] getExcludeFirst(int nodes) {
@@ -0,0 +1,150 @@
+/* ===========================================================
+ * GTNA : Graph-Theoretic Network Analyzer
+ * ===========================================================
+ *
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors
+ *
+ * Project Info:  http://www.p2p.tu-darmstadt.de/research/gtna/
+ *
+ * GTNA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GTNA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ---------------------------------------
+ * PercolationEngine.java
+ * ---------------------------------------
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors 
+ *
+ * Original Author: agent;
+ * Contributors:    -;
+ *
+ * Changes since 2011-05-17
+ * ---------------------------------------
+ *
+ */
+package gtna.metrics.fragmentation;
+
+import gtna.graph.CSRGraph;
+
+/**
+ * Computes the weakly connected components of a graph for a sequence of node
+ * removals using reverse percolation (Newman and Ziff, "Efficient Monte Carlo
+ * algorithm and high-precision results for percolation", 2000).
+ * 
+ * Instead of computing the components from scratch after every removal step,
+ * the nodes are added back in the reverse order of their removal and merged
+ * with their present neighbors using union-find (union by size, path
+ * halving). The sizes of all components are kept in a ComponentSizes
+ * multiset, which is handed to the observer once the number of present nodes
+ * corresponds to one of the requested steps. Hence, all steps are computed in
+ * O((n + m) * log n) time in total.
+ * 
+ * @author agent
+ * 
+ */
+public class PercolationEngine {
+	/**
+	 * receives the component sizes after each removal step
+	 */
+	public static interface Observer {
+		/**
+		 * @param step
+		 *            index of the step in excludeFirst
+		 * @param sizes
+		 *            sizes of the components of the remaining graph, only
+		 *            valid during this call
+		 */
+		public void step(int step, ComponentSizes sizes);
+	}
+
+	private CSRGraph csr;
+
+	/**
+	 * @param csr
+	 *            graph to fragment
+	 */
+	public PercolationEngine(CSRGraph csr) {
+		this.csr = csr;
+	}
+
+	/**
+	 * @param order
+	 *            nodes in the order of their removal
+	 * @param excludeFirst
+	 *            number of removed nodes for each step (in ascending order)
+	 * @param observer
+	 *            observer called for each step (in descending order)
+	 */
+	public void compute(int[] order, int[] excludeFirst, Observer observer) {
+		int n = this.csr.getNodeCount();
+		int[] outTargets = this.csr.getOutTargets();
+		int[] inTargets = this.csr.getInTargets();
+		int[] parent = new int[n];
+		int[] size = new int[n];
+		for (int i = 0; i < n; i++) {
+			parent[i] = -1;
+		}
+		ComponentSizes sizes = new ComponentSizes(n);
+		int added = 0;
+		for (int step = excludeFirst.length - 1; step >= 0; step--) {
+			while (added < n - excludeFirst[step]) {
+				int node = order[n - 1 - added];
+				parent[node] = node;
+				size[node] = 1;
+				sizes.add(1);
+				for (int j = this.csr.outStart(node); j < this.csr.outEnd(node); j++) {
+					PercolationEngine.union(parent, size, sizes, node,
+							outTargets[j]);
+				}
+				for (int j = this.csr.inStart(node); j < this.csr.inEnd(node); j++) {
+					PercolationEngine.union(parent, size, sizes, node,
+							inTargets[j]);
+				}
+				added++;
+			}
+			observer.step(step, sizes);
+		}
+	}
+
+	private static void union(int[] parent, int[] size, ComponentSizes sizes,
+			int a, int b) {
+		if (parent[b] == -1) {
+			// neighbor has not been added yet
+			return;
+		}
+		a = PercolationEngine.find(parent, a);
+		b = PercolationEngine.find(parent, b);
+		if (a == b) {
+			return;
+		}
+		if (size[a] < size[b]) {
+			int temp = a;
+			a = b;
+			b = temp;
+		}
+		sizes.remove(size[a]);
+		sizes.remove(size[b]);
+		parent[b] = a;
+		size[a] += size[b];
+		sizes.add(size[a]);
+	}
+
+	private static int find(int[] parent, int node) {
+		while (parent[node] != node) {
+			parent[node] = parent[parent[node]];
+			node = parent[node];
+		}
+		return node;
+	}
+}
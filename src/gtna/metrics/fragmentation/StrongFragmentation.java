@@ -39,6 +39,7 @@ import gtna.graph.Graph;
 import gtna.graph.Node;
 import gtna.graph.partition.Partition;
 import gtna.graph.sorting.NodeSorter;
+import gtna.transformation.partition.StrongConnectivityPartition;
 
 /**
  * @author benni
@@ -52,8 +53,7 @@ public class StrongFragmentation extends Fragmentation {
 
 	@Override
 	protected Partition partition(Graph g, Node[] sorted, boolean[] exclude) {
-		// TODO Auto-generated method stub
-		return null;
+		return StrongConnectivityPartition.getStrongPartition(g, exclude);
 	}
 
 }
@@ -57,4 +57,18 @@ public class WeakFragmentation extends Fragmentation {
 		return WeakConnectivityPartition.getWeakPartition(g, exclude);
 	}
 
+	/**
+	 * computes all steps at once using reverse percolation
+	 */
+	@Override
+	protected void fragment(Graph g, Node[] sorted, int[] excludeFirst,
+			PercolationEngine.Observer observer) {
+		int[] order = new int[sorted.length];
+		for (int i = 0; i < sorted.length; i++) {
+			order[i] = sorted[i].getIndex();
+		}
+		new PercolationEngine(g.getCSR()).compute(order, excludeFirst,
+				observer);
+	}
+
 }
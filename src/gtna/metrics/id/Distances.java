@@ -39,23 +39,46 @@ import gtna.data.Single;
 import gtna.graph.Edge;
 import gtna.graph.Edges;
 import gtna.graph.Graph;
-import gtna.graph.Node;
 import gtna.id.DIdentifierSpace;
 import gtna.id.Partition;
+import gtna.id.ring.RingIdentifierSpace;
 import gtna.io.DataWriter;
 import gtna.metrics.Metric;
 import gtna.networks.Network;
+import gtna.util.Config;
 import gtna.util.Distribution;
 import gtna.util.parameter.DoubleParameter;
 import gtna.util.parameter.Parameter;
 
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
+ * Computes the distribution of the distances between the partitions and the
+ * representative IDs of all pairs of nodes as well as of all edges of the
+ * graph, the distances are aggregated in buckets of the given size.
+ *
+ * The distances of all pairs are computed in one of three ways:
+ *
+ * (1) In case DISTANCES_SAMPLE_PAIRS is larger than 0, only the given number
+ * of (ordered) pairs of nodes sampled uniformly at random is considered.
+ *
+ * (2) For a RingIdentifierSpace with few buckets compared to the number of
+ * nodes, the histogram is computed by a sweep over the sorted identifiers
+ * (RingDistances) without computing every single distance.
+ *
+ * (3) Otherwise, all distances are computed. The pairs are divided into tiles
+ * of TILE x TILE nodes which are distributed among the worker threads
+ * (PARALLEL_METRICS), every worker keeps its own histogram.
+ *
  * @author benni
  * 
  */
 public class Distances extends Metric {
+	private static final int TILE = 256;
+
 	private double bucketSize;
 
 	private Distribution allDistribution;
@@ -79,24 +102,52 @@ public class Distances extends Metric {
 		this.divide(edgeDistances, edges.size());
 		this.edgesDistribution = new Distribution(edgeDistances);
 
-		double[] allDistances = this.computeAllDistances(g, partitions);
-		this.divide(allDistances, g.getNodes().length
-				* (g.getNodes().length - 1));
+		int nodes = g.getNodes().length;
+		int samples = Config.getInt("DISTANCES_SAMPLE_PAIRS");
+		long[] histogram;
+		double pairs;
+		if (samples > 0 && samples < (long) nodes * (nodes - 1)) {
+			histogram = this.computeSampledDistances(partitions, samples,
+					new Random());
+			pairs = samples;
+		} else if (ids instanceof RingIdentifierSpace
+				&& RingDistances.isFaster((RingIdentifierSpace) ids,
+						this.bucketSize)) {
+			histogram = new RingDistances((RingIdentifierSpace) ids,
+					this.bucketSize).histogram();
+			pairs = (double) nodes * (double) (nodes - 1);
+		} else {
+			histogram = this.computeAllDistances(partitions,
+					Config.getInt("PARALLEL_METRICS"));
+			pairs = (double) nodes * (double) (nodes - 1);
+		}
+		double[] allDistances = new double[histogram.length];
+		for (int i = 0; i < histogram.length; i++) {
+			allDistances[i] = histogram[i];
+		}
+		this.divide(allDistances, pairs);
 		this.allDistribution = new Distribution(allDistances);
 
 	}
 
-	private double[] addValue(double[] values, double value) {
-		int bucket = this.getBucket(value);
-		try {
-			values[bucket]++;
-			return values;
-		} catch (IndexOutOfBoundsException e) {
-			double[] newValues = new double[bucket + 1];
-			System.arraycopy(values, 0, newValues, 0, values.length);
-			newValues[bucket] = 1;
-			return newValues;
+	private static long[] addValue(long[] values, int bucket) {
+		if (bucket >= values.length) {
+			values = Arrays.copyOf(values,
+					Math.max(bucket + 1, 2 * values.length));
 		}
+		values[bucket]++;
+		return values;
+	}
+
+	/**
+	 * @return the given histogram without trailing zeros (at least one entry)
+	 */
+	private static long[] trim(long[] values) {
+		int length = values.length;
+		while (length > 1 && values[length - 1] == 0) {
+			length--;
+		}
+		return Arrays.copyOf(values, length);
 	}
 
 	private int getBucket(double value) {
@@ -109,32 +160,110 @@ public class Distances extends Metric {
 		}
 	}
 
-	private double[] computeAllDistances(Graph g, Partition<Double>[] partitions) {
-		double[] values = new double[1];
-		for (Node n1 : g.getNodes()) {
-			for (Node n2 : g.getNodes()) {
-				if (n1.getIndex() == n2.getIndex()) {
-					continue;
+	private long[] computeSampledDistances(Partition<Double>[] partitions,
+			int samples, Random rand) {
+		int n = partitions.length;
+		long[] values = new long[1];
+		for (int s = 0; s < samples; s++) {
+			int i = rand.nextInt(n);
+			int j = rand.nextInt(n - 1);
+			if (j >= i) {
+				j++;
+			}
+			double dist = partitions[i].distance(partitions[j]
+					.getRepresentativeID());
+			values = Distances.addValue(values, this.getBucket(dist));
+		}
+		return Distances.trim(values);
+	}
+
+	private long[] computeAllDistances(Partition<Double>[] partitions,
+			int threads) {
+		int tiles = (partitions.length + TILE - 1) / TILE;
+		AtomicInteger next = new AtomicInteger(0);
+		threads = Math.max(Math.min(threads, tiles * tiles), 1);
+		Worker[] workers = new Worker[threads];
+		for (int i = 0; i < workers.length; i++) {
+			workers[i] = new Worker(partitions, tiles, next);
+		}
+		for (int i = 1; i < workers.length; i++) {
+			workers[i].start();
+		}
+		workers[0].run();
+		long[] values = workers[0].values;
+		for (int i = 1; i < workers.length; i++) {
+			try {
+				workers[i].join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RuntimeException(e);
+			}
+			long[] v = workers[i].values;
+			if (v.length > values.length) {
+				values = Arrays.copyOf(values, v.length);
+			}
+			for (int j = 0; j < v.length; j++) {
+				values[j] += v[j];
+			}
+		}
+		return Distances.trim(values);
+	}
+
+	private class Worker extends Thread {
+		private Partition<Double>[] partitions;
+
+		private int tiles;
+
+		private AtomicInteger next;
+
+		private long[] values;
+
+		private Worker(Partition<Double>[] partitions, int tiles,
+				AtomicInteger next) {
+			this.partitions = partitions;
+			this.tiles = tiles;
+			this.next = next;
+			this.values = new long[1];
+		}
+
+		public void run() {
+			int n = this.partitions.length;
+			int tile;
+			while ((tile = this.next.getAndIncrement()) < this.tiles
+					* this.tiles) {
+				int fromI = (tile / this.tiles) * TILE;
+				int fromJ = (tile % this.tiles) * TILE;
+				for (int i = fromI; i < Math.min(fromI + TILE, n); i++) {
+					Partition<Double> p1 = this.partitions[i];
+					for (int j = fromJ; j < Math.min(fromJ + TILE, n); j++) {
+						if (i == j) {
+							continue;
+						}
+						double dist = p1.distance(this.partitions[j]
+								.getRepresentativeID());
+						this.values = Distances.addValue(this.values,
+								getBucket(dist));
+					}
 				}
-				Partition<Double> p1 = partitions[n1.getIndex()];
-				Partition<Double> p2 = partitions[n2.getIndex()];
-				double dist = p1.distance(p2.getRepresentativeID());
-				values = this.addValue(values, dist);
 			}
 		}
-		return values;
 	}
 
 	private double[] computeEdgeDistances(Graph g,
 			Partition<Double>[] partitions, Edges edges) {
-		double[] values = new double[1];
+		long[] values = new long[1];
 		for (Edge edge : edges.getEdges()) {
 			Partition<Double> p1 = partitions[edge.getSrc()];
 			Partition<Double> p2 = partitions[edge.getDst()];
 			double dist = p1.distance(p2.getRepresentativeID());
-			values = this.addValue(values, dist);
+			values = Distances.addValue(values, this.getBucket(dist));
 		}
-		return values;
+		values = Distances.trim(values);
+		double[] distances = new double[values.length];
+		for (int i = 0; i < values.length; i++) {
+			distances[i] = values[i];
+		}
+		return distances;
 	}
 
 	@Override
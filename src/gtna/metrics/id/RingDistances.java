@@ -0,0 +1,309 @@
+/* ===========================================================
+ * GTNA : Graph-Theoretic Network Analyzer
+ * ===========================================================
+ *
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors
+ *
+ * Project Info:  http://www.p2p.tu-darmstadt.de/research/gtna/
+ *
+ * GTNA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GTNA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ---------------------------------------
+ * RingDistances.java
+ * ---------------------------------------
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors 
+ *
+ * Original Author: agent;
+ * Contributors:    -;
+ *
+ * Changes since 2011-05-17
+ * ---------------------------------------
+ *
+ */
+package gtna.metrics.id;
+
+import gtna.id.ring.RingIdentifier;
+import gtna.id.ring.RingIdentifierSpace;
+import gtna.id.ring.RingPartition;
+
+import java.util.Arrays;
+
+/**
+ * Computes the histogram of the distances between all (ordered) pairs of
+ * partitions and representative IDs of a ring without computing every single
+ * distance.
+ *
+ * The distance of partition p = (s, e] to an identifier x is 0 in case p
+ * contains x and min(d(s, x), d(e, x)) otherwise. Hence, the identifiers with a
+ * distance in bucket k or below are the ones contained in p or within the arcs
+ * around s and e whose extent is given by k. Once the representative IDs are
+ * sorted, each of these sets is a contiguous range of indices that is found
+ * using binary search (the distance from an anchor grows monotonically on both
+ * of its sides up to the antipode). The number of identifiers in the union of
+ * the three ranges for all buckets k yields the cumulative histogram of p.
+ *
+ * For n nodes and B buckets, this requires O(n log n + n B log n) instead of
+ * O(n^2) distance computations. Every distance that is compared is computed
+ * as in RingPartition.distance so that the histogram is identical to the one
+ * obtained by computing all distances.
+ *
+ * @author agent
+ *
+ */
+public class RingDistances {
+	private RingPartition[] partitions;
+
+	private RingIdentifier[] sorted;
+
+	private double[] positions;
+
+	private double bucketSize;
+
+	private int[] from = new int[6];
+
+	private int[] to = new int[6];
+
+	/**
+	 * @param idSpace
+	 * @param bucketSize
+	 *            bucket of a distance d is ceil(d / bucketSize)
+	 */
+	public RingDistances(RingIdentifierSpace idSpace, double bucketSize) {
+		this.partitions = (RingPartition[]) idSpace.getPartitions();
+		this.bucketSize = bucketSize;
+		int n = this.partitions.length;
+		this.sorted = new RingIdentifier[n];
+		for (int i = 0; i < n; i++) {
+			this.sorted[i] = (RingIdentifier) this.partitions[i]
+					.getRepresentativeID();
+		}
+		Arrays.sort(this.sorted);
+		this.positions = new double[n];
+		for (int i = 0; i < n; i++) {
+			this.positions[i] = this.sorted[i].getPosition();
+		}
+	}
+
+	/**
+	 * @param idSpace
+	 * @param bucketSize
+	 * @return true in case the sweep is expected to be faster than computing
+	 *         all distances, i.e., the number of buckets is small compared to
+	 *         the number of nodes
+	 */
+	public static boolean isFaster(RingIdentifierSpace idSpace,
+			double bucketSize) {
+		int n = idSpace.getPartitions().length;
+		double maxDistance = idSpace.isWrapAround() ? idSpace.getModulus() / 2
+				: idSpace.getModulus();
+		double buckets = Math.ceil(maxDistance / bucketSize) + 1;
+		double log = Math.log(Math.max(n, 2)) / Math.log(2);
+		return n > 1 && buckets * 4 * log < n;
+	}
+
+	/**
+	 * @return number of (ordered) pairs of nodes (i, j) with i != j for each
+	 *         bucket of the distance of partition i to the representative ID
+	 *         of j
+	 */
+	public long[] histogram() {
+		int n = this.partitions.length;
+		long[] histogram = new long[1];
+		int[] starts = new int[3];
+		int[] lengths = new int[3];
+		for (int i = 0; i < n; i++) {
+			RingIdentifier s = this.partitions[i].getStart();
+			RingIdentifier e = this.partitions[i].getEnd();
+			this.contained(s, e, starts, lengths);
+			// the node itself is always contained in the arc around e
+			long previous = 1;
+			for (int k = 0; previous < n; k++) {
+				this.arc(s, k, starts, lengths, 1);
+				this.arc(e, k, starts, lengths, 2);
+				long count = this.union(n, starts, lengths);
+				if (count > previous) {
+					if (k >= histogram.length) {
+						histogram = Arrays.copyOf(histogram,
+								Math.max(k + 1, 2 * histogram.length));
+					}
+					histogram[k] += count - previous;
+					previous = count;
+				}
+			}
+		}
+		int length = histogram.length;
+		while (length > 1 && histogram[length - 1] == 0) {
+			length--;
+		}
+		return Arrays.copyOf(histogram, length);
+	}
+
+	/**
+	 * stores the range of identifiers contained in the partition (s, e] at
+	 * index 0 of starts and lengths
+	 */
+	private void contained(RingIdentifier s, RingIdentifier e, int[] starts,
+			int[] lengths) {
+		int n = this.positions.length;
+		int from = this.upperBound(s.getPosition());
+		int to = this.upperBound(e.getPosition());
+		starts[0] = from % n;
+		if (s.getPosition() < e.getPosition()) {
+			lengths[0] = to - from;
+		} else if (s.getPosition() > e.getPosition()) {
+			lengths[0] = n - from + to;
+		} else {
+			lengths[0] = 0;
+		}
+	}
+
+	/**
+	 * stores the range of identifiers whose distance to the anchor is in
+	 * bucket k or below at the given index of starts and lengths
+	 */
+	private void arc(RingIdentifier anchor, int k, int[] starts,
+			int[] lengths, int index) {
+		int n = this.positions.length;
+		double a = anchor.getPosition();
+		int center = this.lowerBound(a);
+		int clockwise;
+		int counterClockwise;
+		if (anchor.getIdSpace().isWrapAround()) {
+			// identifiers up to the antipode of the anchor are on its
+			// clockwise side, the others on its counter-clockwise side
+			double modulus = anchor.getIdSpace().getModulus();
+			double antipode = a + modulus / 2;
+			if (antipode < modulus) {
+				clockwise = this.upperBound(antipode) - center;
+			} else {
+				clockwise = n - center + this.upperBound(antipode - modulus);
+			}
+			clockwise = Math.min(clockwise, n);
+			counterClockwise = n - clockwise;
+		} else {
+			clockwise = n - center;
+			counterClockwise = center;
+		}
+		int right = this.prefix(anchor, k, center, 1, clockwise);
+		int left = this.prefix(anchor, k, center - 1, -1, counterClockwise);
+		starts[index] = ((center - left) % n + n) % n;
+		lengths[index] = left + right;
+	}
+
+	/**
+	 * @return number of identifiers, starting at index first and proceeding in
+	 *         the given direction for at most max steps, whose distance to the
+	 *         anchor is in bucket k or below (binary search)
+	 */
+	private int prefix(RingIdentifier anchor, int k, int first, int direction,
+			int max) {
+		int n = this.positions.length;
+		int low = 0;
+		int high = max;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			int index = ((first + direction * mid) % n + n) % n;
+			if (this.bucket(anchor.distance(this.sorted[index])) <= k) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	private int bucket(double distance) {
+		return (int) Math.ceil(distance / this.bucketSize);
+	}
+
+	/**
+	 * @return index of the first position &gt;= value
+	 */
+	private int lowerBound(double value) {
+		int low = 0;
+		int high = this.positions.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (this.positions[mid] < value) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * @return index of the first position &gt; value
+	 */
+	private int upperBound(double value) {
+		int low = 0;
+		int high = this.positions.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (this.positions[mid] <= value) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * @return size of the union of the given circular ranges of indices
+	 */
+	private long union(int n, int[] starts, int[] lengths) {
+		int[] from = this.from;
+		int[] to = this.to;
+		int intervals = 0;
+		for (int i = 0; i < starts.length; i++) {
+			if (lengths[i] == 0) {
+				continue;
+			}
+			if (lengths[i] >= n) {
+				return n;
+			}
+			int end = starts[i] + lengths[i];
+			from[intervals] = starts[i];
+			to[intervals++] = Math.min(end, n);
+			if (end > n) {
+				from[intervals] = 0;
+				to[intervals++] = end - n;
+			}
+		}
+		// insertion sort of the (at most 6) intervals by their start
+		for (int i = 1; i < intervals; i++) {
+			for (int j = i; j > 0 && from[j - 1] > from[j]; j--) {
+				int temp = from[j];
+				from[j] = from[j - 1];
+				from[j - 1] = temp;
+				temp = to[j];
+				to[j] = to[j - 1];
+				to[j - 1] = temp;
+			}
+		}
+		long size = 0;
+		int covered = 0;
+		for (int i = 0; i < intervals; i++) {
+			if (to[i] > covered) {
+				size += to[i] - Math.max(from[i], covered);
+				covered = to[i];
+			}
+		}
+		return size;
+	}
+}
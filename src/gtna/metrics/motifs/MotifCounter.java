@@ -36,10 +36,14 @@
 package gtna.metrics.motifs;
 
 import gtna.data.Single;
+import gtna.graph.Graph;
 import gtna.io.DataWriter;
 import gtna.metrics.Metric;
+import gtna.util.Config;
 import gtna.util.Timer;
 
+import java.util.Random;
+
 /**
  * abstract class for counting motifs in a graph
  * 
@@ -48,6 +52,7 @@ import gtna.util.Timer;
  */
 public abstract class MotifCounter extends Metric {
 	protected double[] counts;
+	protected double[] variances;
 	protected Timer runtime;
 
 	/**
@@ -57,11 +62,52 @@ public abstract class MotifCounter extends Metric {
 		super(key);
 	}
 
+	/**
+	 * computes the motif counts of the given graph using a MotifEngine, the
+	 * counts are exact in case KEY_SAMPLES is 0 and estimated from the given
+	 * number of sampled paths otherwise (together with their estimated
+	 * variances)
+	 * 
+	 * @param g
+	 * @param from
+	 *            index of the first motif (as in UndirectedMotifs3And4) that is
+	 *            counted by this metric
+	 */
+	protected void computeCounts(Graph g, int from) {
+		MotifEngine engine = new MotifEngine(Config.getInt("PARALLEL_METRICS"));
+		int samples = Config.getInt(this.getKey() + "_SAMPLES");
+		if (samples > 0) {
+			engine.sample(g.getCSR(), samples, new Random());
+		} else {
+			engine.count(g.getCSR());
+		}
+		int motifs = MotifEngine.MOTIFS - from;
+		this.counts = new double[motifs];
+		System.arraycopy(engine.getCounts(), from, this.counts, 0, motifs);
+		if (samples > 0) {
+			this.variances = new double[motifs];
+			System.arraycopy(engine.getVariances(), from, this.variances, 0,
+					motifs);
+		} else {
+			this.variances = null;
+		}
+	}
+
 	@Override
 	public boolean writeData(String folder) {
 		boolean success = true;
-		success &= DataWriter.writeWithIndex(this.counts, this.getKey()
-				+ "_MOTIF_COUNT", folder);
+		if (this.variances == null) {
+			success &= DataWriter.writeWithIndex(this.counts, this.getKey()
+					+ "_MOTIF_COUNT", folder);
+		} else {
+			// sampling: estimated variance of each count as additional column
+			double[][] estimates = new double[this.counts.length][];
+			for (int i = 0; i < estimates.length; i++) {
+				estimates[i] = new double[] { this.counts[i], this.variances[i] };
+			}
+			success &= DataWriter.write(estimates, DataWriter.filename(
+					this.getKey() + "_MOTIF_COUNT", folder), true);
+		}
 		double sum = 0;
 		for (int i = 0; i < this.counts.length; i++) {
 			sum = sum + this.counts[i];
@@ -0,0 +1,565 @@
+/* ===========================================================
+ * GTNA : Graph-Theoretic Network Analyzer
+ * ===========================================================
+ *
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors
+ *
+ * Project Info:  http://www.p2p.tu-darmstadt.de/research/gtna/
+ *
+ * GTNA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GTNA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ---------------------------------------
+ * MotifEngine.java
+ * ---------------------------------------
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors 
+ *
+ * Original Author: agent;
+ * Contributors:    -;
+ *
+ * Changes since 2011-05-17
+ * ---------------------------------------
+ *
+ */
+package gtna.metrics.motifs;
+
+import gtna.graph.CSRGraph;
+import gtna.metrics.basic.TriangleCounter;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts or estimates the undirected 3- and 4-node motifs of a graph, the
+ * counts are indexed as in UndirectedMotifs3And4: 0: SemiClique3, 1: Clique3,
+ * 2: TwoV, 3: FourChain, 4: ThreeLoopOut, 5: FourLoop, 6: SemiClique4, 7:
+ * Clique4. The graph is expected to be undirected (bidirectional).
+ * 
+ * In exact mode, the 3-node motifs and ThreeLoopOut are derived from the
+ * triangle counts of a TriangleCounter. The remaining 4-node motifs are
+ * enumerated starting at every node, the node range is recursively split into
+ * tasks on a fork-join pool where every task keeps its own count array.
+ * 
+ * In sampling mode, the 4-node motifs are estimated using path sampling
+ * (Jha, Seshadhri, Pinar, "Path Sampling: A Fast and Provable Method for
+ * Estimating 4-Vertex Subgraph Counts", WWW 2015): a path of length 3 is
+ * sampled uniformly at random by choosing a center edge (u, v) with
+ * probability proportional to (d(u) - 1) * (d(v) - 1) and a random neighbor
+ * of u and of v. The motif induced by the four nodes contains a known number
+ * of such paths, which yields unbiased estimates of all motifs except TwoV.
+ * TwoV is derived from the number of 3-stars, which is computed exactly. The
+ * 3-node motifs are counted exactly. The variance of each estimate is
+ * estimated from the sample as well.
+ * 
+ * @author agent
+ * 
+ */
+public class MotifEngine {
+	public static final int MOTIFS = 8;
+
+	/**
+	 * number of paths of length 3 contained in the motifs FourChain,
+	 * ThreeLoopOut, FourLoop, SemiClique4 and Clique4
+	 */
+	private static final int[] PATHS = new int[] { 1, 2, 4, 6, 12 };
+
+	/**
+	 * index of the motifs FourChain, ThreeLoopOut, FourLoop, SemiClique4 and
+	 * Clique4
+	 */
+	private static final int[] INDEX = new int[] { 3, 4, 5, 6, 7 };
+
+	/**
+	 * number of 3-stars contained in the motifs FourChain, ThreeLoopOut,
+	 * FourLoop, SemiClique4 and Clique4
+	 */
+	private static final int[] STARS = new int[] { 0, 1, 0, 2, 4 };
+
+	private static final int SAMPLES_PER_TASK = 1 << 14;
+
+	private int threads;
+
+	private double[] counts;
+
+	private double[] variances;
+
+	/**
+	 * @param threads
+	 *            number of worker threads
+	 */
+	public MotifEngine(int threads) {
+		this.threads = Math.max(threads, 1);
+	}
+
+	/**
+	 * @return (estimated) number of occurrences of each motif
+	 */
+	public double[] getCounts() {
+		return this.counts;
+	}
+
+	/**
+	 * @return estimated variance of the count of each motif (0 for exact
+	 *         counts)
+	 */
+	public double[] getVariances() {
+		return this.variances;
+	}
+
+	/**
+	 * counts all motifs exactly
+	 * 
+	 * @param csr
+	 */
+	public void count(CSRGraph csr) {
+		TriangleCounter triangles = new TriangleCounter(this.threads);
+		triangles.setEdgeSupports(true);
+		triangles.compute(csr);
+
+		int n = csr.getNodeCount();
+		int granularity = Math.max(1, n / (this.threads * 16));
+		ForkJoinPool pool = new ForkJoinPool(this.threads);
+		try {
+			this.counts = pool.invoke(new CountTask(csr, 0, n, granularity));
+		} finally {
+			pool.shutdown();
+		}
+		this.counts[0] = MotifEngine.semiCliques3(csr, triangles);
+		this.counts[1] = triangles.getTriangleCount();
+		this.counts[4] = MotifEngine.threeLoopOuts(triangles, this.counts[7]);
+		this.variances = new double[MOTIFS];
+	}
+
+	/**
+	 * counts the 3-node motifs exactly and estimates the 4-node motifs from
+	 * the given number of sampled paths of length 3
+	 * 
+	 * @param csr
+	 * @param samples
+	 *            number of paths to sample
+	 * @param rand
+	 */
+	public void sample(CSRGraph csr, int samples, Random rand) {
+		TriangleCounter triangles = new TriangleCounter(this.threads);
+		triangles.compute(csr);
+		this.counts = new double[MOTIFS];
+		this.variances = new double[MOTIFS];
+		this.counts[0] = MotifEngine.semiCliques3(csr, triangles);
+		this.counts[1] = triangles.getTriangleCount();
+
+		// weight of each edge (u, v) with u < v: number of 3-paths centered
+		// at it, stored cumulatively for sampling
+		int[] targets = csr.getOutTargets();
+		long[] cumulative = new long[csr.getEdgeCount()];
+		long W = 0;
+		double stars = 0;
+		for (int u = 0; u < csr.getNodeCount(); u++) {
+			long du = csr.getOutDegree(u);
+			stars += (double) du * (du - 1) * (du - 2) / 6.0;
+			for (int j = csr.outStart(u); j < csr.outEnd(u); j++) {
+				int v = targets[j];
+				if (u < v) {
+					W += (du - 1) * (csr.getOutDegree(v) - 1);
+				}
+				cumulative[j] = W;
+			}
+		}
+
+		long[] hits = new long[PATHS.length];
+		if (W > 0 && samples > 0) {
+			int tasks = (samples + SAMPLES_PER_TASK - 1) / SAMPLES_PER_TASK;
+			long[] seeds = new long[tasks];
+			for (int i = 0; i < tasks; i++) {
+				seeds[i] = rand.nextLong();
+			}
+			ForkJoinPool pool = new ForkJoinPool(this.threads);
+			try {
+				hits = pool.invoke(new SampleTask(csr, cumulative, samples,
+						seeds, 0, tasks));
+			} finally {
+				pool.shutdown();
+			}
+		}
+
+		// N(M) = W / k * hits(M) / paths(M), Var = W^2 / k * Var(single)
+		double k = samples;
+		double[] p = new double[PATHS.length];
+		for (int i = 0; i < PATHS.length; i++) {
+			p[i] = k > 0 ? (double) hits[i] / k : 0;
+			this.counts[INDEX[i]] = (double) W * p[i] / PATHS[i];
+			this.variances[INDEX[i]] = k > 0 ? (double) W * W * p[i]
+					* (1 - p[i]) / (PATHS[i] * PATHS[i]) / k : 0;
+		}
+
+		// TwoV = 3-stars - sum(stars(M) * N(M))
+		double mean = 0;
+		double square = 0;
+		this.counts[2] = stars;
+		for (int i = 0; i < PATHS.length; i++) {
+			double b = (double) STARS[i] / PATHS[i];
+			this.counts[2] -= STARS[i] * this.counts[INDEX[i]];
+			mean += b * p[i];
+			square += b * b * p[i];
+		}
+		this.variances[2] = k > 0 ? (double) W * W * (square - mean * mean)
+				/ k : 0;
+	}
+
+	/**
+	 * number of pairs of neighbors of a node that are not connected (A--B,
+	 * B--C), summed over all nodes
+	 */
+	private static double semiCliques3(CSRGraph csr, TriangleCounter triangles) {
+		long[] closed = triangles.getOutTriangles();
+		long sum = 0;
+		for (int i = 0; i < csr.getNodeCount(); i++) {
+			long degree = csr.getOutDegree(i);
+			sum += degree * (degree - 1) / 2 - closed[i];
+		}
+		return sum;
+	}
+
+	/**
+	 * number of triangles with an additional neighbor of one of its nodes that
+	 * is not connected to the other two (A--B, B--C, C--A, A--D)
+	 * 
+	 * for a triangle (a, b, c), the number of such neighbors of a is d(a) -
+	 * s(a, b) - s(a, c) + k(a, b, c) where s denotes the number of triangles
+	 * of an edge and k the number of 4-cliques containing the triangle, summed
+	 * over all triangles this yields sum_a t(a) * d(a) - 2 * sum_e s(e)^2 + 12
+	 * * cliques4
+	 */
+	private static double threeLoopOuts(TriangleCounter triangles,
+			double cliques4) {
+		long[] t = triangles.getTriangles();
+		int[] degrees = triangles.getDegrees();
+		long sum = 0;
+		for (int i = 0; i < t.length; i++) {
+			sum += t[i] * degrees[i];
+		}
+		for (int s : triangles.getEdgeSupports()) {
+			sum -= 2 * (long) s * (long) s;
+		}
+		return sum + 12 * cliques4;
+	}
+
+	/**
+	 * enumerates the motifs TwoV, FourChain, FourLoop, SemiClique4 and
+	 * Clique4 starting at node i
+	 */
+	private static void count(CSRGraph csr, int i, double[] counts,
+			int[] motifNodes, boolean[] motifEdges) {
+		int[] targets = csr.getOutTargets();
+		motifNodes[0] = i;
+		for (int j = csr.outStart(i); j < csr.outEnd(i) - 1; j++) {
+			motifEdges[0] = true;
+			motifNodes[1] = targets[j];
+			for (int k = j + 1; k < csr.outEnd(i); k++) {
+				motifEdges[1] = true;
+				motifNodes[2] = targets[k];
+				motifEdges[2] = csr.isConnected(motifNodes[1],
+						motifNodes[2]);
+				if (!motifEdges[2]) {
+					// case: motif #1 found (counted using the triangles)
+					// determine TwoV (motif #3)
+					for (int l = k + 1; l < csr.outEnd(i); l++) {
+						motifEdges[2] = true;
+						motifNodes[3] = targets[l];
+						motifEdges[3] = csr.isConnected(motifNodes[3],
+								motifNodes[1]);
+						motifEdges[4] = csr.isConnected(motifNodes[3],
+								motifNodes[2]);
+						if (!motifEdges[3]) {
+							if (!motifEdges[4]) {
+								counts[2]++;
+							}
+						}
+						if (motifEdges[3] && motifEdges[4]) {
+							if (motifNodes[0] < motifNodes[3]
+									&& motifNodes[0] < motifNodes[1]) {
+								counts[6]++;
+							}
+						}
+					}
+
+					// determine 4Chain (#4) + 4Loop (#6)
+					if (motifNodes[0] < motifNodes[1]) {
+						int m1 = motifNodes[1];
+						for (int l = csr.outStart(m1); l < csr
+								.outEnd(m1); l++) {
+							if (targets[l] == i) {
+								continue;
+							}
+							motifEdges[2] = true;
+							motifNodes[3] = targets[l];
+							if (csr.isConnected(motifNodes[3],
+									motifNodes[0])) {
+								continue;
+							}
+							motifEdges[3] = csr.isConnected(motifNodes[3],
+									motifNodes[2]);
+							if (!motifEdges[3]) {
+								counts[3]++;
+							} else {
+								if (motifNodes[0] < motifNodes[3]) {
+									counts[5]++;
+								}
+							}
+						}
+					}
+
+					// determine 4Chain (#4) other direction
+					if (motifNodes[0] < motifNodes[2]) {
+						int m2 = motifNodes[2];
+						for (int l = csr.outStart(m2); l < csr
+								.outEnd(m2); l++) {
+							if (targets[l] == i) {
+								continue;
+							}
+							motifEdges[2] = true;
+							motifNodes[3] = targets[l];
+							if (csr.isConnected(motifNodes[3],
+									motifNodes[0])) {
+								continue;
+							}
+							motifEdges[3] = csr.isConnected(motifNodes[3],
+									motifNodes[1]);
+							if (!motifEdges[3]) {
+								counts[3]++;
+							}
+						}
+					}
+				} else {
+					// found motif #2 (counted using the triangles, need to
+					// break symmetry)
+					if (motifNodes[0] < motifNodes[1]
+							&& motifNodes[0] < motifNodes[2]) {
+						// determine Semi4Clique + 4Clique (#8)
+						for (int l = k + 1; l < csr.outEnd(i); l++) {
+							motifEdges[3] = true;
+							motifNodes[3] = targets[l];
+							motifEdges[4] = csr.isConnected(motifNodes[1],
+									motifNodes[3]);
+							motifEdges[5] = csr.isConnected(motifNodes[2],
+									motifNodes[3]);
+							if (!motifEdges[4] && !motifEdges[5]) {
+
+							} else {
+								if (!motifEdges[4] || !motifEdges[5]) {
+									counts[6]++;
+								} else {
+									if (motifNodes[0] < motifNodes[3]) {
+										counts[7]++;
+									}
+								}
+
+							}
+						}
+
+						// determine Semi4Clique
+						int m1 = motifNodes[1];
+						for (int l = csr.outStart(m1); l < csr
+								.outEnd(m1); l++) {
+							if (targets[l] == i) {
+								continue;
+							}
+							motifEdges[3] = true;
+							motifNodes[3] = targets[l];
+							if (csr.isConnected(motifNodes[3],
+									motifNodes[0])) {
+								continue;
+							}
+							motifEdges[4] = csr.isConnected(motifNodes[3],
+									motifNodes[2]);
+							if (motifEdges[4]) {
+								if (motifNodes[0] < motifNodes[3]) {
+									counts[6]++;
+								}
+							}
+						}
+
+					}
+
+				}
+			}
+		}
+	}
+
+	private static class CountTask extends RecursiveTask<double[]> {
+		private static final long serialVersionUID = 5069611405447389186L;
+
+		private CSRGraph csr;
+
+		private int from;
+
+		private int to;
+
+		private int granularity;
+
+		private CountTask(CSRGraph csr, int from, int to, int granularity) {
+			this.csr = csr;
+			this.from = from;
+			this.to = to;
+			this.granularity = granularity;
+		}
+
+		@Override
+		protected double[] compute() {
+			if (this.to - this.from <= this.granularity) {
+				double[] counts = new double[MOTIFS];
+				// maximal number of edges, nodes => only those that are actual
+				// part of motif are evaluated
+				// (compare MotifAnalyzer.evaluateMotif)
+				int[] motifNodes = new int[4];
+				boolean[] motifEdges = new boolean[6];
+				for (int i = this.from; i < this.to; i++) {
+					MotifEngine.count(this.csr, i, counts, motifNodes,
+							motifEdges);
+				}
+				return counts;
+			}
+			int middle = (this.from + this.to) >>> 1;
+			CountTask left = new CountTask(this.csr, this.from, middle,
+					this.granularity);
+			CountTask right = new CountTask(this.csr, middle, this.to,
+					this.granularity);
+			left.fork();
+			double[] counts = right.compute();
+			double[] other = left.join();
+			for (int i = 0; i < counts.length; i++) {
+				counts[i] += other[i];
+			}
+			return counts;
+		}
+	}
+
+	private static class SampleTask extends RecursiveTask<long[]> {
+		private static final long serialVersionUID = -2480870613283920419L;
+
+		private CSRGraph csr;
+
+		private long[] cumulative;
+
+		private int samples;
+
+		private long[] seeds;
+
+		private int from;
+
+		private int to;
+
+		private SampleTask(CSRGraph csr, long[] cumulative, int samples,
+				long[] seeds, int from, int to) {
+			this.csr = csr;
+			this.cumulative = cumulative;
+			this.samples = samples;
+			this.seeds = seeds;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected long[] compute() {
+			if (this.to - this.from > 1) {
+				int middle = (this.from + this.to) >>> 1;
+				SampleTask left = new SampleTask(this.csr, this.cumulative,
+						this.samples, this.seeds, this.from, middle);
+				SampleTask right = new SampleTask(this.csr, this.cumulative,
+						this.samples, this.seeds, middle, this.to);
+				left.fork();
+				long[] hits = right.compute();
+				long[] other = left.join();
+				for (int i = 0; i < hits.length; i++) {
+					hits[i] += other[i];
+				}
+				return hits;
+			}
+			long[] hits = new long[PATHS.length];
+			Random rand = new Random(this.seeds[this.from]);
+			int[] targets = this.csr.getOutTargets();
+			long W = this.cumulative[this.cumulative.length - 1];
+			int count = Math.min(SAMPLES_PER_TASK, this.samples - this.from
+					* SAMPLES_PER_TASK);
+			for (int s = 0; s < count; s++) {
+				// center edge (u, v) with probability ~ (d(u) - 1)(d(v) - 1)
+				long r = (long) (rand.nextDouble() * W);
+				int e = Arrays.binarySearch(this.cumulative, r + 1);
+				if (e < 0) {
+					e = -e - 1;
+				}
+				while (e > 0 && this.cumulative[e - 1] == this.cumulative[e]) {
+					e--;
+				}
+				int v = targets[e];
+				int u = this.source(e);
+				int a = this.randomNeighbor(u, v, rand);
+				int d = this.randomNeighbor(v, u, rand);
+				if (a == d) {
+					// triangle, not a path of length 3
+					continue;
+				}
+				// path a - u - v - d, check the remaining edges
+				boolean av = this.csr.hasEdge(a, v);
+				boolean ud = this.csr.hasEdge(u, d);
+				boolean ad = this.csr.hasEdge(a, d);
+				int chords = (av ? 1 : 0) + (ud ? 1 : 0);
+				if (chords + (ad ? 1 : 0) == 3) {
+					hits[4]++;
+				} else if (chords + (ad ? 1 : 0) == 2) {
+					hits[3]++;
+				} else if (chords == 1) {
+					hits[1]++;
+				} else if (ad) {
+					hits[2]++;
+				} else {
+					hits[0]++;
+				}
+			}
+			return hits;
+		}
+
+		/**
+		 * @return source of the edge stored at the given index of outTargets
+		 */
+		private int source(int index) {
+			int[] offsets = this.csr.getOutOffsets();
+			int pos = Arrays.binarySearch(offsets, index);
+			if (pos < 0) {
+				return -pos - 2;
+			}
+			// skip nodes without outgoing edges
+			while (offsets[pos + 1] == index) {
+				pos++;
+			}
+			return pos;
+		}
+
+		/**
+		 * @return random neighbor of u other than v
+		 */
+		private int randomNeighbor(int u, int v, Random rand) {
+			int start = this.csr.outStart(u);
+			int excluded = Arrays.binarySearch(this.csr.getOutTargets(),
+					start, this.csr.outEnd(u), v);
+			int index = start + rand.nextInt(this.csr.getOutDegree(u) - 1);
+			if (index >= excluded) {
+				index++;
+			}
+			return this.csr.getOutTargets()[index];
+		}
+	}
+}
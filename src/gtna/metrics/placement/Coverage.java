@@ -37,7 +37,7 @@ package gtna.metrics.placement;
 
 import gtna.data.Single;
 import gtna.graph.Graph;
-import gtna.id.DPartition;
+import gtna.id.plane.PlaneGrid;
 import gtna.id.plane.PlaneIdentifier;
 import gtna.id.plane.PlaneIdentifierSpaceSimple;
 import gtna.metrics.Metric;
@@ -60,7 +60,9 @@ import java.util.HashMap;
  * given positions and radii. While this only gives an estimate on the real
  * coverage percentage, the resolution of the grid can be adjusted as necessary.
  * In practice, resolutions of about 1000x1000 have proven to be rather accurate
- * while still being fairly fast.
+ * while still being fairly fast. The positions are indexed using a
+ * <code>PlaneGrid</code> so that only the nodes close to a point of the grid
+ * are checked.
  * 
  * @author Philipp Neubrand
  * 
@@ -95,10 +97,26 @@ public class Coverage extends Metric {
 		int cols = Config.getInt("COVERAGE_COLS");
 		int rows = Config.getInt("COVERAGE_ROWS");
 
+		// only the nodes in the cells around a point can cover it
+		final double[] ranges = range.getRanges();
+		double maxRange = 0;
+		for (double r : ranges) {
+			maxRange = Math.max(maxRange, r);
+		}
+		PlaneGrid grid = new PlaneGrid(idspace, maxRange);
+		final double[] x = new double[idspace.getPartitions().length];
+		final double[] y = new double[idspace.getPartitions().length];
+		for (int i = 0; i < x.length; i++) {
+			PlaneIdentifier id = (PlaneIdentifier) idspace.getPartitions()[i]
+					.getRepresentativeID();
+			x[i] = id.getX();
+			y[i] = id.getY();
+		}
+
 		for (int i = 0; i < cols; i++) {
 			for (int j = 0; j < rows; j++) {
-				if (inside(i * (width / cols), j * (height / rows), idspace,
-						range))
+				if (inside(i * (width / cols), j * (height / rows), grid,
+						maxRange, x, y, ranges))
 					in++;
 			}
 		}
@@ -106,29 +124,23 @@ public class Coverage extends Metric {
 		percentage = (((double) in) / (cols * rows));
 	}
 
-	private boolean inside(double x, double y,
-			PlaneIdentifierSpaceSimple idspace, RangeProperty range) {
-		double dist = 0;
-		boolean ret = false;
-		int id = 0;
-		for (DPartition akt : idspace.getPartitions()) {
-
-			dist = Math
-					.sqrt(Math.pow(
-							((PlaneIdentifier) akt.getRepresentativeID())
-									.getX() - x, 2)
-							+ Math.pow(
-									((PlaneIdentifier) akt
-											.getRepresentativeID()).getY() - y,
-									2));
-			if (dist < range.getRanges()[id]) {
-				ret = true;
-				break;
+	private boolean inside(final double px, final double py, PlaneGrid grid,
+			double maxRange, final double[] x, final double[] y,
+			final double[] ranges) {
+		final boolean[] ret = new boolean[] { false };
+		grid.visit(px, py, maxRange, new PlaneGrid.Visitor() {
+			@Override
+			public boolean visit(int id) {
+				double dist = Math.sqrt(Math.pow(x[id] - px, 2)
+						+ Math.pow(y[id] - py, 2));
+				if (dist < ranges[id]) {
+					ret[0] = true;
+					return false;
+				}
+				return true;
 			}
-			id++;
-		}
-
-		return ret;
+		});
+		return ret[0];
 	}
 
 	@Override
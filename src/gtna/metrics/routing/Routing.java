@@ -37,7 +37,6 @@ package gtna.metrics.routing;
 
 import gtna.data.Single;
 import gtna.graph.Graph;
-import gtna.graph.Node;
 import gtna.io.DataWriter;
 import gtna.metrics.Metric;
 import gtna.networks.Network;
@@ -106,38 +105,10 @@ public class Routing extends Metric {
 	@Override
 	public void computeData(Graph graph, Network network,
 			HashMap<String, Metric> metrics) {
-		this.ra.preprocess(graph);
-		Random rand = new Random();
-		this.routes = new Route[graph.getNodes().length * this.routesPerNode];
-		int index = 0;
-		for (Node start : graph.getNodes()) {
-			for (int i = 0; i < this.routesPerNode; i++) {
-				this.routes[index++] = ra.routeToRandomTarget(graph,
-						start.getIndex(), rand);
-			}
-		}
-		RoutingThread[] threads = new RoutingThread[Config
-				.getInt("PARALLEL_ROUTINGS")];
-		for (int i = 0; i < threads.length; i++) {
-			int start = graph.getNodes().length / threads.length * i;
-			int end = graph.getNodes().length / threads.length * (i + 1) - 1;
-			if (i == threads.length - 1) {
-				end = graph.getNodes().length - 1;
-			}
-			threads[i] = new RoutingThread(start, end, this.routesPerNode,
-					graph, ra, rand);
-			threads[i].start();
-		}
-		index = 0;
-		for (RoutingThread t : threads) {
-			try {
-				t.join();
-			} catch (InterruptedException e) {
-				e.printStackTrace();
-			}
-			for (Route r : t.getRoutes()) {
-				this.routes[index++] = r;
-			}
+		// the routing algorithm keeps state computed during preprocessing, it
+		// is shared by the copies of this metric used for parallel runs
+		synchronized (this.ra) {
+			this.computeRoutes(graph);
 		}
 
 		this.hopDistribution = this.computeHopDistribution();
@@ -149,6 +120,26 @@ public class Routing extends Metric {
 		this.failureRate = 1 - this.successRate;
 	}
 
+	private void computeRoutes(Graph graph) {
+		this.ra.preprocess(graph);
+		RoutingEngine engine = new RoutingEngine(
+				Config.getInt("PARALLEL_ROUTINGS"));
+		this.routes = engine.route(graph, this.ra, this.routesPerNode,
+				this.seed());
+	}
+
+	/**
+	 * @return seed configured as ROUTING_SEED or a random one in case it is
+	 *         not set
+	 */
+	private long seed() {
+		String seed = Config.get("ROUTING_SEED");
+		if (seed == null || seed.trim().length() == 0) {
+			return new Random().nextLong();
+		}
+		return Long.parseLong(seed.trim());
+	}
+
 	private double computeSuccessRate() {
 		int success = 0;
 		for (Route route : this.routes) {
@@ -247,52 +238,4 @@ public class Routing extends Metric {
 		return new Single[] { averageHops, medianHops, maximumHops,
 				successRate, failureRate };
 	}
-
-	private class RoutingThread extends Thread {
-		private int start;
-
-		private int end;
-
-		private int times;
-
-		private Graph graph;
-
-		private RoutingAlgorithm ra;
-
-		private Random rand;
-
-		private Route[] routes;
-
-		private RoutingThread(int start, int end, int times, Graph graph,
-				RoutingAlgorithm ra, Random rand) {
-			this.start = start;
-			this.end = end;
-			this.times = times;
-			this.graph = graph;
-			this.ra = ra;
-			this.rand = rand;
-			this.routes = new Route[(end - start + 1) * times];
-		}
-
-		public void run() {
-			int index = 0;
-			for (int i = this.start; i <= this.end; i++) {
-				for (int j = 0; j < this.times; j++) {
-					this.routes[index++] = ra.routeToRandomTarget(graph, i,
-							rand);
-				}
-			}
-		}
-
-		/**
-		 * @return the routes
-		 */
-		public Route[] getRoutes() {
-			return this.routes;
-		}
-
-		public String toString() {
-			return this.start + " => " + this.end;
-		}
-	}
 }
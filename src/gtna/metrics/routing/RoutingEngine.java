@@ -0,0 +1,170 @@
+/* ===========================================================
+ * GTNA : Graph-Theoretic Network Analyzer
+ * ===========================================================
+ *
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors
+ *
+ * Project Info:  http://www.p2p.tu-darmstadt.de/research/gtna/
+ *
+ * GTNA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GTNA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ---------------------------------------
+ * RoutingEngine.java
+ * ---------------------------------------
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors 
+ *
+ * Original Author: agent;
+ * Contributors:    -;
+ *
+ * Changes since 2011-05-17
+ * ---------------------------------------
+ *
+ */
+package gtna.metrics.routing;
+
+import gtna.graph.Graph;
+import gtna.routing.Route;
+import gtna.routing.RoutingAlgorithm;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Computes routesPerNode routes from every node of a graph on a work-stealing
+ * fork-join pool. Each route is computed exactly once.
+ *
+ * The node range is recursively split into tasks that are balanced by work
+ * stealing, so threads do not stay idle on graphs where routes from some nodes
+ * take much longer than from others. Every node gets its own PRNG that is
+ * derived from the seed and the node index only, the routes are stored at
+ * index node * routesPerNode + i. Hence, the computed routes are the same for
+ * a fixed seed independent of the number of threads.
+ *
+ * The routing algorithm must be pre-processed before. Each task routes with
+ * its own instance obtained from RoutingAlgorithm.getWorkerInstance().
+ *
+ * @author agent
+ *
+ */
+public class RoutingEngine {
+	private int threads;
+
+	/**
+	 * @param threads
+	 *            number of worker threads
+	 */
+	public RoutingEngine(int threads) {
+		this.threads = Math.max(threads, 1);
+	}
+
+	/**
+	 * @param graph
+	 *            graph to route in
+	 * @param ra
+	 *            pre-processed routing algorithm
+	 * @param routesPerNode
+	 *            number of routes starting at each node
+	 * @param seed
+	 *            seed from which the PRNGs of all nodes are derived
+	 * @return routes, the ones starting at node are stored at indices node *
+	 *         routesPerNode to (node + 1) * routesPerNode - 1
+	 */
+	public Route[] route(Graph graph, RoutingAlgorithm ra, int routesPerNode,
+			long seed) {
+		int nodes = graph.getNodes().length;
+		Route[] routes = new Route[nodes * routesPerNode];
+		int granularity = Math.max(1, nodes / (this.threads * 16));
+		ForkJoinPool pool = new ForkJoinPool(this.threads);
+		try {
+			pool.invoke(new RoutingTask(graph, ra, routesPerNode, seed,
+					routes, 0, nodes, granularity));
+		} finally {
+			pool.shutdown();
+		}
+		return routes;
+	}
+
+	/**
+	 * derives the PRNG of a node from the seed, the mixing function is the one
+	 * used by SplittableRandom (MurmurHash3 finalizer applied to seed + node *
+	 * golden ratio) so that the seeds of neighboring nodes are uncorrelated
+	 *
+	 * @param seed
+	 * @param node
+	 * @return PRNG for routes starting at the given node
+	 */
+	public static Random random(long seed, int node) {
+		long z = seed + (node + 1) * 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+		z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+		return new Random(z ^ (z >>> 33));
+	}
+
+	private static class RoutingTask extends RecursiveAction {
+		private static final long serialVersionUID = -7419021542925587734L;
+
+		private Graph graph;
+
+		private RoutingAlgorithm ra;
+
+		private int routesPerNode;
+
+		private long seed;
+
+		private Route[] routes;
+
+		private int from;
+
+		private int to;
+
+		private int granularity;
+
+		private RoutingTask(Graph graph, RoutingAlgorithm ra,
+				int routesPerNode, long seed, Route[] routes, int from, int to,
+				int granularity) {
+			this.graph = graph;
+			this.ra = ra;
+			this.routesPerNode = routesPerNode;
+			this.seed = seed;
+			this.routes = routes;
+			this.from = from;
+			this.to = to;
+			this.granularity = granularity;
+		}
+
+		@Override
+		protected void compute() {
+			if (this.to - this.from <= this.granularity) {
+				RoutingAlgorithm worker = this.ra.getWorkerInstance();
+				for (int node = this.from; node < this.to; node++) {
+					Random rand = RoutingEngine.random(this.seed, node);
+					for (int i = 0; i < this.routesPerNode; i++) {
+						this.routes[node * this.routesPerNode + i] = worker
+								.routeToRandomTarget(this.graph, node, rand);
+					}
+				}
+				return;
+			}
+			int middle = (this.from + this.to) >>> 1;
+			RecursiveAction.invokeAll(new RoutingTask(this.graph, this.ra,
+					this.routesPerNode, this.seed, this.routes, this.from,
+					middle, this.granularity), new RoutingTask(this.graph,
+					this.ra, this.routesPerNode, this.seed, this.routes,
+					middle, this.to, this.granularity));
+		}
+	}
+}
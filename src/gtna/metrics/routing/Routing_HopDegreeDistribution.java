@@ -63,7 +63,10 @@ public class Routing_HopDegreeDistribution extends Metric {
 	@Override
 	public void computeData(Graph graph, Network network,
 			HashMap<String, Metric> metrics) {
-		initConfig();
+		// the config is modified, runs might be executed in parallel
+		synchronized (Routing_HopDegreeDistribution.class) {
+			initConfig();
+		}
 
 		/*
 		 * First: check whether routing was already applied
@@ -47,7 +47,7 @@ import gtna.util.parameter.ParameterList;
  * @author benni
  * 
  */
-public abstract class Network extends ParameterList {
+public abstract class Network extends ParameterList implements Cloneable {
 	protected int nodes;
 
 	protected Transformation[] transformations;
@@ -98,6 +98,58 @@ public abstract class Network extends ParameterList {
 	 */
 	public abstract Graph generate();
 
+	/**
+	 * Generate the instance of the network topology used for the given run of
+	 * a series. By default, the run is ignored and generate() is called.
+	 * Networks that read one of several snapshots override this method so
+	 * that each run reads the same snapshot no matter in which order the runs
+	 * are executed.
+	 * 
+	 * @param run
+	 *            index of the run
+	 * @return generated network instance
+	 */
+	public Graph generate(int run) {
+		return this.generate();
+	}
+
+	/**
+	 * creates a shallow copy of this network together with copies of its
+	 * transformations, used by Series.generate to give each run its own
+	 * instances in case runs are executed in parallel<br>
+	 * networks that modify objects created in their constructor during
+	 * generate must override this method and copy these objects
+	 * 
+	 * @return copy of this network
+	 */
+	public Network clone() {
+		Network clone;
+		try {
+			clone = (Network) super.clone();
+		} catch (CloneNotSupportedException e) {
+			throw new RuntimeException(e);
+		}
+		clone.transformations = new Transformation[this.transformations.length];
+		for (int i = 0; i < this.transformations.length; i++) {
+			clone.transformations[i] = this.transformations[i].clone();
+		}
+		return clone;
+	}
+
+	/**
+	 * @return true in case copies of this network (created by clone()) and
+	 *         its transformations can be executed concurrently by several runs
+	 *         of a series
+	 */
+	public boolean isParallelizable() {
+		for (Transformation t : this.transformations) {
+			if (!t.isParallelizable()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	public String getFolderName() {
 		StringBuffer buff = new StringBuffer(super.getFolderName());
 		for (Transformation t : this.transformations) {
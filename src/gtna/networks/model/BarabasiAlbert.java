@@ -40,10 +40,10 @@ import gtna.graph.Graph;
 import gtna.graph.Node;
 import gtna.networks.Network;
 import gtna.transformation.Transformation;
+import gtna.util.Config;
 import gtna.util.parameter.IntParameter;
 import gtna.util.parameter.Parameter;
 
-import java.util.Arrays;
 import java.util.Random;
 
 /**
@@ -56,6 +56,10 @@ import java.util.Random;
  * Parameters are the initial network size and the number of edges per added
  * node.
  * 
+ * Starting from an Erdos-Renyi graph, every new node connects to
+ * EDGES_PER_NODE distinct nodes chosen with probability proportional to their
+ * degree (see PreferentialAttachment).
+ * 
  * @author benni
  * 
  */
@@ -71,52 +75,47 @@ public class BarabasiAlbert extends Network {
 	}
 
 	public Graph generate() {
+		return this.generate(new Random());
+	}
+
+	/**
+	 * generates a network using the given source of randomness, the new nodes
+	 * are attached using PreferentialAttachment (with PARALLEL_NETWORK_GENERATION
+	 * threads)
+	 * 
+	 * @param rand
+	 * @return generated network
+	 */
+	public Graph generate(Random rand) {
 		Graph graph = new Graph(this.getDescription());
-		Random rand = new Random(System.currentTimeMillis());
 		Node[] nodes = Node.init(this.getNodes(), graph);
-		int[] in = new int[nodes.length];
-		int[] out = new int[nodes.length];
 
 		int initNodes = Math.max(this.INIT_NETWORK_SIZE,
 				this.EDGES_PER_NODE + 5);
 		int initEdges = initNodes * this.EDGES_PER_NODE;
 		Graph temp = new ErdosRenyi(initNodes, this.EDGES_PER_NODE, true, null)
-				.generate();
-		Edges edges = new Edges(nodes, initEdges + (nodes.length - initNodes)
-				* this.EDGES_PER_NODE);
+				.generate(rand);
+		int edgeCount = initEdges + Math.max(nodes.length - initNodes, 0)
+				* this.EDGES_PER_NODE;
+		Edges edges = new Edges(nodes, 2 * edgeCount);
+		// every node is contained in the list once per (bidirectional) edge,
+		// i.e., it is selected proportional to its degree
+		PreferentialAttachment pa = new PreferentialAttachment(2 * edgeCount,
+				rand, Config.getInt("PARALLEL_NETWORK_GENERATION"));
 		for (int i = 0; i < temp.getNodes().length; i++) {
-			in[i] = temp.getNodes()[i].getInDegree();
-			out[i] = temp.getNodes()[i].getOutDegree();
 			int[] Out = temp.getNodes()[i].getOutgoingEdges();
 			for (int j = 0; j < Out.length; j++) {
 				edges.add(i, Out[j]);
 			}
+			pa.add(i, Out.length);
 		}
 
-		int edgeCounter = initEdges;
+		int[][] targets = pa.attach(initNodes,
+				Math.max(nodes.length, initNodes), this.EDGES_PER_NODE);
 		for (int i = initNodes; i < nodes.length; i++) {
-			int added = 0;
-			double[] rands = new double[this.EDGES_PER_NODE];
-			for (int j = 0; j < rands.length; j++) {
-				rands[j] = rand.nextDouble() * 2 * edgeCounter;
-			}
-			Arrays.sort(rands);
-
-			double sum2 = 0;
-			int current = 0;
-			while (added < rands.length && current < i) {
-				sum2 = sum2 + (double) (in[current] + out[current]);
-				if (sum2 >= rands[added]) {
-					edges.add(i, current);
-					edges.add(current, i);
-					added++;
-					in[i]++;
-					out[i]++;
-					in[current]++;
-					out[current]++;
-					edgeCounter++;
-				}
-				current++;
+			for (int target : targets[i - initNodes]) {
+				edges.add(i, target);
+				edges.add(target, i);
 			}
 		}
 
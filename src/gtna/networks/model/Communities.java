@@ -66,7 +66,7 @@ public class Communities extends Network {
 				new DoubleParameter("AVG_IN_LINKS", avgCommunitySize),
 				new DoubleParameter("AVG_IN_LINKS", avgInLinks),
 				new DoubleParameter("AVG_OUT_LINKS", avgOutLinks) }, t);
-		Random rand = new Random(System.currentTimeMillis());
+		Random rand = new Random();
 		this.bidirectional = bidirectional;
 		if (n <= avgCommunitySize) {
 			this.sizes = new int[] { n };
@@ -130,7 +130,7 @@ public class Communities extends Network {
 		Graph graph = new Graph(this.getDescription());
 		Node[] nodes = Node.init(this.getNodes(), graph);
 		Edges edges = new Edges(nodes, 0);
-		Random rand = new Random(System.currentTimeMillis());
+		Random rand = new Random();
 		Node[][] communities = new Node[this.sizes.length][];
 		// fill communities
 		int index = 0;
@@ -78,7 +78,7 @@ public class Communities2 extends Network {
 		Graph graph = new Graph(this.getDescription());
 		Node[] nodes = Node.init(this.getNodes(), graph);
 		Edges edges = new Edges(nodes, 0);
-		Random rand = new Random(System.currentTimeMillis());
+		Random rand = new Random();
 		Node[][] communities = new Node[this.sizes.length][];
 		// fill communities
 		int index = 0;
@@ -116,7 +116,7 @@ public class Communities3 extends Network {
 	public Graph generate() {
 		Graph graph = new Graph(this.getDescription());
 		Node[] nodes = Node.init(this.getNodes(), graph);
-		Random rand = new Random(System.currentTimeMillis());
+		Random rand = new Random();
 		// init communities
 		this.communities = new Node[this.sizes.length][];
 		for (int i = 0; i < this.communities.length; i++) {
@@ -110,8 +110,16 @@ public class ErdosRenyi extends Network {
 	}
 
 	public Graph generate() {
+		return this.generate(new Random());
+	}
+
+	/**
+	 * @param rand
+	 *            source of randomness
+	 * @return generated network
+	 */
+	public Graph generate(Random rand) {
 		Graph graph = new Graph(this.getDescription());
-		Random rand = new Random(System.currentTimeMillis());
 		Node[] nodes = Node.init(this.getNodes(), graph);
 		int toAdd = (int) (this.AVERAGE_DEGREE * this.getNodes() / 2);
 		Edges edges = new Edges(nodes, toAdd);
@@ -79,10 +79,18 @@ public class GNC extends Network {
 	}
 
 	public Graph generate() {
+		return this.generate(new Random());
+	}
+
+	/**
+	 * @param rand
+	 *            source of randomness
+	 * @return generated network
+	 */
+	public Graph generate(Random rand) {
 		Graph graph = new Graph(this.getDescription());
-		Random rand = new Random(System.currentTimeMillis());
 		Node[] nodes = Node.init(this.getNodes(), graph);
-		Edges edges = new Edges(nodes, 100);
+		Edges edges = new Edges(nodes, 2 * nodes.length);
 		for (int i = 1; i < nodes.length; i++) {
 			int bootstrap = rand.nextInt(i);
 			edges.add(i, bootstrap);
@@ -44,6 +44,7 @@ import gtna.util.parameter.BooleanParameter;
 import gtna.util.parameter.DoubleParameter;
 import gtna.util.parameter.Parameter;
 
+import java.util.Arrays;
 import java.util.Random;
 
 /**
@@ -83,36 +84,48 @@ public class GNR extends Network {
 	}
 
 	public Graph generate() {
+		return this.generate(new Random());
+	}
+
+	/**
+	 * generates a network using the given source of randomness, the parent of
+	 * a node is looked up in O(1) instead of searching the edges
+	 * 
+	 * @param rand
+	 * @return generated network
+	 */
+	public Graph generate(Random rand) {
 		Graph graph = new Graph(this.getDescription());
-		Random rand = new Random(System.currentTimeMillis());
 		Node[] nodes = Node.init(this.getNodes(), graph);
-		Edges edges = new Edges(nodes, 100);
+		Edges edges = new Edges(nodes, this.BIDIRECTIONAL ? 2 * nodes.length
+				: nodes.length);
+		// parent[i]: node i is connected to, firstChild[i]: first node that
+		// connected to i (-1 if none)
+		int[] parent = new int[nodes.length];
+		int[] firstChild = new int[nodes.length];
+		Arrays.fill(parent, -1);
+		Arrays.fill(firstChild, -1);
 		for (int i = 1; i < nodes.length; i++) {
 			int bootstrap = rand.nextInt(i);
+			int target = bootstrap;
 			if (rand.nextDouble() <= this.REDIRECTION_PROBABILITY) {
-				boolean found = false;
-				for (int j = 0; j < i; j++) {
-					if (edges.contains(bootstrap, j)) {
-						edges.add(i, j);
-						if (this.BIDIRECTIONAL) {
-							edges.add(j, i);
-						}
-						found = true;
-						break;
-					}
-				}
-				if (!found) {
-					edges.add(i, bootstrap);
-					if (this.BIDIRECTIONAL) {
-						edges.add(bootstrap, i);
-					}
-				}
-			} else {
-				edges.add(i, bootstrap);
-				if (this.BIDIRECTIONAL) {
-					edges.add(bootstrap, i);
+				// redirect to the first out-neighbor of the bootstrap node,
+				// i.e., its parent or (only for the root in case edges are
+				// bidirectional) its first child
+				if (parent[bootstrap] != -1) {
+					target = parent[bootstrap];
+				} else if (this.BIDIRECTIONAL && firstChild[bootstrap] != -1) {
+					target = firstChild[bootstrap];
 				}
 			}
+			edges.add(i, target);
+			if (this.BIDIRECTIONAL) {
+				edges.add(target, i);
+			}
+			parent[i] = target;
+			if (firstChild[target] == -1) {
+				firstChild[target] = i;
+			}
 		}
 		edges.fill();
 		graph.setNodes(nodes);
@@ -91,7 +91,7 @@ public class Gilbert extends Network {
 
 	public Graph generate() {
 		Graph graph = new Graph(this.getDescription());
-		Random rand = new Random(System.currentTimeMillis());
+		Random rand = new Random();
 		Node[] nodes = Node.init(this.getNodes(), graph);
 		Edges edges = new Edges(nodes,
 				(int) (this.p * this.getNodes() * this.getNodes()));
@@ -0,0 +1,256 @@
+/* ===========================================================
+ * GTNA : Graph-Theoretic Network Analyzer
+ * ===========================================================
+ *
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors
+ *
+ * Project Info:  http://www.p2p.tu-darmstadt.de/research/gtna/
+ *
+ * GTNA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GTNA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ---------------------------------------
+ * PreferentialAttachment.java
+ * ---------------------------------------
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors 
+ *
+ * Original Author: agent;
+ * Contributors:    -;
+ *
+ * Changes since 2011-05-17
+ * ---------------------------------------
+ *
+ */
+package gtna.networks.model;
+
+import gtna.util.DistinctSampler;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Engine for preferential attachment based on a list of repeated nodes: every
+ * node occurs in the list as often as its weight (usually its degree), i.e.,
+ * selecting a uniformly random entry of the list selects a node with
+ * probability proportional to its weight in O(1). Adding an edge only appends
+ * its two endpoints to the list, so growing a network of n nodes with m edges
+ * per node takes O(n * m) time and memory (instead of scanning the cumulative
+ * degrees of all nodes for every new node).
+ *
+ * In case more than one thread is given, new nodes are attached in batches:
+ * the targets of all nodes of a batch are selected in parallel on a fork-join
+ * pool based on the weights at the start of the batch, afterwards the batch is
+ * appended to the list in order. Hence, nodes of the same batch neither
+ * connect to each other nor see their weight increments. A batch contains at
+ * most 1 / BATCH_FRACTION of the nodes added so far, which keeps the deviation
+ * from the sequential process small. The random numbers of every node are
+ * derived from a seed drawn from the given Random so that the batched process
+ * does not depend on how the nodes are distributed among the threads. Since a
+ * single thread uses the sequential process, which draws different random
+ * numbers, a generated network is only reproducible for a fixed number of
+ * threads.
+ *
+ * @author agent
+ *
+ */
+public class PreferentialAttachment {
+	private static final int BATCH_FRACTION = 100;
+
+	private int[] entries;
+
+	private int size;
+
+	private Random rand;
+
+	private int threads;
+
+	/**
+	 * @param capacity
+	 *            expected number of entries (total weight)
+	 * @param rand
+	 *            source of randomness
+	 * @param threads
+	 *            number of threads (sequential attachment in case it is 1)
+	 */
+	public PreferentialAttachment(int capacity, Random rand, int threads) {
+		this.entries = new int[Math.max(capacity, 16)];
+		this.size = 0;
+		this.rand = rand;
+		this.threads = Math.max(threads, 1);
+	}
+
+	/**
+	 * increases the weight of the given node
+	 *
+	 * @param node
+	 * @param weight
+	 *            number of entries to add for the node
+	 */
+	public void add(int node, int weight) {
+		if (this.size + weight > this.entries.length) {
+			this.entries = Arrays.copyOf(this.entries, Math.max(this.size
+					+ weight, this.entries.length + (this.entries.length >> 1)));
+		}
+		for (int i = 0; i < weight; i++) {
+			this.entries[this.size++] = node;
+		}
+	}
+
+	/**
+	 * @param rand
+	 * @return node selected with probability proportional to its weight
+	 */
+	public int select(Random rand) {
+		return this.entries[rand.nextInt(this.size)];
+	}
+
+	/**
+	 * selects distinct nodes with probability proportional to their weight
+	 * (sampling without replacement by rejecting duplicates), in case the list
+	 * does not contain enough distinct nodes, fewer nodes are returned
+	 *
+	 * @param count
+	 *            number of nodes to select
+	 * @param rand
+	 * @return selected nodes
+	 */
+	public int[] select(int count, Random rand) {
+		return this.select(count, this.size, rand);
+	}
+
+	private int[] select(int count, final int size, Random rand) {
+		if (size == 0) {
+			return new int[0];
+		}
+		return new DistinctSampler() {
+			public int next(Random rand) {
+				return entries[rand.nextInt(size)];
+			}
+		}.sample(count, rand);
+	}
+
+	/**
+	 * attaches the nodes first, ..., last - 1 (in this order) to count
+	 * distinct nodes each, every new edge increases the weight of both of its
+	 * endpoints by 1
+	 *
+	 * @param first
+	 * @param last
+	 * @param count
+	 *            number of edges per new node
+	 * @return selected targets of each new node (index 0 for node first)
+	 */
+	public int[][] attach(int first, int last, int count) {
+		int[][] targets = new int[last - first][];
+		if (this.threads == 1) {
+			for (int node = first; node < last; node++) {
+				targets[node - first] = this.select(count, this.rand);
+				this.append(node, targets[node - first]);
+			}
+			return targets;
+		}
+		ForkJoinPool pool = new ForkJoinPool(this.threads);
+		try {
+			for (int start = first; start < last;) {
+				int end = Math.min(last,
+						start + Math.max(1, start / BATCH_FRACTION));
+				long[] seeds = new long[end - start];
+				for (int i = 0; i < seeds.length; i++) {
+					seeds[i] = this.rand.nextLong();
+				}
+				int granularity = Math.max(1, seeds.length
+						/ (this.threads * 16));
+				pool.invoke(new SelectTask(targets, start - first, seeds, 0,
+						seeds.length, count, this.size, granularity));
+				for (int node = start; node < end; node++) {
+					this.append(node, targets[node - first]);
+				}
+				start = end;
+			}
+		} finally {
+			pool.shutdown();
+		}
+		return targets;
+	}
+
+	private void append(int node, int[] targets) {
+		this.add(node, targets.length);
+		for (int target : targets) {
+			this.add(target, 1);
+		}
+	}
+
+	/**
+	 * @return total weight of all nodes
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	private class SelectTask extends RecursiveAction {
+		private static final long serialVersionUID = -3046407870297513446L;
+
+		private int[][] targets;
+
+		private int offset;
+
+		private long[] seeds;
+
+		private int from;
+
+		private int to;
+
+		private int count;
+
+		private int size;
+
+		private int granularity;
+
+		private SelectTask(int[][] targets, int offset, long[] seeds,
+				int from, int to, int count, int size, int granularity) {
+			this.targets = targets;
+			this.offset = offset;
+			this.seeds = seeds;
+			this.from = from;
+			this.to = to;
+			this.count = count;
+			this.size = size;
+			this.granularity = granularity;
+		}
+
+		@Override
+		protected void compute() {
+			if (this.to - this.from <= this.granularity) {
+				for (int i = this.from; i < this.to; i++) {
+					this.targets[this.offset + i] = select(this.count,
+							this.size, new Random(this.seeds[i]));
+				}
+				return;
+			}
+			int middle = (this.from + this.to) >>> 1;
+			SelectTask left = new SelectTask(this.targets, this.offset,
+					this.seeds, this.from, middle, this.count, this.size,
+					this.granularity);
+			SelectTask right = new SelectTask(this.targets, this.offset,
+					this.seeds, middle, this.to, this.count, this.size,
+					this.granularity);
+			left.fork();
+			right.compute();
+			left.join();
+		}
+	}
+}
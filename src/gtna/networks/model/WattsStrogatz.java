@@ -89,7 +89,7 @@ public class WattsStrogatz extends Network {
 
 	public Graph generate() {
 		Graph graph = new Graph(this.getDescription());
-		Random rand = new Random(System.currentTimeMillis());
+		Random rand = new Random();
 		Node[] nodes = Node.init(this.getNodes(), graph);
 		Edges edges = new Edges(nodes, this.LINKS * 2 * nodes.length);
 		for (int i = 0; i < nodes.length; i++) {
@@ -38,6 +38,7 @@ import java.util.Random;
 import gtna.graph.Edges;
 import gtna.graph.Graph;
 import gtna.graph.Node;
+import gtna.id.plane.PlaneGrid;
 import gtna.id.plane.PlaneIdentifierSpaceSimple;
 import gtna.networks.model.placementmodels.NodeConnectorImpl;
 import gtna.util.parameter.DoubleParameter;
@@ -102,12 +103,25 @@ public class LogDistanceConnector extends NodeConnectorImpl {
 	@Override
 	public Edges connect(Node[] nodes, PlaneIdentifierSpaceSimple ids, Graph g) {
 		Random rnd = new Random();
-		Edges edges = new Edges(nodes, nodes.length * (nodes.length - 1));
+		// nodes further apart than maxDistance would require a gaussian
+		// deviation of more than 6 * sigma (probability < 1e-9) to be
+		// connected, so only the nodes within this distance are checked
+		double maxDistance = Double.POSITIVE_INFINITY;
+		if (gamma > 0) {
+			maxDistance = Math.pow(10, (range + 6 * sigma) / (10 * gamma)) * d0;
+		}
+		PlaneGrid grid = new PlaneGrid(ids, maxDistance);
+		int[][] candidates = new int[nodes.length][];
+		int edgeCount = 0;
+		for (int i = 0; i < nodes.length; i++) {
+			candidates[i] = grid.range(i, maxDistance);
+			edgeCount += candidates[i].length;
+		}
+
+		Edges edges = new Edges(nodes, edgeCount);
 		double dist;
 		for (int i = 0; i < nodes.length; i++) {
-			for (int j = 0; j < nodes.length; j++) {
-				if (i == j)
-					continue;
+			for (int j : candidates[i]) {
 				dist = 10
 						* gamma
 						* Math.log10(ids.getPartitions()[i].distance((ids
@@ -36,6 +36,7 @@ package gtna.networks.model.placementmodels.connectors;
 import gtna.graph.Edges;
 import gtna.graph.Graph;
 import gtna.graph.Node;
+import gtna.id.plane.PlaneGrid;
 import gtna.id.plane.PlaneIdentifierSpaceSimple;
 import gtna.networks.model.placementmodels.NodeConnectorImpl;
 import gtna.util.parameter.DoubleParameter;
@@ -87,17 +88,26 @@ public class QUDGConnector extends NodeConnectorImpl {
 	@Override
 	public Edges connect(Node[] nodes, PlaneIdentifierSpaceSimple ids, Graph g) {
 
-		Edges edges = new Edges(nodes, nodes.length * (nodes.length - 1));
+		// only nodes within range2 can be connected, the candidates are
+		// returned in ascending order so that the random decisions are made in
+		// the same order as when checking all pairs
+		PlaneGrid grid = new PlaneGrid(ids, range2);
+		int[][] candidates = new int[nodes.length][];
+		int edgeCount = 0;
+		for (int i = 0; i < nodes.length; i++) {
+			candidates[i] = grid.range(i, range2);
+			edgeCount += candidates[i].length;
+		}
+
+		Edges edges = new Edges(nodes, edgeCount);
 		double dist;
 		for (int i = 0; i < nodes.length; i++) {
-			for (int j = 0; j < nodes.length; j++) {
-				if (i == j)
-					continue;
+			for (int j : candidates[i]) {
 				dist = ids.getPartitions()[i].distance((ids.getPartitions()[j]
 						.getRepresentativeID()));
 				if (dist <= range1)
 					edges.add(i, j);
-				else if (dist <= range2 && Math.random() < perc)
+				else if (Math.random() < perc)
 					edges.add(i, j);
 			}
 		}
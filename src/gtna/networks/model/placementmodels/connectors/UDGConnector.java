@@ -36,6 +36,7 @@ package gtna.networks.model.placementmodels.connectors;
 import gtna.graph.Edges;
 import gtna.graph.Graph;
 import gtna.graph.Node;
+import gtna.id.plane.PlaneGrid;
 import gtna.id.plane.PlaneIdentifierSpaceSimple;
 import gtna.networks.model.placementmodels.NodeConnectorImpl;
 import gtna.util.parameter.DoubleParameter;
@@ -72,16 +73,18 @@ public class UDGConnector extends NodeConnectorImpl {
 	@Override
 	public Edges connect(Node[] nodes, PlaneIdentifierSpaceSimple ids, Graph g) {
 
-		Edges edges = new Edges(nodes, nodes.length * (nodes.length - 1));
+		PlaneGrid grid = new PlaneGrid(ids, range);
+		int[][] neighbors = new int[nodes.length][];
+		int edgeCount = 0;
+		for (int i = 0; i < nodes.length; i++) {
+			neighbors[i] = grid.range(i, range);
+			edgeCount += neighbors[i].length;
+		}
 
+		Edges edges = new Edges(nodes, edgeCount);
 		for (int i = 0; i < nodes.length; i++) {
-			for (int j = 0; j < nodes.length; j++) {
-				if (i != j
-						&& ids.getPartitions()[i]
-								.distance((ids.getPartitions()[j]
-										.getRepresentativeID())) <= range) {
-					edges.add(i, j);
-				}
+			for (int j : neighbors[i]) {
+				edges.add(i, j);
 			}
 		}
 		
@@ -119,7 +119,7 @@ public class ArbitraryDegreeDistribution extends Network {
 
 	private Graph generateUndirected() {
 		int[] sequence = new int[this.getNodes()];
-		Random rand = new Random(System.currentTimeMillis());
+		Random rand = new Random();
 		int sum = 0;
 		int k = 0;
 		for (int i = 0; i < sequence.length; i++) {
@@ -149,7 +149,7 @@ public class ArbitraryDegreeDistribution extends Network {
 	private Graph generateDirected() {
 		int[] sequenceIn = new int[this.getNodes()];
 		int[] sequenceOut = new int[this.getNodes()];
-		Random rand = new Random(System.currentTimeMillis());
+		Random rand = new Random();
 		int sumIn = 0, sumOut = 0;
 		int k = 0;
 		for (int i = 0; i < sequenceIn.length; i++) {
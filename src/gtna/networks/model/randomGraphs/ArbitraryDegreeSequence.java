@@ -140,7 +140,7 @@ public class ArbitraryDegreeSequence extends Network {
 
 	private Graph generateUndirected() {
 		Graph graph = new Graph(this.getDescription());
-		Random rand = new Random(System.currentTimeMillis());
+		Random rand = new Random();
 		Node[] nodes = Node.init(this.getNodes(), graph);
 		int sum = 0;
 		for (int j = 0; j < sequence.length; j++) {
@@ -187,7 +187,7 @@ public class ArbitraryDegreeSequence extends Network {
 
 	private Graph generateDirected() {
 		Graph graph = new Graph(this.getDescription());
-		Random rand = new Random(System.currentTimeMillis());
+		Random rand = new Random();
 		Node[] nodes = Node.init(this.getNodes(), graph);
 		int sum = 0;
 		for (int j = 0; j < this.sequenceIn.length; j++) {
@@ -0,0 +1,115 @@
+/* ===========================================================
+ * GTNA : Graph-Theoretic Network Analyzer
+ * ===========================================================
+ *
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors
+ *
+ * Project Info:  http://www.p2p.tu-darmstadt.de/research/gtna/
+ *
+ * GTNA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GTNA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ---------------------------------------
+ * ContactSampler.java
+ * ---------------------------------------
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors 
+ *
+ * Original Author: agent;
+ * Contributors:    -;
+ *
+ * Changes since 2011-05-17
+ * ---------------------------------------
+ *
+ */
+package gtna.networks.model.smallWorld;
+
+import gtna.util.DistinctSampler;
+
+import java.util.Random;
+
+/**
+ * Samples long-range contacts for Kleinberg-like small-world models, i.e.,
+ * nodes chosen with probability proportional to d^-r where d is their
+ * distance to the given node and r the clustering exponent.
+ *
+ * Implementations exploit the regular structure of the underlying identifier
+ * space (lattice or ring) so that a contact is sampled in O(log n) expected
+ * time without computing the normalization of every node.
+ *
+ * @author agent
+ *
+ */
+public abstract class ContactSampler {
+	/**
+	 * @param node
+	 * @param rand
+	 * @return another node chosen with probability proportional to d^-r
+	 */
+	public abstract int sample(int node, Random rand);
+
+	/**
+	 * @return number of nodes
+	 */
+	public abstract int getNodes();
+
+	/**
+	 * samples distinct contacts, duplicates are rejected and sampled again
+	 *
+	 * @param node
+	 * @param count
+	 *            number of contacts
+	 * @param rand
+	 * @return count distinct contacts (all other nodes in case there are less
+	 *         than count of them)
+	 */
+	public int[] sample(final int node, int count, Random rand) {
+		int n = this.getNodes();
+		if (count >= n - 1) {
+			int[] all = new int[Math.max(n - 1, 0)];
+			for (int i = 0, j = 0; i < n; i++) {
+				if (i != node) {
+					all[j++] = i;
+				}
+			}
+			return all;
+		}
+		return new DistinctSampler() {
+			public int next(Random rand) {
+				return ContactSampler.this.sample(node, rand);
+			}
+		}.sample(count, rand);
+	}
+
+	/**
+	 * @param cumulative
+	 *            cumulative weights
+	 * @param value
+	 *            value in [0, cumulative[cumulative.length - 1])
+	 * @return first index whose cumulative weight is larger than value
+	 */
+	protected static int search(double[] cumulative, double value) {
+		int low = 0;
+		int high = cumulative.length - 1;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (cumulative[mid] > value) {
+				high = mid;
+			} else {
+				low = mid + 1;
+			}
+		}
+		return low;
+	}
+}
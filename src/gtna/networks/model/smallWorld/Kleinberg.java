@@ -48,7 +48,6 @@ import gtna.util.parameter.DoubleParameter;
 import gtna.util.parameter.IntParameter;
 import gtna.util.parameter.Parameter;
 
-import java.util.Arrays;
 import java.util.Random;
 
 /**
@@ -142,36 +141,15 @@ public class Kleinberg extends Network {
 				nodes,
 				this.getNodes()
 						* (2 * (this.LOCAL_DISTANCE + 1) * this.LOCAL_DISTANCE + this.LONG_RANGE_CONTACTS));
-		Random rand = new Random(System.currentTimeMillis());
+		Random rand = new Random();
 		for (int i = 0; i < nodes.length; i++) {
 			this.generateLocalContacts(i, edges, parts);
 		}
 
-		double sum = 0;
-		if (this.WRAPAROUND) {
-			for (int j = 1; j < nodes.length; j++) {
-
-				sum += Math.pow(parts[0].distance(parts[j].getId()),
-						-this.CLUSTERING_EXPONENT);
-
-			}
-		}
+		ContactSampler sampler = new LatticeContactSampler(this.EDGELENGTH,
+				this.DIMENSIONS, this.CLUSTERING_EXPONENT, this.WRAPAROUND);
 		for (int i = 0; i < nodes.length; i++) {
-			if (!this.WRAPAROUND) {
-				sum = 0;
-				for (int j = 0; j < nodes.length; j++) {
-					if (i != j) {
-						sum += Math.pow(parts[i].distance(parts[j].getId()),
-								-this.CLUSTERING_EXPONENT);
-					}
-				}
-			}
-			// for (int j = 0; j < nodes.length; j++) {
-			// prob[j] = Math.pow(nodes[i].id.dist(nodes[j].id),
-			// -this.CLUSTERING_EXPONENT)
-			// / sum;
-			// }
-			this.generateLongRangeContacts(sum, parts, i, rand, edges);
+			this.generateLongRangeContacts(sampler, i, rand, edges);
 		}
 		edges.fill();
 		g.setNodes(nodes);
@@ -179,65 +157,63 @@ public class Kleinberg extends Network {
 		return g;
 	}
 
+	/**
+	 * adds the edges between nr and all nodes with a higher index within
+	 * LOCAL_DISTANCE, only the nodes within LOCAL_DISTANCE in every single
+	 * dimension are considered as candidates
+	 */
 	private void generateLocalContacts(int nr, Edges edges,
 			MDPartitionSimple[] part) {
-		for (int i = nr + 1; i < part.length; i++) {
-			if (part[nr].getId().distance(part[i].getId()) <= this.LOCAL_DISTANCE) {
+		int[][] candidates = new int[this.DIMENSIONS][];
+		int x = nr;
+		for (int k = 0; k < this.DIMENSIONS; k++) {
+			int coordinate = x % this.EDGELENGTH;
+			x /= this.EDGELENGTH;
+			int from = coordinate - this.LOCAL_DISTANCE;
+			int to = coordinate + this.LOCAL_DISTANCE;
+			if (!this.WRAPAROUND) {
+				from = Math.max(from, 0);
+				to = Math.min(to, this.EDGELENGTH - 1);
+			} else if (to - from + 1 >= this.EDGELENGTH) {
+				from = 0;
+				to = this.EDGELENGTH - 1;
+			}
+			candidates[k] = new int[to - from + 1];
+			for (int c = from; c <= to; c++) {
+				candidates[k][c - from] = (c % this.EDGELENGTH + this.EDGELENGTH)
+						% this.EDGELENGTH;
+			}
+		}
+		int[] current = new int[this.DIMENSIONS];
+		while (true) {
+			int i = 0;
+			for (int k = this.DIMENSIONS - 1; k >= 0; k--) {
+				i = i * this.EDGELENGTH + candidates[k][current[k]];
+			}
+			if (i > nr
+					&& part[nr].getId().distance(part[i].getId()) <= this.LOCAL_DISTANCE) {
 				edges.add(nr, i);
 				edges.add(i, nr);
 			}
+			int k = 0;
+			while (k < this.DIMENSIONS
+					&& ++current[k] == candidates[k].length) {
+				current[k++] = 0;
+			}
+			if (k == this.DIMENSIONS) {
+				return;
+			}
 		}
 	}
 
-	private void generateLongRangeContacts(double sum,
-			MDPartitionSimple[] part, int nr, Random rand, Edges edges) {
-		double[] rands = new double[this.LONG_RANGE_CONTACTS];
-		for (int i = 0; i < rands.length; i++) {
-			rands[i] = rand.nextDouble() * sum;
-		}
-		Arrays.sort(rands);
-
-		double sum2 = 0;
-		int current = 0;
-		int found = 0;
-		while (found < rands.length && current < part.length) {
-			if (current == nr) {
-				current++;
-				continue;
-			}
-			sum2 = sum2
-					+ Math.pow(part[nr].distance(part[current].getId()),
-							-this.CLUSTERING_EXPONENT);
-			if (sum2 >= rands[found]) {
-				edges.add(nr, current);
-				found++;
-				if (this.BIDIRECTIONAL) {
-					edges.add(current, nr);
-				}
+	private void generateLongRangeContacts(ContactSampler sampler, int nr,
+			Random rand, Edges edges) {
+		for (int contact : sampler.sample(nr, this.LONG_RANGE_CONTACTS, rand)) {
+			edges.add(nr, contact);
+			if (this.BIDIRECTIONAL) {
+				edges.add(contact, nr);
 			}
-			current++;
 		}
-		// double sum = 0;
-		// for (int i = 0; i < nodes.length; i++) {
-		// sum += node.id.dist(nodes[i].id);
-		// }
-		// int found = 0;
-		// while (found < this.LONG_RANGE_CONTACTS) {
-		// GridNode contact = nodes[rand.nextInt(nodes.length)];
-		// if (node.index() == contact.index()) {
-		// continue;
-		// }
-		// if (prob[contact.index()] >= rand.nextDouble()) {
-		// if (edges.contains(node.index(), contact.index())) {
-		// continue;
-		// }
-		// edges.add(node, contact);
-		// if (this.BIDIRECTIONAL) {
-		// edges.add(contact, node);
-		// }
-		// found++;
-		// }
-		// }
 	}
 
 	public static Kleinberg[] get(int[] n, int d, int p, int q, double r,
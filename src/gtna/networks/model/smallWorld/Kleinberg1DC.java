@@ -113,24 +113,14 @@ public class Kleinberg1DC extends Network {
 			}
 		}
 		// long-distance links
-		double sum = 0;
-		for (int j = 1; j < nodes.length; j++) {
-			sum += Math.pow(parts[0].distance(parts[j].getId()),
-					-this.CLUSTERING_EXPONENT);
+		RingIdentifier[] ids = new RingIdentifier[parts.length];
+		for (int i = 0; i < parts.length; i++) {
+			ids[i] = parts[i].getId();
 		}
-
+		ContactSampler sampler = new RingContactSampler(ids,
+				this.CLUSTERING_EXPONENT);
 		for (int i = 0; i < nodes.length; i++) {
-			this.generateLongRangeContacts(sum, parts, i, rand, edges);
-			if (this.RANDOM && i < nodes.length - 1) {
-				sum = 0;
-				for (int j = 0; j < nodes.length; j++) {
-					if (i + 1 != j) {
-						sum += Math.pow(
-								parts[i + 1].distance(parts[j].getId()),
-								-this.CLUSTERING_EXPONENT);
-					}
-				}
-			}
+			this.generateLongRangeContacts(sampler, i, rand, edges);
 		}
 		edges.fill();
 		g.setNodes(nodes);
@@ -138,34 +128,13 @@ public class Kleinberg1DC extends Network {
 		return g;
 	}
 
-	private void generateLongRangeContacts(double sum,
-			RingPartitionSimple[] part, int nr, Random rand, Edges edges) {
-		double[] rands = new double[this.LONG_RANGE_CONTACTS];
-		for (int i = 0; i < rands.length; i++) {
-			rands[i] = rand.nextDouble() * sum;
-		}
-		Arrays.sort(rands);
-
-		double sum2 = 0;
-		int current = 0;
-		int found = 0;
-		while (found < rands.length && current < part.length) {
-			if (current == nr) {
-				current++;
-				continue;
-			}
-			sum2 = sum2
-					+ Math.pow(part[nr].distance(part[current].getId()),
-							-this.CLUSTERING_EXPONENT);
-			;
-			if (sum2 >= rands[found]) {
-				edges.add(nr, current);
-				found++;
-				if (this.BIDIRECTIONAL) {
-					edges.add(current, nr);
-				}
+	private void generateLongRangeContacts(ContactSampler sampler, int nr,
+			Random rand, Edges edges) {
+		for (int contact : sampler.sample(nr, this.LONG_RANGE_CONTACTS, rand)) {
+			edges.add(nr, contact);
+			if (this.BIDIRECTIONAL) {
+				edges.add(contact, nr);
 			}
-			current++;
 		}
 	}
 
@@ -95,9 +95,12 @@ public class KleinbergPowerLaw extends Network {
 					idSpace));
 		}
 
+		// cumulative distribution of the number of long-range contacts
+		double[] degrees = new double[Math.max(this.CUTOFF - 1, 1)];
 		double norm = 0;
 		for (int j = 1; j < this.CUTOFF; j++) {
 			norm = norm + Math.pow(j, -this.EXPONENT);
+			degrees[j - 1] = norm;
 		}
 		Edges edges = new Edges(
 				nodes,
@@ -113,28 +116,14 @@ public class KleinbergPowerLaw extends Network {
 		}
 
 		// long-distance links
-		double sum = 0;
-		for (int j = 1; j < nodes.length; j++) {
-			sum += 1 / parts[0].distance(parts[j].getId());
+		RingIdentifier[] ids = new RingIdentifier[parts.length];
+		for (int i = 0; i < parts.length; i++) {
+			ids[i] = parts[i].getId();
 		}
-
+		ContactSampler sampler = new RingContactSampler(ids, 1);
 		for (int i = 0; i < nodes.length; i++) {
-			int k = 1;
-			double r = rand.nextDouble();
-			double s = 1;
-			while (r * norm > s) {
-				k++;
-				s = s + Math.pow(k, -this.EXPONENT);
-			}
-			this.generateLongRangeContacts(sum, parts, i, rand, edges, k);
-			if (this.RANDOM && i < nodes.length - 1) {
-				sum = 0;
-				for (int j = 0; j < nodes.length; j++) {
-					if (i + 1 != j) {
-						sum += 1 / (parts[i + 1].distance(parts[j].getId()));
-					}
-				}
-			}
+			int k = ContactSampler.search(degrees, rand.nextDouble() * norm) + 1;
+			this.generateLongRangeContacts(sampler, i, rand, edges, k);
 		}
 		edges.fill();
 		g.setNodes(nodes);
@@ -142,33 +131,13 @@ public class KleinbergPowerLaw extends Network {
 		return g;
 	}
 
-	private void generateLongRangeContacts(double sum,
-			RingPartitionSimple[] part, int nr, Random rand, Edges edges,
-			int degree) {
-		double[] rands = new double[degree];
-		for (int i = 0; i < rands.length; i++) {
-			rands[i] = rand.nextDouble() * sum;
-		}
-		Arrays.sort(rands);
-
-		double sum2 = 0;
-		int current = 0;
-		int found = 0;
-		while (found < rands.length && current < part.length) {
-			if (current == nr) {
-				current++;
-				continue;
-			}
-			sum2 = sum2 + 1 / part[nr].distance(part[current].getId());
-			;
-			if (sum2 >= rands[found]) {
-				edges.add(nr, current);
-				found++;
-				if (this.BIDIRECTIONAL) {
-					edges.add(current, nr);
-				}
+	private void generateLongRangeContacts(ContactSampler sampler, int nr,
+			Random rand, Edges edges, int degree) {
+		for (int contact : sampler.sample(nr, degree, rand)) {
+			edges.add(nr, contact);
+			if (this.BIDIRECTIONAL) {
+				edges.add(contact, nr);
 			}
-			current++;
 		}
 	}
 
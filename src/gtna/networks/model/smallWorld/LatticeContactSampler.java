@@ -0,0 +1,160 @@
+/* ===========================================================
+ * GTNA : Graph-Theoretic Network Analyzer
+ * ===========================================================
+ *
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors
+ *
+ * Project Info:  http://www.p2p.tu-darmstadt.de/research/gtna/
+ *
+ * GTNA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GTNA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ---------------------------------------
+ * LatticeContactSampler.java
+ * ---------------------------------------
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors 
+ *
+ * Original Author: agent;
+ * Contributors:    -;
+ *
+ * Changes since 2011-05-17
+ * ---------------------------------------
+ *
+ */
+package gtna.networks.model.smallWorld;
+
+import java.util.Random;
+
+/**
+ * Samples long-range contacts on a d-dimensional lattice with side length L
+ * where node i has the coordinates x_k = (i / L^k) mod L (as generated by the
+ * Kleinberg model) and the distance between two nodes is the euclidean
+ * distance of their coordinates (wrapping around in each dimension if
+ * requested).
+ *
+ * The distance only depends on the absolute offsets between the coordinates,
+ * so the weights d^-r of all absolute offset vectors (weighted by the number
+ * of signed offsets they represent) are accumulated once in a table of size
+ * about (L/2)^d (wrap-around) or L^d (no wrap-around). A contact is sampled
+ * by a binary search in this table and a random sign for every dimension. In
+ * case the lattice does not wrap around, offsets leaving the lattice are
+ * rejected, which yields the distribution restricted to the lattice.
+ *
+ * @author agent
+ *
+ */
+public class LatticeContactSampler extends ContactSampler {
+	private int edgeLength;
+
+	private int dimensions;
+
+	private boolean wrapAround;
+
+	private int offsets;
+
+	private double[] cumulative;
+
+	/**
+	 * @param edgeLength
+	 *            side length L of the lattice
+	 * @param dimensions
+	 *            number of dimensions d
+	 * @param exponent
+	 *            clustering exponent r
+	 * @param wrapAround
+	 */
+	public LatticeContactSampler(int edgeLength, int dimensions,
+			double exponent, boolean wrapAround) {
+		this.edgeLength = edgeLength;
+		this.dimensions = dimensions;
+		this.wrapAround = wrapAround;
+		this.offsets = wrapAround ? edgeLength / 2 + 1 : edgeLength;
+		this.cumulative = new double[(int) Math.pow(this.offsets, dimensions)];
+		int[] a = new int[dimensions];
+		double sum = 0;
+		for (int e = 0; e < this.cumulative.length; e++) {
+			double squared = 0;
+			double multiplicity = 1;
+			for (int k = 0; k < dimensions; k++) {
+				squared += Math.pow(a[k], 2);
+				if (this.isSigned(a[k])) {
+					multiplicity *= 2;
+				}
+			}
+			if (squared > 0) {
+				sum += multiplicity
+						* Math.pow(Math.sqrt(squared), -exponent);
+			}
+			this.cumulative[e] = sum;
+			for (int k = 0; k < dimensions; k++) {
+				a[k] = (a[k] + 1) % this.offsets;
+				if (a[k] != 0) {
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return true in case +a and -a lead to different coordinates
+	 */
+	private boolean isSigned(int a) {
+		return a != 0 && !(this.wrapAround && 2 * a == this.edgeLength);
+	}
+
+	@Override
+	public int getNodes() {
+		return (int) Math.pow(this.edgeLength, this.dimensions);
+	}
+
+	@Override
+	public int sample(int node, Random rand) {
+		double total = this.cumulative[this.cumulative.length - 1];
+		if (!(total > 0)) {
+			throw new RuntimeException("no contact for node " + node
+					+ " in a lattice of " + this.getNodes() + " nodes");
+		}
+		while (true) {
+			int e = ContactSampler.search(this.cumulative, rand.nextDouble()
+					* total);
+			int contact = 0;
+			int factor = 1;
+			int x = node;
+			boolean inside = true;
+			for (int k = 0; k < this.dimensions; k++) {
+				int a = e % this.offsets;
+				e /= this.offsets;
+				int y = x % this.edgeLength;
+				x /= this.edgeLength;
+				if (this.isSigned(a) && rand.nextBoolean()) {
+					a = -a;
+				}
+				y += a;
+				if (this.wrapAround) {
+					y = (y % this.edgeLength + this.edgeLength)
+							% this.edgeLength;
+				} else if (y < 0 || y >= this.edgeLength) {
+					inside = false;
+					break;
+				}
+				contact += y * factor;
+				factor *= this.edgeLength;
+			}
+			if (inside) {
+				return contact;
+			}
+		}
+	}
+}
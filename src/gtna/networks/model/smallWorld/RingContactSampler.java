@@ -0,0 +1,228 @@
+/* ===========================================================
+ * GTNA : Graph-Theoretic Network Analyzer
+ * ===========================================================
+ *
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors
+ *
+ * Project Info:  http://www.p2p.tu-darmstadt.de/research/gtna/
+ *
+ * GTNA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GTNA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ---------------------------------------
+ * RingContactSampler.java
+ * ---------------------------------------
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors 
+ *
+ * Original Author: agent;
+ * Contributors:    -;
+ *
+ * Changes since 2011-05-17
+ * ---------------------------------------
+ *
+ */
+package gtna.networks.model.smallWorld;
+
+import gtna.id.ring.RingIdentifier;
+
+import java.util.Random;
+
+/**
+ * Samples long-range contacts for nodes with arbitrary (sorted) positions on a
+ * ring, i.e., contact j of node i is chosen with probability proportional to
+ * d(i, j)^-r.
+ *
+ * The ring is divided into n bins of equal width w. For nodes in bins with a
+ * (bin) distance of t &gt;= 2, d(i, j) lies between (t - 1) w and (t + 1) w, so
+ * the per-distance bound g(t) on their weight is independent of the node and
+ * accumulated once. The nodes in the bin of i and its two neighboring bins
+ * are weighted exactly. All other contacts are sampled by rejection: a bin
+ * distance t is drawn proportional to g(t), a random side and a random slot
+ * of the bin are chosen (accepting with probability size / maximum size) and
+ * the node in this slot is accepted with probability d(i, j)^-r / g(t).
+ *
+ * The expected time per contact is in the order of log n plus the maximum
+ * number of nodes in a bin, which is O(log n) for random positions and
+ * constant for equally spaced ones.
+ *
+ * @author agent
+ *
+ */
+public class RingContactSampler extends ContactSampler {
+	private RingIdentifier[] ids;
+
+	private double exponent;
+
+	private boolean wrapAround;
+
+	private int bins;
+
+	private int[] bin;
+
+	private int[] binStart;
+
+	private int maxBinSize;
+
+	private int minDistance;
+
+	private int maxDistance;
+
+	private double[] bound;
+
+	private double[] cumulative;
+
+	/**
+	 * @param ids
+	 *            IDs of the nodes in ascending order of their position
+	 * @param exponent
+	 *            clustering exponent r
+	 */
+	public RingContactSampler(RingIdentifier[] ids, double exponent) {
+		this.ids = ids;
+		this.exponent = exponent;
+		int n = ids.length;
+		this.wrapAround = n > 0 && ids[0].getIdSpace().isWrapAround();
+		this.bins = Math.max(n, 1);
+
+		double origin = 0;
+		double extent = 0;
+		if (n > 0) {
+			if (this.wrapAround) {
+				extent = ids[0].getIdSpace().getModulus();
+			} else {
+				origin = ids[0].getPosition();
+				extent = ids[n - 1].getPosition() - origin;
+			}
+		}
+		double width = extent > 0 ? extent / this.bins : 1;
+		this.bin = new int[n];
+		this.binStart = new int[this.bins + 1];
+		for (int i = 0; i < n; i++) {
+			int b = (int) Math.floor((ids[i].getPosition() - origin) / width);
+			this.bin[i] = Math.max(0, Math.min(this.bins - 1, b));
+			this.binStart[this.bin[i] + 1]++;
+		}
+		this.maxBinSize = 0;
+		for (int b = 0; b < this.bins; b++) {
+			this.maxBinSize = Math.max(this.maxBinSize, this.binStart[b + 1]);
+			this.binStart[b + 1] += this.binStart[b];
+		}
+
+		this.minDistance = 2;
+		this.maxDistance = this.wrapAround ? this.bins / 2 : this.bins - 1;
+		int distances = Math.max(0, this.maxDistance - this.minDistance + 1);
+		this.bound = new double[distances];
+		this.cumulative = new double[distances];
+		double sum = 0;
+		for (int t = this.minDistance; t <= this.maxDistance; t++) {
+			double d = exponent >= 0 ? (t - 1) * width : (t + 1) * width;
+			this.bound[t - this.minDistance] = Math.pow(d, -exponent);
+			sum += (this.isSigned(t) ? 2 : 1) * this.bound[t - this.minDistance];
+			this.cumulative[t - this.minDistance] = sum;
+		}
+	}
+
+	/**
+	 * @return true in case the bins at distance t on both sides are different
+	 */
+	private boolean isSigned(int t) {
+		return !(this.wrapAround && 2 * t == this.bins);
+	}
+
+	@Override
+	public int getNodes() {
+		return this.ids.length;
+	}
+
+	@Override
+	public int sample(int node, Random rand) {
+		double near = this.near(node, -1);
+		double far = this.cumulative.length == 0 ? 0 : this.maxBinSize
+				* this.cumulative[this.cumulative.length - 1];
+		if (!(near + far > 0)) {
+			throw new RuntimeException("no contact for node " + node
+					+ " on a ring of " + this.getNodes() + " nodes");
+		}
+		while (true) {
+			double u = rand.nextDouble() * (near + far);
+			if (u < near) {
+				return (int) this.near(node, u);
+			}
+			int index = ContactSampler.search(this.cumulative,
+					rand.nextDouble() * this.cumulative[this.cumulative.length - 1]);
+			int t = this.minDistance + index;
+			int b = this.bin[node]
+					+ (this.isSigned(t) && rand.nextBoolean() ? -t : t);
+			if (this.wrapAround) {
+				b = (b % this.bins + this.bins) % this.bins;
+			} else if (b < 0 || b >= this.bins) {
+				continue;
+			}
+			int slot = rand.nextInt(this.maxBinSize);
+			if (slot >= this.binStart[b + 1] - this.binStart[b]) {
+				continue;
+			}
+			int contact = this.binStart[b] + slot;
+			if (rand.nextDouble() * this.bound[index] < this.weight(node,
+					contact)) {
+				return contact;
+			}
+		}
+	}
+
+	/**
+	 * iterates over the nodes in the bin of the given node and its neighboring
+	 * bins
+	 *
+	 * @param node
+	 * @param value
+	 *            in case it is negative, the total weight of these nodes is
+	 *            returned, otherwise the first node whose cumulative weight is
+	 *            larger than value
+	 */
+	private double near(int node, double value) {
+		int b = this.bin[node];
+		int from = b - 1;
+		int to = b + 1;
+		if (this.wrapAround && this.bins < 3) {
+			from = 0;
+			to = this.bins - 1;
+		} else if (!this.wrapAround) {
+			from = Math.max(from, 0);
+			to = Math.min(to, this.bins - 1);
+		}
+		double sum = 0;
+		int last = -1;
+		for (int c = from; c <= to; c++) {
+			int cell = (c % this.bins + this.bins) % this.bins;
+			for (int j = this.binStart[cell]; j < this.binStart[cell + 1]; j++) {
+				if (j == node) {
+					continue;
+				}
+				sum += this.weight(node, j);
+				last = j;
+				if (value >= 0 && sum > value) {
+					return j;
+				}
+			}
+		}
+		return value >= 0 ? last : sum;
+	}
+
+	private double weight(int node, int contact) {
+		return Math.pow(this.ids[node].distance(this.ids[contact]),
+				-this.exponent);
+	}
+}
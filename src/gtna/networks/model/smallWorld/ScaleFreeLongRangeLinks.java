@@ -0,0 +1,176 @@
+/* ===========================================================
+ * GTNA : Graph-Theoretic Network Analyzer
+ * ===========================================================
+ *
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors
+ *
+ * Project Info:  http://www.p2p.tu-darmstadt.de/research/gtna/
+ *
+ * GTNA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GTNA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ---------------------------------------
+ * ScaleFreeLongRangeLinks.java
+ * ---------------------------------------
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors 
+ *
+ * Original Author: agent;
+ * Contributors:    -;
+ *
+ * Changes since 2011-05-17
+ * ---------------------------------------
+ *
+ */
+package gtna.networks.model.smallWorld;
+
+import gtna.graph.Edges;
+import gtna.id.ring.RingIdentifier;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Generates the labels and long-range links of the ScaleFreeUndirected*
+ * models. Nodes i &lt; j with labels l(i) and l(j) whose IDs have distance d
+ * are connected with probability p(i, j) = 1 - exp(-l(i) l(j) / (norm d)).
+ *
+ * Instead of drawing a random number for all pairs of nodes, the candidates j
+ * of every node i are visited in order of increasing distance, i.e., on both
+ * sides of i on the ring. Using the bound q(i, j) = 1 - exp(-l(i) L / (norm
+ * d)) with the maximal label L, which does not increase with the distance, the
+ * next candidate is found by a geometric skip with success probability q and
+ * accepted with probability p / q. This yields the same distribution as
+ * testing every pair while the number of random numbers drawn per node is in
+ * the order of its expected number of long-range links times L / l(j).
+ *
+ * @author agent
+ *
+ */
+public class ScaleFreeLongRangeLinks {
+	/**
+	 * assigns a label to each node, the number of nodes with label k is
+	 * proportional to k^-alpha for k = 1, ..., cutoff
+	 *
+	 * @param nodes
+	 * @param alpha
+	 * @param cutoff
+	 * @param rand
+	 * @return label of each node
+	 */
+	public static int[] labels(int nodes, double alpha, int cutoff, Random rand) {
+		double sum = 0;
+		for (int k = 1; k <= cutoff; k++) {
+			sum = sum + Math.pow((double) k, -alpha);
+		}
+		int[] labels = new int[nodes];
+		double[] randNum = new double[nodes];
+		// nodes without a label, removed by swapping with the last one
+		int[] vec = new int[nodes];
+		int size = nodes;
+		for (int i = 0; i < nodes; i++) {
+			vec[i] = i;
+			randNum[i] = rand.nextDouble();
+		}
+		Arrays.sort(randNum);
+		int count = 0;
+		double s = 0;
+		for (int k = 1; k < cutoff; k++) {
+			s = s + Math.pow((double) k, -alpha);
+			while (randNum.length > count && size > 0
+					&& randNum[count] * sum < s) {
+				count++;
+				int index = rand.nextInt(size);
+				labels[vec[index]] = k;
+				vec[index] = vec[--size];
+			}
+		}
+		for (int k = 0; k < size; k++) {
+			labels[vec[k]] = cutoff;
+		}
+		return labels;
+	}
+
+	/**
+	 * adds long-range links between all pairs of nodes with probability
+	 * 1 - exp(-l(i) l(j) / (norm d(i, j)))
+	 *
+	 * @param edges
+	 * @param labels
+	 * @param ids
+	 *            IDs of the nodes, equally spaced on the ring in ascending order
+	 * @param norm
+	 * @param rand
+	 * @param lds
+	 *            number of long-range links of each node is incremented for
+	 *            every link added (may be null)
+	 */
+	public static void add(Edges edges, int[] labels, RingIdentifier[] ids,
+			double norm, Random rand, int[] lds) {
+		int n = labels.length;
+		int maxLabel = 0;
+		for (int label : labels) {
+			maxLabel = Math.max(maxLabel, label);
+		}
+		int half = n / 2;
+		for (int i = 0; i < n; i++) {
+			// nodes after i up to the antipode, then the remaining nodes
+			// backwards from the end of the ring (both with increasing
+			// distance)
+			ScaleFreeLongRangeLinks.add(edges, labels, ids, norm, rand, lds,
+					maxLabel, i, i + 1, Math.min(n - 1, i + half), 1);
+			ScaleFreeLongRangeLinks.add(edges, labels, ids, norm, rand, lds,
+					maxLabel, i, n - 1, i + half + 1, -1);
+		}
+	}
+
+	private static void add(Edges edges, int[] labels, RingIdentifier[] ids,
+			double norm, Random rand, int[] lds, int maxLabel, int i,
+			int from, int to, int direction) {
+		int remaining = (to - from) * direction;
+		int j = from;
+		while (remaining >= 0) {
+			double bound = ScaleFreeLongRangeLinks.probability(labels[i]
+					* maxLabel, norm, ids[i].distance(ids[j]));
+			if (bound <= 0) {
+				return;
+			}
+			if (bound < 1) {
+				double skip = Math.floor(Math.log(1 - rand.nextDouble())
+						/ Math.log1p(-bound));
+				if (skip > remaining) {
+					return;
+				}
+				j += direction * (int) skip;
+				remaining -= (int) skip;
+			}
+			double p = ScaleFreeLongRangeLinks.probability(labels[i]
+					* labels[j], norm, ids[i].distance(ids[j]));
+			if (rand.nextDouble() * bound < p) {
+				edges.add(i, j);
+				edges.add(j, i);
+				if (lds != null) {
+					lds[i]++;
+					lds[j]++;
+				}
+			}
+			j += direction;
+			remaining--;
+		}
+	}
+
+	private static double probability(int labels, double norm, double distance) {
+		return 1 - Math.exp(-labels / (norm * distance));
+	}
+}
@@ -48,9 +48,7 @@ import gtna.util.parameter.DoubleParameter;
 import gtna.util.parameter.IntParameter;
 import gtna.util.parameter.Parameter;
 
-import java.util.Arrays;
 import java.util.Random;
-import java.util.Vector;
 
 /**
  * @author benni
@@ -97,28 +95,9 @@ public class ScaleFreeUndirectedMinLD extends Network {
 		for (int k = 1; k <= this.cutoff; k++) {
 			sum = sum + Math.pow((double) k, -this.alpha);
 		}
-		int[] labels = new int[nodes.length];
-		double[] randNum = new double[nodes.length];
-		Vector<Integer> vec = new Vector<Integer>(nodes.length);
 		Random rand = new Random();
-		for (int i = 0; i < nodes.length; i++) {
-			vec.add(i);
-			randNum[i] = rand.nextDouble();
-		}
-		Arrays.sort(randNum);
-		int count = 0;
-		double s = 0;
-		for (int k = 1; k < this.cutoff; k++) {
-			s = s + Math.pow((double) k, -this.alpha);
-			while (randNum.length > count && vec.size() > 0
-					&& randNum[count] * sum < s) {
-				count++;
-				labels[vec.remove(rand.nextInt(vec.size()))] = k;
-			}
-		}
-		for (int k = 0; k < vec.size(); k++) {
-			labels[vec.get(k)] = this.cutoff;
-		}
+		int[] labels = ScaleFreeLongRangeLinks.labels(nodes.length, this.alpha,
+				this.cutoff, rand);
 
 		Edges edges = new Edges(nodes, (int) Math.round(sum * this.getNodes()));
 
@@ -136,18 +115,7 @@ public class ScaleFreeUndirectedMinLD extends Network {
 		// / (norm * ids[i].distance(ids[j])));
 		// }
 		// }
-		for (int i = 0; i < nodes.length; i++) {
-			for (int j = i + 1; j < nodes.length; j++) {
-				double p = 1 - Math.exp(-(labels[i] * labels[j])
-						/ (norm * ids[i].distance(ids[j])));
-				if (rand.nextDouble() < p) {
-					edges.add(i, j);
-					edges.add(j, i);
-					lds[i]++;
-					lds[j]++;
-				}
-			}
-		}
+		ScaleFreeLongRangeLinks.add(edges, labels, ids, norm, rand, lds);
 		this.addMinLongRangeLinks(nodes, edges, lds, rand, norm, labels, ids);
 
 		g.setNodes(nodes);
@@ -109,7 +109,19 @@ public class Chord extends Network {
 				.getPartitions();
 
 		Edges edges = new Edges(nodes, nodes.length * this.bits);
+		ChordIdentifierIndex index = ChordIdentifierIndex.get(idSpace);
 		for (Node node : nodes) {
+			if (index != null && index.isPacked()) {
+				// fingers id + 2^i (the first one being the successor) from
+				// primitive identifiers
+				long id = partitions[node.getIndex()].getSucc().getId()
+						.longValue();
+				for (int i = 0; i < this.bits; i++) {
+					edges.add(node.getIndex(),
+							index.responsible((id + (1L << i)) & index.getMask()));
+				}
+				continue;
+			}
 			ChordPartition p = partitions[node.getIndex()];
 			BigInteger id = p.getSucc().getId();
 			// BigInteger predID = p.getPred().getId();
@@ -118,16 +130,17 @@ public class Chord extends Network {
 
 			// int predIndex = this.find(partitions, p.getPred(),
 			// node.getIndex());
-			int succIndex = this.find(partitions, new ChordIdentifier(idSpace,
-					succID), node.getIndex());
+			int succIndex = this.find(partitions, index, new ChordIdentifier(
+					idSpace, succID), node.getIndex());
 
 			BigInteger add = BigInteger.ONE;
 			int[] fingerIndex = new int[this.bits];
 			BigInteger[] fingerID = new BigInteger[this.bits];
 			for (int i = 0; i < this.bits; i++) {
 				fingerID[i] = id.add(add).mod(idSpace.getModulus());
-				fingerIndex[i] = this.find(partitions, new ChordIdentifier(
-						idSpace, fingerID[i]), node.getIndex());
+				fingerIndex[i] = this.find(partitions, index,
+						new ChordIdentifier(idSpace, fingerID[i]),
+						node.getIndex());
 				add = add.shiftLeft(1);
 			}
 
@@ -154,7 +167,11 @@ public class Chord extends Network {
 		return graph;
 	}
 
-	private int find(ChordPartition[] partitions, ChordIdentifier id, int start) {
+	private int find(ChordPartition[] partitions, ChordIdentifierIndex ci,
+			ChordIdentifier id, int start) {
+		if (ci != null) {
+			return ci.responsible(id);
+		}
 		int index = start;
 		while (!partitions[index].contains(id)) {
 			index = (index + 1) % partitions.length;
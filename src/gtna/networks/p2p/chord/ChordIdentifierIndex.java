@@ -0,0 +1,192 @@
+/* ===========================================================
+ * GTNA : Graph-Theoretic Network Analyzer
+ * ===========================================================
+ *
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors
+ *
+ * Project Info:  http://www.p2p.tu-darmstadt.de/research/gtna/
+ *
+ * GTNA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GTNA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ---------------------------------------
+ * ChordIdentifierIndex.java
+ * ---------------------------------------
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors 
+ *
+ * Original Author: agent;
+ * Contributors:    -;
+ *
+ * Changes since 2011-05-17
+ * ---------------------------------------
+ *
+ */
+package gtna.networks.p2p.chord;
+
+import gtna.id.BIIdentifierSpace;
+import gtna.id.Identifier;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Sorted index over the partitions of a ChordIdentifierSpace that determines
+ * the partition responsible for an identifier, i.e., the partition (pred,
+ * succ] containing it, by binary search over the successors instead of
+ * checking the partitions one after the other.
+ * 
+ * In case the identifier space has at most 63 bits, the successors are stored
+ * as primitive longs so that lookups do not create any BigInteger objects.
+ * 
+ * The index is only created for partitions that cover the identifier space
+ * without gaps or overlaps (as generated by RandomChordIDSpace), since only
+ * then exactly one partition contains each identifier. It represents the
+ * partitions at the time of its creation.
+ * 
+ * @author agent
+ * 
+ */
+public class ChordIdentifierIndex {
+	private int[] order;
+
+	private BigInteger[] succ;
+
+	private long[] packed;
+
+	private long mask;
+
+	private ChordIdentifierIndex(ChordIdentifierSpace idSpace) {
+		final ChordPartition[] partitions = (ChordPartition[]) idSpace
+				.getPartitions();
+		Integer[] sorted = new Integer[partitions.length];
+		for (int i = 0; i < sorted.length; i++) {
+			sorted[i] = i;
+		}
+		Arrays.sort(sorted, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer a, Integer b) {
+				return partitions[a].getSucc().compareTo(
+						partitions[b].getSucc());
+			}
+		});
+		this.order = new int[sorted.length];
+		this.succ = new BigInteger[sorted.length];
+		for (int i = 0; i < sorted.length; i++) {
+			this.order[i] = sorted[i];
+			this.succ[i] = partitions[sorted[i]].getSucc().getId();
+		}
+		if (idSpace.getBits() <= 63) {
+			this.mask = idSpace.getBits() == 63 ? Long.MAX_VALUE
+					: (1L << idSpace.getBits()) - 1;
+			this.packed = new long[this.succ.length];
+			for (int i = 0; i < this.succ.length; i++) {
+				this.packed[i] = this.succ[i].longValue();
+			}
+		}
+	}
+
+	/**
+	 * @param idSpace
+	 * @return index over the partitions of the given identifier space, null
+	 *         in case it is no ChordIdentifierSpace or its partitions do not
+	 *         cover the identifier space exactly once
+	 */
+	public static ChordIdentifierIndex get(BIIdentifierSpace idSpace) {
+		if (!(idSpace instanceof ChordIdentifierSpace)
+				|| !(idSpace.getPartitions() instanceof ChordPartition[])
+				|| idSpace.getPartitions().length == 0) {
+			return null;
+		}
+		ChordIdentifierIndex index = new ChordIdentifierIndex(
+				(ChordIdentifierSpace) idSpace);
+		ChordPartition[] partitions = (ChordPartition[]) idSpace
+				.getPartitions();
+		int n = index.order.length;
+		for (int i = 0; i < n; i++) {
+			if (i > 0 && index.succ[i - 1].compareTo(index.succ[i]) >= 0) {
+				return null;
+			}
+			BigInteger pred = partitions[index.order[i]].getPred().getId();
+			if (!pred.equals(index.succ[(i + n - 1) % n])) {
+				return null;
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * @return true in case identifiers can be given as primitive longs
+	 */
+	public boolean isPacked() {
+		return this.packed != null;
+	}
+
+	/**
+	 * @return mask to apply to sums of packed identifiers (modulus - 1)
+	 */
+	public long getMask() {
+		return this.mask;
+	}
+
+	/**
+	 * @param id
+	 * @return index of the partition containing the given identifier
+	 */
+	public int responsible(Identifier<BigInteger> id) {
+		return this.responsible(((ChordIdentifier) id).getId());
+	}
+
+	/**
+	 * @param id
+	 * @return index of the partition containing the given identifier
+	 */
+	public int responsible(BigInteger id) {
+		if (this.packed != null) {
+			return this.responsible(id.longValue());
+		}
+		int low = 0;
+		int high = this.succ.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (this.succ[mid].compareTo(id) < 0) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return this.order[low % this.order.length];
+	}
+
+	/**
+	 * @param id
+	 *            identifier in [0, modulus), only valid in case the index is
+	 *            packed
+	 * @return index of the partition containing the given identifier
+	 */
+	public int responsible(long id) {
+		int low = 0;
+		int high = this.packed.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (this.packed[mid] < id) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return this.order[low % this.order.length];
+	}
+}
@@ -63,6 +63,18 @@ public class DescriptionWrapper extends Network {
 		return this.nw.generate();
 	}
 
+	@Override
+	public Graph generate(int run) {
+		return this.nw.generate(run);
+	}
+
+	@Override
+	public Network clone() {
+		DescriptionWrapper clone = (DescriptionWrapper) super.clone();
+		clone.nw = this.nw.clone();
+		return clone;
+	}
+
 	public String getFolderName() {
 		return this.nw.getFolderName();
 	}
@@ -92,7 +92,23 @@ public class ReadableFolder extends Network {
 			return null;
 		}
 		this.index = (this.index + 1) % this.files.size();
-		Graph graph = GraphReader.read(this.files.get(this.index));
+		return this.read(this.index);
+	}
+
+	/**
+	 * reads the file with index run % files.size(), i.e., the file read by a
+	 * run of a series does not depend on the order in which runs are executed
+	 */
+	@Override
+	public Graph generate(int run) {
+		if (this.files.size() == 0) {
+			return null;
+		}
+		return this.read(run % this.files.size());
+	}
+
+	private Graph read(int index) {
+		Graph graph = GraphReader.read(this.files.get(index));
 		graph.setName(this.getDescription());
 		return graph;
 	}
@@ -57,7 +57,7 @@ import gtna.util.Config;
  */
 public class ReadableList extends Network {
 	private String[] files;
-    private int index;
+	private int index;
 
 	public ReadableList(String name, String folder, String[] files,
 			Transformation[] t) {
@@ -77,7 +77,21 @@ public class ReadableList extends Network {
 
 	public Graph generate() {
 		this.index = (this.index + 1) % this.files.length;
-		Graph graph = GraphReader.readWithProperties(this.files[this.index]);
+		return this.read(this.index);
+	}
+
+	/**
+	 * reads the snapshot with index run % LIST.length, i.e., the snapshot read
+	 * by a run of a series does not depend on the order in which runs are
+	 * executed
+	 */
+	@Override
+	public Graph generate(int run) {
+		return this.read(run % this.files.length);
+	}
+
+	private Graph read(int index) {
+		Graph graph = GraphReader.readWithProperties(this.files[index]);
 		graph.setName(this.getDescription());
 		return graph;
 	}
@@ -0,0 +1,201 @@
+/* ===========================================================
+ * GTNA : Graph-Theoretic Network Analyzer
+ * ===========================================================
+ *
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors
+ *
+ * Project Info:  http://www.p2p.tu-darmstadt.de/research/gtna/
+ *
+ * GTNA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GTNA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ---------------------------------------
+ * EdgesBenchmark.java
+ * ---------------------------------------
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors 
+ *
+ * Original Author: agent;
+ * Contributors:    -;
+ *
+ * Changes since 2011-05-17
+ * ---------------------------------------
+ *
+ */
+package gtna.projects.etc;
+
+import gtna.graph.Edge;
+import gtna.graph.Edges;
+import gtna.graph.Graph;
+import gtna.graph.Node;
+import gtna.networks.model.ErdosRenyi;
+import gtna.transformation.Transformation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+
+/**
+ * Compares the generation time of an Erdos-Renyi graph built with the
+ * long-keyed Edges set (i.e., by ErdosRenyi) to the former string-keyed
+ * implementation (HashMap&lt;String, Edge&gt; and ArrayList&lt;Edge&gt;) as
+ * well as the heap usage of both edge sets holding the edges of the generated
+ * graph.
+ *
+ * usage: EdgesBenchmark [nodes] [averageDegree] [seed]
+ *
+ * defaults: 1000000 nodes, average degree 10, seed 0
+ *
+ * The heap usage is measured after a full GC while the edge set is still
+ * reachable, so it should be run with a heap that is large enough to hold the
+ * graph and the string-keyed set (e.g., -Xmx4g for the default parameters).
+ *
+ * @author agent
+ *
+ */
+public class EdgesBenchmark {
+	public static void main(String[] args) {
+		int nodes = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		double d = args.length > 1 ? Double.parseDouble(args[1]) : 10;
+		long seed = args.length > 2 ? Long.parseLong(args[2]) : 0;
+		ErdosRenyi nw = new ErdosRenyi(nodes, d, true, new Transformation[0]);
+
+		System.out.println("Erdos-Renyi: " + nodes + " nodes, average degree "
+				+ d + " (bidirectional), seed " + seed);
+
+		long start = System.currentTimeMillis();
+		Graph strings = EdgesBenchmark.stringKeyed(nodes, d, seed);
+		long stringsTime = System.currentTimeMillis() - start;
+		strings = null;
+
+		start = System.currentTimeMillis();
+		Graph graph = nw.generate(new Random(seed));
+		long longsTime = System.currentTimeMillis() - start;
+
+		Edge[] edges = graph.generateEdges();
+		long base = EdgesBenchmark.usedHeap();
+		StringEdges stringSet = new StringEdges(graph.getNodes(), edges);
+		long stringsHeap = EdgesBenchmark.usedHeap() - base;
+		int stringsSize = stringSet.size();
+		stringSet = null;
+
+		base = EdgesBenchmark.usedHeap();
+		Edges longSet = new Edges(graph.getNodes(), edges);
+		long longsHeap = EdgesBenchmark.usedHeap() - base;
+		int size = longSet.size();
+		longSet = null;
+
+		System.out.println("string-keyed: " + stringsTime + " msec, "
+				+ (stringsHeap >> 20) + " MB (" + stringsSize + " edges)");
+		System.out.println("long-keyed:   " + longsTime + " msec, "
+				+ (longsHeap >> 20) + " MB (" + size + " edges)");
+		System.out.println("speedup:      "
+				+ ((double) stringsTime / (double) Math.max(longsTime, 1)));
+		System.out.println("heap ratio:   "
+				+ ((double) stringsHeap / (double) Math.max(longsHeap, 1)));
+	}
+
+	/**
+	 * generates the same graph as ErdosRenyi.generate(Random) using the
+	 * string-keyed edge set
+	 */
+	private static Graph stringKeyed(int n, double d, long seed) {
+		Random rand = new Random(seed);
+		Graph graph = new Graph("benchmark");
+		Node[] nodes = Node.init(n, graph);
+		int toAdd = (int) (d * n / 2);
+		StringEdges edges = new StringEdges(nodes, toAdd);
+		while (edges.size() < toAdd) {
+			int src = rand.nextInt(n);
+			int dst = rand.nextInt(n);
+			if (src == dst) {
+				continue;
+			}
+			edges.add(src, dst);
+			edges.add(dst, src);
+		}
+		edges.fill();
+		graph.setNodes(nodes);
+		return graph;
+	}
+
+	private static long usedHeap() {
+		Runtime rt = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return rt.totalMemory() - rt.freeMemory();
+	}
+
+	/**
+	 * former implementation of Edges keyed by Edge.toString
+	 */
+	private static class StringEdges {
+		private Node[] nodes;
+
+		private ArrayList<Edge> edges;
+
+		private HashMap<String, Edge> map;
+
+		private int[] inDegree;
+
+		private int[] outDegree;
+
+		private StringEdges(Node[] nodes, int edges) {
+			this.nodes = nodes;
+			this.edges = new ArrayList<Edge>(edges);
+			this.map = new HashMap<String, Edge>();
+			this.inDegree = new int[this.nodes.length];
+			this.outDegree = new int[this.nodes.length];
+		}
+
+		private StringEdges(Node[] nodes, Edge[] edges) {
+			this(nodes, edges.length);
+			for (Edge edge : edges) {
+				this.add(edge.getSrc(), edge.getDst());
+			}
+		}
+
+		private int size() {
+			return this.edges.size();
+		}
+
+		private boolean add(int src, int dst) {
+			if (this.map.containsKey(Edge.toString(src, dst))) {
+				return false;
+			}
+			Edge edge = new Edge(src, dst);
+			this.edges.add(edge);
+			this.map.put(edge.toString(), edge);
+			this.inDegree[edge.getDst()]++;
+			this.outDegree[edge.getSrc()]++;
+			return true;
+		}
+
+		private void fill() {
+			for (int i = 0; i < this.nodes.length; i++) {
+				this.nodes[i].setIncomingEdges(new int[this.inDegree[i]]);
+				this.nodes[i].setOutgoingEdges(new int[this.outDegree[i]]);
+			}
+			int[] inIndex = new int[this.nodes.length];
+			int[] outIndex = new int[this.nodes.length];
+			for (Edge e : this.edges) {
+				int src = e.getSrc();
+				int dst = e.getDst();
+				this.nodes[dst].getIncomingEdges()[inIndex[dst]++] = src;
+				this.nodes[src].getOutgoingEdges()[outIndex[src]++] = dst;
+			}
+		}
+	}
+}
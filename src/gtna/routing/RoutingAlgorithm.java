@@ -49,7 +49,8 @@ import java.util.Random;
  * @author benni
  * 
  */
-public abstract class RoutingAlgorithm extends ParameterList {
+public abstract class RoutingAlgorithm extends ParameterList implements
+		Cloneable {
 	public RoutingAlgorithm(String key) {
 		super(key);
 	}
@@ -96,4 +97,34 @@ public abstract class RoutingAlgorithm extends ParameterList {
 	 */
 	public abstract void preprocess(Graph graph);
 
+	/**
+	 * Returns the instance used by a single worker thread of the Routing
+	 * metric. It is called after preprocess(graph) and the returned instance
+	 * is only used by one thread, while different worker instances route in
+	 * parallel.
+	 * 
+	 * Algorithms that do not modify any fields while routing are thread-safe
+	 * after the pre-processing and return themselves (default). Algorithms
+	 * that keep per-route state in fields (e.g., the sets initialized by
+	 * GreedyTemplate.setSets) must override this method and return a copy
+	 * that shares the data computed during pre-processing, e.g., using
+	 * copy().
+	 * 
+	 * @return instance of this routing algorithm for a single worker thread
+	 */
+	public RoutingAlgorithm getWorkerInstance() {
+		return this;
+	}
+
+	/**
+	 * @return shallow copy of this routing algorithm
+	 */
+	protected RoutingAlgorithm copy() {
+		try {
+			return (RoutingAlgorithm) super.clone();
+		} catch (CloneNotSupportedException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
 }
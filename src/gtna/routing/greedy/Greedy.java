@@ -44,6 +44,8 @@ import gtna.id.BIPartition;
 import gtna.id.DIdentifier;
 import gtna.id.DIdentifierSpace;
 import gtna.id.DPartition;
+import gtna.id.ring.RingIdentifierIndex;
+import gtna.networks.p2p.chord.ChordIdentifierIndex;
 import gtna.routing.Route;
 import gtna.routing.RouteImpl;
 import gtna.routing.RoutingAlgorithm;
@@ -63,10 +65,14 @@ public class Greedy extends RoutingAlgorithm {
 
 	private DPartition[] pD;
 
+	private RingIdentifierIndex indexD;
+
 	private BIIdentifierSpace idSpaceBI;
 
 	private BIPartition[] pBI;
 
+	private ChordIdentifierIndex indexBI;
+
 	private int ttl;
 
 	public Greedy() {
@@ -95,14 +101,17 @@ public class Greedy extends RoutingAlgorithm {
 		while (this.pBI[start].contains(target)) {
 			target = (BIIdentifier) this.idSpaceBI.randomID(rand);
 		}
-		return this.routeBI(new ArrayList<Integer>(), start, target, rand,
-				graph.getNodes());
+		int responsible = this.indexBI == null ? -1 : this.indexBI
+				.responsible(target);
+		return this.routeBI(new ArrayList<Integer>(), start, target,
+				responsible, rand, graph.getNodes());
 	}
 
 	private Route routeBI(ArrayList<Integer> route, int current,
-			BIIdentifier target, Random rand, Node[] nodes) {
+			BIIdentifier target, int responsible, Random rand, Node[] nodes) {
 		route.add(current);
-		if (this.idSpaceBI.getPartitions()[current].contains(target)) {
+		if (responsible >= 0 ? current == responsible : this.idSpaceBI
+				.getPartitions()[current].contains(target)) {
 			return new RouteImpl(route, true);
 		}
 		if (route.size() > this.ttl) {
@@ -123,7 +132,8 @@ public class Greedy extends RoutingAlgorithm {
 		if (minNode == -1) {
 			return new RouteImpl(route, false);
 		}
-		return this.routeBI(route, minNode, target, rand, nodes);
+		return this.routeBI(route, minNode, target, responsible, rand,
+				nodes);
 	}
 
 	private Route routeToRandomTargetD(Graph graph, int start, Random rand) {
@@ -131,14 +141,17 @@ public class Greedy extends RoutingAlgorithm {
 		while (this.pD[start].contains(target)) {
 			target = (DIdentifier) this.idSpaceD.randomID(rand);
 		}
-		return this.routeD(new ArrayList<Integer>(), start, target, rand,
-				graph.getNodes());
+		int responsible = this.indexD == null ? -1 : this.indexD
+				.responsible(target);
+		return this.routeD(new ArrayList<Integer>(), start, target,
+				responsible, rand, graph.getNodes());
 	}
 
 	private Route routeD(ArrayList<Integer> route, int current,
-			DIdentifier target, Random rand, Node[] nodes) {
+			DIdentifier target, int responsible, Random rand, Node[] nodes) {
 		route.add(current);
-		if (this.idSpaceD.getPartitions()[current].contains(target)) {
+		if (responsible >= 0 ? current == responsible : this.idSpaceD
+				.getPartitions()[current].contains(target)) {
 			return new RouteImpl(route, true);
 		}
 		if (route.size() > this.ttl) {
@@ -158,7 +171,8 @@ public class Greedy extends RoutingAlgorithm {
 		if (minNode == -1) {
 			return new RouteImpl(route, false);
 		}
-		return this.routeD(route, minNode, target, rand, nodes);
+		return this.routeD(route, minNode, target, responsible, rand,
+				nodes);
 	}
 
 	@Override
@@ -174,18 +188,24 @@ public class Greedy extends RoutingAlgorithm {
 		if (p instanceof DIdentifierSpace) {
 			this.idSpaceD = (DIdentifierSpace) p;
 			this.pD = (DPartition[]) this.idSpaceD.getPartitions();
+			this.indexD = RingIdentifierIndex.get(this.idSpaceD);
 			this.idSpaceBI = null;
 			this.pBI = null;
+			this.indexBI = null;
 		} else if (p instanceof BIIdentifierSpace) {
 			this.idSpaceD = null;
 			this.pD = null;
+			this.indexD = null;
 			this.idSpaceBI = (BIIdentifierSpace) p;
 			this.pBI = (BIPartition[]) this.idSpaceBI.getPartitions();
+			this.indexBI = ChordIdentifierIndex.get(this.idSpaceBI);
 		} else {
 			this.idSpaceD = null;
 			this.pD = null;
+			this.indexD = null;
 			this.idSpaceBI = null;
 			this.pBI = null;
+			this.indexBI = null;
 		}
 	}
 
@@ -40,6 +40,7 @@ import gtna.graph.Node;
 import gtna.id.DIdentifier;
 import gtna.id.DIdentifierSpace;
 import gtna.id.DPartition;
+import gtna.id.ring.RingIdentifierIndex;
 import gtna.routing.Route;
 import gtna.routing.RouteImpl;
 import gtna.routing.RoutingAlgorithm;
@@ -59,6 +60,8 @@ public class GreedyBacktracking extends RoutingAlgorithm {
 
 	private DPartition[] p;
 
+	private RingIdentifierIndex index;
+
 	private int ttl;
 
 	public GreedyBacktracking() {
@@ -78,15 +81,19 @@ public class GreedyBacktracking extends RoutingAlgorithm {
 		while (this.p[start].contains(target)) {
 			target = (DIdentifier) this.idSpace.randomID(rand);
 		}
-		return this.route(new ArrayList<Integer>(), start, target, rand,
-				graph.getNodes(), new HashMap<Integer, Integer>());
+		int responsible = this.index == null ? -1 : this.index
+				.responsible(target);
+		return this.route(new ArrayList<Integer>(), start, target,
+				responsible, rand, graph.getNodes(),
+				new HashMap<Integer, Integer>());
 	}
 
 	private Route route(ArrayList<Integer> route, int current,
-			DIdentifier target, Random rand, Node[] nodes,
+			DIdentifier target, int responsible, Random rand, Node[] nodes,
 			HashMap<Integer, Integer> from) {
 		route.add(current);
-		if (this.idSpace.getPartitions()[current].contains(target)) {
+		if (responsible >= 0 ? current == responsible : this.idSpace
+				.getPartitions()[current].contains(target)) {
 			return new RouteImpl(route, true);
 		}
 		if (route.size() > ttl) {
@@ -104,13 +111,15 @@ public class GreedyBacktracking extends RoutingAlgorithm {
 			}
 		}
 		if (minNode == -1 && from.containsKey(current)) {
-			return this.route(route, from.get(current), target, rand, nodes,
+			return this.route(route, from.get(current), target, responsible,
+					rand, nodes,
 					from);
 		} else if (minNode == -1) {
 			return new RouteImpl(route, false);
 		}
 		from.put(minNode, current);
-		return this.route(route, minNode, target, rand, nodes, from);
+		return this.route(route, minNode, target, responsible, rand,
+				nodes, from);
 	}
 
 	@Override
@@ -123,6 +132,7 @@ public class GreedyBacktracking extends RoutingAlgorithm {
 	public void preprocess(Graph graph) {
 		this.idSpace = (DIdentifierSpace) graph.getProperty("ID_SPACE_0");
 		this.p = (DPartition[]) idSpace.getPartitions();
+		this.index = RingIdentifierIndex.get(this.idSpace);
 	}
 
 }
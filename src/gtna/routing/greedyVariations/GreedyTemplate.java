@@ -44,6 +44,8 @@ import gtna.id.BIPartition;
 import gtna.id.DIdentifier;
 import gtna.id.DIdentifierSpace;
 import gtna.id.DPartition;
+import gtna.id.ring.RingIdentifierIndex;
+import gtna.networks.p2p.chord.ChordIdentifierIndex;
 import gtna.routing.Route;
 import gtna.routing.RouteImpl;
 import gtna.routing.RoutingAlgorithm;
@@ -69,6 +71,10 @@ public abstract class GreedyTemplate extends RoutingAlgorithm {
 
 	BIPartition[] pBI;
 
+	private RingIdentifierIndex indexD;
+
+	private ChordIdentifierIndex indexBI;
+
 	private int ttl;
 
 	public GreedyTemplate(String name) {
@@ -119,8 +125,10 @@ public abstract class GreedyTemplate extends RoutingAlgorithm {
 		while (this.pBI[start].contains(target)) {
 			target = (BIIdentifier) this.idSpaceBI.randomID(rand);
 		}
-		return this.routeBI(new ArrayList<Integer>(), start, target, rand,
-				graph.getNodes());
+		int responsible = this.indexBI == null ? -1 : this.indexBI
+				.responsible(target);
+		return this.routeBI(new ArrayList<Integer>(), start, target,
+				responsible, rand, graph.getNodes());
 	}
 
 	/**
@@ -135,9 +143,10 @@ public abstract class GreedyTemplate extends RoutingAlgorithm {
 	 * @return
 	 */
 	private Route routeBI(ArrayList<Integer> route, int current,
-			BIIdentifier target, Random rand, Node[] nodes) {
+			BIIdentifier target, int responsible, Random rand, Node[] nodes) {
 		route.add(current);
-		if (this.idSpaceBI.getPartitions()[current].contains(target)) {
+		if (responsible >= 0 ? current == responsible : this.idSpaceBI
+				.getPartitions()[current].contains(target)) {
 			return new RouteImpl(route, true);
 		}
 		if (route.size() > this.ttl) {
@@ -147,7 +156,8 @@ public abstract class GreedyTemplate extends RoutingAlgorithm {
 		if (minNode == -1) {
 			return new RouteImpl(route, false);
 		}
-		return this.routeBI(route, minNode, target, rand, nodes);
+		return this.routeBI(route, minNode, target, responsible, rand,
+				nodes);
 	}
 
 	/**
@@ -163,8 +173,10 @@ public abstract class GreedyTemplate extends RoutingAlgorithm {
 		while (this.pD[start].contains(target)) {
 			target = (DIdentifier) this.idSpaceD.randomID(rand);
 		}
-		return this.routeD(new ArrayList<Integer>(), start, target, rand,
-				graph.getNodes());
+		int responsible = this.indexD == null ? -1 : this.indexD
+				.responsible(target);
+		return this.routeD(new ArrayList<Integer>(), start, target,
+				responsible, rand, graph.getNodes());
 	}
 
 	/**
@@ -179,9 +191,10 @@ public abstract class GreedyTemplate extends RoutingAlgorithm {
 	 * @return
 	 */
 	private Route routeD(ArrayList<Integer> route, int current,
-			DIdentifier target, Random rand, Node[] nodes) {
+			DIdentifier target, int responsible, Random rand, Node[] nodes) {
 		route.add(current);
-		if (this.idSpaceD.getPartitions()[current].contains(target)) {
+		if (responsible >= 0 ? current == responsible : this.idSpaceD
+				.getPartitions()[current].contains(target)) {
 			return new RouteImpl(route, true);
 		}
 		if (route.size() > this.ttl) {
@@ -191,7 +204,8 @@ public abstract class GreedyTemplate extends RoutingAlgorithm {
 		if (minNode == -1) {
 			return new RouteImpl(route, false);
 		}
-		return this.routeD(route, minNode, target, rand, nodes);
+		return this.routeD(route, minNode, target, responsible, rand,
+				nodes);
 	}
 
 	@Override
@@ -207,18 +221,24 @@ public abstract class GreedyTemplate extends RoutingAlgorithm {
 		if (p instanceof DIdentifierSpace) {
 			this.idSpaceD = (DIdentifierSpace) p;
 			this.pD = (DPartition[]) this.idSpaceD.getPartitions();
+			this.indexD = RingIdentifierIndex.get(this.idSpaceD);
 			this.idSpaceBI = null;
 			this.pBI = null;
+			this.indexBI = null;
 		} else if (p instanceof BIIdentifierSpace) {
 			this.idSpaceD = null;
 			this.pD = null;
+			this.indexD = null;
 			this.idSpaceBI = (BIIdentifierSpace) p;
 			this.pBI = (BIPartition[]) this.idSpaceBI.getPartitions();
+			this.indexBI = ChordIdentifierIndex.get(this.idSpaceBI);
 		} else {
 			this.idSpaceD = null;
 			this.pD = null;
+			this.indexD = null;
 			this.idSpaceBI = null;
 			this.pBI = null;
+			this.indexBI = null;
 		}
 	}
 
@@ -238,10 +258,22 @@ public abstract class GreedyTemplate extends RoutingAlgorithm {
 			Random rand, Node[] nodes);
 
 	/**
-	 * abstract method initiating the necessary objects
+	 * abstract method initiating the necessary objects<br>
+	 * it is called at the beginning of each route and must assign new objects
+	 * to all fields holding per-route state (instead of clearing the existing
+	 * ones) since worker instances are shallow copies of each other
 	 * 
 	 * @param nr
 	 */
 	public abstract void setSets(int nr);
 
+	/**
+	 * the per-route state initialized by setSets is kept in fields, hence
+	 * each worker thread routes with its own shallow copy
+	 */
+	@Override
+	public RoutingAlgorithm getWorkerInstance() {
+		return this.copy();
+	}
+
 }
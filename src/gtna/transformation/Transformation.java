@@ -46,7 +46,8 @@ import gtna.util.parameter.ParameterList;
  * @author benni
  * 
  */
-public abstract class Transformation extends ParameterList {
+public abstract class Transformation extends ParameterList implements
+		Cloneable {
 	private int times;
 
 	public Transformation(String key) {
@@ -112,4 +113,29 @@ public abstract class Transformation extends ParameterList {
 	 *         otherwise
 	 */
 	public abstract boolean applicable(Graph g);
+
+	/**
+	 * creates a shallow copy of this transformation, used by Series.generate
+	 * to give each run its own instance in case runs are executed in
+	 * parallel<br>
+	 * transformations that modify objects created in their constructor during
+	 * transform must override this method and copy these objects
+	 * 
+	 * @return copy of this transformation
+	 */
+	public Transformation clone() {
+		try {
+			return (Transformation) super.clone();
+		} catch (CloneNotSupportedException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * @return true in case copies of this transformation (created by clone())
+	 *         can be executed concurrently by several runs of a series
+	 */
+	public boolean isParallelizable() {
+		return true;
+	}
 }
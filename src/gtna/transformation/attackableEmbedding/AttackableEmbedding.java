@@ -100,13 +100,20 @@ public abstract class AttackableEmbedding extends Transformation {
 		// Partition<Double>[] ids = idSpace.getPartitions();
 		this.setIdspace(idSpace);
 		RingIdentifier[] ids = this.getIds();
-		for (int i = 0; i < this.iterations * selectionSet.length; i++) {
-			int index = rand.nextInt(selectionSet.length);
-			if (selectionSet[index].getOutDegree() > 0) {
-				// double old =
-				// ids[selectionSet[index].getIndex()].getPosition();
-				selectionSet[index].updateNeighbors(rand);
-				selectionSet[index].turn(rand);
+		RingEmbeddingEngine engine = this.createEngine(nodes, selectionSet,
+				ids, rand);
+		if (engine != null) {
+			engine.run(this.iterations);
+			engine.write(ids);
+		} else {
+			for (int i = 0; i < this.iterations * selectionSet.length; i++) {
+				int index = rand.nextInt(selectionSet.length);
+				if (selectionSet[index].getOutDegree() > 0) {
+					// double old =
+					// ids[selectionSet[index].getIndex()].getPosition();
+					selectionSet[index].updateNeighbors(rand);
+					selectionSet[index].turn(rand);
+				}
 			}
 		}
 		Partition<Double>[] parts = new RingPartitionSimple[g.getNodes().length];
@@ -120,6 +127,28 @@ public abstract class AttackableEmbedding extends Transformation {
 		return g;
 	}
 
+	/**
+	 * Creates an engine that executes the embedding on primitive arrays
+	 * instead of calling updateNeighbors and turn of randomly selected nodes,
+	 * e.g., in case no node deviates from the regular behavior.
+	 * 
+	 * @param nodes
+	 *            nodes generated from the graph
+	 * @param selectionSet
+	 *            selection set generated from the nodes
+	 * @param ids
+	 *            IDs of the nodes
+	 * @param rand
+	 *            PRNG
+	 * @return engine for the embedding or null in case the nodes should take
+	 *         their turns themselves
+	 */
+	protected RingEmbeddingEngine createEngine(AttackableEmbeddingNode[] nodes,
+			AttackableEmbeddingNode[] selectionSet, RingIdentifier[] ids,
+			Random rand) {
+		return null;
+	}
+
 	/**
 	 * Generates a set of SortingNodes from the given graph (nodes need to be
 	 * RingNodes).
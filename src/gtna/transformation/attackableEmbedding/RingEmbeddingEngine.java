@@ -0,0 +1,190 @@
+/* ===========================================================
+ * GTNA : Graph-Theoretic Network Analyzer
+ * ===========================================================
+ *
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors
+ *
+ * Project Info:  http://www.p2p.tu-darmstadt.de/research/gtna/
+ *
+ * GTNA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GTNA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ---------------------------------------
+ * RingEmbeddingEngine.java
+ * ---------------------------------------
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors 
+ *
+ * Original Author: agent;
+ * Contributors:    -;
+ *
+ * Changes since 2011-05-17
+ * ---------------------------------------
+ *
+ */
+package gtna.transformation.attackableEmbedding;
+
+import gtna.graph.Node;
+import gtna.id.ring.RingIdentifier;
+import gtna.id.ring.RingIdentifierSpace;
+
+/**
+ * Engine for round-based embeddings of nodes on a ring that only consist of
+ * regular (non-attacking) nodes: the positions of all nodes are stored in a
+ * primitive array, the IDs a node knows of its (outgoing) neighbors in a flat
+ * array aligned with its outgoing edges (updated whenever the node takes a
+ * turn, as in AttackableEmbeddingNode).
+ * 
+ * Acceptance probabilities given as ratios of products of distances are
+ * computed as differences of sums of logarithms, so they do not underflow for
+ * nodes of high degree.
+ * 
+ * @author agent
+ * 
+ */
+public abstract class RingEmbeddingEngine {
+	protected Node[] nodes;
+
+	protected double[] pos;
+
+	protected double modulus;
+
+	protected boolean wrapAround;
+
+	// outgoing edges of node i: neighbors[offsets[i]], ...,
+	// neighbors[offsets[i + 1] - 1]
+	protected int[] offsets;
+
+	protected int[] neighbors;
+
+	// ID of neighbors[e] as known by its source
+	protected double[] known;
+
+	protected int threads;
+
+	protected long seed;
+
+	/**
+	 * @param nodes
+	 * @param ids
+	 *            IDs of the nodes (on the same ring)
+	 * @param threads
+	 *            number of threads
+	 * @param seed
+	 */
+	public RingEmbeddingEngine(Node[] nodes, RingIdentifier[] ids,
+			int threads, long seed) {
+		this.nodes = nodes;
+		this.threads = Math.max(threads, 1);
+		this.seed = seed;
+		RingIdentifierSpace idSpace = ids[0].getIdSpace();
+		this.modulus = idSpace.getModulus();
+		this.wrapAround = idSpace.isWrapAround();
+		this.pos = new double[nodes.length];
+		for (int i = 0; i < nodes.length; i++) {
+			this.pos[i] = ids[i].getPosition();
+		}
+		this.offsets = new int[nodes.length + 1];
+		for (int i = 0; i < nodes.length; i++) {
+			this.offsets[i + 1] = this.offsets[i] + nodes[i].getOutDegree();
+		}
+		this.neighbors = new int[this.offsets[nodes.length]];
+		for (int i = 0; i < nodes.length; i++) {
+			System.arraycopy(nodes[i].getOutgoingEdges(), 0, this.neighbors,
+					this.offsets[i], nodes[i].getOutDegree());
+		}
+		this.known = new double[this.neighbors.length];
+	}
+
+	/**
+	 * executes the given number of iterations (every node takes one turn per
+	 * iteration in expectation)
+	 * 
+	 * @param iterations
+	 */
+	public abstract void run(int iterations);
+
+	/**
+	 * writes the positions computed by the engine to the given IDs
+	 * 
+	 * @param ids
+	 */
+	public void write(RingIdentifier[] ids) {
+		for (int i = 0; i < ids.length; i++) {
+			ids[i].setPosition(this.pos[i]);
+		}
+	}
+
+	/**
+	 * @param nodes
+	 * @param regular
+	 *            class of regular nodes
+	 * @param ids
+	 * @return true in case all nodes are instances of exactly the given class
+	 *         and have IDs on a ring
+	 */
+	public static boolean applicable(Node[] nodes, Class<?> regular,
+			RingIdentifier[] ids) {
+		if (nodes.length == 0 || ids == null || ids.length != nodes.length) {
+			return false;
+		}
+		for (Node node : nodes) {
+			if (node.getClass() != regular) {
+				return false;
+			}
+		}
+		return ids[0].getIdSpace() != null;
+	}
+
+	/**
+	 * the given node learns the current positions of its neighbors
+	 */
+	protected void updateNeighbors(int node) {
+		for (int e = this.offsets[node]; e < this.offsets[node + 1]; e++) {
+			this.known[e] = this.pos[this.neighbors[e]];
+		}
+	}
+
+	/**
+	 * @return sum of the logarithms of the distances between position p and
+	 *         the IDs the given node knows of its neighbors
+	 */
+	protected double logDistances(int node, double p) {
+		double sum = 0;
+		for (int e = this.offsets[node]; e < this.offsets[node + 1]; e++) {
+			sum += Math.log(this.distance(p, this.known[e]));
+		}
+		return sum;
+	}
+
+	/**
+	 * @return distance between two positions on the ring (as computed by
+	 *         RingIdentifier)
+	 */
+	protected double distance(double a, double b) {
+		if (this.wrapAround) {
+			return Math.min(Math.abs(a - b),
+					Math.min(this.modulus + a - b, this.modulus - a + b));
+		}
+		return Math.abs(b - a);
+	}
+
+	/**
+	 * @return acceptance decision for a move whose probability is given by
+	 *         exp(logRatio) (capped at 1)
+	 */
+	protected static boolean accept(double uniform, double logRatio) {
+		return Math.log(uniform) < logRatio;
+	}
+}
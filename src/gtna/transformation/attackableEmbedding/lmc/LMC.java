@@ -42,6 +42,8 @@ import gtna.id.DIdentifierSpace;
 import gtna.id.ring.RingIdentifier;
 import gtna.transformation.attackableEmbedding.AttackableEmbedding;
 import gtna.transformation.attackableEmbedding.AttackableEmbeddingNode;
+import gtna.transformation.attackableEmbedding.RingEmbeddingEngine;
+import gtna.util.Config;
 import gtna.util.parameter.DoubleParameter;
 import gtna.util.parameter.IntParameter;
 import gtna.util.parameter.Parameter;
@@ -186,6 +188,21 @@ public class LMC extends AttackableEmbedding {
 		return nodes.clone();
 	}
 
+	/**
+	 * uses LMCEngine in case all nodes are regular LMCNodes
+	 */
+	@Override
+	protected RingEmbeddingEngine createEngine(AttackableEmbeddingNode[] nodes,
+			AttackableEmbeddingNode[] selectionSet, RingIdentifier[] ids,
+			Random rand) {
+		if (!RingEmbeddingEngine.applicable(nodes, LMCNode.class, ids)) {
+			return null;
+		}
+		return new LMCEngine(nodes, ids, MODE_RESTRICTED.equals(this.mode),
+				this.delta, Config.getInt("PARALLEL_TRANSFORMATIONS"),
+				rand.nextLong());
+	}
+
 	/**
 	 * initializes delta depending on the configuration parameter deltaMode and
 	 * possibly the graph g
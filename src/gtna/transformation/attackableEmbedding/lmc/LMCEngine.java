@@ -0,0 +1,198 @@
+/* ===========================================================
+ * GTNA : Graph-Theoretic Network Analyzer
+ * ===========================================================
+ *
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors
+ *
+ * Project Info:  http://www.p2p.tu-darmstadt.de/research/gtna/
+ *
+ * GTNA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GTNA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ---------------------------------------
+ * LMCEngine.java
+ * ---------------------------------------
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors 
+ *
+ * Original Author: agent;
+ * Contributors:    -;
+ *
+ * Changes since 2011-05-17
+ * ---------------------------------------
+ *
+ */
+package gtna.transformation.attackableEmbedding.lmc;
+
+import gtna.graph.Node;
+import gtna.graph.NodeColoring;
+import gtna.id.ring.RingIdentifier;
+import gtna.transformation.attackableEmbedding.RingEmbeddingEngine;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Engine for LMC on graphs without attackers: a node proposes a uniformly
+ * random position and accepts it with probability min(1, before / after)
+ * where before and after are the products of the distances between its
+ * current and the proposed position and the positions of its neighbors (in
+ * restricted mode, positions closer than delta to a neighbor are rejected).
+ * 
+ * The nodes are colored greedily (NodeColoring) so that a node never moves
+ * while an adjacent node decides, i.e., the nodes of a color class take their
+ * turns in parallel on a fork-join pool without changing the result. Every
+ * iteration is a sweep over all color classes in random order. The random
+ * numbers of a turn are derived from the seed, the iteration and the node, so
+ * the embedding only depends on the seed and not on the number of threads.
+ * 
+ * @author agent
+ * 
+ */
+public class LMCEngine extends RingEmbeddingEngine {
+	private static final int GRANULARITY = 256;
+
+	private boolean restricted;
+
+	private double delta;
+
+	/**
+	 * @param nodes
+	 * @param ids
+	 * @param restricted
+	 *            reject positions closer than delta to a neighbor
+	 * @param delta
+	 * @param threads
+	 * @param seed
+	 */
+	public LMCEngine(Node[] nodes, RingIdentifier[] ids, boolean restricted,
+			double delta, int threads, long seed) {
+		super(nodes, ids, threads, seed);
+		this.restricted = restricted;
+		this.delta = delta;
+	}
+
+	@Override
+	public void run(int iterations) {
+		NodeColoring coloring = new NodeColoring(this.nodes);
+		int classes = coloring.getClasses();
+		int[] classStart = coloring.getClassStart();
+		int[] classNodes = coloring.getClassNodes();
+		int[] order = new int[classes];
+		for (int i = 0; i < classes; i++) {
+			order[i] = i;
+		}
+		Random rand = new Random(this.seed);
+		ForkJoinPool pool = this.threads > 1 ? new ForkJoinPool(this.threads)
+				: null;
+		try {
+			for (int iteration = 0; iteration < iterations; iteration++) {
+				for (int i = classes - 1; i > 0; i--) {
+					int j = rand.nextInt(i + 1);
+					int temp = order[i];
+					order[i] = order[j];
+					order[j] = temp;
+				}
+				for (int c : order) {
+					if (pool == null) {
+						this.turns(classNodes, classStart[c], classStart[c + 1],
+								iteration);
+					} else {
+						pool.invoke(new TurnTask(classNodes, classStart[c],
+								classStart[c + 1], iteration));
+					}
+				}
+			}
+		} finally {
+			if (pool != null) {
+				pool.shutdown();
+			}
+		}
+	}
+
+	private void turns(int[] classNodes, int from, int to, int iteration) {
+		for (int i = from; i < to; i++) {
+			this.turn(classNodes[i], iteration);
+		}
+	}
+
+	private void turn(int node, int iteration) {
+		if (this.offsets[node] == this.offsets[node + 1]) {
+			return;
+		}
+		this.updateNeighbors(node);
+		double newPos = this.random(iteration, node, 0) * this.modulus;
+		double after = 0;
+		for (int e = this.offsets[node]; e < this.offsets[node + 1]; e++) {
+			double dist = this.distance(newPos, this.known[e]);
+			if (this.restricted && dist < this.delta) {
+				return;
+			}
+			after += Math.log(dist);
+		}
+		double before = this.logDistances(node, this.pos[node]);
+		if (accept(this.random(iteration, node, 1), before - after)) {
+			this.pos[node] = newPos;
+		}
+	}
+
+	/**
+	 * @return random number in [0, 1) derived from the seed, the iteration,
+	 *         the node and the index of the number within the turn
+	 */
+	private double random(int iteration, int node, int index) {
+		long x = this.seed + iteration * 0x9E3779B97F4A7C15L + node
+				* 0xC2B2AE3D27D4EB4FL + index * 0x165667B19E3779F9L;
+		x = (x ^ (x >>> 30)) * 0xBF58476D1CE4E5B9L;
+		x = (x ^ (x >>> 27)) * 0x94D049BB133111EBL;
+		x = x ^ (x >>> 31);
+		return (x >>> 11) * 0x1.0p-53;
+	}
+
+	private class TurnTask extends RecursiveAction {
+		private static final long serialVersionUID = 5215836920587464781L;
+
+		private int[] classNodes;
+
+		private int from;
+
+		private int to;
+
+		private int iteration;
+
+		private TurnTask(int[] classNodes, int from, int to, int iteration) {
+			this.classNodes = classNodes;
+			this.from = from;
+			this.to = to;
+			this.iteration = iteration;
+		}
+
+		@Override
+		protected void compute() {
+			if (this.to - this.from <= GRANULARITY) {
+				turns(this.classNodes, this.from, this.to, this.iteration);
+				return;
+			}
+			int middle = (this.from + this.to) >>> 1;
+			TurnTask left = new TurnTask(this.classNodes, this.from, middle,
+					this.iteration);
+			TurnTask right = new TurnTask(this.classNodes, middle, this.to,
+					this.iteration);
+			left.fork();
+			right.compute();
+			left.join();
+		}
+	}
+}
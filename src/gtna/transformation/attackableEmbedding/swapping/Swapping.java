@@ -42,6 +42,8 @@ import gtna.id.DIdentifierSpace;
 import gtna.id.ring.RingIdentifier;
 import gtna.transformation.attackableEmbedding.AttackableEmbedding;
 import gtna.transformation.attackableEmbedding.AttackableEmbeddingNode;
+import gtna.transformation.attackableEmbedding.RingEmbeddingEngine;
+import gtna.util.Config;
 import gtna.util.parameter.DoubleParameter;
 import gtna.util.parameter.IntParameter;
 import gtna.util.parameter.Parameter;
@@ -162,6 +164,20 @@ public class Swapping extends AttackableEmbedding {
 		return nodes.clone();
 	}
 
+	/**
+	 * uses SwappingEngine in case all nodes are regular SwappingNodes
+	 */
+	@Override
+	protected RingEmbeddingEngine createEngine(AttackableEmbeddingNode[] nodes,
+			AttackableEmbeddingNode[] selectionSet, RingIdentifier[] ids,
+			Random rand) {
+		if (!RingEmbeddingEngine.applicable(nodes, SwappingNode.class, ids)) {
+			return null;
+		}
+		return new SwappingEngine(nodes, ids,
+				Config.getInt("PARALLEL_TRANSFORMATIONS"), rand.nextLong());
+	}
+
 	/**
 	 * init IdSpace from a graph g
 	 * 
@@ -0,0 +1,200 @@
+/* ===========================================================
+ * GTNA : Graph-Theoretic Network Analyzer
+ * ===========================================================
+ *
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors
+ *
+ * Project Info:  http://www.p2p.tu-darmstadt.de/research/gtna/
+ *
+ * GTNA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GTNA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ---------------------------------------
+ * SwappingEngine.java
+ * ---------------------------------------
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors 
+ *
+ * Original Author: agent;
+ * Contributors:    -;
+ *
+ * Changes since 2011-05-17
+ * ---------------------------------------
+ *
+ */
+package gtna.transformation.attackableEmbedding.swapping;
+
+import gtna.graph.Node;
+import gtna.id.ring.RingIdentifier;
+import gtna.transformation.attackableEmbedding.RingEmbeddingEngine;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Engine for Swapping on graphs without attackers: a randomly selected node
+ * x starts a random walk of TTL hops, the node y at its end decides if x and
+ * y swap their positions with probability min(1, before / after) where
+ * before and after are the products of the distances between the current and
+ * the swapped positions and the positions of their neighbors. As in
+ * SwappingNode, x learns the positions of its neighbors before starting the
+ * walk while y uses the positions it learned during its own last turn.
+ * 
+ * In case more than one thread is given, every thread executes its share of
+ * the turns with its own PRNG. The two nodes of a swap are locked (in
+ * ascending order of their index, so threads cannot deadlock) while x learns
+ * the positions of its neighbors and the swap is decided, hence swaps of
+ * disjoint pairs run concurrently. The positions of other nodes are read
+ * without locking, i.e., they might be outdated by concurrent swaps as in an
+ * asynchronous execution of the protocol, so the result depends on the
+ * scheduling of the threads.
+ * 
+ * @author agent
+ * 
+ */
+public class SwappingEngine extends RingEmbeddingEngine {
+	public static final int TTL = 6;
+
+	private AtomicIntegerArray locks;
+
+	/**
+	 * @param nodes
+	 * @param ids
+	 * @param threads
+	 * @param seed
+	 */
+	public SwappingEngine(Node[] nodes, RingIdentifier[] ids, int threads,
+			long seed) {
+		super(nodes, ids, threads, seed);
+		this.locks = new AtomicIntegerArray(nodes.length);
+	}
+
+	@Override
+	public void run(int iterations) {
+		long turns = (long) iterations * this.nodes.length;
+		Random rand = new Random(this.seed);
+		Worker[] workers = new Worker[this.threads];
+		for (int i = 0; i < workers.length; i++) {
+			long from = turns * i / workers.length;
+			long to = turns * (i + 1) / workers.length;
+			workers[i] = new Worker(to - from, rand.nextLong());
+		}
+		if (workers.length == 1) {
+			workers[0].run();
+		} else {
+			for (Worker worker : workers) {
+				worker.start();
+			}
+			try {
+				for (Worker worker : workers) {
+					worker.join();
+				}
+			} catch (InterruptedException e) {
+				this.stop(workers);
+				Thread.currentThread().interrupt();
+				throw new RuntimeException(e);
+			}
+		}
+		for (Worker worker : workers) {
+			if (worker.exception != null) {
+				throw worker.exception;
+			}
+		}
+	}
+
+	/**
+	 * interrupts all workers and waits until they have finished their current
+	 * turn (so that no locks are held once this method returns)
+	 */
+	private void stop(Worker[] workers) {
+		for (Worker worker : workers) {
+			worker.interrupt();
+		}
+		for (Worker worker : workers) {
+			while (worker.isAlive()) {
+				try {
+					worker.join();
+				} catch (InterruptedException e) {
+					// the caller re-interrupts its thread after stopping
+				}
+			}
+		}
+	}
+
+	private void turn(Random rand) {
+		int x = rand.nextInt(this.nodes.length);
+		int y = x;
+		for (int hop = 0; hop < TTL; hop++) {
+			int degree = this.offsets[y + 1] - this.offsets[y];
+			if (degree == 0) {
+				return;
+			}
+			y = this.neighbors[this.offsets[y] + rand.nextInt(degree)];
+		}
+		int first = Math.min(x, y);
+		int second = Math.max(x, y);
+		this.lock(first);
+		if (second != first) {
+			this.lock(second);
+		}
+		try {
+			this.updateNeighbors(x);
+			double posX = this.pos[x];
+			double posY = this.pos[y];
+			double before = this.logDistances(y, posY)
+					+ this.logDistances(x, posX);
+			double after = this.logDistances(y, posX)
+					+ this.logDistances(x, posY);
+			if (accept(rand.nextDouble(), before - after)) {
+				this.pos[x] = posY;
+				this.pos[y] = posX;
+			}
+		} finally {
+			if (second != first) {
+				this.locks.set(second, 0);
+			}
+			this.locks.set(first, 0);
+		}
+	}
+
+	private void lock(int node) {
+		while (!this.locks.compareAndSet(node, 0, 1)) {
+			Thread.yield();
+		}
+	}
+
+	private class Worker extends Thread {
+		private long turns;
+
+		private long seed;
+
+		private RuntimeException exception;
+
+		private Worker(long turns, long seed) {
+			this.turns = turns;
+			this.seed = seed;
+		}
+
+		public void run() {
+			try {
+				Random rand = new Random(this.seed);
+				for (long i = 0; i < this.turns && !this.isInterrupted(); i++) {
+					turn(rand);
+				}
+			} catch (RuntimeException e) {
+				this.exception = e;
+			}
+		}
+	}
+}
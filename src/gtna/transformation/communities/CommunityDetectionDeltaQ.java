@@ -1,6 +1,6 @@
 package gtna.transformation.communities;
 
-import gtna.graph.Edge;
+import gtna.graph.Edges;
 import gtna.graph.Graph;
 import gtna.graph.Node;
 import gtna.transformation.Transformation;
@@ -10,6 +10,7 @@ import gtna.transformation.communities.matrices.MyEMatrixInt;
 import gtna.transformation.communities.matrices.MyEMatrixLong;
 import gtna.transformation.communities.matrices.MyQEMatrixInt;
 import gtna.transformation.communities.matrices.MyQEMatrixLong;
+import gtna.transformation.communities.matrices.MyQEMatrixSparse;
 import gtna.transformation.communities.matrices.MyQMatrixInt;
 import gtna.transformation.communities.matrices.MyQMatrixLong;
 import gtna.util.Config;
@@ -19,7 +20,6 @@ import gtna.util.parameter.IntParameter;
 import gtna.util.parameter.Parameter;
 import gtna.util.parameter.StringParameter;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 
 /**
@@ -80,22 +80,28 @@ public class CommunityDetectionDeltaQ extends Transformation {
 		// anyway, this is not an option either.
 		IMyEMatrix e = null;
 		IMyQMatrix q = null;
-		boolean useQE = !forceSeparated && isSymmetric(g);
-		if ("long".equals(internalFormat)) {
-			if (useQE) {
-				e = MyQEMatrixLong.createFromGraph(g);
-				q = (IMyQMatrix) e;
-			} else {
-				e = new MyEMatrixLong(g);
-				q = new MyQMatrixLong((MyEMatrixLong) e);
-			}
+		if ("sparse".equals(internalFormat)) {
+			MyQEMatrixSparse qe = new MyQEMatrixSparse(g);
+			e = qe;
+			q = qe;
 		} else {
-			if (useQE) {
-				e = MyQEMatrixInt.createFromGraph(g);
-				q = (IMyQMatrix) e;
+			boolean useQE = !forceSeparated && isSymmetric(g);
+			if ("long".equals(internalFormat)) {
+				if (useQE) {
+					e = MyQEMatrixLong.createFromGraph(g);
+					q = (IMyQMatrix) e;
+				} else {
+					e = new MyEMatrixLong(g);
+					q = new MyQMatrixLong((MyEMatrixLong) e);
+				}
 			} else {
-				e = new MyEMatrixInt(g);
-				q = new MyQMatrixInt((MyEMatrixInt) e);
+				if (useQE) {
+					e = MyQEMatrixInt.createFromGraph(g);
+					q = (IMyQMatrix) e;
+				} else {
+					e = new MyEMatrixInt(g);
+					q = new MyQMatrixInt((MyEMatrixInt) e);
+				}
 			}
 		}
 
@@ -154,15 +160,26 @@ public class CommunityDetectionDeltaQ extends Transformation {
 		// done afterwards to save memory.
 
 		// Go through the trace of the algorithm and merge communities as
-		// specified in the trace.
+		// specified in the trace. The surviving community of a merge is always
+		// the root of its tree, so the label of a node is the root of its tree
+		// (union-find with path compression).
 		int[] ret = new int[g.getNodes().length];
 		for (int i = 0; i < g.getNodes().length; i++)
 			ret[i] = i;
 
-		for (int i = 0; i <= bestIteration; i++) {
-			for (int j = 0; j < g.getNodes().length; j++) {
-				if (ret[j] == mergesJ[i])
-					ret[j] = mergesI[i];
+		for (int i = 0; i <= bestIteration && i < mergesI.length; i++) {
+			if (mergesI[i] != mergesJ[i])
+				ret[mergesJ[i]] = mergesI[i];
+		}
+		for (int i = 0; i < ret.length; i++) {
+			int root = i;
+			while (ret[root] != root)
+				root = ret[root];
+			int current = i;
+			while (ret[current] != root) {
+				int next = ret[current];
+				ret[current] = root;
+				current = next;
 			}
 		}
 
@@ -170,35 +187,25 @@ public class CommunityDetectionDeltaQ extends Transformation {
 	}
 
 	/**
-	 * Tests whether the adjacency matrix of a graph is symmetric. Might get
-	 * moved to the Graph object itself (sooner or later). Since the graph is
-	 * stored with a list of edges there is no other way but to brute force the
-	 * symmetry check.
+	 * Tests whether the adjacency matrix of a graph is symmetric, i.e., whether
+	 * the reverse of every edge is contained in the graph as well (self-loops
+	 * are not considered symmetric).
 	 * 
 	 * @param g
 	 *            the graph to be tested
 	 * @return true if the adjacency matrix is symmetric, false if not
 	 */
 	private boolean isSymmetric(Graph g) {
-		Edge tbr = null;
-		ArrayList<Edge> buffer = new ArrayList<Edge>();
-		for (Edge edge : g.getEdges().getEdges()) {
-			for (Edge aktTest : buffer) {
-				if (aktTest.getDst() == edge.getSrc()
-						&& aktTest.getSrc() == edge.getDst()) {
-					tbr = aktTest;
+		Edges edges = g.getEdges();
+		for (Node node : g.getNodes()) {
+			for (int dst : node.getOutgoingEdges()) {
+				if (dst == node.getIndex()
+						|| !edges.contains(dst, node.getIndex())) {
+					return false;
 				}
 			}
-			if (tbr != null) {
-				buffer.remove(tbr);
-			} else {
-				buffer.add(edge);
-			}
-			tbr = null;
 		}
-
-		return buffer.size() == 0;
-
+		return true;
 	}
 
 	@Override
@@ -37,11 +37,10 @@ package gtna.transformation.communities;
 
 import gtna.graph.Graph;
 import gtna.graph.Node;
-import gtna.graph.sorting.NodeSorting;
 import gtna.transformation.Transformation;
+import gtna.util.Config;
 import gtna.util.Util;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Random;
 
@@ -50,6 +49,7 @@ import java.util.Random;
  * 
  */
 public class CommunityDetectionLPA extends Transformation {
+	private static final int MAX_SWEEPS = 5000;
 
 	public CommunityDetectionLPA() {
 		this(1);
@@ -78,73 +78,17 @@ public class CommunityDetectionLPA extends Transformation {
 	}
 
 	/**
-	 * Assigns labels to nodes using the label propagation algorithm.
+	 * Assigns labels to nodes using the label propagation algorithm (stopping
+	 * after MAX_SWEEPS sweeps at the latest).
 	 * 
 	 * @param nodes
 	 * @return an array containing the label of each node
 	 */
 	private int[] labelPropagationAlgorithm(Node[] nodes) {
-		Random rand = new Random();
-		boolean finished = false;
-		int[] labels = new int[nodes.length];
-		for (int i = 0; i < labels.length; i++)
-			labels[i] = i;
-
-		int count = 0;
-
-		while (!finished) {
-
-			Node[] X = NodeSorting.random(nodes, rand);
-			finished = true;
-			for (Node x : X) {
-				ArrayList<Integer> maxLabels = selectMaxLabels(
-						x.getOutgoingEdges(), labels);
-				if (!maxLabels.isEmpty()) {
-					int maxLabel = maxLabels
-							.get(rand.nextInt(maxLabels.size()));
-					if (!maxLabels.contains(labels[x.getIndex()]))
-						finished = false;
-					labels[x.getIndex()] = maxLabel;
-				}
-			}
-			count++;
-
-			if (count > 5000)
-				finished = true;
-		}
-		return labels;
-	}
-
-	/**
-	 * Selects the labels occurring with the highest frequency among the
-	 * neighboring nodes.
-	 * 
-	 * @param nodes
-	 * @param labels
-	 * @return list of labels occuring with the highest frequency
-	 */
-	private ArrayList<Integer> selectMaxLabels(int[] nodes, int[] labels) {
-		HashMap<Integer, Integer> counter = new HashMap<Integer, Integer>(); // <label,
-																				// count>
-		ArrayList<Integer> maxLabels = new ArrayList<Integer>();
-		int maxCount = 0;
-
-		for (int node : nodes) {
-			int label = labels[node];
-			int count = counter.containsKey(label) ? counter.get(label) + 1 : 1;
-			counter.put(label, count);
-			if (count > maxCount) {
-				maxCount = count;
-			}
-		}
-
-		for (int label : counter.keySet()) {
-			if (counter.get(label) == maxCount) {
-				maxLabels.add(label);
-			}
-		}
-
-		return maxLabels;
+		return new LabelPropagation(nodes,
+				Config.getInt("PARALLEL_TRANSFORMATIONS"),
+				Config.getDouble(this.getKey() + "_CONVERGENCE"), MAX_SWEEPS,
+				new Random().nextLong()).run();
 	}
 
 	@Override
@@ -2,14 +2,12 @@ package gtna.transformation.communities;
 
 import gtna.graph.Graph;
 import gtna.graph.Node;
-import gtna.graph.sorting.NodeSorting;
 import gtna.transformation.Transformation;
 import gtna.util.Config;
 import gtna.util.Util;
 import gtna.util.parameter.DoubleParameter;
 import gtna.util.parameter.Parameter;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Random;
 
@@ -59,67 +57,41 @@ public class CommunityDetectionLPAExtended extends Transformation {
 					+ e.getClass().getSimpleName() + ": " + e.getMessage());
 		}
 		double m = Config.getDouble(this.getKey() + "_M");
-		double d = Config.getDouble(this.getKey() + "_D");
-
-		int[] labels = new int[nodes.length];
-		double[] scores = new double[nodes.length];
-		for (int i = 0; i < labels.length; i++) {
-			labels[i] = i;
-			scores[i] = 1.0;
-		}
-		Random rand = new Random(System.currentTimeMillis());
-
-		// label propagation loop
-		boolean finished = false;
-		while (!finished) {
-			finished = true;
-			Node[] X = NodeSorting.random(nodes, rand);
-			for (Node x : X) {
-				ArrayList<Integer> maxLabels = selectMaxLabelsExtended(x,
-						nodes, labels, scores, w, f, m);
-				if (!maxLabels.isEmpty()) {
-					int maxLabel = maxLabels
-							.get(rand.nextInt(maxLabels.size()));
-					if (!maxLabels.contains(labels[x.getIndex()])) {
-						finished = false;
-						scores[x.getIndex()] = scores[x.getIndex()] - d;
-					}
-					labels[x.getIndex()] = maxLabel;
-				}
+		final double d = Config.getDouble(this.getKey() + "_D");
+
+		// the characteristic of a node and the weight of an edge do not change
+		// while propagating labels, only the scores do
+		final double[] scores = new double[nodes.length];
+		final double[] characteristics = new double[nodes.length];
+		final double[][] weights = new double[nodes.length][];
+		for (Node n : nodes) {
+			scores[n.getIndex()] = 1.0;
+			characteristics[n.getIndex()] = Math.pow(f.getCharacteristic(n), m);
+			int[] out = n.getOutgoingEdges();
+			weights[n.getIndex()] = new double[out.length];
+			for (int i = 0; i < out.length; i++) {
+				Node dst = nodes[out[i]];
+				weights[n.getIndex()][i] = w.getWeight(n, dst)
+						+ w.getWeight(dst, n);
 			}
 		}
-		return labels;
-	}
 
-	private ArrayList<Integer> selectMaxLabelsExtended(Node n, Node[] nodes,
-			int[] l, double[] s, EdgeWeight w, NodeCharacteristic f, double m) {
-		HashMap<Integer, Double> sums = new HashMap<Integer, Double>();
-		Node dst = null;
-		for (int akt : n.getOutgoingEdges()) {
-			dst = nodes[akt];
-			int label = l[dst.getIndex()];
-			double weight = w.getWeight(n, dst) + w.getWeight(dst, n);
-			double psum = s[dst.getIndex()]
-					* Math.pow(f.getCharacteristic(dst), m) * weight;
-			Double sum = sums.get(label);
-			if (sum != null) {
-				psum += sum;
+		LabelPropagation lpa = new LabelPropagation(nodes,
+				Config.getInt("PARALLEL_TRANSFORMATIONS"),
+				Config.getDouble(this.getKey() + "_CONVERGENCE"),
+				Integer.MAX_VALUE, new Random().nextLong()) {
+			@Override
+			protected double weight(int node, int index, int neighbor) {
+				return scores[neighbor] * characteristics[neighbor]
+						* weights[node][index];
 			}
-			sums.put(label, psum);
-		}
 
-		ArrayList<Integer> ret = new ArrayList<Integer>();
-
-		double maxSum = 0;
-		for (int label : sums.keySet()) {
-			if (sums.get(label) > maxSum) {
-				maxSum = sums.get(label);
-				ret.clear();
-				ret.add(label);
-			} else if (sums.get(label) == maxSum)
-				ret.add(label);
-		}
-		return ret;
+			@Override
+			protected void unstable(int node) {
+				scores[node] = scores[node] - d;
+			}
+		};
+		return lpa.run();
 	}
 
 	@Override
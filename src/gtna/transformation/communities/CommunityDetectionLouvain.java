@@ -0,0 +1,113 @@
+/* ===========================================================
+ * GTNA : Graph-Theoretic Network Analyzer
+ * ===========================================================
+ *
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors
+ *
+ * Project Info:  http://www.p2p.tu-darmstadt.de/research/gtna/
+ *
+ * GTNA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GTNA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ---------------------------------------
+ * CommunityDetectionLouvain.java
+ * ---------------------------------------
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors 
+ *
+ * Original Author: agent;
+ * Contributors:    -;
+ *
+ * Changes since 2011-05-17
+ * ---------------------------------------
+ *
+ */
+package gtna.transformation.communities;
+
+import gtna.communities.Community;
+import gtna.communities.CommunityList;
+import gtna.graph.Graph;
+import gtna.transformation.Transformation;
+import gtna.util.Config;
+import gtna.util.parameter.DoubleParameter;
+import gtna.util.parameter.Parameter;
+
+/**
+ * Detects communities using the multi-level modularity optimization (Louvain
+ * method) implemented by Louvain, the local-moving phase runs with
+ * PARALLEL_TRANSFORMATIONS threads.
+ * 
+ * Louvain optimizes (and Louvain.getModularity() reports) the standard
+ * modularity of the undirected graph with weights w(u, v) = A(u, v) + A(v,
+ * u), i.e., the sum of IC / E - ((2 * IC + OC) / (2 * E))^2 over all
+ * communities where E is the number of edges, IC the number of edges within
+ * the community and OC the number of edges leaving or entering it. The
+ * modularity reported by the Communities metric is the sum of IC / E - ((IC
+ * + OC) / E)^2, i.e., it counts every cut edge twice in the second term and
+ * is therefore lower for the same communities. Both values are equal only
+ * if there are no edges between communities.
+ * 
+ * @author agent
+ * 
+ */
+public class CommunityDetectionLouvain extends Transformation {
+	public static final String key = "COMMUNITY_DETECTION_LOUVAIN";
+
+	public CommunityDetectionLouvain() {
+		this(1);
+	}
+
+	public CommunityDetectionLouvain(int times) {
+		super(key, new Parameter[] { new DoubleParameter("THRESHOLD",
+				Config.getDouble(key + "_THRESHOLD")) }, times);
+	}
+
+	@Override
+	public Graph transform(Graph g) {
+		Louvain louvain = new Louvain(
+				Config.getInt("PARALLEL_TRANSFORMATIONS"),
+				Config.getDouble(this.getKey() + "_THRESHOLD"));
+		int[] labels = louvain.run(g.getNodes());
+
+		int count = 0;
+		for (int label : labels) {
+			count = Math.max(count, label + 1);
+		}
+		int[] sizes = new int[count];
+		for (int label : labels) {
+			sizes[label]++;
+		}
+		int[][] members = new int[count][];
+		for (int c = 0; c < count; c++) {
+			members[c] = new int[sizes[c]];
+			sizes[c] = 0;
+		}
+		for (int node = 0; node < labels.length; node++) {
+			members[labels[node]][sizes[labels[node]]++] = node;
+		}
+		Community[] communities = new Community[count];
+		for (int c = 0; c < count; c++) {
+			communities[c] = new Community(c, members[c]);
+		}
+
+		g.addProperty(g.getNextKey("COMMUNITIES"), new CommunityList(
+				communities));
+		return g;
+	}
+
+	@Override
+	public boolean applicable(Graph g) {
+		return true;
+	}
+}
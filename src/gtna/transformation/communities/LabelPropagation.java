@@ -0,0 +1,341 @@
+/* ===========================================================
+ * GTNA : Graph-Theoretic Network Analyzer
+ * ===========================================================
+ *
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors
+ *
+ * Project Info:  http://www.p2p.tu-darmstadt.de/research/gtna/
+ *
+ * GTNA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GTNA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ---------------------------------------
+ * LabelPropagation.java
+ * ---------------------------------------
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors 
+ *
+ * Original Author: agent;
+ * Contributors:    -;
+ *
+ * Changes since 2011-05-17
+ * ---------------------------------------
+ *
+ */
+package gtna.transformation.communities;
+
+import gtna.graph.Node;
+import gtna.graph.NodeColoring;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Engine for the label propagation algorithm (LPA): initially, every node has
+ * its own label, in every sweep each node adopts the label with the highest
+ * weight among its (outgoing) neighbors, ties are broken uniformly at random.
+ * By default, every neighbor has weight 1, i.e., the most frequent label is
+ * adopted.
+ * 
+ * The nodes are colored greedily (NodeColoring) such that adjacent nodes have
+ * different colors. Nodes of the same color do not read each other's labels,
+ * so they are updated in parallel without changing the result
+ * (semi-synchronous LPA). In every sweep, the color classes are processed in
+ * random order. The random numbers for breaking ties are derived from the
+ * seed, the sweep and the node so that the result only depends on the seed
+ * and not on the number of threads.
+ * 
+ * Every thread counts the label weights in a dense array indexed by label
+ * together with a list of the labels touched for the current node, so no
+ * objects are allocated while propagating labels.
+ * 
+ * The algorithm stops once the fraction of nodes whose label was not among
+ * the labels with the highest weight in the last sweep does not exceed the
+ * given convergence fraction (or after the maximum number of sweeps).
+ * 
+ * @author agent
+ * 
+ */
+public class LabelPropagation {
+	private static final int BATCH = 64;
+
+	private Node[] nodes;
+
+	private int threads;
+
+	private double convergence;
+
+	private int maxSweeps;
+
+	private long seed;
+
+	private int[] labels;
+
+	private int[] classStart;
+
+	private int[] classNodes;
+
+	private AtomicInteger next;
+
+	private int to;
+
+	private int sweep;
+
+	/**
+	 * @param nodes
+	 * @param threads
+	 *            number of threads
+	 * @param convergence
+	 *            maximum fraction of nodes whose label is not among the best
+	 *            ones for the algorithm to stop
+	 * @param maxSweeps
+	 *            maximum number of sweeps
+	 * @param seed
+	 *            seed for the order of the color classes and breaking ties
+	 */
+	public LabelPropagation(Node[] nodes, int threads, double convergence,
+			int maxSweeps, long seed) {
+		this.nodes = nodes;
+		this.threads = Math.max(threads, 1);
+		this.convergence = convergence;
+		this.maxSweeps = maxSweeps;
+		this.seed = seed;
+	}
+
+	/**
+	 * @param node
+	 * @param index
+	 *            index of the edge in the outgoing edges of node
+	 * @param neighbor
+	 * @return weight of the label of neighbor for node
+	 */
+	protected double weight(int node, int index, int neighbor) {
+		return 1;
+	}
+
+	/**
+	 * called when the label of the given node was not among the labels with
+	 * the highest weight (before the new label is assigned), only the node
+	 * itself is processed at the same time
+	 * 
+	 * @param node
+	 */
+	protected void unstable(int node) {
+	}
+
+	/**
+	 * runs the label propagation algorithm
+	 * 
+	 * @return an array containing the label of each node
+	 */
+	public int[] run() {
+		int n = this.nodes.length;
+		this.labels = new int[n];
+		for (int i = 0; i < n; i++) {
+			this.labels[i] = i;
+		}
+		NodeColoring coloring = new NodeColoring(this.nodes);
+		int classes = coloring.getClasses();
+		this.classStart = coloring.getClassStart();
+		this.classNodes = coloring.getClassNodes();
+
+		Counter[] counters = new Counter[this.threads];
+		for (int i = 0; i < counters.length; i++) {
+			counters[i] = new Counter(n);
+		}
+		Random rand = new Random(this.seed);
+		int[] order = new int[classes];
+		for (int i = 0; i < classes; i++) {
+			order[i] = i;
+		}
+		ForkJoinPool pool = this.threads > 1 ? new ForkJoinPool(this.threads)
+				: null;
+		try {
+			for (int sweep = 0; sweep < this.maxSweeps; sweep++) {
+				for (int i = classes - 1; i > 0; i--) {
+					int j = rand.nextInt(i + 1);
+					int temp = order[i];
+					order[i] = order[j];
+					order[j] = temp;
+				}
+				for (int c : order) {
+					this.process(this.classStart[c], this.classStart[c + 1],
+							sweep, counters, pool);
+				}
+				int unstable = 0;
+				for (Counter counter : counters) {
+					unstable += counter.unstable;
+					counter.unstable = 0;
+				}
+				if (unstable <= this.convergence * n) {
+					break;
+				}
+			}
+		} finally {
+			if (pool != null) {
+				pool.shutdown();
+			}
+		}
+		return this.labels;
+	}
+
+	/**
+	 * updates the nodes classNodes[from], ..., classNodes[to - 1], small
+	 * ranges are processed by the calling thread only, otherwise one task per
+	 * counter takes batches of nodes from the range (exceptions thrown while
+	 * updating a node are rethrown when joining the tasks)
+	 */
+	private void process(int from, int to, int sweep, Counter[] counters,
+			ForkJoinPool pool) {
+		if (pool == null || to - from <= BATCH) {
+			for (int i = from; i < to; i++) {
+				this.update(this.classNodes[i], sweep, counters[0]);
+			}
+			return;
+		}
+		this.next = new AtomicInteger(from);
+		this.to = to;
+		this.sweep = sweep;
+		ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[counters.length];
+		for (int t = 0; t < tasks.length; t++) {
+			tasks[t] = pool.submit(new UpdateTask(counters[t]));
+		}
+		for (ForkJoinTask<?> task : tasks) {
+			task.join();
+		}
+	}
+
+	private void update(int node, int sweep, Counter counter) {
+		int[] out = this.nodes[node].getOutgoingEdges();
+		for (int i = 0; i < out.length; i++) {
+			counter.add(this.labels[out[i]], this.weight(node, i, out[i]));
+		}
+		int count = counter.selectMax();
+		if (count > 0) {
+			boolean stable = false;
+			for (int i = 0; i < count; i++) {
+				if (counter.maxLabels[i] == this.labels[node]) {
+					stable = true;
+					break;
+				}
+			}
+			if (!stable) {
+				counter.unstable++;
+				this.unstable(node);
+			}
+			this.labels[node] = counter.maxLabels[this.random(sweep, node,
+					count)];
+		}
+		counter.clear();
+	}
+
+	/**
+	 * @return random number in [0, bound) derived from the seed, the sweep and
+	 *         the node
+	 */
+	private int random(int sweep, int node, int bound) {
+		long x = this.seed + sweep * 0x9E3779B97F4A7C15L + node
+				* 0xC2B2AE3D27D4EB4FL;
+		x = (x ^ (x >>> 30)) * 0xBF58476D1CE4E5B9L;
+		x = (x ^ (x >>> 27)) * 0x94D049BB133111EBL;
+		x = x ^ (x >>> 31);
+		return (int) (((x >>> 32) * bound) >>> 32);
+	}
+
+	/**
+	 * weights of the labels of the current node (dense array indexed by
+	 * label) and the list of touched labels
+	 */
+	private static class Counter {
+		private double[] weights;
+
+		private boolean[] touched;
+
+		private int[] touchedLabels;
+
+		private int touchedSize;
+
+		private int[] maxLabels;
+
+		private int unstable;
+
+		private Counter(int n) {
+			this.weights = new double[n];
+			this.touched = new boolean[n];
+			this.touchedLabels = new int[n];
+			this.maxLabels = new int[n];
+		}
+
+		private void add(int label, double weight) {
+			if (!this.touched[label]) {
+				this.touched[label] = true;
+				this.touchedLabels[this.touchedSize++] = label;
+			}
+			this.weights[label] += weight;
+		}
+
+		/**
+		 * determines the labels with the highest (positive) weight
+		 * 
+		 * @return number of these labels
+		 */
+		private int selectMax() {
+			double max = 0;
+			int count = 0;
+			for (int i = 0; i < this.touchedSize; i++) {
+				int label = this.touchedLabels[i];
+				if (this.weights[label] > max) {
+					max = this.weights[label];
+					count = 0;
+					this.maxLabels[count++] = label;
+				} else if (this.weights[label] == max) {
+					this.maxLabels[count++] = label;
+				}
+			}
+			return count;
+		}
+
+		private void clear() {
+			for (int i = 0; i < this.touchedSize; i++) {
+				this.weights[this.touchedLabels[i]] = 0;
+				this.touched[this.touchedLabels[i]] = false;
+			}
+			this.touchedSize = 0;
+		}
+	}
+
+	private class UpdateTask extends RecursiveAction {
+		private static final long serialVersionUID = -3520984406837426141L;
+
+		private Counter counter;
+
+		private UpdateTask(Counter counter) {
+			this.counter = counter;
+		}
+
+		@Override
+		protected void compute() {
+			int i;
+			while ((i = next.getAndAdd(BATCH)) < to) {
+				int last = Math.min(i + BATCH, to);
+				for (; i < last; i++) {
+					update(classNodes[i], sweep, this.counter);
+				}
+			}
+		}
+	}
+}
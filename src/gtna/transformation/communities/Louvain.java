@@ -0,0 +1,474 @@
+/* ===========================================================
+ * GTNA : Graph-Theoretic Network Analyzer
+ * ===========================================================
+ *
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors
+ *
+ * Project Info:  http://www.p2p.tu-darmstadt.de/research/gtna/
+ *
+ * GTNA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GTNA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ---------------------------------------
+ * Louvain.java
+ * ---------------------------------------
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors 
+ *
+ * Original Author: agent;
+ * Contributors:    -;
+ *
+ * Changes since 2011-05-17
+ * ---------------------------------------
+ *
+ */
+package gtna.transformation.communities;
+
+import gtna.graph.Node;
+import gtna.graph.NodeColoring;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Multi-level modularity optimization as proposed in "Fast unfolding of
+ * communities in large networks" by V. D. Blondel, J.-L. Guillaume, R.
+ * Lambiotte and E. Lefebvre (2008).
+ * 
+ * The graph is treated as undirected and weighted: the weight between two
+ * nodes is the number of edges between them (in both directions), as for the
+ * matrices of CommunityDetectionDeltaQ. Every level consists of a
+ * local-moving phase, in which nodes repeatedly move to the neighboring
+ * community with the highest modularity gain, and an aggregation phase, in
+ * which the communities become the nodes of the next level. Each level is
+ * stored as a primitive weighted adjacency list (CSR) with self-loop weights.
+ * 
+ * The local-moving phase is parallelized by coloring the nodes of a level
+ * (NodeColoring) such that adjacent nodes have different colors. The nodes of
+ * a color class decide on their moves in parallel (based on the state before
+ * the class), afterwards all moves are applied. Hence, the result does not
+ * depend on the number of threads. A sweep over all classes is repeated as
+ * long as the modularity increases by at least the given threshold.
+ * 
+ * @author agent
+ * 
+ */
+public class Louvain {
+	private static final int BATCH = 64;
+
+	private int threads;
+
+	private double threshold;
+
+	private double modularity;
+
+	private Level level;
+
+	private int[] community;
+
+	private double[] tot;
+
+	private int[] target;
+
+	private int[] classNodes;
+
+	private AtomicInteger next;
+
+	private int to;
+
+	/**
+	 * @param threads
+	 *            number of threads used for the local-moving phase
+	 * @param threshold
+	 *            minimum increase of the modularity for another sweep
+	 */
+	public Louvain(int threads, double threshold) {
+		this.threads = Math.max(threads, 1);
+		this.threshold = threshold;
+	}
+
+	/**
+	 * computes communities of the given nodes
+	 * 
+	 * @param nodes
+	 * @return community of each node (numbered 0, ..., communities - 1)
+	 */
+	public int[] run(Node[] nodes) {
+		Level level = Level.create(nodes);
+		int[] membership = new int[nodes.length];
+		for (int i = 0; i < membership.length; i++) {
+			membership[i] = i;
+		}
+		ForkJoinPool pool = this.threads > 1 ? new ForkJoinPool(this.threads)
+				: null;
+		try {
+			while (true) {
+				int[] community = this.move(level, pool);
+				int count = Louvain.renumber(community);
+				for (int i = 0; i < membership.length; i++) {
+					membership[i] = community[membership[i]];
+				}
+				if (count == level.n) {
+					this.modularity = level.modularity(community);
+					break;
+				}
+				level = level.aggregate(community, count);
+			}
+		} finally {
+			if (pool != null) {
+				pool.shutdown();
+			}
+		}
+		return membership;
+	}
+
+	/**
+	 * @return modularity of the communities computed by the last run
+	 */
+	public double getModularity() {
+		return this.modularity;
+	}
+
+	/**
+	 * local-moving phase
+	 * 
+	 * @return community of each node of the level
+	 */
+	private int[] move(Level level, ForkJoinPool pool) {
+		int n = level.n;
+		this.level = level;
+		this.community = new int[n];
+		for (int i = 0; i < n; i++) {
+			this.community[i] = i;
+		}
+		this.tot = level.degrees.clone();
+		this.target = new int[n];
+		NodeColoring coloring = new NodeColoring(level.offsets, level.targets);
+		int[] classStart = coloring.getClassStart();
+		this.classNodes = coloring.getClassNodes();
+		Counter[] counters = new Counter[this.threads];
+		for (int i = 0; i < counters.length; i++) {
+			counters[i] = new Counter(n);
+		}
+
+		int[] previous = new int[n];
+		double[] previousTot = new double[n];
+		double q = level.modularity(this.community);
+		while (true) {
+			System.arraycopy(this.community, 0, previous, 0, n);
+			System.arraycopy(this.tot, 0, previousTot, 0, n);
+			int moved = 0;
+			for (int c = 0; c + 1 < classStart.length; c++) {
+				int from = classStart[c];
+				int to = classStart[c + 1];
+				if (pool == null || to - from <= BATCH) {
+					for (int i = from; i < to; i++) {
+						this.decide(i, counters[0]);
+					}
+				} else {
+					this.next = new AtomicInteger(from);
+					this.to = to;
+					ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[counters.length];
+					for (int t = 0; t < tasks.length; t++) {
+						tasks[t] = pool.submit(new DecideTask(counters[t]));
+					}
+					for (ForkJoinTask<?> task : tasks) {
+						task.join();
+					}
+				}
+				for (int i = from; i < to; i++) {
+					int node = this.classNodes[i];
+					if (this.target[i] != this.community[node]) {
+						this.tot[this.community[node]] -= level.degrees[node];
+						this.tot[this.target[i]] += level.degrees[node];
+						this.community[node] = this.target[i];
+						moved++;
+					}
+				}
+			}
+			if (moved == 0) {
+				break;
+			}
+			double current = level.modularity(this.community);
+			if (current < q) {
+				// concurrent moves made things worse, keep the last state
+				System.arraycopy(previous, 0, this.community, 0, n);
+				System.arraycopy(previousTot, 0, this.tot, 0, n);
+				break;
+			}
+			if (current - q < this.threshold) {
+				break;
+			}
+			q = current;
+		}
+		return this.community;
+	}
+
+	/**
+	 * determines the best community for node classNodes[index] and stores it
+	 * in target[index]
+	 */
+	private void decide(int index, Counter counter) {
+		Level level = this.level;
+		int node = this.classNodes[index];
+		int own = this.community[node];
+		double k = level.degrees[node];
+		counter.add(own, 0);
+		for (int e = level.offsets[node]; e < level.offsets[node + 1]; e++) {
+			counter.add(this.community[level.targets[e]], level.weights[e]);
+		}
+		// gains are multiplied by the total weight
+		int best = own;
+		double bestGain = counter.weights[own] * level.total
+				- (this.tot[own] - k) * k;
+		for (int i = 0; i < counter.size; i++) {
+			int c = counter.labels[i];
+			double gain = counter.weights[c] * level.total - this.tot[c] * k;
+			if (c != own && gain > bestGain) {
+				best = c;
+				bestGain = gain;
+			}
+		}
+		counter.clear();
+		this.target[index] = best;
+	}
+
+	/**
+	 * renumbers the communities to 0, ..., count - 1 (in the order of their
+	 * first node)
+	 * 
+	 * @return number of communities
+	 */
+	private static int renumber(int[] community) {
+		int[] index = new int[community.length];
+		Arrays.fill(index, -1);
+		int count = 0;
+		for (int i = 0; i < community.length; i++) {
+			if (index[community[i]] == -1) {
+				index[community[i]] = count++;
+			}
+			community[i] = index[community[i]];
+		}
+		return count;
+	}
+
+	/**
+	 * undirected weighted graph of one level: the neighbors of node i are
+	 * targets[offsets[i]], ..., targets[offsets[i + 1] - 1] (without i itself)
+	 */
+	private static class Level {
+		private int n;
+
+		private int[] offsets;
+
+		private int[] targets;
+
+		private double[] weights;
+
+		private double[] selfLoops;
+
+		// sum of the weights of all edges of a node (including self-loops)
+		private double[] degrees;
+
+		// sum of all degrees
+		private double total;
+
+		private Level(int n) {
+			this.n = n;
+			this.offsets = new int[n + 1];
+			this.selfLoops = new double[n];
+			this.degrees = new double[n];
+		}
+
+		/**
+		 * creates the first level, every edge adds 1 to the weight between its
+		 * endpoints in both directions
+		 */
+		private static Level create(Node[] nodes) {
+			Level level = new Level(nodes.length);
+			int edges = 0;
+			for (Node node : nodes) {
+				edges += node.getOutDegree() + node.getInDegree();
+			}
+			level.targets = new int[edges];
+			level.weights = new double[edges];
+			Counter counter = new Counter(nodes.length);
+			int e = 0;
+			for (int i = 0; i < nodes.length; i++) {
+				for (int j : nodes[i].getOutgoingEdges()) {
+					counter.add(j, 1);
+				}
+				for (int j : nodes[i].getIncomingEdges()) {
+					counter.add(j, 1);
+				}
+				e = level.addRow(i, counter, e);
+			}
+			level.finish(e);
+			return level;
+		}
+
+		/**
+		 * creates the next level with the given communities as nodes
+		 */
+		private Level aggregate(int[] community, int count) {
+			Level next = new Level(count);
+			int[] memberStart = new int[count + 1];
+			for (int i = 0; i < this.n; i++) {
+				memberStart[community[i] + 1]++;
+			}
+			for (int c = 0; c < count; c++) {
+				memberStart[c + 1] += memberStart[c];
+			}
+			int[] position = Arrays.copyOf(memberStart, count);
+			int[] members = new int[this.n];
+			for (int i = 0; i < this.n; i++) {
+				members[position[community[i]]++] = i;
+			}
+
+			next.targets = new int[this.targets.length];
+			next.weights = new double[this.targets.length];
+			Counter counter = new Counter(count);
+			int e = 0;
+			for (int c = 0; c < count; c++) {
+				for (int m = memberStart[c]; m < memberStart[c + 1]; m++) {
+					int i = members[m];
+					counter.add(c, this.selfLoops[i]);
+					for (int f = this.offsets[i]; f < this.offsets[i + 1]; f++) {
+						counter.add(community[this.targets[f]], this.weights[f]);
+					}
+				}
+				e = next.addRow(c, counter, e);
+			}
+			next.finish(e);
+			return next;
+		}
+
+		/**
+		 * stores the weights of the given counter as row of node i
+		 * 
+		 * @return next free position in targets
+		 */
+		private int addRow(int i, Counter counter, int e) {
+			this.offsets[i] = e;
+			for (int k = 0; k < counter.size; k++) {
+				int j = counter.labels[k];
+				double weight = counter.weights[j];
+				if (j == i) {
+					this.selfLoops[i] = weight;
+				} else {
+					this.targets[e] = j;
+					this.weights[e++] = weight;
+				}
+				this.degrees[i] += weight;
+			}
+			counter.clear();
+			return e;
+		}
+
+		private void finish(int edges) {
+			this.offsets[this.n] = edges;
+			this.targets = Arrays.copyOf(this.targets, edges);
+			this.weights = Arrays.copyOf(this.weights, edges);
+			for (int i = 0; i < this.n; i++) {
+				this.total += this.degrees[i];
+			}
+		}
+
+		/**
+		 * @return modularity of the given communities
+		 */
+		private double modularity(int[] community) {
+			if (this.total == 0) {
+				return 0;
+			}
+			double[] internal = new double[this.n];
+			double[] tot = new double[this.n];
+			for (int i = 0; i < this.n; i++) {
+				internal[community[i]] += this.selfLoops[i];
+				tot[community[i]] += this.degrees[i];
+				for (int e = this.offsets[i]; e < this.offsets[i + 1]; e++) {
+					if (community[this.targets[e]] == community[i]) {
+						internal[community[i]] += this.weights[e];
+					}
+				}
+			}
+			double q = 0;
+			for (int c = 0; c < this.n; c++) {
+				q += internal[c] / this.total
+						- (tot[c] / this.total) * (tot[c] / this.total);
+			}
+			return q;
+		}
+	}
+
+	/**
+	 * sums of weights per community (dense array indexed by community) and the
+	 * list of touched communities
+	 */
+	private static class Counter {
+		private double[] weights;
+
+		private boolean[] touched;
+
+		private int[] labels;
+
+		private int size;
+
+		private Counter(int n) {
+			this.weights = new double[n];
+			this.touched = new boolean[n];
+			this.labels = new int[n];
+		}
+
+		private void add(int label, double weight) {
+			if (!this.touched[label]) {
+				this.touched[label] = true;
+				this.labels[this.size++] = label;
+			}
+			this.weights[label] += weight;
+		}
+
+		private void clear() {
+			for (int i = 0; i < this.size; i++) {
+				this.weights[this.labels[i]] = 0;
+				this.touched[this.labels[i]] = false;
+			}
+			this.size = 0;
+		}
+	}
+
+	private class DecideTask extends RecursiveAction {
+		private static final long serialVersionUID = 4721395846193502764L;
+
+		private Counter counter;
+
+		private DecideTask(Counter counter) {
+			this.counter = counter;
+		}
+
+		@Override
+		protected void compute() {
+			int i;
+			while ((i = next.getAndAdd(BATCH)) < to) {
+				int last = Math.min(i + BATCH, to);
+				for (; i < last; i++) {
+					decide(i, this.counter);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,373 @@
+package gtna.transformation.communities.matrices;
+
+import gtna.graph.Graph;
+import gtna.graph.Node;
+
+import java.util.Arrays;
+
+/**
+ * A sparse implementation combining the Q and E matrix into one class as
+ * proposed in "Finding community structure in very large networks" by A.
+ * Clauset, M. E. J. Newman and C. Moore (2004). Memory usage scales with the
+ * number of edges instead of the square of the node count.
+ *
+ * For every community, only the communities it is connected to are stored in
+ * a primitive hash map (the sum of the edges between them in both
+ * directions). The best merge of every community (its row maximum) is cached
+ * and the communities are kept in a max-heap ordered by these maxima, so
+ * determining the next merge takes constant time and a merge only touches the
+ * neighbors of the two merged communities.
+ *
+ * The values of the Q matrix and the order in which ties are broken (smallest
+ * first community, then smallest second community) are the same as for
+ * MyEMatrixLong and MyQMatrixLong, i.e., the same communities are merged in
+ * the same order. Works for directed and undirected graphs.
+ *
+ * @author agent
+ *
+ */
+public class MyQEMatrixSparse implements IMyEMatrix, IMyQMatrix {
+	// stores the change in modularity for the last merge
+	private double lastDelta;
+
+	// number of (directed) edges of the graph
+	private long edges;
+
+	// number of outgoing edges of each community
+	private long[] rowSums;
+
+	// edges between communities (in both directions)
+	private Row[] rows;
+
+	// flags if a community was merged into another one
+	private boolean[] deleted;
+
+	// best merge of each community
+	private long[] bestValue;
+
+	private int[] bestPartner;
+
+	// max-heap of communities ordered by their best merge
+	private int[] heap;
+
+	private int[] position;
+
+	private int heapSize;
+
+	private boolean debug = false;
+
+	/**
+	 * Creates the matrix from the given graph, the value for a pair of nodes
+	 * is the number of edges between them (in both directions).
+	 *
+	 * @param graph
+	 *            The graph from which to create the matrix
+	 */
+	public MyQEMatrixSparse(Graph graph) {
+		Node[] nodes = graph.getNodes();
+		int dimension = nodes.length;
+		this.rowSums = new long[dimension];
+		this.rows = new Row[dimension];
+		this.deleted = new boolean[dimension];
+		this.bestValue = new long[dimension];
+		this.bestPartner = new int[dimension];
+		this.heap = new int[dimension];
+		this.position = new int[dimension];
+		for (int i = 0; i < dimension; i++) {
+			this.rows[i] = new Row(nodes[i].getDegree());
+		}
+		for (Node node : nodes) {
+			int src = node.getIndex();
+			for (int dst : node.getOutgoingEdges()) {
+				this.edges++;
+				this.rowSums[src]++;
+				if (src != dst) {
+					this.rows[src].add(dst, 1);
+					this.rows[dst].add(src, 1);
+				}
+			}
+		}
+		for (int i = 0; i < dimension; i++) {
+			this.position[i] = -1;
+			this.rescan(i);
+			if (this.bestPartner[i] != -1) {
+				this.position[i] = this.heapSize;
+				this.heap[this.heapSize++] = i;
+			}
+		}
+		for (int i = this.heapSize / 2 - 1; i >= 0; i--) {
+			this.siftDown(i);
+		}
+	}
+
+	private long value(int i, int j, long edgesBetween) {
+		return this.edges * edgesBetween - 2 * this.rowSums[i]
+				* this.rowSums[j];
+	}
+
+	/**
+	 * @return true in case merging (i1, j1) with value v1 is preferred over
+	 *         merging (i2, j2) with value v2
+	 */
+	private static boolean better(long v1, int i1, int j1, long v2, int i2,
+			int j2) {
+		int min1 = Math.min(i1, j1);
+		int min2 = Math.min(i2, j2);
+		if (v1 != v2) {
+			return v1 > v2;
+		}
+		if (min1 != min2) {
+			return min1 < min2;
+		}
+		return Math.max(i1, j1) < Math.max(i2, j2);
+	}
+
+	private boolean better(int a, int b) {
+		return MyQEMatrixSparse.better(this.bestValue[a], a,
+				this.bestPartner[a], this.bestValue[b], b, this.bestPartner[b]);
+	}
+
+	/**
+	 * recomputes the best merge of community i from its row
+	 */
+	private void rescan(int i) {
+		Row row = this.rows[i];
+		this.bestPartner[i] = -1;
+		for (int slot = 0; slot < row.keys.length; slot++) {
+			int k = row.keys[slot];
+			if (k != Row.EMPTY) {
+				this.improve(i, k, this.value(i, k, row.values[slot]));
+			}
+		}
+	}
+
+	private void improve(int i, int k, long value) {
+		if (this.bestPartner[i] == -1
+				|| MyQEMatrixSparse.better(value, i, k, this.bestValue[i], i,
+						this.bestPartner[i])) {
+			this.bestValue[i] = value;
+			this.bestPartner[i] = k;
+		}
+	}
+
+	@Override
+	public void merge(int i, int j) {
+		Row rowI = this.rows[i];
+		Row rowJ = this.rows[j];
+		rowI.remove(j);
+		for (int slot = 0; slot < rowJ.keys.length; slot++) {
+			int k = rowJ.keys[slot];
+			if (k == Row.EMPTY || k == i) {
+				continue;
+			}
+			long value = rowJ.values[slot];
+			rowI.add(k, value);
+			this.rows[k].remove(j);
+			this.rows[k].add(i, value);
+		}
+		this.rows[j] = new Row(0);
+		this.deleted[j] = true;
+		this.rowSums[i] += this.rowSums[j];
+	}
+
+	@Override
+	public void update(int i, int j) {
+		this.deleted[j] = true;
+		this.remove(j);
+		this.rescan(i);
+		this.refresh(i);
+		Row row = this.rows[i];
+		for (int slot = 0; slot < row.keys.length; slot++) {
+			int k = row.keys[slot];
+			if (k == Row.EMPTY) {
+				continue;
+			}
+			if (this.bestPartner[k] == i || this.bestPartner[k] == j) {
+				this.rescan(k);
+			} else {
+				this.improve(k, i, this.value(k, i, row.values[slot]));
+			}
+			this.refresh(k);
+		}
+	}
+
+	@Override
+	public void getNextMerge(int[] erg) {
+		if (this.heapSize == 0) {
+			erg[0] = -1;
+			erg[1] = -1;
+			return;
+		}
+		int i = this.heap[0];
+		int j = this.bestPartner[i];
+		this.lastDelta = this.bestValue[i];
+		erg[0] = Math.min(i, j);
+		erg[1] = Math.max(i, j);
+	}
+
+	@Override
+	public double getLastDelta() {
+		return this.lastDelta;
+	}
+
+	@Override
+	public void setDebug(boolean debug) {
+		this.debug = debug;
+	}
+
+	/**
+	 * restores the heap property for community i after its best merge has
+	 * changed (removing it in case it has no neighbors left)
+	 */
+	private void refresh(int i) {
+		if (this.bestPartner[i] == -1) {
+			this.remove(i);
+		} else if (this.position[i] == -1) {
+			this.position[i] = this.heapSize;
+			this.heap[this.heapSize++] = i;
+			this.siftUp(this.position[i]);
+		} else {
+			this.siftUp(this.position[i]);
+			this.siftDown(this.position[i]);
+		}
+	}
+
+	private void remove(int i) {
+		int pos = this.position[i];
+		if (pos == -1) {
+			return;
+		}
+		this.position[i] = -1;
+		this.heapSize--;
+		if (pos < this.heapSize) {
+			int moved = this.heap[this.heapSize];
+			this.heap[pos] = moved;
+			this.position[moved] = pos;
+			this.siftUp(pos);
+			this.siftDown(this.position[moved]);
+		}
+	}
+
+	private void siftUp(int pos) {
+		int i = this.heap[pos];
+		while (pos > 0) {
+			int parent = (pos - 1) >>> 1;
+			if (!this.better(i, this.heap[parent])) {
+				break;
+			}
+			this.heap[pos] = this.heap[parent];
+			this.position[this.heap[pos]] = pos;
+			pos = parent;
+		}
+		this.heap[pos] = i;
+		this.position[i] = pos;
+	}
+
+	private void siftDown(int pos) {
+		int i = this.heap[pos];
+		while (true) {
+			int child = 2 * pos + 1;
+			if (child >= this.heapSize) {
+				break;
+			}
+			if (child + 1 < this.heapSize
+					&& this.better(this.heap[child + 1], this.heap[child])) {
+				child++;
+			}
+			if (!this.better(this.heap[child], i)) {
+				break;
+			}
+			this.heap[pos] = this.heap[child];
+			this.position[this.heap[pos]] = pos;
+			pos = child;
+		}
+		this.heap[pos] = i;
+		this.position[i] = pos;
+	}
+
+	/**
+	 * Open-addressing hash map from community to the number of edges,
+	 * removing entries by shifting back the following entries of their probe
+	 * sequence.
+	 */
+	private static final class Row {
+		private static final int EMPTY = -1;
+
+		private int[] keys;
+
+		private long[] values;
+
+		private int size;
+
+		private Row(int expected) {
+			int capacity = 4;
+			while (capacity * 2 < expected * 3) {
+				capacity *= 2;
+			}
+			this.keys = new int[capacity];
+			this.values = new long[capacity];
+			Arrays.fill(this.keys, EMPTY);
+		}
+
+		private int slot(int key) {
+			int hash = key * 0x9E3779B9;
+			return (hash ^ (hash >>> 16)) & (this.keys.length - 1);
+		}
+
+		private void add(int key, long value) {
+			int mask = this.keys.length - 1;
+			int slot = this.slot(key);
+			while (this.keys[slot] != EMPTY) {
+				if (this.keys[slot] == key) {
+					this.values[slot] += value;
+					return;
+				}
+				slot = (slot + 1) & mask;
+			}
+			this.keys[slot] = key;
+			this.values[slot] = value;
+			if (++this.size * 3 > this.keys.length * 2) {
+				this.resize();
+			}
+		}
+
+		private void remove(int key) {
+			int mask = this.keys.length - 1;
+			int slot = this.slot(key);
+			while (this.keys[slot] != key) {
+				if (this.keys[slot] == EMPTY) {
+					return;
+				}
+				slot = (slot + 1) & mask;
+			}
+			this.size--;
+			// shift back entries whose probe sequence passes the free slot
+			int free = slot;
+			int next = (free + 1) & mask;
+			while (this.keys[next] != EMPTY) {
+				int home = this.slot(this.keys[next]);
+				if (((next - home) & mask) >= ((next - free) & mask)) {
+					this.keys[free] = this.keys[next];
+					this.values[free] = this.values[next];
+					free = next;
+				}
+				next = (next + 1) & mask;
+			}
+			this.keys[free] = EMPTY;
+		}
+
+		private void resize() {
+			int[] oldKeys = this.keys;
+			long[] oldValues = this.values;
+			this.keys = new int[oldKeys.length * 2];
+			this.values = new long[oldKeys.length * 2];
+			Arrays.fill(this.keys, EMPTY);
+			this.size = 0;
+			for (int slot = 0; slot < oldKeys.length; slot++) {
+				if (oldKeys[slot] != EMPTY) {
+					this.add(oldKeys[slot], oldValues[slot]);
+				}
+			}
+		}
+	}
+}
@@ -37,6 +37,7 @@ package gtna.transformation.connectors;
 
 import gtna.graph.Edges;
 import gtna.graph.Graph;
+import gtna.id.plane.PlaneGrid;
 import gtna.id.plane.PlaneIdentifierSpaceSimple;
 import gtna.transformation.Transformation;
 import gtna.util.parameter.DoubleParameter;
@@ -57,17 +58,19 @@ public class UnitDiscGraph extends Transformation {
 
 	@Override
 	public Graph transform(Graph g) {
-		Edges edges = new Edges(g.getNodes(), g.getNodes().length
-				* (g.getNodes().length - 1));
 		PlaneIdentifierSpaceSimple idSpace = (PlaneIdentifierSpaceSimple) g
 				.getProperty("ID_SPACE_0");
+		PlaneGrid grid = new PlaneGrid(idSpace, this.radius);
+		int[][] neighbors = new int[g.getNodes().length][];
+		int edgeCount = 0;
 		for (int i = 0; i < g.getNodes().length; i++) {
-			for (int j = 0; j < g.getNodes().length; j++) {
-				if (i != j
-						&& idSpace.getPartitions()[i].distance((idSpace
-								.getPartitions()[j].getRepresentativeID())) <= radius) {
-					edges.add(i, j);
-				}
+			neighbors[i] = grid.range(i, this.radius);
+			edgeCount += neighbors[i].length;
+		}
+		Edges edges = new Edges(g.getNodes(), edgeCount);
+		for (int i = 0; i < g.getNodes().length; i++) {
+			for (int j : neighbors[i]) {
+				edges.add(i, j);
 			}
 		}
 		edges.fill();
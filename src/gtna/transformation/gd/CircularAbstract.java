@@ -41,12 +41,11 @@ import gtna.graph.Node;
 import gtna.id.ring.RingIdentifier;
 import gtna.id.ring.RingIdentifierSpace;
 import gtna.id.ring.RingPartition;
-import gtna.metrics.edges.EdgeCrossings;
+import gtna.metrics.edges.RingCrossingCounter;
 import gtna.util.Util;
 import gtna.util.parameter.Parameter;
 
 import java.util.Arrays;
-import java.util.HashSet;
 import java.util.LinkedList;
 
 /**
@@ -60,8 +59,7 @@ public abstract class CircularAbstract extends GraphDrawingAbstract {
 	protected int realities;
 	protected double modulus;
 	protected Boolean wrapAround;
-	HashSet<String> handledEdges;
-	EdgeCrossings edgeCrossings;
+	RingCrossingCounter crossingCounter;
 
 	public CircularAbstract(String key, Parameter[] parameters) {
 		super(key, parameters);
@@ -83,7 +81,6 @@ public abstract class CircularAbstract extends GraphDrawingAbstract {
 			}
 			Util.randomize(partitions, rand);
 		}
-		edgeCrossings = new EdgeCrossings();
 	}
 
 	protected void writeIDSpace(Graph g) {
@@ -95,6 +92,7 @@ public abstract class CircularAbstract extends GraphDrawingAbstract {
 		Integer currentNodeID, predecessorID;
 		int currentCrossings, swappedCrossings;
 		long startTime = System.currentTimeMillis();
+		crossingCounter = new RingCrossingCounter(g, idSpace);
 
 		/*
 		 * Add all nodes to the todolist
@@ -137,8 +135,8 @@ public abstract class CircularAbstract extends GraphDrawingAbstract {
 
 			predecessorID = getPredecessor(currentNode.getIndex());
 			predecessor = g.getNode(predecessorID);
-			currentCrossings = edgeCrossings.calculateCrossings(currentNode,
-					predecessor, idSpace);
+			currentCrossings = crossingCounter.crossings(currentNodeID,
+					predecessorID);
 
 			if (currentCrossings == 0) {
 				/*
@@ -148,8 +146,8 @@ public abstract class CircularAbstract extends GraphDrawingAbstract {
 				continue;
 			}
 			swapPositions(currentNodeID, predecessorID);
-			swappedCrossings = edgeCrossings.calculateCrossings(currentNode,
-					predecessor, idSpace);
+			swappedCrossings = crossingCounter.crossings(currentNodeID,
+					predecessorID);
 			if (swappedCrossings < currentCrossings) {
 				/*
 				 * Leave it that way, boy! But: there might be some more success
@@ -174,6 +172,7 @@ public abstract class CircularAbstract extends GraphDrawingAbstract {
 		long totalTime = endTime - startTime;
 		// System.out.println("Did " + countLoop + " loops in " + totalTime +
 		// " msec");
+		crossingCounter = null;
 	}
 
 	protected int getPredecessor(int i) {
@@ -204,5 +203,8 @@ public abstract class CircularAbstract extends GraphDrawingAbstract {
 		RingPartition temp = partitions[i];
 		partitions[i] = partitions[j];
 		partitions[j] = temp;
+		if (crossingCounter != null) {
+			crossingCounter.swapped(i, j);
+		}
 	}
 }
\ No newline at end of file
@@ -112,6 +112,45 @@ public abstract class ForceDrivenAbstract extends GraphDrawingAbstract {
 		return iV;
 	}
 
+	/**
+	 * @return the (unbiased) coordinates of all nodes in a flat array, the
+	 *         coordinates of node i are stored at positions i * d, ..., i * d
+	 *         + d - 1
+	 */
+	protected double[] getCoordinates() {
+		int d = this.idSpace.getDimensions();
+		double[] pos = new double[partitions.length * d];
+		for (int i = 0; i < partitions.length; i++) {
+			MDIdentifier id = (MDIdentifier) partitions[i]
+					.getRepresentativeID();
+			for (int k = 0; k < d; k++) {
+				pos[i * d + k] = id.getCoordinate(k) - bias.getCoordinate(k);
+			}
+		}
+		return pos;
+	}
+
+	/**
+	 * sets the coordinates of all nodes from a flat array as returned by
+	 * getCoordinates(), coordinates are normalized to the moduli
+	 * 
+	 * @param pos
+	 */
+	protected void setCoordinates(double[] pos) {
+		int d = this.idSpace.getDimensions();
+		for (int i = 0; i < partitions.length; i++) {
+			double[] coordinates = new double[d];
+			for (int k = 0; k < d; k++) {
+				double modulus = idSpace.getModulus(k);
+				coordinates[k] = Math.min(modulus / 2,
+						Math.max(modulus / -2, pos[i * d + k]))
+						+ bias.getCoordinate(k);
+			}
+			((MDIdentifier) partitions[i].getRepresentativeID())
+					.setCoordinates(coordinates);
+		}
+	}
+
 	protected void setCoordinate(Node v, MDVector newPos) {
 		// System.out.print("Setting " + newPos);
 		newPos.add(bias);
@@ -0,0 +1,448 @@
+/* ===========================================================
+ * GTNA : Graph-Theoretic Network Analyzer
+ * ===========================================================
+ *
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors
+ *
+ * Project Info:  http://www.p2p.tu-darmstadt.de/research/gtna/
+ *
+ * GTNA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GTNA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ---------------------------------------
+ * ForceEngine.java
+ * ---------------------------------------
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors 
+ *
+ * Original Author: agent;
+ * Contributors:    -;
+ *
+ * Changes since 2011-05-17
+ * ---------------------------------------
+ *
+ */
+package gtna.transformation.gd;
+
+import gtna.graph.Node;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Computes the forces of force-driven graph drawing algorithms on a flat
+ * array of coordinates (n * d values, the coordinates of node i are stored at
+ * positions i * d, ..., i * d + d - 1).
+ * 
+ * Repulsion is approximated as proposed in "A hierarchical O(N log N)
+ * force-calculation algorithm" by J. Barnes and P. Hut (1986): the nodes are
+ * inserted into a tree of cells (quadtree for two dimensions, octree for
+ * three) and a cell whose width divided by its distance is smaller than theta
+ * acts as a single node in its center of mass. For theta = 0 (and for more
+ * than MAX_TREE_DIMENSIONS dimensions), the repulsion between all pairs of
+ * nodes is computed exactly.
+ * 
+ * The forces of the nodes are accumulated in parallel on a fork-join pool,
+ * every node only writes its own displacement.
+ * 
+ * @author agent
+ * 
+ */
+public class ForceEngine {
+	public static final double DEFAULT_THETA = 0.5;
+
+	private static final int MAX_TREE_DIMENSIONS = 3;
+
+	private static final int MAX_DEPTH = 48;
+
+	private static final int GRANULARITY = 256;
+
+	private int dimensions;
+
+	private double theta;
+
+	private int threads;
+
+	private ForkJoinPool pool;
+
+	private double[] pos;
+
+	private int n;
+
+	// cells of the tree, the children of a cell are stored in a block of
+	// 2^dimensions cells starting at firstChild
+	private int cells;
+
+	private double[] center;
+
+	private double[] half;
+
+	private double[] massSum;
+
+	private int[] count;
+
+	private int[] firstChild;
+
+	private int[] head;
+
+	private int[] nextPoint;
+
+	/**
+	 * @param dimensions
+	 *            number of dimensions d
+	 * @param theta
+	 *            opening criterion of the Barnes-Hut approximation
+	 * @param threads
+	 *            number of threads
+	 */
+	public ForceEngine(int dimensions, double theta, int threads) {
+		this.dimensions = dimensions;
+		this.theta = theta;
+		this.threads = Math.max(threads, 1);
+		if (this.threads > 1) {
+			this.pool = new ForkJoinPool(this.threads);
+		}
+	}
+
+	/**
+	 * shuts down the threads used by this engine
+	 */
+	public void shutdown() {
+		if (this.pool != null) {
+			this.pool.shutdown();
+		}
+	}
+
+	/**
+	 * sets disp_v to factor * sum_u (p_v - p_u) / |p_v - p_u|^2 for every node
+	 * v (repulsion inversely proportional to the distance), coinciding nodes
+	 * are ignored
+	 * 
+	 * @param pos
+	 *            coordinates
+	 * @param factor
+	 * @param disp
+	 *            displacements
+	 */
+	public void repulsion(double[] pos, double factor, double[] disp) {
+		this.pos = pos;
+		this.n = pos.length / this.dimensions;
+		boolean tree = this.theta > 0
+				&& this.dimensions <= MAX_TREE_DIMENSIONS;
+		if (tree) {
+			this.build();
+		}
+		this.run(new ForceTask(null, 0, this.n, factor, disp, tree));
+	}
+
+	/**
+	 * adds -factor * sum_u (p_v - p_u) |p_v - p_u| to disp_v for every node v
+	 * and every edge between v and u (outgoing and incoming, i.e., an
+	 * attraction proportional to the squared distance)
+	 * 
+	 * @param nodes
+	 * @param pos
+	 *            coordinates
+	 * @param factor
+	 * @param disp
+	 *            displacements
+	 */
+	public void attraction(Node[] nodes, double[] pos, double factor,
+			double[] disp) {
+		this.pos = pos;
+		this.n = pos.length / this.dimensions;
+		this.run(new ForceTask(nodes, 0, this.n, factor, disp, false));
+	}
+
+	private void run(ForceTask task) {
+		if (this.pool == null) {
+			task.compute();
+		} else {
+			this.pool.invoke(task);
+		}
+	}
+
+	private void build() {
+		int d = this.dimensions;
+		int capacity = Math.max(16, this.n * (1 << d));
+		if (this.count == null || this.count.length < capacity) {
+			this.allocate(capacity);
+		}
+		if (this.nextPoint == null || this.nextPoint.length < this.n) {
+			this.nextPoint = new int[this.n];
+		}
+
+		// root: bounding cube of all nodes
+		double[] min = new double[d];
+		double[] max = new double[d];
+		Arrays.fill(min, Double.POSITIVE_INFINITY);
+		Arrays.fill(max, Double.NEGATIVE_INFINITY);
+		for (int i = 0; i < this.n; i++) {
+			for (int k = 0; k < d; k++) {
+				min[k] = Math.min(min[k], this.pos[i * d + k]);
+				max[k] = Math.max(max[k], this.pos[i * d + k]);
+			}
+		}
+		double width = 0;
+		for (int k = 0; k < d; k++) {
+			width = Math.max(width, max[k] - min[k]);
+		}
+		this.cells = 0;
+		int root = this.newCell();
+		this.half[root] = width / 2 * (1 + 1e-9) + Double.MIN_NORMAL;
+		for (int k = 0; k < d; k++) {
+			this.center[root * d + k] = this.n == 0 ? 0 : (min[k] + max[k]) / 2;
+		}
+		for (int i = 0; i < this.n; i++) {
+			this.insert(i);
+		}
+	}
+
+	private void allocate(int capacity) {
+		int d = this.dimensions;
+		if (this.count == null) {
+			this.center = new double[capacity * d];
+			this.half = new double[capacity];
+			this.massSum = new double[capacity * d];
+			this.count = new int[capacity];
+			this.firstChild = new int[capacity];
+			this.head = new int[capacity];
+		} else {
+			this.center = Arrays.copyOf(this.center, capacity * d);
+			this.half = Arrays.copyOf(this.half, capacity);
+			this.massSum = Arrays.copyOf(this.massSum, capacity * d);
+			this.count = Arrays.copyOf(this.count, capacity);
+			this.firstChild = Arrays.copyOf(this.firstChild, capacity);
+			this.head = Arrays.copyOf(this.head, capacity);
+		}
+	}
+
+	private int newCell() {
+		if (this.cells == this.count.length) {
+			this.allocate(2 * this.count.length);
+		}
+		int cell = this.cells++;
+		this.count[cell] = 0;
+		this.firstChild[cell] = -1;
+		this.head[cell] = -1;
+		Arrays.fill(this.massSum, cell * this.dimensions, (cell + 1)
+				* this.dimensions, 0);
+		return cell;
+	}
+
+	private void insert(int p) {
+		int d = this.dimensions;
+		int cell = 0;
+		for (int depth = 0;; depth++) {
+			this.count[cell]++;
+			for (int k = 0; k < d; k++) {
+				this.massSum[cell * d + k] += this.pos[p * d + k];
+			}
+			if (this.firstChild[cell] == -1) {
+				if (this.head[cell] == -1 || depth == MAX_DEPTH) {
+					this.nextPoint[p] = this.head[cell];
+					this.head[cell] = p;
+					return;
+				}
+				// split the leaf and move its node into the according child
+				int q = this.head[cell];
+				this.head[cell] = -1;
+				this.split(cell);
+				int child = this.child(cell, q);
+				this.count[child] = 1;
+				for (int k = 0; k < d; k++) {
+					this.massSum[child * d + k] = this.pos[q * d + k];
+				}
+				this.head[child] = q;
+				this.nextPoint[q] = -1;
+			}
+			cell = this.child(cell, p);
+		}
+	}
+
+	private void split(int cell) {
+		int d = this.dimensions;
+		int children = 1 << d;
+		int first = this.cells;
+		for (int c = 0; c < children; c++) {
+			this.newCell();
+		}
+		// arrays might have been reallocated
+		double quarter = this.half[cell] / 2;
+		for (int c = 0; c < children; c++) {
+			this.half[first + c] = quarter;
+			for (int k = 0; k < d; k++) {
+				this.center[(first + c) * d + k] = this.center[cell * d + k]
+						+ (((c >> k) & 1) == 1 ? quarter : -quarter);
+			}
+		}
+		this.firstChild[cell] = first;
+	}
+
+	private int child(int cell, int p) {
+		int d = this.dimensions;
+		int c = 0;
+		for (int k = 0; k < d; k++) {
+			if (this.pos[p * d + k] >= this.center[cell * d + k]) {
+				c |= 1 << k;
+			}
+		}
+		return this.firstChild[cell] + c;
+	}
+
+	/**
+	 * adds the repulsion of all nodes in the given cell on node v to disp
+	 */
+	private void repulsion(int cell, int v, double[] disp) {
+		if (this.count[cell] == 0) {
+			return;
+		}
+		int d = this.dimensions;
+		if (this.firstChild[cell] == -1) {
+			for (int u = this.head[cell]; u != -1; u = this.nextPoint[u]) {
+				if (u != v) {
+					this.add(v, u, 1, disp);
+				}
+			}
+			return;
+		}
+		boolean inside = true;
+		double squared = 0;
+		double mass = this.count[cell];
+		for (int k = 0; k < d; k++) {
+			double delta = this.pos[v * d + k] - this.massSum[cell * d + k]
+					/ mass;
+			squared += delta * delta;
+			inside &= Math.abs(this.pos[v * d + k]
+					- this.center[cell * d + k]) <= this.half[cell];
+		}
+		double width = 2 * this.half[cell];
+		if (!inside && width * width < this.theta * this.theta * squared) {
+			for (int k = 0; k < d; k++) {
+				disp[v * d + k] += mass
+						* (this.pos[v * d + k] - this.massSum[cell * d + k]
+								/ mass) / squared;
+			}
+			return;
+		}
+		int children = 1 << d;
+		for (int c = 0; c < children; c++) {
+			this.repulsion(this.firstChild[cell] + c, v, disp);
+		}
+	}
+
+	/**
+	 * adds weight * (p_v - p_u) / |p_v - p_u|^2 to disp_v
+	 */
+	private void add(int v, int u, double weight, double[] disp) {
+		int d = this.dimensions;
+		double squared = 0;
+		for (int k = 0; k < d; k++) {
+			double delta = this.pos[v * d + k] - this.pos[u * d + k];
+			squared += delta * delta;
+		}
+		if (squared == 0) {
+			return;
+		}
+		for (int k = 0; k < d; k++) {
+			disp[v * d + k] += weight
+					* (this.pos[v * d + k] - this.pos[u * d + k]) / squared;
+		}
+	}
+
+	/**
+	 * adds -factor * (p_v - p_u) |p_v - p_u| to disp_v
+	 */
+	private void attract(int v, int u, double factor, double[] disp) {
+		int d = this.dimensions;
+		double squared = 0;
+		for (int k = 0; k < d; k++) {
+			double delta = this.pos[v * d + k] - this.pos[u * d + k];
+			squared += delta * delta;
+		}
+		double distance = Math.sqrt(squared);
+		for (int k = 0; k < d; k++) {
+			disp[v * d + k] -= factor
+					* (this.pos[v * d + k] - this.pos[u * d + k]) * distance;
+		}
+	}
+
+	/**
+	 * computes the repulsion (nodes == null) or the attraction for the nodes
+	 * from, ..., to - 1
+	 */
+	private class ForceTask extends RecursiveAction {
+		private static final long serialVersionUID = -6283374851320765407L;
+
+		private Node[] nodes;
+
+		private int from;
+
+		private int to;
+
+		private double factor;
+
+		private double[] disp;
+
+		private boolean tree;
+
+		private ForceTask(Node[] nodes, int from, int to, double factor,
+				double[] disp, boolean tree) {
+			this.nodes = nodes;
+			this.from = from;
+			this.to = to;
+			this.factor = factor;
+			this.disp = disp;
+			this.tree = tree;
+		}
+
+		@Override
+		protected void compute() {
+			if (pool != null && this.to - this.from > GRANULARITY) {
+				int middle = (this.from + this.to) >>> 1;
+				RecursiveAction.invokeAll(new ForceTask(this.nodes, this.from,
+						middle, this.factor, this.disp, this.tree),
+						new ForceTask(this.nodes, middle, this.to, this.factor,
+								this.disp, this.tree));
+				return;
+			}
+			int d = dimensions;
+			for (int v = this.from; v < this.to; v++) {
+				if (this.nodes != null) {
+					for (int u : this.nodes[v].getOutgoingEdges()) {
+						attract(v, u, this.factor, this.disp);
+					}
+					for (int u : this.nodes[v].getIncomingEdges()) {
+						attract(v, u, this.factor, this.disp);
+					}
+					continue;
+				}
+				Arrays.fill(this.disp, v * d, (v + 1) * d, 0);
+				if (this.tree) {
+					repulsion(0, v, this.disp);
+				} else {
+					for (int u = 0; u < n; u++) {
+						if (u != v) {
+							add(v, u, 1, this.disp);
+						}
+					}
+				}
+				for (int k = 0; k < d; k++) {
+					this.disp[v * d + k] *= this.factor;
+				}
+			}
+		}
+	}
+}
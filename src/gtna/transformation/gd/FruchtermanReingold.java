@@ -36,12 +36,12 @@
 package gtna.transformation.gd;
 
 import gtna.drawing.GraphPlotter;
-import gtna.graph.Edge;
 import gtna.graph.Graph;
 import gtna.graph.Node;
-import gtna.util.MDVector;
+import gtna.util.Config;
 import gtna.util.parameter.BooleanParameter;
 import gtna.util.parameter.DoubleArrayParameter;
+import gtna.util.parameter.DoubleParameter;
 import gtna.util.parameter.IntParameter;
 import gtna.util.parameter.Parameter;
 
@@ -77,24 +77,37 @@ public class FruchtermanReingold extends ForceDrivenAbstract {
 	 */
 	private double t;
 
-	private Edge[] edgeList;
+	/*
+	 * Opening criterion of the Barnes-Hut approximation of the repulsive
+	 * forces (0 to compute them exactly)
+	 */
+	private double theta;
 
 	public FruchtermanReingold(int realities, double[] moduli,
 			Boolean wrapAround, int iterations, GraphPlotter plotter) {
+		this(realities, moduli, wrapAround, iterations,
+				ForceEngine.DEFAULT_THETA, plotter);
+	}
+
+	public FruchtermanReingold(int realities, double[] moduli,
+			Boolean wrapAround, int iterations, double theta,
+			GraphPlotter plotter) {
 		super("GDA_FRUCHTERMAN_REINGOLD", new Parameter[] {
 				new IntParameter("REALITIES", realities),
 				new DoubleArrayParameter("MODULI", moduli),
-				new BooleanParameter("WRAPAROUND", wrapAround) });
+				new BooleanParameter("WRAPAROUND", wrapAround),
+				new DoubleParameter("THETA", theta) });
 		this.realities = realities;
 		this.moduli = moduli;
 		this.wrapAround = wrapAround;
 		this.graphPlotter = plotter;
 		this.iterations = iterations;
+		this.theta = theta;
 	}
 
 	public GraphDrawingAbstract clone() {
-		return new FruchtermanReingold(iterations, moduli, wrapAround,
-				iterations, graphPlotter);
+		return new FruchtermanReingold(realities, moduli, wrapAround,
+				iterations, theta, graphPlotter);
 	}
 
 	@Override
@@ -109,106 +122,62 @@ public class FruchtermanReingold extends ForceDrivenAbstract {
 		// System.out.println("Best distance: " + k);
 
 		this.t = idSpace.getMaxModulus();
-		edgeList = g.generateEdges();
 
-		for (int i = 0; i < this.iterations; i++) {
-			// System.out.println("\n\n   >>> in iteration " + i + " <<<");
-			if (graphPlotter != null)
-				graphPlotter.plotIteration(g, idSpace, i);
-			g = this.doIteration(g);
+		Node[] nodes = g.getNodes();
+		double[] pos = this.getCoordinates();
+		double[] disp = new double[pos.length];
+		ForceEngine engine = new ForceEngine(moduli.length, this.theta,
+				Config.getInt("PARALLEL_TRANSFORMATIONS"));
+		try {
+			for (int i = 0; i < this.iterations; i++) {
+				// System.out.println("\n\n   >>> in iteration " + i + " <<<");
+				if (graphPlotter != null) {
+					this.setCoordinates(pos);
+					graphPlotter.plotIteration(g, idSpace, i);
+				}
+				this.doIteration(nodes, pos, disp, engine);
+			}
+		} finally {
+			engine.shutdown();
 		}
+		this.setCoordinates(pos);
 		if (graphPlotter != null)
 			graphPlotter.plotFinalGraph(g, idSpace);
 		writeIDSpace(g);
 		return g;
 	}
 
-	private Graph doIteration(Graph g) {
-		MDVector delta, currDisp;
+	private void doIteration(Node[] nodes, double[] pos, double[] disp,
+			ForceEngine engine) {
+		int d = this.moduli.length;
 
 		/*
-		 * Displacement array which will hold the displacement throughout one
-		 * single iteration
+		 * First step: repulsive forces fr(x) = k^2 / x between all nodes,
+		 * second step: attractive forces fa(x) = x^2 / k along all edges
 		 */
-		MDVector[] disp = new MDVector[this.partitions.length];
+		engine.repulsion(pos, k * k, disp);
+		engine.attraction(nodes, pos, attractionFactor / k, disp);
 
-		// First step: repulsive forces
-		for (Node v : g.getNodes()) {
-			if (v == null)
-				continue;
-
-			// Reset displacement
-			disp[v.getIndex()] = new MDVector(idSpace.getDimensions(), 0d);
-
-			// Calculate repulsive forces to *all* other nodes
-			for (Node u : g.getNodes()) {
-				if (u == null)
-					continue;
-				if (u.getIndex() == v.getIndex())
-					continue;
-				delta = getCoordinate(v);
-				delta.subtract(getCoordinate(u));
-				currDisp = new MDVector(delta.getDimension(),
-						delta.getCoordinates());
-				double currDispNorm = currDisp.getNorm();
-				if (Double.isNaN(currDispNorm))
-					throw new GDTransformationException("You broke it");
-				currDisp.divideBy(currDispNorm);
-				currDisp.multiplyWith(fr(currDispNorm));
-				disp[v.getIndex()].add(currDisp);
+		// Last but not least: assign new coordinates
+		for (int v = 0; v < nodes.length; v++) {
+			double currDispNorm = 0;
+			for (int i = 0; i < d; i++) {
+				currDispNorm += disp[v * d + i] * disp[v * d + i];
 			}
-		}
-
-		// Second step: attractive forces
-		for (Edge e : edgeList) {
-			if (e == null)
+			currDispNorm = Math.sqrt(currDispNorm);
+			if (Double.isNaN(currDispNorm))
+				throw new GDTransformationException("You broke it");
+			if (currDispNorm == 0)
 				continue;
-
-			delta = getCoordinate(e.getSrc());
-			delta.subtract(getCoordinate(e.getDst()));
-			currDisp = new MDVector(delta.getDimension(),
-					delta.getCoordinates());
-			double currDispNorm = currDisp.getNorm();
-			if (Double.isNaN(currDispNorm) || currDispNorm == 0)
-				continue;
-			currDisp.divideBy(currDispNorm);
-			currDisp.multiplyWith(fa(currDispNorm));
-
-			disp[e.getSrc()].subtract(currDisp);
-			disp[e.getDst()].add(currDisp);
-		}
-
-		// Last but not least: assign new coordinates
-		for (Node v : g.getNodes()) {
-			MDVector vVector = getCoordinate(v);
-
-			currDisp = new MDVector(disp[v.getIndex()].getDimension(),
-					disp[v.getIndex()].getCoordinates());
-			double currDispNorm = currDisp.getNorm();
-			currDisp.divideBy(currDispNorm);
-			currDisp.multiplyWith(Math.min(currDispNorm, t));
-			// System.out.println("Move " + vVector + " by " + currDisp +
-			// " (calculated disp: " + disp[v.getIndex()] + ", t: " + t + ")" );
-			// System.out.println("Old pos: " + vVector );
-
-			vVector.add(currDisp);
-			vVector = setNormalized(vVector);
-			setCoordinate(v, vVector);
-
-			// System.out.println("New pos: " + vVector + " for " +
-			// v.getIndex());
+			double step = Math.min(currDispNorm, t) / currDispNorm;
+			for (int i = 0; i < d; i++) {
+				double modulus = this.moduli[i];
+				pos[v * d + i] = Math.min(modulus / 2, Math.max(modulus / -2,
+						pos[v * d + i] + disp[v * d + i] * step));
+			}
 		}
 
 		t = cool(t);
-		return g;
-	}
-
-	private double fr(Double x) {
-		return ((k * k) / x);
-	}
-
-	private double fa(Double x) {
-		return attractionFactor * ((x * x) / k);
 	}
 
 	private double cool(Double t) {
@@ -66,4 +66,13 @@ public abstract class GraphDrawingAbstract extends Transformation implements
 	}
 
 	public abstract GraphDrawingAbstract clone();
+
+	/**
+	 * plots are written via Gephi, which is not thread-safe, and copies share
+	 * the same plotter
+	 */
+	@Override
+	public boolean isParallelizable() {
+		return this.graphPlotter == null;
+	}
 }
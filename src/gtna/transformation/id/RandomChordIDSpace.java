@@ -90,21 +90,21 @@ public class RandomChordIDSpace extends Transformation {
 			ChordIdentifier[] ids = new ChordIdentifier[graph.getNodes().length];
 			if (this.uniform) {
 				BigInteger stepSize = idSpace.getModulus().divide(
-						new BigInteger("" + graph.getNodes().length));
+						BigInteger.valueOf(graph.getNodes().length));
+				BigInteger id = BigInteger.ZERO;
 				for (int i = 0; i < ids.length; i++) {
-					ids[i] = new ChordIdentifier(idSpace,
-							stepSize.multiply(new BigInteger("" + i)));
+					ids[i] = new ChordIdentifier(idSpace, id);
+					id = id.add(stepSize);
 				}
 			} else {
-				HashSet<String> idSet = new HashSet<String>();
+				HashSet<BigInteger> idSet = new HashSet<BigInteger>();
 				for (int i = 0; i < ids.length; i++) {
 					ChordIdentifier id = (ChordIdentifier) idSpace
 							.randomID(rand);
-					while (idSet.contains(id.toString())) {
+					while (!idSet.add(id.getId())) {
 						id = (ChordIdentifier) idSpace.randomID(rand);
 					}
 					ids[i] = id;
-					idSet.add(id.toString());
 				}
 			}
 			Arrays.sort(ids);
@@ -36,17 +36,15 @@
 package gtna.transformation.partition;
 
 import gtna.graph.Graph;
+import gtna.graph.partition.ConnectedComponents;
 import gtna.graph.partition.Partition;
 import gtna.transformation.Transformation;
-import gtna.util.Util;
-
-import java.util.ArrayList;
-import java.util.Stack;
 
 /**
  * @author benni uses the algorithm of Tarjan to compute the strongly connected
  *         components of the given graph http://en.wikipedia.org/wiki/Tarjan
- *         's_strongly_connected_components_algorithm
+ *         's_strongly_connected_components_algorithm (iterative version, see
+ *         ConnectedComponents)
  */
 public class StrongConnectivityPartition extends Transformation {
 
@@ -54,59 +52,27 @@ public class StrongConnectivityPartition extends Transformation {
 		super("STRONG_CONNECTIVITY_PARTITION");
 	}
 
-	private int index;
-
 	@Override
 	public Graph transform(Graph g) {
-		ArrayList<ArrayList<Integer>> components = new ArrayList<ArrayList<Integer>>();
-		int[] index = Util.initIntArray(g.getNodes().length, -1);
-		int[] lowlink = new int[g.getNodes().length];
-		Stack<Integer> S = new Stack<Integer>();
-		this.index = 0;
-
-		for (int v = 0; v < g.getNodes().length; v++) {
-			if (index[v] == -1) {
-				this.strongConnect(v, g, index, lowlink, S, components);
-			}
-		}
-
-		Partition p = new Partition(components);
+		Partition p = StrongConnectivityPartition.getStrongPartition(g, null);
 		g.addProperty(g.getNextKey("STRONG_CONNECTIVITY_PARTITION"), p);
 		g.addProperty(g.getNextKey("PARTITION"), p);
 
 		return g;
 	}
 
-	private void strongConnect(int v, Graph g, int[] index, int[] lowlink,
-			Stack<Integer> S, ArrayList<ArrayList<Integer>> components) {
-		// Set the depth index for v to the smallest unused index
-		index[v] = this.index;
-		lowlink[v] = this.index;
-		this.index++;
-		S.push(v);
-
-		// Consider successors of v
-		for (int w : g.getNode(v).getOutgoingEdges()) {
-			if (index[w] == -1) {
-				// Successor w has not yet been visited; recurse on it
-				this.strongConnect(w, g, index, lowlink, S, components);
-				lowlink[v] = Math.min(lowlink[v], lowlink[w]);
-			} else if (S.contains(w)) {
-				// Successor w is in stack S and hence in the current SCC
-				lowlink[v] = Math.min(lowlink[v], index[w]);
-			}
-		}
-
-		// If v is a root node, pop the stack and generate an SCC
-		if (lowlink[v] == index[v]) {
-			ArrayList<Integer> newComponent = new ArrayList<Integer>();
-			int w = -1;
-			while (w != v) {
-				w = S.pop();
-				newComponent.add(w);
-			}
-			components.add(newComponent);
-		}
+	/**
+	 * @param g
+	 *            graph
+	 * @param exclude
+	 *            nodes that are not considered (may be null)
+	 * @return partition of the remaining nodes into strongly connected
+	 *         components
+	 */
+	public static Partition getStrongPartition(Graph g, boolean[] exclude) {
+		int[] labels = new int[g.getNodeCount()];
+		int count = ConnectedComponents.strong(g.getCSR(), exclude, labels);
+		return new Partition(labels, count);
 	}
 
 	@Override
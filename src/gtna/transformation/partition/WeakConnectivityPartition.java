@@ -36,14 +36,10 @@
 package gtna.transformation.partition;
 
 import gtna.graph.Graph;
-import gtna.graph.Node;
+import gtna.graph.partition.ConnectedComponents;
 import gtna.graph.partition.Partition;
 import gtna.transformation.Transformation;
 
-import java.util.ArrayList;
-import java.util.LinkedList;
-import java.util.Queue;
-
 /**
  * @author benni
  * 
@@ -56,8 +52,7 @@ public class WeakConnectivityPartition extends Transformation {
 
 	@Override
 	public Graph transform(Graph g) {
-		boolean[] seen = new boolean[g.getNodes().length];
-		Partition p = WeakConnectivityPartition.getWeakPartition(g, seen);
+		Partition p = WeakConnectivityPartition.getWeakPartition(g, null);
 		g.addProperty(g.getNextKey("WEAK_CONNECTIVITY_PARTITION"), p);
 		g.addProperty(g.getNextKey("PARTITION"), p);
 		return g;
@@ -68,36 +63,18 @@ public class WeakConnectivityPartition extends Transformation {
 		return true;
 	}
 
-	public static Partition getWeakPartition(Graph g, boolean[] seen) {
-		ArrayList<ArrayList<Integer>> components = new ArrayList<ArrayList<Integer>>();
-		for (int start = 0; start < seen.length; start++) {
-			if (seen[start]) {
-				continue;
-			}
-			seen[start] = true;
-			ArrayList<Integer> current = new ArrayList<Integer>();
-			Queue<Integer> queue = new LinkedList<Integer>();
-			queue.add(start);
-			seen[start] = true;
-			while (!queue.isEmpty()) {
-				Node node = g.getNode(queue.poll());
-				current.add(node.getIndex());
-				for (int out : node.getOutgoingEdges()) {
-					if (!seen[out]) {
-						queue.add(out);
-						seen[out] = true;
-					}
-				}
-				for (int in : node.getIncomingEdges()) {
-					if (!seen[in]) {
-						queue.add(in);
-						seen[in] = true;
-					}
-				}
-			}
-			components.add(current);
-		}
-		return new Partition(components);
+	/**
+	 * @param g
+	 *            graph
+	 * @param exclude
+	 *            nodes that are not considered (may be null)
+	 * @return partition of the remaining nodes into weakly connected
+	 *         components
+	 */
+	public static Partition getWeakPartition(Graph g, boolean[] exclude) {
+		int[] labels = new int[g.getNodeCount()];
+		int count = ConnectedComponents.weak(g.getCSR(), exclude, labels);
+		return new Partition(labels, count);
 	}
 
 }
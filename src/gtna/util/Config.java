@@ -41,14 +41,16 @@ import gtna.metrics.Metric;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Vector;
 
 public class Config {
 	private static Properties properties;
 
-	private static HashMap<String, String> overwrite;
+	private static Map<String, String> overwrite;
 
 	private static String defaultConfigFolder = "./config/";
 
@@ -116,7 +118,7 @@ public class Config {
 			}
 			overwrite.put(key, value);
 		} catch (NullPointerException e) {
-			overwrite = new HashMap<String, String>();
+			overwrite = Collections.synchronizedMap(new HashMap<String, String>());
 			overwrite.put(key, value);
 		}
 	}
@@ -130,7 +132,7 @@ public class Config {
 	}
 
 	public static void resetAll() {
-		overwrite = new HashMap<String, String>();
+		overwrite = Collections.synchronizedMap(new HashMap<String, String>());
 	}
 
 	public static void addFile(String file) throws IOException {
@@ -0,0 +1,85 @@
+/* ===========================================================
+ * GTNA : Graph-Theoretic Network Analyzer
+ * ===========================================================
+ *
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors
+ *
+ * Project Info:  http://www.p2p.tu-darmstadt.de/research/gtna/
+ *
+ * GTNA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GTNA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ---------------------------------------
+ * DistinctSampler.java
+ * ---------------------------------------
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors 
+ *
+ * Original Author: agent;
+ * Contributors:    -;
+ *
+ * Changes since 2011-05-17
+ * ---------------------------------------
+ *
+ */
+package gtna.util;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Samples distinct values from a random source by rejecting duplicates, i.e.,
+ * sampling without replacement for distributions that can only be sampled
+ * with replacement. Sampling gives up after a number of attempts that is
+ * linear in the number of values, so that it terminates even in case the
+ * source does not produce enough distinct values.
+ * 
+ * @author agent
+ * 
+ */
+public abstract class DistinctSampler {
+	/**
+	 * @param rand
+	 * @return next (possibly duplicate) value
+	 */
+	public abstract int next(Random rand);
+
+	/**
+	 * @param count
+	 *            number of distinct values
+	 * @param rand
+	 * @return count distinct values (fewer in case they were not found within
+	 *         100 * count + 1000 attempts)
+	 */
+	public int[] sample(int count, Random rand) {
+		int[] values = new int[count];
+		int found = 0;
+		int attempts = 0;
+		int maxAttempts = 100 * count + 1000;
+		while (found < count && attempts++ < maxAttempts) {
+			int value = this.next(rand);
+			boolean duplicate = false;
+			for (int i = 0; i < found; i++) {
+				if (values[i] == value) {
+					duplicate = true;
+					break;
+				}
+			}
+			if (!duplicate) {
+				values[found++] = value;
+			}
+		}
+		return found == count ? values : Arrays.copyOf(values, found);
+	}
+}
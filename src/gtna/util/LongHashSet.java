@@ -0,0 +1,159 @@
+/* ===========================================================
+ * GTNA : Graph-Theoretic Network Analyzer
+ * ===========================================================
+ *
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors
+ *
+ * Project Info:  http://www.p2p.tu-darmstadt.de/research/gtna/
+ *
+ * GTNA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GTNA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * ---------------------------------------
+ * LongHashSet.java
+ * ---------------------------------------
+ * (C) Copyright 2009-2011, by Benjamin Schiller (P2P, TU Darmstadt)
+ * and Contributors 
+ *
+ * Original Author: agent;
+ * Contributors:    -;
+ *
+ * Changes since 2011-05-17
+ * ---------------------------------------
+ *
+ */
+package gtna.util;
+
+/**
+ * Set of primitive long values implemented as an open-addressing hash table
+ * with linear probing. In contrast to a HashSet&lt;Long&gt;, no objects are
+ * allocated for the stored values. The table is kept at most half full and
+ * doubled in size when this bound is exceeded.
+ *
+ * The value 0 is used to mark free slots in the table, whether it is contained
+ * in the set is stored separately.
+ *
+ * @author agent
+ *
+ */
+public class LongHashSet {
+	private static final int MAX_INITIAL_CAPACITY = 1 << 24;
+
+	private long[] table;
+
+	private int mask;
+
+	private int size;
+
+	private boolean containsZero;
+
+	public LongHashSet() {
+		this(16);
+	}
+
+	/**
+	 * @param expected
+	 *            expected number of elements, the initial table is large enough
+	 *            to hold them without re-hashing (capped at 2^24 elements)
+	 */
+	public LongHashSet(int expected) {
+		int capacity = 2;
+		int max = Math.min(Math.max(expected, 1), MAX_INITIAL_CAPACITY);
+		while (capacity < 2 * max) {
+			capacity <<= 1;
+		}
+		this.table = new long[capacity];
+		this.mask = capacity - 1;
+		this.size = 0;
+		this.containsZero = false;
+	}
+
+	/**
+	 * @param value
+	 * @return true if the value was not contained in the set before
+	 */
+	public boolean add(long value) {
+		if (value == 0) {
+			if (this.containsZero) {
+				return false;
+			}
+			this.containsZero = true;
+			this.size++;
+			return true;
+		}
+		int slot = LongHashSet.hash(value) & this.mask;
+		while (this.table[slot] != 0) {
+			if (this.table[slot] == value) {
+				return false;
+			}
+			slot = (slot + 1) & this.mask;
+		}
+		this.table[slot] = value;
+		this.size++;
+		if (2 * this.size > this.table.length) {
+			this.rehash(this.table.length << 1);
+		}
+		return true;
+	}
+
+	public boolean contains(long value) {
+		if (value == 0) {
+			return this.containsZero;
+		}
+		int slot = LongHashSet.hash(value) & this.mask;
+		while (this.table[slot] != 0) {
+			if (this.table[slot] == value) {
+				return true;
+			}
+			slot = (slot + 1) & this.mask;
+		}
+		return false;
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+	private void rehash(int capacity) {
+		long[] old = this.table;
+		this.table = new long[capacity];
+		this.mask = capacity - 1;
+		for (long value : old) {
+			if (value == 0) {
+				continue;
+			}
+			int slot = LongHashSet.hash(value) & this.mask;
+			while (this.table[slot] != 0) {
+				slot = (slot + 1) & this.mask;
+			}
+			this.table[slot] = value;
+		}
+	}
+
+	/**
+	 * finalization step of MurmurHash3, spreads the bits of packed int pairs
+	 * over the whole long before the table index is taken from the lower bits
+	 *
+	 * @param value
+	 * @return hash of the given value
+	 */
+	private static int hash(long value) {
+		value ^= value >>> 33;
+		value *= 0xff51afd7ed558ccdL;
+		value ^= value >>> 33;
+		value *= 0xc4ceb9fe1a85ec53L;
+		value ^= value >>> 33;
+		return (int) value;
+	}
+}